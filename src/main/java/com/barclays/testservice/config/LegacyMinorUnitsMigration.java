@@ -0,0 +1,63 @@
+package com.barclays.testservice.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/*
+    Moves balances and amounts from the DOUBLE pounds columns to BIGINT minor units (pence),
+    once, for a database created before the change. Only a table that still has its legacy
+    column is touched: adding or dropping a column rewrites the whole table in H2, which a
+    large transaction table should not pay for on every start.
+
+    Runs before Hibernate's schema update, so Hibernate finds the minor unit columns already
+    there and never tries to add them NOT NULL to tables that have rows.
+ */
+@Configuration(proxyBeanMethods = false)
+@Slf4j
+public class LegacyMinorUnitsMigration {
+
+    private static final String FIND_COLUMN =
+            "SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = CURRENT_SCHEMA AND TABLE_NAME = ? AND COLUMN_NAME = ?";
+
+    private static final List<LegacyColumn> LEGACY_COLUMNS = List.of(
+            new LegacyColumn("BANKACCOUNT", "BALANCE", "BALANCE_MINOR"),
+            new LegacyColumn("BANKACCOUNT_SUB_BALANCE", "BALANCE", "BALANCE_MINOR"),
+            new LegacyColumn("TRANSACTION", "AMOUNT", "AMOUNT_MINOR"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private record LegacyColumn(String table, String pounds, String minor) {
+    }
+
+    public LegacyMinorUnitsMigration(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnLegacyMinorUnitsMigration() {
+        return new EntityManagerFactoryDependsOnPostProcessor(LegacyMinorUnitsMigration.class);
+    }
+
+    @PostConstruct
+    void migrate() {
+        for(var column : LEGACY_COLUMNS) {
+            if(jdbcTemplate.queryForObject(FIND_COLUMN, Integer.class, column.table(), column.pounds()) == 0) {
+                continue;
+            }
+
+            log.info("Moving {}.{} to minor units", column.table(), column.pounds());
+            // Each step can be run again, should the service stop part way through
+            jdbcTemplate.execute("ALTER TABLE " + column.table() + " ADD COLUMN IF NOT EXISTS " + column.minor() + " BIGINT DEFAULT 0 NOT NULL");
+            jdbcTemplate.update("UPDATE " + column.table() + " SET " + column.minor() + " = CAST(ROUND(" + column.pounds() + " * 100) AS BIGINT)"
+                    + " WHERE " + column.pounds() + " IS NOT NULL");
+            jdbcTemplate.execute("ALTER TABLE " + column.table() + " DROP COLUMN " + column.pounds());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.barclays.testservice.config;
+
+import com.barclays.testservice.model.ErrorResponse;
+import com.barclays.testservice.service.ratelimit.RateLimiter;
+import com.barclays.testservice.service.ratelimit.TokenBucket;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Two of these run on every request, before any controller. The one for client addresses
+    runs before the bearer token is authenticated, so requests with invalid tokens are
+    limited too; the one for users runs after, and charges only authenticated requests. One
+    user can not use up the limit of others behind the same address and a user spread over
+    many addresses is still held to theirs. A request over either limit is answered 429 with
+    Retry-After, without taking a database connection.
+
+    Only the request dispatch is charged, not the async dispatches of streamed exports and
+    server-sent events, nor error dispatches; the request thread is released when the
+    response is handed over. A plain Filter rather than OncePerRequestFilter, whose request
+    attribute bookkeeping cost more than the limit itself (see RateLimitBenchmark).
+ */
+public class RateLimitFilter implements Filter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final RateLimiter rateLimiter;
+    private final boolean byUser;
+    private final byte[] tooManyRequests;
+
+    private RateLimitFilter(RateLimiter rateLimiter, boolean byUser, ObjectMapper objectMapper) throws JsonProcessingException {
+        this.rateLimiter = rateLimiter;
+        this.byUser = byUser;
+        this.tooManyRequests = objectMapper.writeValueAsBytes(new ErrorResponse("Too many requests, please retry later"));
+    }
+
+    public static RateLimitFilter byClientAddress(RateLimiter rateLimiter, ObjectMapper objectMapper) throws JsonProcessingException {
+        return new RateLimitFilter(rateLimiter, false, objectMapper);
+    }
+
+    public static RateLimitFilter byUser(RateLimiter rateLimiter, ObjectMapper objectMapper) throws JsonProcessingException {
+        return new RateLimitFilter(rateLimiter, true, objectMapper);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if(!rateLimiter.isEnabled() || request.getDispatcherType() != DispatcherType.REQUEST) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        var bucket = bucket(request);
+        if(bucket == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        var wait = bucket.tryAcquire(System.nanoTime());
+        if(wait > 0) {
+            reject(response, wait);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bucket.release();
+        }
+    }
+
+    private TokenBucket bucket(ServletRequest request) {
+        if(!byUser) {
+            return rateLimiter.clientBucket(request.getRemoteAddr());
+        }
+        // Requests to the open endpoints have no token, they are limited by address only
+        if(SecurityContextHolder.getContext().getAuthentication() instanceof JwtAuthenticationToken authentication) {
+            return rateLimiter.userBucket(authentication.getName());
+        }
+        return null;
+    }
+
+    private void reject(ServletResponse servletResponse, long waitNanos) throws IOException {
+        var response = (HttpServletResponse) servletResponse;
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        // Whole seconds, rounded up so a client that waits exactly that long is admitted
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(tooManyRequests.length);
+        response.getOutputStream().write(tooManyRequests);
+    }
+}
@@ -1,5 +1,7 @@
 package com.barclays.testservice.config;
 
+import com.barclays.testservice.service.ratelimit.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,6 +16,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 
 import javax.crypto.spec.SecretKeySpec;
@@ -25,7 +28,7 @@ public class SecurityConfig {
     @Value("${jwt.secret-key}") String jwtSecretKey;
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, RateLimiter rateLimiter, ObjectMapper objectMapper) throws Exception {
         /*
             Allow only: POST auth token and create user end points,
             the rest requires authentication
@@ -42,6 +45,11 @@ public class SecurityConfig {
                         oauth2 -> oauth2.jwt(Customizer.withDefaults())
                 ).sessionManagement(
                         sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                // Not beans, Spring Boot would also register them with the servlet container
+                ).addFilterBefore(
+                        RateLimitFilter.byClientAddress(rateLimiter, objectMapper), BearerTokenAuthenticationFilter.class
+                ).addFilterAfter(
+                        RateLimitFilter.byUser(rateLimiter, objectMapper), BearerTokenAuthenticationFilter.class
                 );
         return http.build();
     }
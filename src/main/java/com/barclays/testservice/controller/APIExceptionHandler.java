@@ -4,7 +4,9 @@ import com.barclays.testservice.exception.*;
 import com.barclays.testservice.model.BadRequestErrorResponse;
 import com.barclays.testservice.model.BadRequestErrorResponseDetailsInner;
 import com.barclays.testservice.model.ErrorResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -13,10 +15,14 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 @ControllerAdvice
 public class APIExceptionHandler extends ResponseEntityExceptionHandler {
 
+    // Errors are always JSON, also for requests that only accept a streaming format such as application/x-ndjson
+    private static final HttpHeaders JSON = jsonHeaders();
+
     @ExceptionHandler(InvalidDetailsSuppliedException.class)
     public ResponseEntity<ErrorResponse> handleInvalidDetailsSupplied(InvalidDetailsSuppliedException e) {
         return new ResponseEntity<>(
                 new ErrorResponse("Invalid details supplied"),
+                JSON,
                 HttpStatus.valueOf(400)
         );
     }
@@ -25,6 +31,7 @@ public class APIExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<ErrorResponse> handleInvalidUserCredentialsSupplied(InvalidUserCredentialsSuppliedException e) {
         return new ResponseEntity<>(
                 new ErrorResponse("Invalid user credentials details supplied"),
+                JSON,
                 HttpStatus.valueOf(401)
         );
     }
@@ -33,6 +40,7 @@ public class APIExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<ErrorResponse> handleUserNotAllowed(UserNotAllowedException e) {
         return new ResponseEntity<>(
                 new ErrorResponse("The user is not allowed to access the transaction"),
+                JSON,
                 HttpStatus.valueOf(403)
         );
     }
@@ -41,6 +49,7 @@ public class APIExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<ErrorResponse> handleUserNotAllowed(UserHasAccountsException e) {
         return new ResponseEntity<>(
                 new ErrorResponse("A user cannot be deleted when they are associated with a bank account"),
+                JSON,
                 HttpStatus.valueOf(409)
         );
     }
@@ -49,6 +58,7 @@ public class APIExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<ErrorResponse> handleUserNotFound(UserNotFoundException e) {
         return new ResponseEntity<>(
                 new ErrorResponse("User was not found"),
+                JSON,
                 HttpStatus.valueOf(404)
         );
     }
@@ -57,6 +67,7 @@ public class APIExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<ErrorResponse> handleBankAccountNotFound(BankAccountNotFoundException e) {
         return new ResponseEntity<>(
                 new ErrorResponse("Bank Account was not found"),
+                JSON,
                 HttpStatus.valueOf(404)
         );
     }
@@ -65,6 +76,7 @@ public class APIExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<ErrorResponse> handleBankAccountNotFound(TransactionNotFoundException e) {
         return new ResponseEntity<>(
                 new ErrorResponse("Transaction was not found"),
+                JSON,
                 HttpStatus.valueOf(404)
         );
     }
@@ -73,10 +85,83 @@ public class APIExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<ErrorResponse> handleBankAccountNotFound(InsufficientFundsException e) {
         return new ResponseEntity<>(
                 new ErrorResponse("Insufficient funds to process transaction"),
+                JSON,
+                HttpStatus.valueOf(422)
+        );
+    }
+
+    @ExceptionHandler(WithdrawalLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleWithdrawalLimitExceeded(WithdrawalLimitExceededException e) {
+        return new ResponseEntity<>(
+                new ErrorResponse("The withdrawal would exceed the limits on the bank account or user"),
+                JSON,
+                HttpStatus.valueOf(422)
+        );
+    }
+
+    @ExceptionHandler(BalanceUpdateConflictException.class)
+    public ResponseEntity<ErrorResponse> handleBalanceUpdateConflict(BalanceUpdateConflictException e) {
+        return new ResponseEntity<>(
+                new ErrorResponse("The bank account was updated concurrently, please retry the transaction"),
+                JSON,
+                HttpStatus.valueOf(409)
+        );
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyReused(IdempotencyKeyReusedException e) {
+        return new ResponseEntity<>(
+                new ErrorResponse("The Idempotency-Key was already used for a different request"),
+                JSON,
                 HttpStatus.valueOf(422)
         );
     }
 
+    @ExceptionHandler(IdempotentRequestPendingException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotentRequestPending(IdempotentRequestPendingException e) {
+        return new ResponseEntity<>(
+                new ErrorResponse("The request with this Idempotency-Key is still being processed, please retry later"),
+                JSON,
+                HttpStatus.valueOf(409)
+        );
+    }
+
+    @ExceptionHandler(PostingQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handlePostingQueueFull(PostingQueueFullException e) {
+        return new ResponseEntity<>(
+                new ErrorResponse("The posting queue is full, please retry later"),
+                JSON,
+                HttpStatus.valueOf(503)
+        );
+    }
+
+    @ExceptionHandler(AccountNumbersExhaustedException.class)
+    public ResponseEntity<ErrorResponse> handleAccountNumbersExhausted(AccountNumbersExhaustedException e) {
+        return new ResponseEntity<>(
+                new ErrorResponse("No account numbers are left, the bank account can not be created"),
+                JSON,
+                HttpStatus.valueOf(503)
+        );
+    }
+
+    @ExceptionHandler(ReconciliationNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleReconciliationNotFound(ReconciliationNotFoundException e) {
+        return new ResponseEntity<>(
+                new ErrorResponse("Reconciliation run was not found"),
+                JSON,
+                HttpStatus.valueOf(404)
+        );
+    }
+
+    @ExceptionHandler(ReconciliationRunningException.class)
+    public ResponseEntity<ErrorResponse> handleReconciliationRunning(ReconciliationRunningException e) {
+        return new ResponseEntity<>(
+                new ErrorResponse("A reconciliation run is already in progress"),
+                JSON,
+                HttpStatus.valueOf(409)
+        );
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<BadRequestErrorResponse> handleUnexpected(Exception e) {
         return new ResponseEntity<>(
@@ -89,8 +174,14 @@ public class APIExceptionHandler extends ResponseEntityExceptionHandler {
                                         "UNEXPECTED_ERROR"
                                 )
                         ),
+                JSON,
                 HttpStatus.valueOf(500)
         );
     }
 
+    private static HttpHeaders jsonHeaders() {
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
 }
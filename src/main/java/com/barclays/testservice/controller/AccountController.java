@@ -3,12 +3,15 @@ package com.barclays.testservice.controller;
 import com.barclays.testservice.api.AccountApi;
 import com.barclays.testservice.model.*;
 import com.barclays.testservice.service.AccountService;
+import com.barclays.testservice.service.rollup.AccountActivity;
+import com.barclays.testservice.util.MoneyUtil;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.stream.Collectors;
@@ -42,7 +45,12 @@ public class AccountController implements AccountApi {
     }
 
     @Override
-    public ResponseEntity<BankAccountResponse> fetchAccountByAccountNumber(String accountNumber) {
+    public ResponseEntity<BankAccountResponse> fetchAccountByAccountNumber(String accountNumber, String ifNoneMatch) {
+        var etag = accountService.getAccountTag(accountNumber, getAuthUserId());
+        if(ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+            return ConditionalResponses.notModified(etag);
+        }
+
         return new ResponseEntity<>(
                 toBankAccountResponse(
                         accountService.getAccountByAccountNumber(
@@ -50,12 +58,18 @@ public class AccountController implements AccountApi {
                                 getAuthUserId()
                         )
                 ),
+                ConditionalResponses.withETag(etag),
                 HttpStatus.valueOf(200)
         );
     }
 
     @Override
-    public ResponseEntity<ListBankAccountsResponse> listAccounts() {
+    public ResponseEntity<ListBankAccountsResponse> listAccounts(String ifNoneMatch) {
+        var etag = accountService.getAccountsTag(getAuthUserId());
+        if(ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+            return ConditionalResponses.notModified(etag);
+        }
+
         return new ResponseEntity<>(
                 new ListBankAccountsResponse(
                     accountService.getAccountsByUserId(getAuthUserId())
@@ -63,6 +77,7 @@ public class AccountController implements AccountApi {
                             .collect(Collectors.toList()
                     )
                 ),
+                ConditionalResponses.withETag(etag),
                 HttpStatus.valueOf(200)
         );
     }
@@ -81,6 +96,37 @@ public class AccountController implements AccountApi {
         );
     }
 
+    @Override
+    public ResponseEntity<BankAccountResponse> updateSubBalances(String accountNumber, UpdateSubBalancesRequest updateSubBalancesRequest) {
+        return new ResponseEntity<>(
+                toBankAccountResponse(
+                        accountService.updateSubBalanceSlots(
+                                accountNumber,
+                                updateSubBalancesRequest.getSlots(),
+                                getAuthUserId()
+                        )
+                ),
+                HttpStatus.valueOf(200)
+        );
+    }
+
+    @Override
+    public ResponseEntity<AccountActivityResponse> fetchAccountActivity(String accountNumber, LocalDate from, LocalDate to) {
+        return new ResponseEntity<>(
+                toAccountActivityResponse(
+                        accountService.getAccountActivity(
+                                accountNumber,
+                                from,
+                                to,
+                                getAuthUserId()
+                        ),
+                        from,
+                        to
+                ),
+                HttpStatus.valueOf(200)
+        );
+    }
+
     private String getAuthUserId() {
         return SecurityContextHolder.getContext().getAuthentication().getName();
     }
@@ -92,13 +138,25 @@ public class AccountController implements AccountApi {
                 BankAccountResponse.SortCodeEnum.fromValue(bankAccount.getSortCode()),
                 bankAccount.getName(),
                 BankAccountResponse.AccountTypeEnum.fromValue(bankAccount.getAccountType()),
-                bankAccount.getBalance(),
+                MoneyUtil.toMajorUnits(bankAccount.getBalance()),
                 BankAccountResponse.CurrencyEnum.fromValue(bankAccount.getCurrency()),
                 OffsetDateTime.ofInstant(bankAccount.getCreatedOn(), ZoneId.systemDefault()),
                 OffsetDateTime.ofInstant(bankAccount.getLastUpdatedOn(), ZoneId.systemDefault())
         );
     }
 
+    private AccountActivityResponse toAccountActivityResponse(AccountActivity accountActivity, LocalDate from, LocalDate to) {
+        return new AccountActivityResponse(
+                from,
+                to,
+                MoneyUtil.toMajorUnits(accountActivity.creditMinor()),
+                accountActivity.creditCount(),
+                MoneyUtil.toMajorUnits(accountActivity.debitMinor()),
+                accountActivity.debitCount(),
+                MoneyUtil.toMajorUnits(accountActivity.netMovement())
+        );
+    }
+
     private BankAccount fromCreateBankAccountRequest(CreateBankAccountRequest createBankAccountRequest) {
         return BankAccount.builder()
                 .name(createBankAccountRequest.getName())
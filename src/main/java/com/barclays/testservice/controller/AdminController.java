@@ -0,0 +1,119 @@
+package com.barclays.testservice.controller;
+
+import com.barclays.testservice.api.AdminApi;
+import com.barclays.testservice.model.CacheStatisticsResponse;
+import com.barclays.testservice.model.ListCacheStatisticsResponse;
+import com.barclays.testservice.model.ReconciliationDrift;
+import com.barclays.testservice.model.ReconciliationDriftResponse;
+import com.barclays.testservice.model.ReconciliationResponse;
+import com.barclays.testservice.model.ReconciliationRun;
+import com.barclays.testservice.service.CacheStatisticsService;
+import com.barclays.testservice.service.ReconciliationService;
+import com.barclays.testservice.service.account.AccountCacheStatistics;
+import com.barclays.testservice.util.MoneyUtil;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@AllArgsConstructor
+public class AdminController implements AdminApi {
+
+    private final ReconciliationService reconciliationService;
+    private final CacheStatisticsService cacheStatisticsService;
+
+    @Override
+    public ResponseEntity<ReconciliationResponse> startReconciliation() {
+        return new ResponseEntity<>(
+                toReconciliationResponse(
+                        reconciliationService.startReconciliation(
+                                getAuthUserId()
+                        ),
+                        List.of()
+                ),
+                HttpStatus.valueOf(202)
+        );
+    }
+
+    @Override
+    public ResponseEntity<ReconciliationResponse> fetchReconciliation(String runId) {
+        var report = reconciliationService.getReconciliation(runId, getAuthUserId());
+        return new ResponseEntity<>(
+                toReconciliationResponse(report.run(), report.drifts()),
+                HttpStatus.valueOf(200)
+        );
+    }
+
+    @Override
+    public ResponseEntity<ReconciliationResponse> resumeReconciliation(String runId) {
+        return new ResponseEntity<>(
+                toReconciliationResponse(
+                        reconciliationService.resumeReconciliation(
+                                runId,
+                                getAuthUserId()
+                        ),
+                        List.of()
+                ),
+                HttpStatus.valueOf(202)
+        );
+    }
+
+    @Override
+    public ResponseEntity<ListCacheStatisticsResponse> listCacheStatistics() {
+        return new ResponseEntity<>(
+                new ListCacheStatisticsResponse(
+                        cacheStatisticsService.getCacheStatistics(getAuthUserId()).stream()
+                                .map(this::toCacheStatisticsResponse)
+                                .toList()
+                ),
+                HttpStatus.valueOf(200)
+        );
+    }
+
+    private String getAuthUserId() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    // Rest / Domain Object Converters
+    private ReconciliationResponse toReconciliationResponse(ReconciliationRun run, List<ReconciliationDrift> drifts) {
+        return new ReconciliationResponse(
+                run.getId(),
+                ReconciliationResponse.StatusEnum.fromValue(run.getStatus()),
+                run.getRangeCount(),
+                run.getRangesCompleted(),
+                run.getAccountsChecked(),
+                run.getDriftCount(),
+                OffsetDateTime.ofInstant(run.getStartedOn(), ZoneId.systemDefault())
+        )
+                .finishedOn(run.getFinishedOn() == null ? null : OffsetDateTime.ofInstant(run.getFinishedOn(), ZoneId.systemDefault()))
+                .drifts(drifts.stream()
+                        .map(this::toReconciliationDriftResponse)
+                        .collect(Collectors.toList()));
+    }
+
+    private ReconciliationDriftResponse toReconciliationDriftResponse(ReconciliationDrift drift) {
+        return new ReconciliationDriftResponse(
+                drift.getAccountNumber(),
+                MoneyUtil.toMajorUnits(drift.getBalanceMinor()),
+                MoneyUtil.toMajorUnits(drift.getTransactionSumMinor())
+        );
+    }
+
+    private CacheStatisticsResponse toCacheStatisticsResponse(AccountCacheStatistics statistics) {
+        return new CacheStatisticsResponse(
+                statistics.name(),
+                statistics.size(),
+                statistics.hits(),
+                statistics.misses(),
+                statistics.evictions()
+        )
+                .balanceReloadCount(statistics.balanceReloads());
+    }
+}
@@ -0,0 +1,55 @@
+package com.barclays.testservice.controller;
+
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/*
+    If-None-Match handling for the GETs answered with an ETag. Controllers take the current
+    tag from the resource's version stamp and decide on it before loading anything, so an
+    unchanged resource is answered 304 with no body to read or serialise.
+ */
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    // If-None-Match compares weakly (RFC 9110), a W/ tag from an intermediary still matches
+    static boolean isNotModified(String ifNoneMatch, String etag) {
+        if(ifNoneMatch == null) {
+            return false;
+        }
+        var current = ETag.create(etag);
+        return ETag.parse(ifNoneMatch).stream()
+                .anyMatch(tag -> tag.isWildcard() || tag.compare(current, false));
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return notModified(withETag(etag));
+    }
+
+    static <T> ResponseEntity<T> notModified(HttpHeaders headers) {
+        return new ResponseEntity<>(headers, HttpStatus.valueOf(304));
+    }
+
+    static HttpHeaders withETag(String etag) {
+        var headers = new HttpHeaders();
+        headers.setETag(etag);
+        return headers;
+    }
+
+    // Tag of another representation of the same resource, so a cache never takes one for the other
+    static String representationTag(String etag, String representation) {
+        return etag.substring(0, etag.length() - 1) + "-" + representation + "\"";
+    }
+
+    // Headers of a resource whose representation is chosen by the Accept header
+    static HttpHeaders withETagVaryingByAccept(String etag) {
+        var headers = withETag(etag);
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+        return headers;
+    }
+}
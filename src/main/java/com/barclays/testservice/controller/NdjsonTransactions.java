@@ -0,0 +1,31 @@
+package com.barclays.testservice.controller;
+
+import com.barclays.testservice.model.ListTransactionsResponse;
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.model.TransactionResponse;
+import com.barclays.testservice.service.export.TransactionExport;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*
+    Body of listAccountTransaction when application/x-ndjson is asked for. It is declared a
+    ListTransactionsResponse, as the generated interface returns one, but carries no list:
+    NdjsonTransactionsConverter writes each transaction of the export as it is read.
+ */
+final class NdjsonTransactions extends ListTransactionsResponse {
+
+    static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private final TransactionExport export;
+    private final Function<Transaction, TransactionResponse> toResponse;
+
+    NdjsonTransactions(TransactionExport export, Function<Transaction, TransactionResponse> toResponse) {
+        this.export = export;
+        this.toResponse = toResponse;
+    }
+
+    void forEach(Consumer<TransactionResponse> consumer) {
+        export.forEach(transaction -> consumer.accept(toResponse.apply(transaction)));
+    }
+}
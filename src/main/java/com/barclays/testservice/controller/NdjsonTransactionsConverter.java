@@ -0,0 +1,61 @@
+package com.barclays.testservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/*
+    Writes NdjsonTransactions as one JSON line per transaction, straight to the response, so
+    the whole list is never held in memory. Registered with the other converters by Spring
+    Boot, as it is a bean.
+ */
+@Component
+class NdjsonTransactionsConverter extends AbstractHttpMessageConverter<NdjsonTransactions> {
+
+    private final ObjectMapper objectMapper;
+
+    NdjsonTransactionsConverter(ObjectMapper objectMapper) {
+        super(MediaType.parseMediaType(NdjsonTransactions.MEDIA_TYPE));
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return NdjsonTransactions.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected NdjsonTransactions readInternal(Class<? extends NdjsonTransactions> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("NDJSON transactions are only written", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(NdjsonTransactions transactions, HttpOutputMessage outputMessage) throws IOException {
+        var writer = objectMapper.writer();
+        var out = outputMessage.getBody();
+        try {
+            transactions.forEach(transaction -> {
+                try {
+                    out.write(writer.writeValueAsBytes(transaction));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
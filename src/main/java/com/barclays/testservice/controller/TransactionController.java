@@ -1,19 +1,38 @@
 package com.barclays.testservice.controller;
 
 import com.barclays.testservice.api.TransactionApi;
+import com.barclays.testservice.model.AccountEventResponse;
 import com.barclays.testservice.model.CreateTransactionRequest;
+import com.barclays.testservice.model.CreateTransferRequest;
 import com.barclays.testservice.model.ListTransactionsResponse;
+import com.barclays.testservice.model.PostingResponse;
+import com.barclays.testservice.model.StatementResponse;
 import com.barclays.testservice.model.Transaction;
 import com.barclays.testservice.model.TransactionResponse;
+import com.barclays.testservice.model.TransferResponse;
+import com.barclays.testservice.service.StatementService;
 import com.barclays.testservice.service.TransactionService;
+import com.barclays.testservice.service.events.AccountEvent;
+import com.barclays.testservice.service.events.AccountEventSink;
+import com.barclays.testservice.service.paging.TransactionFilter;
+import com.barclays.testservice.service.posting.PostingStatus;
+import com.barclays.testservice.service.statement.Statement;
+import com.barclays.testservice.util.MoneyUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.time.OffsetDateTime;
+import java.time.YearMonth;
 import java.time.ZoneId;
+import java.util.Comparator;
 import java.util.stream.Collectors;
 
 @RestController
@@ -21,14 +40,17 @@ import java.util.stream.Collectors;
 public class TransactionController implements TransactionApi {
 
     private final TransactionService transactionService;
+    private final StatementService statementService;
+    private final HttpServletRequest request;
 
     @Override
-    public ResponseEntity<TransactionResponse> createTransaction(String accountNumber, CreateTransactionRequest createTransactionRequest) {
+    public ResponseEntity<TransactionResponse> createTransaction(String accountNumber, CreateTransactionRequest createTransactionRequest, String idempotencyKey) {
         return new ResponseEntity<>(
                 toTransactionResponse(
                         transactionService.createTransaction(
                                 fromCreateTransactionRequest(createTransactionRequest),
                                 accountNumber,
+                                idempotencyKey,
                                 getAuthUserId()
                         )
                 ),
@@ -50,41 +72,243 @@ public class TransactionController implements TransactionApi {
         );
     }
 
+    /*
+        With Accept: application/x-ndjson every transaction is written as one JSON line as it is
+        read from the database, instead of building the whole list in memory first. The two
+        representations are tagged apart and the response varies by Accept.
+     */
     @Override
-    public ResponseEntity<ListTransactionsResponse> listAccountTransaction(String accountNumber) {
+    public ResponseEntity<ListTransactionsResponse> listAccountTransaction(String accountNumber, Integer limit, String cursor,
+                                                                           OffsetDateTime from, OffsetDateTime to, String type,
+                                                                           Double minAmount, Double maxAmount, String ifNoneMatch) {
+        var filter = new TransactionFilter(
+                from == null ? null : from.toInstant(),
+                to == null ? null : to.toInstant(),
+                type,
+                minAmount == null ? null : MoneyUtil.toMinorUnits(minAmount),
+                maxAmount == null ? null : MoneyUtil.toMinorUnits(maxAmount)
+        );
+        var ndjson = prefersNdjson();
+        var etag = transactionService.getTransactionsTag(accountNumber, filter, cursor, getAuthUserId());
+        if(ndjson) {
+            etag = ConditionalResponses.representationTag(etag, "ndjson");
+        }
+        var headers = ConditionalResponses.withETagVaryingByAccept(etag);
+        if(ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+            return ConditionalResponses.notModified(headers);
+        }
+
+        if(ndjson) {
+            var authUserId = getAuthUserId();
+            headers.setContentType(MediaType.parseMediaType(NdjsonTransactions.MEDIA_TYPE));
+            return new ResponseEntity<>(
+                    new NdjsonTransactions(
+                            transactionService.exportTransactionsByAccount(accountNumber, authUserId),
+                            transaction -> toTransactionResponse(transaction, authUserId)
+                    ),
+                    headers,
+                    HttpStatus.valueOf(200)
+            );
+        }
+
+        var page = transactionService.getTransactionsByAccount(accountNumber, filter, limit, cursor, getAuthUserId());
         return new ResponseEntity<>(
                 new ListTransactionsResponse(
-                        transactionService.getTransactionsByAccount(accountNumber, getAuthUserId())
+                        page.transactions()
                                 .stream().map(this::toTransactionResponse)
                                 .collect(Collectors.toList()
                                 )
+                ).nextCursor(page.nextCursor()),
+                headers,
+                HttpStatus.valueOf(200)
+        );
+    }
+
+    @Override
+    public ResponseEntity<ListTransactionsResponse> listAccountTransactionsByReference(String accountNumber, String reference) {
+        return new ResponseEntity<>(
+                new ListTransactionsResponse(
+                        transactionService.getTransactionsByReference(accountNumber, reference, getAuthUserId())
+                                .stream().map(this::toTransactionResponse)
+                                .collect(Collectors.toList())
+                ),
+                HttpStatus.valueOf(200)
+        );
+    }
+
+    @Override
+    public ResponseEntity<StatementResponse> fetchStatement(String accountNumber, String month, Integer limit, String cursor) {
+        return new ResponseEntity<>(
+                toStatementResponse(
+                        statementService.getStatement(
+                                accountNumber,
+                                YearMonth.parse(month),
+                                limit,
+                                cursor,
+                                getAuthUserId()
+                        )
+                ),
+                HttpStatus.valueOf(200)
+        );
+    }
+
+    /*
+        Heartbeat comments find closed connections, so the stream itself never times out
+     */
+    @Override
+    public ResponseEntity<SseEmitter> streamAccountEvents(String accountNumber) {
+        var authUserId = getAuthUserId();
+        var emitter = new SseEmitter(0L);
+
+        var subscription = transactionService.subscribeToAccountEvents(accountNumber, new AccountEventSink() {
+            @Override
+            public void send(AccountEvent event) throws IOException {
+                emitter.send(toServerSentEvent(event, authUserId));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        }, authUserId);
+
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return new ResponseEntity<>(emitter, HttpStatus.valueOf(200));
+    }
+
+    @Override
+    public ResponseEntity<TransferResponse> createTransfer(String accountNumber, CreateTransferRequest createTransferRequest, String idempotencyKey) {
+        var transactions = transactionService.createTransfer(
+                accountNumber,
+                createTransferRequest.getToAccountNumber(),
+                MoneyUtil.toMinorUnits(createTransferRequest.getAmount()),
+                createTransferRequest.getCurrency().getValue(),
+                idempotencyKey,
+                getAuthUserId()
+        );
+        return new ResponseEntity<>(
+                new TransferResponse(
+                        toTransactionResponse(transactions.get(0)),
+                        toTransactionResponse(transactions.get(1))
+                ),
+                HttpStatus.valueOf(201)
+        );
+    }
+
+    @Override
+    public ResponseEntity<PostingResponse> submitTransaction(String accountNumber, CreateTransactionRequest createTransactionRequest, String idempotencyKey) {
+        return new ResponseEntity<>(
+                toPostingResponse(
+                        transactionService.submitTransaction(
+                                fromCreateTransactionRequest(createTransactionRequest),
+                                accountNumber,
+                                idempotencyKey,
+                                getAuthUserId()
+                        )
+                ),
+                HttpStatus.valueOf(202)
+        );
+    }
+
+    @Override
+    public ResponseEntity<PostingResponse> fetchPostingStatus(String accountNumber, String transactionId) {
+        return new ResponseEntity<>(
+                toPostingResponse(
+                        transactionService.getPostingStatus(
+                                accountNumber,
+                                transactionId,
+                                getAuthUserId()
+                        )
                 ),
                 HttpStatus.valueOf(200)
         );
     }
 
+    // Whether NDJSON comes before JSON in the Accept header, by quality and then order
+    private boolean prefersNdjson() {
+        var ndjson = MediaType.parseMediaType(NdjsonTransactions.MEDIA_TYPE);
+        return MediaType.parseMediaTypes(request.getHeader(HttpHeaders.ACCEPT)).stream()
+                .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                .filter(accepted -> accepted.isCompatibleWith(MediaType.APPLICATION_JSON) || accepted.isCompatibleWith(ndjson))
+                .findFirst()
+                .map(accepted -> accepted.equalsTypeAndSubtype(ndjson))
+                .orElse(false);
+    }
+
     private String getAuthUserId() {
         return SecurityContextHolder.getContext().getAuthentication().getName();
     }
 
     private TransactionResponse toTransactionResponse(Transaction transaction) {
+        return toTransactionResponse(transaction, getAuthUserId());
+    }
+
+    private TransactionResponse toTransactionResponse(Transaction transaction, String authUserId) {
         var response = new TransactionResponse(
                 transaction.getId(),
-                transaction.getAmount(),
+                MoneyUtil.toMajorUnits(transaction.getAmount()),
                 TransactionResponse.CurrencyEnum.fromValue(transaction.getCurrency()),
                 TransactionResponse.TypeEnum.fromValue(transaction.getType()),
                 OffsetDateTime.ofInstant(transaction.getCreatedOn(), ZoneId.systemDefault())
         );
-        response.setUserId(getAuthUserId());
-        response.setReference("N/A");
+        response.setUserId(authUserId);
+        response.setReference(transaction.getReference());
+        response.setLinkedTransactionId(transaction.getLinkedTransactionId());
+        return response;
+    }
+
+    private SseEmitter.SseEventBuilder toServerSentEvent(AccountEvent event, String authUserId) {
+        return switch(event) {
+            case AccountEvent.Posted posted -> SseEmitter.event()
+                    .id(posted.transaction().getId())
+                    .name("transaction")
+                    .data(toTransactionResponse(posted.transaction(), authUserId), MediaType.APPLICATION_JSON);
+            case AccountEvent.BalanceChanged balanceChanged -> SseEmitter.event()
+                    .name("balance")
+                    .data(new AccountEventResponse(balanceChanged.accountNumber()).balance(MoneyUtil.toMajorUnits(balanceChanged.balance())),
+                            MediaType.APPLICATION_JSON);
+            case AccountEvent.Overflowed overflowed -> SseEmitter.event()
+                    .name("overflow")
+                    .data(new AccountEventResponse(overflowed.accountNumber()), MediaType.APPLICATION_JSON);
+            case AccountEvent.Heartbeat heartbeat -> SseEmitter.event()
+                    .comment("heartbeat");
+        };
+    }
+
+    private StatementResponse toStatementResponse(Statement statement) {
+        var activity = statement.activity();
+        return new StatementResponse(
+                statement.accountNumber(),
+                statement.month().toString(),
+                MoneyUtil.toMajorUnits(statement.openingBalance()),
+                MoneyUtil.toMajorUnits(statement.closingBalance()),
+                MoneyUtil.toMajorUnits(activity.creditMinor()),
+                activity.creditCount(),
+                MoneyUtil.toMajorUnits(activity.debitMinor()),
+                activity.debitCount(),
+                statement.transactions().transactions()
+                        .stream().map(this::toTransactionResponse)
+                        .collect(Collectors.toList())
+        ).nextCursor(statement.transactions().nextCursor());
+    }
+
+    private PostingResponse toPostingResponse(PostingStatus postingStatus) {
+        var response = new PostingResponse(
+                postingStatus.transactionId(),
+                PostingResponse.StatusEnum.fromValue(postingStatus.state().name().toLowerCase())
+        );
+        response.setReason(postingStatus.reason());
         return response;
     }
 
     private Transaction fromCreateTransactionRequest(CreateTransactionRequest createTransactionRequest) {
         return Transaction.builder()
-                .amount(createTransactionRequest.getAmount())
+                .amount(MoneyUtil.toMinorUnits(createTransactionRequest.getAmount()))
                 .currency(createTransactionRequest.getCurrency().getValue())
                 .type(createTransactionRequest.getType().getValue())
+                .reference(createTransactionRequest.getReference())
                 .build();
     }
 
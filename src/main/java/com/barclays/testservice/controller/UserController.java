@@ -3,6 +3,7 @@ package com.barclays.testservice.controller;
 import com.barclays.testservice.api.UserApi;
 import com.barclays.testservice.model.*;
 import com.barclays.testservice.service.UserService;
+import com.barclays.testservice.service.user.UserProfile;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -43,7 +44,12 @@ public class UserController implements UserApi {
     }
 
     @Override
-    public ResponseEntity<UserResponse> fetchUserByID(String userId) {
+    public ResponseEntity<UserResponse> fetchUserByID(String userId, String ifNoneMatch) {
+        var etag = userService.getUserTag(userId, getAuthUserId());
+        if(ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+            return ConditionalResponses.notModified(etag);
+        }
+
         return new ResponseEntity<>(
                 toUserResponse(
                         userService.getUserByUserId(
@@ -51,6 +57,7 @@ public class UserController implements UserApi {
                                 getAuthUserId()
                         )
                 ),
+                ConditionalResponses.withETag(etag),
                 HttpStatus.valueOf(200)
         );
     }
@@ -97,6 +104,27 @@ public class UserController implements UserApi {
         );
     }
 
+    private UserResponse toUserResponse(UserProfile userProfile) {
+
+        var addressResponse = new CreateUserRequestAddress();
+        addressResponse.setLine1(userProfile.line1());
+        addressResponse.setLine2(userProfile.line2());
+        addressResponse.setLine3(userProfile.line3());
+        addressResponse.setTown(userProfile.town());
+        addressResponse.setCounty(userProfile.county());
+        addressResponse.setPostcode(userProfile.postcode());
+
+        return new UserResponse(
+                userProfile.id(),
+                userProfile.name(),
+                addressResponse,
+                userProfile.phoneNumber(),
+                userProfile.email(),
+                OffsetDateTime.ofInstant(userProfile.createdOn(), ZoneId.systemDefault()),
+                OffsetDateTime.ofInstant(userProfile.lastUpdatedOn(), ZoneId.systemDefault())
+        );
+    }
+
     private User fromCreateUserRequest(CreateUserRequest createUserRequest) {
         return User.builder()
                 .name(createUserRequest.getName())
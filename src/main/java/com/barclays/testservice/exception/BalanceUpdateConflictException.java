@@ -0,0 +1,4 @@
+package com.barclays.testservice.exception;
+
+public class BalanceUpdateConflictException extends RuntimeException {
+}
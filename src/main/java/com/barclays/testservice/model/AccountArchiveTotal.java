@@ -0,0 +1,32 @@
+package com.barclays.testservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+/*
+    Signed total (withdrawals negative) and count of an account's archived transactions,
+    so whole-history sums do not need to read the archive
+ */
+@Entity
+@Table(name = "account_archive_total")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+public class AccountArchiveTotal {
+
+    @Id
+    private String accountNumber;
+
+    // Minor units (pence)
+    @Column(nullable = false)
+    private long sumMinor;
+
+    @Column(nullable = false)
+    private long transactionCount;
+}
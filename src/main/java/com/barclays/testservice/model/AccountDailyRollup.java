@@ -0,0 +1,56 @@
+package com.barclays.testservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/*
+    Running totals of an account's postings for one (UTC) day, kept up to date in the
+    same database transaction as each posting. Hot accounts spread their credits over
+    one row per sub-balance slot, like their balance; every other posting uses slot 0.
+ */
+@Entity
+@Table(name = "account_daily_rollup")
+@IdClass(AccountDailyRollup.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+public class AccountDailyRollup {
+
+    @Id
+    private String accountNumber;
+
+    @Id
+    private LocalDate postingDate;
+
+    @Id
+    private Integer slot;
+
+    // Minor units (pence), both totals positive
+    @Column(nullable = false)
+    private long creditMinor;
+
+    @Column(nullable = false)
+    private long creditCount;
+
+    @Column(nullable = false)
+    private long debitMinor;
+
+    @Column(nullable = false)
+    private long debitCount;
+
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String accountNumber;
+        private LocalDate postingDate;
+        private Integer slot;
+    }
+}
@@ -0,0 +1,46 @@
+package com.barclays.testservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/*
+    Balance checkpoint of an account at the boundaries of a closed (UTC) month, so
+    statements never need the account's history before the month they cover
+ */
+@Entity
+@Table(name = "account_monthly_balance")
+@IdClass(AccountMonthlyBalance.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+public class AccountMonthlyBalance {
+
+    @Id
+    private String accountNumber;
+
+    // First day of the month
+    @Id
+    private LocalDate monthStart;
+
+    // Minor units (pence)
+    @Column(nullable = false)
+    private long openingBalanceMinor;
+
+    @Column(nullable = false)
+    private long closingBalanceMinor;
+
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String accountNumber;
+        private LocalDate monthStart;
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -35,16 +36,30 @@ public class BankAccount {
     @Column(nullable = false)
     private String sortCode;
 
-    @Column(nullable = false)
-    private Double balance;
+    // Minor units (pence)
+    @Column(name = "balance_minor", nullable = false)
+    private long balance;
 
     @Column(nullable = false)
     private String currency;
 
+    @Version
+    private Long version;
+
+    // Set when the account is 'hot': its balance is then this row's balance plus
+    // the sum of its SubBalance slots
+    @Column
+    private Integer subBalanceSlots;
+
 
     @CreationTimestamp
     private Instant createdOn;
 
     @UpdateTimestamp
     private Instant lastUpdatedOn;
+
+
+    public boolean isHot() {
+        return subBalanceSlots != null;
+    }
 }
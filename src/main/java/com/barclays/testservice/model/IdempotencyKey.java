@@ -0,0 +1,36 @@
+package com.barclays.testservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/*
+    Idempotency-Key supplied with a transaction request, scoped to the user and
+    bank account, the transaction it created and a hash of the request it came with
+ */
+@Entity
+@Table(name = "idempotency_key")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+public class IdempotencyKey {
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private String transactionId;
+
+    // SHA-256 of the request, null for keys stored before requests were hashed
+    @Column(length = 64)
+    private String requestHash;
+
+
+    @CreationTimestamp
+    private Instant createdOn;
+}
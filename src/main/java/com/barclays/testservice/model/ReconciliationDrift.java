@@ -0,0 +1,43 @@
+package com.barclays.testservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/*
+    An account whose balance did not equal the signed sum of its transactions
+ */
+@Entity
+@Table(name = "reconciliation_drift")
+@IdClass(ReconciliationDrift.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+public class ReconciliationDrift {
+
+    @Id
+    private String runId;
+
+    @Id
+    private String accountNumber;
+
+    // Minor units (pence)
+    @Column(nullable = false)
+    private long balanceMinor;
+
+    @Column(nullable = false)
+    private long transactionSumMinor;
+
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String runId;
+        private String accountNumber;
+    }
+}
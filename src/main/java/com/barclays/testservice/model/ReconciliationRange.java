@@ -0,0 +1,47 @@
+package com.barclays.testservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/*
+    Checkpoint of a completed range of a reconciliation run, written in the same database
+    transaction as the range's drifts, so a resumed run skips exactly these ranges
+ */
+@Entity
+@Table(name = "reconciliation_range")
+@IdClass(ReconciliationRange.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+public class ReconciliationRange {
+
+    @Id
+    private String runId;
+
+    @Id
+    private Integer rangeIndex;
+
+    @Column(nullable = false)
+    private long accountsChecked;
+
+    @Column(nullable = false)
+    private long driftCount;
+
+    @Column(nullable = false)
+    private Instant completedOn;
+
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String runId;
+        private Integer rangeIndex;
+    }
+}
@@ -0,0 +1,63 @@
+package com.barclays.testservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.time.Instant;
+
+/*
+    One run of the ledger reconciliation. The account numbers from first to last are
+    split into rangeCount ranges of rangeSize account numbers, checked in parallel.
+ */
+@Entity
+@Table(name = "reconciliation_run")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+public class ReconciliationRun {
+
+    public static final String RUNNING = "running";
+    public static final String COMPLETED = "completed";
+    // Stopped by a shutdown or a failure, can be resumed from its completed ranges
+    public static final String INTERRUPTED = "interrupted";
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private String status;
+
+    // Null when there were no accounts to check
+    @Column
+    private String firstAccountNumber;
+
+    @Column
+    private String lastAccountNumber;
+
+    @Column(nullable = false)
+    private int rangeSize;
+
+    @Column(nullable = false)
+    private int rangeCount;
+
+    @Column(nullable = false)
+    private int rangesCompleted;
+
+    @Column(nullable = false)
+    private long accountsChecked;
+
+    @Column(nullable = false)
+    private long driftCount;
+
+    @Column(nullable = false)
+    private Instant startedOn;
+
+    @Column
+    private Instant finishedOn;
+}
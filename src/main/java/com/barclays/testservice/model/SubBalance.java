@@ -0,0 +1,37 @@
+package com.barclays.testservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Entity
+@Table(name = "bankaccount_sub_balance")
+@IdClass(SubBalance.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+public class SubBalance {
+
+    @Id
+    private String accountNumber;
+
+    @Id
+    private Integer slot;
+
+    // Minor units (pence)
+    @Column(name = "balance_minor", nullable = false)
+    private long balance;
+
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String accountNumber;
+        private Integer slot;
+    }
+}
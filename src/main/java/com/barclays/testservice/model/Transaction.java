@@ -1,11 +1,9 @@
 package com.barclays.testservice.model;
 
-import jakarta.persistence.Column;
-import jakarta.persistence.Entity;
-import jakarta.persistence.Id;
-import jakarta.persistence.Table;
+import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 
@@ -17,7 +15,7 @@ import java.time.Instant;
 @Setter
 @ToString
 @Builder
-public class Transaction {
+public class Transaction implements Persistable<String> {
 
     @Id
     private String id;
@@ -25,8 +23,9 @@ public class Transaction {
     @Column(nullable = false)
     private String accountNumber;
 
-    @Column(nullable = false)
-    private Double amount;
+    // Minor units (pence)
+    @Column(name = "amount_minor", nullable = false)
+    private long amount;
 
     @Column(nullable = false)
     private String currency;
@@ -34,7 +33,34 @@ public class Transaction {
     @Column(nullable = false)
     private String type;
 
+    // The other leg of a transfer, null for deposits and withdrawals
+    @Column
+    private String linkedTransactionId;
+
+    // Supplied by the client when the transaction is created, null if none was
+    @Column(length = 64)
+    private String reference;
+
 
     @CreationTimestamp
     private Instant createdOn;
+
+
+    /*
+        Transactions are never updated, so a new one can be persisted straight away
+        (and batched) rather than merged, which would select it by id first
+     */
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
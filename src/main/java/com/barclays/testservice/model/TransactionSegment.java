@@ -0,0 +1,34 @@
+package com.barclays.testservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.time.Instant;
+
+/*
+    A segment file of archived transactions. Registered in the same database transaction
+    that deletes its transactions from the transaction table, so only registered files are read.
+ */
+@Entity
+@Table(name = "transaction_segment")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+public class TransactionSegment {
+
+    // File name in the archive directory
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private long transactionCount;
+
+    @Column(nullable = false)
+    private Instant createdOn;
+}
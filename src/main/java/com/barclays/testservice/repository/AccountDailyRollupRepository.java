@@ -0,0 +1,44 @@
+package com.barclays.testservice.repository;
+
+import com.barclays.testservice.model.AccountDailyRollup;
+import com.barclays.testservice.service.rollup.AccountActivity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface AccountDailyRollupRepository extends CrudRepository<AccountDailyRollup, AccountDailyRollup.Key> {
+
+    /*
+        Adds to the account's totals for the day, creating the row on the first posting of the day
+     */
+    @Modifying
+    @Query(value = "MERGE INTO account_daily_rollup r" +
+            " USING (VALUES (CAST(:accountNumber AS VARCHAR), CAST(:postingDate AS DATE), CAST(:slot AS INT))) v(account_number, posting_date, slot)" +
+            " ON r.account_number = v.account_number AND r.posting_date = v.posting_date AND r.slot = v.slot" +
+            " WHEN MATCHED THEN UPDATE SET credit_minor = r.credit_minor + :creditMinor, credit_count = r.credit_count + :creditCount," +
+            " debit_minor = r.debit_minor + :debitMinor, debit_count = r.debit_count + :debitCount" +
+            " WHEN NOT MATCHED THEN INSERT (account_number, posting_date, slot, credit_minor, credit_count, debit_minor, debit_count)" +
+            " VALUES (v.account_number, v.posting_date, v.slot, :creditMinor, :creditCount, :debitMinor, :debitCount)",
+            nativeQuery = true)
+    int add(@Param("accountNumber") String accountNumber,
+            @Param("postingDate") LocalDate postingDate,
+            @Param("slot") int slot,
+            @Param("creditMinor") long creditMinor,
+            @Param("creditCount") long creditCount,
+            @Param("debitMinor") long debitMinor,
+            @Param("debitCount") long debitCount);
+
+    @Query("SELECT new com.barclays.testservice.service.rollup.AccountActivity(" +
+            "COALESCE(SUM(r.creditMinor), 0), COALESCE(SUM(r.creditCount), 0), COALESCE(SUM(r.debitMinor), 0), COALESCE(SUM(r.debitCount), 0))" +
+            " FROM AccountDailyRollup r WHERE r.accountNumber = :accountNumber AND r.postingDate BETWEEN :from AND :to")
+    AccountActivity getActivity(@Param("accountNumber") String accountNumber,
+                                @Param("from") LocalDate from,
+                                @Param("to") LocalDate to);
+
+    @Query("SELECT MIN(r.postingDate) FROM AccountDailyRollup r WHERE r.accountNumber = :accountNumber")
+    Optional<LocalDate> findFirstPostingDate(@Param("accountNumber") String accountNumber);
+}
@@ -0,0 +1,26 @@
+package com.barclays.testservice.repository;
+
+import com.barclays.testservice.model.AccountMonthlyBalance;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface AccountMonthlyBalanceRepository extends CrudRepository<AccountMonthlyBalance, AccountMonthlyBalance.Key> {
+
+    // Latest checkpoint before the month
+    Optional<AccountMonthlyBalance> findFirstByAccountNumberAndMonthStartLessThanOrderByMonthStartDesc(String accountNumber, LocalDate monthStart);
+
+    // Checkpoints are derived values, so two requests writing the same one concurrently is harmless
+    @Modifying
+    @Query(value = "MERGE INTO account_monthly_balance (account_number, month_start, opening_balance_minor, closing_balance_minor)" +
+            " KEY (account_number, month_start) VALUES (:accountNumber, :monthStart, :openingBalance, :closingBalance)",
+            nativeQuery = true)
+    int saveCheckpoint(@Param("accountNumber") String accountNumber,
+                       @Param("monthStart") LocalDate monthStart,
+                       @Param("openingBalance") long openingBalance,
+                       @Param("closingBalance") long closingBalance);
+}
@@ -1,10 +1,17 @@
 package com.barclays.testservice.repository;
 
 import com.barclays.testservice.model.Address;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface AddressRepository extends CrudRepository<Address, String> {
     @Query(value = "SELECT NEXTVAL('address_seq')", nativeQuery = true)
     Long getNextSequenceValue();
+
+    // Deletes without loading the address first, as deleteById does
+    @Modifying
+    @Query("DELETE FROM Address a WHERE a.id = :id")
+    int deleteAddress(@Param("id") String id);
 }
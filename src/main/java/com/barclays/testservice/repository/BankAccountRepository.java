@@ -1,15 +1,65 @@
 package com.barclays.testservice.repository;
 
 import com.barclays.testservice.model.BankAccount;
+import com.barclays.testservice.service.account.AccountDetails;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 public interface BankAccountRepository extends CrudRepository<BankAccount, String> {
     @Query(value = "SELECT NEXTVAL('bankaccount_seq')", nativeQuery = true)
     Long getNextSequenceValue();
 
     List<BankAccount> findByUserId(String userId);
-    boolean existsByUserId(String userId);
+
+    /*
+        The same rows as findByUserId, as records: nothing is added to the persistence context
+        or snapshotted for dirty-checking (see ReadProjectionBenchmark)
+     */
+    @Query("SELECT new com.barclays.testservice.service.account.AccountDetails(b.accountNumber, b.userId, b.name," +
+            " b.accountType, b.sortCode, b.balance, b.currency, b.version, b.subBalanceSlots, b.createdOn, b.lastUpdatedOn)" +
+            " FROM BankAccount b WHERE b.userId = :userId")
+    List<AccountDetails> findDetailsByUserId(@Param("userId") String userId);
+
+    List<BankAccount> findBySubBalanceSlotsIsNotNull();
+
+    boolean existsBySubBalanceSlotsIsNotNull();
+
+    @Modifying
+    @Query("UPDATE BankAccount b SET b.subBalanceSlots = :slots, b.version = b.version + 1 WHERE b.accountNumber = :accountNumber")
+    int setSubBalanceSlots(@Param("accountNumber") String accountNumber, @Param("slots") int slots);
+
+    /*
+        Applies a signed balance delta in a single statement, only if the resulting
+        balance would not go negative. Returns the number of rows updated (0 or 1).
+     */
+    @Modifying
+    @Query("UPDATE BankAccount b SET b.balance = b.balance + :delta, b.version = b.version + 1, b.lastUpdatedOn = :now " +
+            "WHERE b.accountNumber = :accountNumber AND b.balance + :delta >= 0")
+    int applyBalanceDelta(@Param("accountNumber") String accountNumber,
+                          @Param("delta") long delta,
+                          @Param("now") Instant now);
+
+    /*
+        Updates the name and type of the account only if it belongs to the user, returning the
+        account as updated in the same statement. Empty when no row matched.
+     */
+    @Query(value = "SELECT * FROM FINAL TABLE (UPDATE bankaccount SET name = :name, account_type = :accountType, " +
+            "version = version + 1, last_updated_on = :now WHERE account_number = :accountNumber AND user_id = :userId)",
+            nativeQuery = true)
+    Optional<BankAccount> updateOwnedDetails(@Param("accountNumber") String accountNumber,
+                                             @Param("userId") String userId,
+                                             @Param("name") String name,
+                                             @Param("accountType") String accountType,
+                                             @Param("now") Instant now);
+
+    // Deletes the account only if it belongs to the user. Returns the number of rows deleted (0 or 1).
+    @Modifying
+    @Query("DELETE FROM BankAccount b WHERE b.accountNumber = :accountNumber AND b.userId = :userId")
+    int deleteOwned(@Param("accountNumber") String accountNumber, @Param("userId") String userId);
 }
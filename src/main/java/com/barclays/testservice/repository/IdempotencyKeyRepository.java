@@ -0,0 +1,28 @@
+package com.barclays.testservice.repository;
+
+import com.barclays.testservice.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface IdempotencyKeyRepository extends CrudRepository<IdempotencyKey, String> {
+
+    /*
+        Inserts the key straight away, never merging into an existing row: a key that is
+        already stored fails with a DataIntegrityViolationException
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_key (id, transaction_id, request_hash, created_on) " +
+            "VALUES (:id, :transactionId, :requestHash, :now)", nativeQuery = true)
+    int insert(@Param("id") String id,
+               @Param("transactionId") String transactionId,
+               @Param("requestHash") String requestHash,
+               @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdOn < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
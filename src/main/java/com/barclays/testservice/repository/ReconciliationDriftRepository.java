@@ -0,0 +1,12 @@
+package com.barclays.testservice.repository;
+
+import com.barclays.testservice.model.ReconciliationDrift;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.List;
+
+public interface ReconciliationDriftRepository extends CrudRepository<ReconciliationDrift, ReconciliationDrift.Key> {
+
+    List<ReconciliationDrift> findByRunIdOrderByAccountNumber(String runId, Limit limit);
+}
@@ -0,0 +1,14 @@
+package com.barclays.testservice.repository;
+
+import com.barclays.testservice.model.ReconciliationRange;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ReconciliationRangeRepository extends CrudRepository<ReconciliationRange, ReconciliationRange.Key> {
+
+    @Query("SELECT r.rangeIndex FROM ReconciliationRange r WHERE r.runId = :runId")
+    List<Integer> findRangeIndexesByRunId(@Param("runId") String runId);
+}
@@ -0,0 +1,28 @@
+package com.barclays.testservice.repository;
+
+import com.barclays.testservice.model.ReconciliationRun;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface ReconciliationRunRepository extends CrudRepository<ReconciliationRun, String> {
+
+    @Modifying
+    @Query("UPDATE ReconciliationRun r SET r.status = :status WHERE r.status = :currentStatus")
+    int updateStatus(@Param("currentStatus") String currentStatus, @Param("status") String status);
+
+    @Modifying
+    @Query("UPDATE ReconciliationRun r SET r.rangesCompleted = r.rangesCompleted + 1," +
+            " r.accountsChecked = r.accountsChecked + :accountsChecked, r.driftCount = r.driftCount + :driftCount" +
+            " WHERE r.id = :id")
+    int addCompletedRange(@Param("id") String id,
+                          @Param("accountsChecked") long accountsChecked,
+                          @Param("driftCount") long driftCount);
+
+    @Modifying
+    @Query("UPDATE ReconciliationRun r SET r.status = :status, r.finishedOn = :finishedOn WHERE r.id = :id")
+    int finish(@Param("id") String id, @Param("status") String status, @Param("finishedOn") Instant finishedOn);
+}
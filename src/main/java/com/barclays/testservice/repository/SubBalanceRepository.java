@@ -0,0 +1,29 @@
+package com.barclays.testservice.repository;
+
+import com.barclays.testservice.model.SubBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface SubBalanceRepository extends ListCrudRepository<SubBalance, SubBalance.Key> {
+
+    @Modifying
+    @Query("UPDATE SubBalance s SET s.balance = s.balance + :amount WHERE s.accountNumber = :accountNumber AND s.slot = :slot")
+    int credit(@Param("accountNumber") String accountNumber, @Param("slot") int slot, @Param("amount") long amount);
+
+    // Locks the slots in slot order, so concurrent debits can never deadlock each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<SubBalance> findByAccountNumberOrderBySlot(String accountNumber);
+
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM SubBalance s WHERE s.accountNumber = :accountNumber")
+    long getSumBalanceByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    @Modifying
+    @Query("DELETE FROM SubBalance s WHERE s.accountNumber = :accountNumber")
+    int deleteByAccountNumber(@Param("accountNumber") String accountNumber);
+}
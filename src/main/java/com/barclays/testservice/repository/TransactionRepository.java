@@ -1,14 +1,22 @@
 package com.barclays.testservice.repository;
 
 import com.barclays.testservice.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.ListCrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface TransactionRepository extends CrudRepository<Transaction, String> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface TransactionRepository extends ListCrudRepository<Transaction, String>, TransactionSearchRepository {
     @Query(value = "SELECT NEXTVAL('transaction_seq')", nativeQuery = true)
     Long getNextSequenceValue();
 
@@ -16,6 +24,57 @@ public interface TransactionRepository extends CrudRepository<Transaction, Strin
 
     List<Transaction> findByAccountNumber(String accountNumber);
 
-    @Query(value = "SELECT NVL(SUM(AMOUNT),0) FROM transaction WHERE ACCOUNT_NUMBER = :accountNumber", nativeQuery = true)
-    Double getSumAmountByAccountNumber(@Param("accountNumber") String accountNumber);
+    /*
+        One probe of idx_transaction_reference_account. A reference is rarely reused, so the
+        few rows it finds are sorted rather than read in index order.
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.accountNumber = :accountNumber AND t.reference = :reference" +
+            " ORDER BY t.createdOn DESC, t.id DESC")
+    List<Transaction> findByAccountNumberAndReference(@Param("accountNumber") String accountNumber,
+                                                      @Param("reference") String reference);
+
+    /*
+        Keyset pages, newest first: each page is a range read of idx_transaction_account_created.
+        accountNumber leads the ORDER BY (a no-op, it is fixed by the WHERE clause) because H2 only
+        reads an index in order when the ORDER BY starts with the index's first column.
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.accountNumber = :accountNumber" +
+            " ORDER BY t.accountNumber, t.createdOn DESC, t.id DESC")
+    List<Transaction> findFirstPage(@Param("accountNumber") String accountNumber, Limit limit);
+
+    @Query("SELECT t FROM Transaction t WHERE t.accountNumber = :accountNumber" +
+            " AND t.createdOn <= :createdOn AND (t.createdOn < :createdOn OR t.id < :id)" +
+            " ORDER BY t.accountNumber, t.createdOn DESC, t.id DESC")
+    List<Transaction> findPageAfter(@Param("accountNumber") String accountNumber,
+                                    @Param("createdOn") Instant createdOn,
+                                    @Param("id") String id,
+                                    Limit limit);
+
+    // The same keyset pages, limited to transactions created in [from, to)
+    @Query("SELECT t FROM Transaction t WHERE t.accountNumber = :accountNumber" +
+            " AND t.createdOn >= :from AND t.createdOn < :to" +
+            " ORDER BY t.accountNumber, t.createdOn DESC, t.id DESC")
+    List<Transaction> findFirstPageBetween(@Param("accountNumber") String accountNumber,
+                                           @Param("from") Instant from,
+                                           @Param("to") Instant to,
+                                           Limit limit);
+
+    @Query("SELECT t FROM Transaction t WHERE t.accountNumber = :accountNumber" +
+            " AND t.createdOn >= :from AND t.createdOn <= :createdOn AND (t.createdOn < :createdOn OR t.id < :id)" +
+            " ORDER BY t.accountNumber, t.createdOn DESC, t.id DESC")
+    List<Transaction> findPageAfterBetween(@Param("accountNumber") String accountNumber,
+                                           @Param("from") Instant from,
+                                           @Param("createdOn") Instant createdOn,
+                                           @Param("id") String id,
+                                           Limit limit);
+
+    // Forward-only cursor for exports, must be consumed inside a transaction and closed
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t FROM Transaction t WHERE t.accountNumber = :accountNumber ORDER BY t.accountNumber, t.createdOn DESC, t.id DESC")
+    Stream<Transaction> streamByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    // Signed sum over the transactions still in the table, withdrawals negative. Archived ones are totalled in
+    // account_archive_total and date range totals come from AccountDailyRollupRepository
+    @Query(value = "SELECT NVL(SUM(CASE WHEN TYPE = 'withdrawal' THEN -AMOUNT_MINOR ELSE AMOUNT_MINOR END),0) FROM transaction WHERE ACCOUNT_NUMBER = :accountNumber", nativeQuery = true)
+    Long getSumAmountByAccountNumber(@Param("accountNumber") String accountNumber);
 }
@@ -0,0 +1,15 @@
+package com.barclays.testservice.repository;
+
+import com.barclays.testservice.service.paging.TransactionCursor;
+import com.barclays.testservice.service.paging.TransactionFilter;
+
+import java.util.List;
+
+public interface TransactionSearchRepository {
+
+    /*
+        Ids of the account's transactions matching the filter, newest first, after the
+        cursor if there is one. Only reads index entries, never the rows themselves.
+     */
+    List<String> findIds(String accountNumber, TransactionFilter filter, TransactionCursor after, int limit);
+}
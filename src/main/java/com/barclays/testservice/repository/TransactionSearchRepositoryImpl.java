@@ -0,0 +1,79 @@
+package com.barclays.testservice.repository;
+
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.service.paging.TransactionCursor;
+import com.barclays.testservice.service.paging.TransactionFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    Every column the query touches (account_number, type, created_on, id, amount_minor) is in
+    idx_transaction_account_created or idx_transaction_account_type_created, so the
+    filter is answered from the index: a range on (account_number[, type], created_on),
+    with the amount band checked on the index entries.
+ */
+class TransactionSearchRepositoryImpl implements TransactionSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<String> findIds(String accountNumber, TransactionFilter filter, TransactionCursor after, int limit) {
+        var criteriaBuilder = entityManager.getCriteriaBuilder();
+        var query = criteriaBuilder.createQuery(String.class);
+        var transaction = query.from(Transaction.class);
+
+        var accountNumberPath = transaction.<String>get("accountNumber");
+        var typePath = transaction.<String>get("type");
+        var createdOnPath = transaction.<Instant>get("createdOn");
+        var idPath = transaction.<String>get("id");
+        var amountPath = transaction.<Long>get("amount");
+
+        var predicates = new ArrayList<Predicate>();
+        predicates.add(criteriaBuilder.equal(accountNumberPath, accountNumber));
+        if(filter.type() != null) {
+            predicates.add(criteriaBuilder.equal(typePath, filter.type()));
+        }
+        if(filter.from() != null) {
+            predicates.add(criteriaBuilder.greaterThanOrEqualTo(createdOnPath, filter.from()));
+        }
+        if(filter.to() != null) {
+            predicates.add(criteriaBuilder.lessThan(createdOnPath, filter.to()));
+        }
+        if(filter.minAmount() != null) {
+            predicates.add(criteriaBuilder.greaterThanOrEqualTo(amountPath, filter.minAmount()));
+        }
+        if(filter.maxAmount() != null) {
+            predicates.add(criteriaBuilder.lessThanOrEqualTo(amountPath, filter.maxAmount()));
+        }
+        if(after != null) {
+            predicates.add(criteriaBuilder.lessThanOrEqualTo(createdOnPath, after.createdOn()));
+            predicates.add(criteriaBuilder.or(
+                    criteriaBuilder.lessThan(createdOnPath, after.createdOn()),
+                    criteriaBuilder.lessThan(idPath, after.id())));
+        }
+
+        // Leading equality columns repeated in the ORDER BY, so H2 reads the index in order (see TransactionRepository)
+        var orders = new ArrayList<Order>();
+        orders.add(criteriaBuilder.asc(accountNumberPath));
+        if(filter.type() != null) {
+            orders.add(criteriaBuilder.asc(typePath));
+        }
+        orders.add(criteriaBuilder.desc(createdOnPath));
+        orders.add(criteriaBuilder.desc(idPath));
+
+        query.select(idPath)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(orders);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,11 @@
+package com.barclays.testservice.repository;
+
+import com.barclays.testservice.model.TransactionSegment;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.List;
+
+public interface TransactionSegmentRepository extends CrudRepository<TransactionSegment, String> {
+
+    List<TransactionSegment> findAllByOrderByName();
+}
@@ -1,10 +1,28 @@
 package com.barclays.testservice.repository;
 
 import com.barclays.testservice.model.User;
+import com.barclays.testservice.service.user.DeletedUser;
+import com.barclays.testservice.service.user.UserProfile;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
 
 public interface UserRepository extends CrudRepository<User, String> {
     @Query(value = "SELECT NEXTVAL('userdetail_seq')", nativeQuery = true)
     Long getNextSequenceValue();
+
+    @Query("SELECT new com.barclays.testservice.service.user.UserProfile(u.id, u.name," +
+            " a.line1, a.line2, a.line3, a.town, a.county, a.postcode, u.phoneNumber, u.email, u.createdOn, u.lastUpdatedOn)" +
+            " FROM User u LEFT JOIN u.address a WHERE u.id = :userId")
+    Optional<UserProfile> findProfileById(@Param("userId") String userId);
+
+    /*
+        Deletes the user only if they have no bank accounts, in a single statement, returning
+        the deleted row. Empty when no row was deleted.
+     */
+    @Query(value = "SELECT id AS id, address_id AS addressId FROM OLD TABLE (DELETE FROM userdetail WHERE id = :userId " +
+            "AND NOT EXISTS (SELECT 1 FROM bankaccount WHERE user_id = :userId))", nativeQuery = true)
+    Optional<DeletedUser> deleteWithoutAccounts(@Param("userId") String userId);
 }
@@ -1,36 +1,70 @@
 package com.barclays.testservice.service;
 
 import com.barclays.testservice.exception.BankAccountNotFoundException;
+import com.barclays.testservice.exception.InvalidDetailsSuppliedException;
 import com.barclays.testservice.exception.UserNotAllowedException;
 import com.barclays.testservice.model.BankAccount;
 import com.barclays.testservice.model.BankAccountResponse;
+import com.barclays.testservice.repository.AccountDailyRollupRepository;
 import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.service.account.AccountCache;
+import com.barclays.testservice.service.balance.BalanceUpdateEngine;
+import com.barclays.testservice.service.balance.SubBalanceLedger;
+import com.barclays.testservice.service.id.IdGenerator;
+import com.barclays.testservice.service.rollup.AccountActivity;
+import com.barclays.testservice.service.version.ResourceVersions;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
 @Service
 @AllArgsConstructor
 public class AccountService {
 
-    private static final String ACC_ID_PREFIX = "01";
-
     private final BankAccountRepository bankAccountRepository;
+    private final SubBalanceLedger subBalanceLedger;
+    private final BalanceUpdateEngine balanceUpdateEngine;
+    private final IdGenerator idGenerator;
+    private final AccountDailyRollupRepository accountDailyRollupRepository;
+    private final AccountCache accountCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourceVersions resourceVersions;
 
     public BankAccount createAccount(BankAccount newBankAccount , String authUserId) {
 
         newBankAccount.setAccountNumber(getNextBankAccountId());
         newBankAccount.setUserId(authUserId);
         newBankAccount.setSortCode(BankAccountResponse.SortCodeEnum._10_10_10.getValue());
-        newBankAccount.setBalance(0.0);
+        newBankAccount.setBalance(0L);
         newBankAccount.setCurrency(BankAccountResponse.CurrencyEnum.GBP.getValue());
-        return bankAccountRepository.save(newBankAccount);
+        var savedBankAccount = bankAccountRepository.save(newBankAccount);
+
+        accountCache.invalidateUser(authUserId);
+        resourceVersions.userAccountsChanged(authUserId);
+        return savedBankAccount;
     }
 
     public BankAccount getAccountByAccountNumber(String accountNumber, String authUserId) {
 
-        var fetchedBankAccount = bankAccountRepository.findById(accountNumber)
+        var fetchedBankAccount = accountCache.find(accountNumber)
+                .orElseThrow(BankAccountNotFoundException::new);
+
+        checkUserIdAllowed(fetchedBankAccount, authUserId);
+
+        return withSubBalances(fetchedBankAccount);
+    }
+
+    /*
+        The account, checked to belong to the user, for callers that only need to know which
+        account it is: its balance is not brought up to date and may be out of date
+     */
+    public BankAccount getOwnedAccount(String accountNumber, String authUserId) {
+
+        var fetchedBankAccount = accountCache.findIgnoringBalance(accountNumber)
                 .orElseThrow(BankAccountNotFoundException::new);
 
         checkUserIdAllowed(fetchedBankAccount, authUserId);
@@ -38,40 +72,109 @@ public class AccountService {
         return fetchedBankAccount;
     }
 
+    /*
+        ETags of an account (which also tags its transactions) and of the user's accounts, from
+        their version stamps rather than the accounts themselves, so an unchanged resource is
+        answered without loading it. The account's owner is checked first, so a tag tells no
+        other user whether it exists. A list changes with its membership or any of its accounts,
+        and every change takes a stamp above all earlier ones, so the highest stamp tags it.
+     */
+    public String getAccountTag(String accountNumber, String authUserId) {
+        getOwnedAccount(accountNumber, authUserId);
+
+        return resourceVersions.tag(resourceVersions.account(accountNumber));
+    }
+
+    public String getAccountsTag(String authUserId) {
+        var stamp = resourceVersions.userAccounts(authUserId);
+        for(var accountNumber : accountCache.accountNumbersOf(authUserId)) {
+            stamp = Math.max(stamp, resourceVersions.account(accountNumber));
+        }
+        return resourceVersions.tag(stamp);
+    }
+
     public List<BankAccount> getAccountsByUserId(String authUserId) {
-        return bankAccountRepository.findByUserId(authUserId);
+        return accountCache.findByUserId(authUserId).stream()
+                .map(this::withSubBalances)
+                .toList();
     }
 
+    /*
+        Credits, debits and their counts over [from, to], read from the daily rollups
+        (today's row included) rather than the account's transactions
+     */
+    public AccountActivity getAccountActivity(String accountNumber, LocalDate from, LocalDate to, String authUserId) {
+        var bankAccount = getOwnedAccount(accountNumber, authUserId);
 
-    public BankAccount updateAccountByAccountNumber(String accountNumber, BankAccount updateBankAccount, String authUserId) {
+        if(from.isAfter(to)) {
+            throw new InvalidDetailsSuppliedException();
+        }
 
-        var fetchedBankAccount = bankAccountRepository.findById(accountNumber)
-                .orElseThrow(BankAccountNotFoundException::new);
+        return accountDailyRollupRepository.getActivity(bankAccount.getAccountNumber(), from, to);
+    }
 
-        checkUserIdAllowed(fetchedBankAccount, authUserId);
+    public BankAccount updateSubBalanceSlots(String accountNumber, int slots, String authUserId) {
+        var bankAccount = getAccountByAccountNumber(accountNumber, authUserId);
 
-        // Copy potentially updated fields to the fetched object
-        fetchedBankAccount.setName(updateBankAccount.getName());
-        fetchedBankAccount.setAccountType(updateBankAccount.getAccountType());
+        if(!balanceUpdateEngine.supportsHotAccounts()) {
+            throw new InvalidDetailsSuppliedException();
+        }
+        subBalanceLedger.setSlots(bankAccount, slots);
+        accountCache.invalidate(accountNumber);
+        resourceVersions.accountChanged(accountNumber);
 
-        return bankAccountRepository.save(fetchedBankAccount);
+        return bankAccount;
     }
 
-    public void deleteAccountByAccountNumber(String accountNumber, String authUserId) {
 
-        var fetchedBankAccount = bankAccountRepository.findById(accountNumber)
-                .orElseThrow(BankAccountNotFoundException::new);
-
-        checkUserIdAllowed(fetchedBankAccount, authUserId);
+    /*
+        Updates and deletes are each a single statement scoped to the user's own account. Only
+        when it matches no row is the account looked up, to tell another user's account (403)
+        from one that does not exist (404).
+     */
+    public BankAccount updateAccountByAccountNumber(String accountNumber, BankAccount updateBankAccount, String authUserId) {
 
-        bankAccountRepository.deleteById(accountNumber);
+        var updatedBankAccount = transactionTemplate.execute(status -> bankAccountRepository.updateOwnedDetails(
+                accountNumber,
+                authUserId,
+                updateBankAccount.getName(),
+                updateBankAccount.getAccountType(),
+                Instant.now()))
+                .orElseThrow(() -> notOwnedOrNotFound(accountNumber));
+
+        accountCache.invalidate(accountNumber);
+        resourceVersions.accountChanged(accountNumber);
+        return updatedBankAccount;
     }
 
-    public boolean checkUserHasBankAccounts(String authUserId) {
-        return bankAccountRepository.existsByUserId(authUserId);
+    public void deleteAccountByAccountNumber(String accountNumber, String authUserId) {
+
+        var deleted = transactionTemplate.execute(status -> {
+            var rows = bankAccountRepository.deleteOwned(accountNumber, authUserId);
+            if(rows > 0) {
+                subBalanceLedger.deleteSlots(accountNumber);
+            }
+            return rows;
+        });
+        if(deleted == null || deleted == 0) {
+            throw notOwnedOrNotFound(accountNumber);
+        }
+
+        subBalanceLedger.evict(accountNumber);
+        balanceUpdateEngine.evict(accountNumber);
+        accountCache.invalidate(accountNumber);
+        accountCache.invalidateUser(authUserId);
+        resourceVersions.accountChanged(accountNumber);
+        resourceVersions.userAccountsChanged(authUserId);
     }
 
 
+    private RuntimeException notOwnedOrNotFound(String accountNumber) {
+        return bankAccountRepository.existsById(accountNumber)
+                ? new UserNotAllowedException()
+                : new BankAccountNotFoundException();
+    }
+
     private void checkUserIdAllowed(BankAccount bankAccount, String authUserId) {
         if(!authUserId.equals(bankAccount.getUserId())) {
             throw new UserNotAllowedException();
@@ -79,8 +182,16 @@ public class AccountService {
     }
 
 
+    // Hot accounts report the bankaccount row's balance plus their sub-balance slots
+    private BankAccount withSubBalances(BankAccount bankAccount) {
+        if(bankAccount.isHot()) {
+            bankAccount.setBalance(bankAccount.getBalance() + subBalanceLedger.getSumBalance(bankAccount.getAccountNumber()));
+        }
+        return bankAccount;
+    }
+
     private String getNextBankAccountId() {
-        return ACC_ID_PREFIX + String.format("%06d",bankAccountRepository.getNextSequenceValue());
+        return idGenerator.nextAccountNumber();
     }
 
 }
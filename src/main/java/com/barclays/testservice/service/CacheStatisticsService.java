@@ -0,0 +1,34 @@
+package com.barclays.testservice.service;
+
+import com.barclays.testservice.exception.UserNotAllowedException;
+import com.barclays.testservice.service.account.AccountCache;
+import com.barclays.testservice.service.account.AccountCacheStatistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+
+/*
+    Cache statistics, only available to the users listed in admin.user-ids
+ */
+@Service
+public class CacheStatisticsService {
+
+    private final AccountCache accountCache;
+    private final Set<String> adminUserIds;
+
+    public CacheStatisticsService(AccountCache accountCache,
+                                  @Value("${admin.user-ids:}") Set<String> adminUserIds) {
+        this.accountCache = accountCache;
+        this.adminUserIds = adminUserIds;
+    }
+
+    public List<AccountCacheStatistics> getCacheStatistics(String authUserId) {
+        if(!adminUserIds.contains(authUserId)) {
+            throw new UserNotAllowedException();
+        }
+
+        return List.of(accountCache.accountStatistics(), accountCache.userAccountStatistics());
+    }
+}
@@ -0,0 +1,80 @@
+package com.barclays.testservice.service;
+
+import com.barclays.testservice.exception.InvalidDetailsSuppliedException;
+import com.barclays.testservice.exception.ReconciliationNotFoundException;
+import com.barclays.testservice.exception.ReconciliationRunningException;
+import com.barclays.testservice.exception.UserNotAllowedException;
+import com.barclays.testservice.model.ReconciliationRun;
+import com.barclays.testservice.repository.ReconciliationDriftRepository;
+import com.barclays.testservice.repository.ReconciliationRunRepository;
+import com.barclays.testservice.service.reconciliation.LedgerReconciler;
+import com.barclays.testservice.service.reconciliation.ReconciliationReport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+/*
+    Ledger reconciliation runs, only available to the users listed in admin.user-ids
+ */
+@Service
+public class ReconciliationService {
+
+    private static final int MAX_REPORTED_DRIFTS = 1000;
+
+    private final LedgerReconciler ledgerReconciler;
+    private final ReconciliationRunRepository reconciliationRunRepository;
+    private final ReconciliationDriftRepository reconciliationDriftRepository;
+    private final Set<String> adminUserIds;
+
+    public ReconciliationService(LedgerReconciler ledgerReconciler,
+                                 ReconciliationRunRepository reconciliationRunRepository,
+                                 ReconciliationDriftRepository reconciliationDriftRepository,
+                                 @Value("${admin.user-ids:}") Set<String> adminUserIds) {
+        this.ledgerReconciler = ledgerReconciler;
+        this.reconciliationRunRepository = reconciliationRunRepository;
+        this.reconciliationDriftRepository = reconciliationDriftRepository;
+        this.adminUserIds = adminUserIds;
+    }
+
+    public ReconciliationRun startReconciliation(String authUserId) {
+        checkAdmin(authUserId);
+
+        return ledgerReconciler.start();
+    }
+
+    public ReconciliationRun resumeReconciliation(String runId, String authUserId) {
+        checkAdmin(authUserId);
+
+        var run = getRun(runId);
+        if(run.getStatus().equals(ReconciliationRun.RUNNING)) {
+            throw new ReconciliationRunningException();
+        }
+        if(run.getStatus().equals(ReconciliationRun.COMPLETED)) {
+            throw new InvalidDetailsSuppliedException();
+        }
+        return ledgerReconciler.resume(run);
+    }
+
+    public ReconciliationReport getReconciliation(String runId, String authUserId) {
+        checkAdmin(authUserId);
+
+        var run = getRun(runId);
+        return new ReconciliationReport(
+                run,
+                reconciliationDriftRepository.findByRunIdOrderByAccountNumber(run.getId(), Limit.of(MAX_REPORTED_DRIFTS))
+        );
+    }
+
+    private ReconciliationRun getRun(String runId) {
+        return reconciliationRunRepository.findById(runId)
+                .orElseThrow(ReconciliationNotFoundException::new);
+    }
+
+    private void checkAdmin(String authUserId) {
+        if(!adminUserIds.contains(authUserId)) {
+            throw new UserNotAllowedException();
+        }
+    }
+}
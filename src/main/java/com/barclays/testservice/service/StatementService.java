@@ -0,0 +1,128 @@
+package com.barclays.testservice.service;
+
+import com.barclays.testservice.exception.InvalidDetailsSuppliedException;
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.AccountDailyRollupRepository;
+import com.barclays.testservice.repository.AccountMonthlyBalanceRepository;
+import com.barclays.testservice.repository.TransactionRepository;
+import com.barclays.testservice.service.archive.TransactionArchive;
+import com.barclays.testservice.service.paging.TransactionCursor;
+import com.barclays.testservice.service.paging.TransactionFilter;
+import com.barclays.testservice.service.paging.TransactionOrder;
+import com.barclays.testservice.service.paging.TransactionPage;
+import com.barclays.testservice.service.statement.Statement;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/*
+    Monthly statements. A month's opening balance comes from the previous month's
+    checkpoint in account_monthly_balance, and its totals from the daily rollups, so
+    only the requested month's transactions are ever read. Missing checkpoints are
+    filled in from the rollups, month by month, the first time they are needed.
+ */
+@Service
+@AllArgsConstructor
+public class StatementService {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    // Postings are dated when accepted but can reach the database later (journal, posting queue),
+    // so a month is only checkpointed once it has been closed for a while
+    private static final Duration CHECKPOINT_DELAY = Duration.ofDays(1);
+
+    private final AccountService accountService;
+    private final TransactionRepository transactionRepository;
+    private final AccountDailyRollupRepository accountDailyRollupRepository;
+    private final AccountMonthlyBalanceRepository accountMonthlyBalanceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionArchive transactionArchive;
+
+    public Statement getStatement(String accountNumber, YearMonth month, Integer limit, String cursor, String authUserId) {
+        var bankAccount = accountService.getOwnedAccount(accountNumber, authUserId);
+
+        if(month.isAfter(YearMonth.now(ZoneOffset.UTC))) {
+            throw new InvalidDetailsSuppliedException();
+        }
+
+        var openingBalance = getClosingBalance(bankAccount.getAccountNumber(), month.minusMonths(1));
+        var activity = accountDailyRollupRepository.getActivity(bankAccount.getAccountNumber(), month.atDay(1), month.atEndOfMonth());
+        var closingBalance = openingBalance + activity.netMovement();
+        checkpoint(bankAccount.getAccountNumber(), month, openingBalance, closingBalance);
+
+        var from = start(month);
+        var pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        var to = start(month.plusMonths(1));
+        var after = cursor == null ? null : TransactionCursor.decode(cursor);
+        var fetchLimit = Limit.of(pageSize + 1);
+        var transactions = after == null
+                ? transactionRepository.findFirstPageBetween(bankAccount.getAccountNumber(), from, to, fetchLimit)
+                : findPageAfterBetween(bankAccount.getAccountNumber(), from, after, fetchLimit);
+        // Older months are mostly, or entirely, in the archive
+        var archived = transactionArchive.findPage(bankAccount.getAccountNumber(), TransactionFilter.between(from, to), after, pageSize + 1);
+
+        return new Statement(
+                bankAccount.getAccountNumber(),
+                month,
+                openingBalance,
+                closingBalance,
+                activity,
+                TransactionPage.of(TransactionOrder.merge(transactions, archived, pageSize + 1), pageSize)
+        );
+    }
+
+    /*
+        Walks forward from the latest checkpoint before the month (or the account's first
+        posting), adding each month's net movement and checkpointing the months passed
+     */
+    private long getClosingBalance(String accountNumber, YearMonth month) {
+        var checkpoint = accountMonthlyBalanceRepository
+                .findFirstByAccountNumberAndMonthStartLessThanOrderByMonthStartDesc(accountNumber, month.plusMonths(1).atDay(1));
+        if(checkpoint.isPresent() && YearMonth.from(checkpoint.get().getMonthStart()).equals(month)) {
+            return checkpoint.get().getClosingBalanceMinor();
+        }
+
+        YearMonth next;
+        long balance;
+        if(checkpoint.isPresent()) {
+            next = YearMonth.from(checkpoint.get().getMonthStart()).plusMonths(1);
+            balance = checkpoint.get().getClosingBalanceMinor();
+        } else {
+            var firstPostingDate = accountDailyRollupRepository.findFirstPostingDate(accountNumber);
+            if(firstPostingDate.isEmpty()) {
+                return 0L;
+            }
+            next = YearMonth.from(firstPostingDate.get());
+            balance = 0L;
+        }
+
+        for(; !next.isAfter(month); next = next.plusMonths(1)) {
+            var opening = balance;
+            balance += accountDailyRollupRepository.getActivity(accountNumber, next.atDay(1), next.atEndOfMonth()).netMovement();
+            checkpoint(accountNumber, next, opening, balance);
+        }
+        return balance;
+    }
+
+    private void checkpoint(String accountNumber, YearMonth month, long openingBalance, long closingBalance) {
+        if(start(month.plusMonths(1)).plus(CHECKPOINT_DELAY).isAfter(Instant.now())) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                accountMonthlyBalanceRepository.saveCheckpoint(accountNumber, month.atDay(1), openingBalance, closingBalance));
+    }
+
+    private List<Transaction> findPageAfterBetween(String accountNumber, Instant from, TransactionCursor cursor, Limit limit) {
+        return transactionRepository.findPageAfterBetween(accountNumber, from, cursor.createdOn(), cursor.id(), limit);
+    }
+
+    private static Instant start(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
@@ -1,72 +1,363 @@
 package com.barclays.testservice.service;
 
-import com.barclays.testservice.exception.InsufficientFundsException;
+import com.barclays.testservice.exception.IdempotentRequestPendingException;
+import com.barclays.testservice.exception.InvalidDetailsSuppliedException;
 import com.barclays.testservice.exception.TransactionNotFoundException;
 import com.barclays.testservice.exception.UserNotAllowedException;
 import com.barclays.testservice.model.Transaction;
-import com.barclays.testservice.repository.BankAccountRepository;
 import com.barclays.testservice.repository.TransactionRepository;
+import com.barclays.testservice.service.archive.TransactionArchive;
+import com.barclays.testservice.service.balance.BalanceUpdateEngine;
+import com.barclays.testservice.service.balance.SubBalanceLedger;
+import com.barclays.testservice.service.events.AccountEventBus;
+import com.barclays.testservice.service.events.AccountEventSink;
+import com.barclays.testservice.service.export.TransactionExport;
+import com.barclays.testservice.service.id.IdGenerator;
+import com.barclays.testservice.service.idempotency.IdempotentRequests;
+import com.barclays.testservice.service.paging.TransactionCursor;
+import com.barclays.testservice.service.paging.TransactionFilter;
+import com.barclays.testservice.service.paging.TransactionOrder;
+import com.barclays.testservice.service.paging.TransactionPage;
+import com.barclays.testservice.service.posting.PostingPipeline;
+import com.barclays.testservice.service.posting.PostingStatus;
+import com.barclays.testservice.service.read.ReadOnlyTransactions;
+import com.barclays.testservice.service.recent.RecentTransactionCache;
+import com.barclays.testservice.service.velocity.WithdrawalLimits;
+import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class TransactionService {
 
-    private static final String TRANS_ID_PREFIX = "tan-";
+    private static final int DEFAULT_PAGE_SIZE = 100;
 
     private final TransactionRepository transactionRepository;
-    private final BankAccountRepository bankAccountRepository;
+    private final BalanceUpdateEngine balanceUpdateEngine;
+    private final SubBalanceLedger subBalanceLedger;
     private final AccountService accountService;
+    private final PostingPipeline postingPipeline;
+    private final IdempotentRequests idempotentRequests;
+    private final IdGenerator idGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final TransactionArchive transactionArchive;
+    private final RecentTransactionCache recentTransactionCache;
+    private final AccountEventBus accountEventBus;
+    private final WithdrawalLimits withdrawalLimits;
+    private final ReadOnlyTransactions readOnlyTransactions;
 
-    public Transaction createTransaction(Transaction newTransaction, String accountNumber, String authUserId) {
-        var bankAccount = accountService.getAccountByAccountNumber(accountNumber, authUserId);
+    public Transaction createTransaction(Transaction newTransaction, String accountNumber, String idempotencyKey, String authUserId) {
+        var bankAccount = accountService.getOwnedAccount(accountNumber, authUserId);
 
-        newTransaction.setId(getNextTransactionId());
-        newTransaction.setAccountNumber(bankAccount.getAccountNumber());
+        var requestHash = IdempotentRequests.requestHash("createTransaction",
+                newTransaction.getType(), newTransaction.getAmount(), newTransaction.getCurrency(), newTransaction.getReference());
 
-        if(newTransaction.getType().equals("deposit")) {
+        return idempotentRequests.execute(authUserId, bankAccount.getAccountNumber(), idempotencyKey, requestHash, this::getNextTransactionId, transactionId -> {
+            newTransaction.setId(transactionId);
+            newTransaction.setAccountNumber(bankAccount.getAccountNumber());
 
-            bankAccount.setBalance(bankAccount.getBalance() + newTransaction.getAmount());
-            bankAccountRepository.save(bankAccount);
+            if(newTransaction.getType().equals("deposit")) {
 
-            return transactionRepository.save(newTransaction);
+                return post(newTransaction, newTransaction.getAmount());
 
-        } else if(newTransaction.getType().equals("withdrawal")) {
+            } else if(newTransaction.getType().equals("withdrawal")) {
+
+                return withdrawalLimits.withdraw(bankAccount.getAccountNumber(), bankAccount.getUserId(), newTransaction.getAmount(),
+                        () -> post(newTransaction, -newTransaction.getAmount()));
 
-            if(bankAccount.getBalance() < newTransaction.getAmount()) {
-                throw new InsufficientFundsException();
             } else {
+                throw new UserNotAllowedException();
+            }
+        }, storedId -> findPosted(bankAccount.getAccountNumber(), storedId));
 
-                bankAccount.setBalance(bankAccount.getBalance() - newTransaction.getAmount());
-                bankAccountRepository.save(bankAccount);
+    }
 
-                return transactionRepository.save(newTransaction);
-            }
-        } else {
+    /*
+        Debits the account and credits the destination account in one unit, recorded as
+        a withdrawal and a deposit that reference each other. Returns the debit and the credit.
+     */
+    public List<Transaction> createTransfer(String accountNumber, String toAccountNumber, long amount, String currency, String idempotencyKey, String authUserId) {
+        var bankAccount = accountService.getOwnedAccount(accountNumber, authUserId);
+
+        // Sub-balance slots are posted outside the balance update engine, so they cannot take part in a transfer
+        if(bankAccount.getAccountNumber().equals(toAccountNumber)
+                || subBalanceLedger.isHot(bankAccount.getAccountNumber())
+                || subBalanceLedger.isHot(toAccountNumber)) {
+            throw new InvalidDetailsSuppliedException();
+        }
+
+        // The key stores the debit, a replay finds the credit through it
+        var requestHash = IdempotentRequests.requestHash("createTransfer", toAccountNumber, amount, currency);
+        return idempotentRequests.execute(authUserId, bankAccount.getAccountNumber(), idempotencyKey, requestHash, this::getNextTransactionId,
+                debitId -> {
+                    var debit = Transaction.builder()
+                            .id(debitId)
+                            .accountNumber(bankAccount.getAccountNumber())
+                            .amount(amount)
+                            .currency(currency)
+                            .type("withdrawal")
+                            .build();
+                    var credit = Transaction.builder()
+                            .id(getNextTransactionId())
+                            .accountNumber(toAccountNumber)
+                            .amount(amount)
+                            .currency(currency)
+                            .type("deposit")
+                            .linkedTransactionId(debitId)
+                            .build();
+                    debit.setLinkedTransactionId(credit.getId());
+
+                    return withdrawalLimits.withdraw(bankAccount.getAccountNumber(), bankAccount.getUserId(), amount,
+                            () -> balanceUpdateEngine.transfer(debit, credit));
+                },
+                storedId -> {
+                    var storedDebit = findPosted(bankAccount.getAccountNumber(), storedId);
+                    return List.of(storedDebit, findPosted(toAccountNumber, storedDebit.getLinkedTransactionId()));
+                });
+    }
+
+    public PostingStatus submitTransaction(Transaction newTransaction, String accountNumber, String idempotencyKey, String authUserId) {
+        var bankAccount = accountService.getOwnedAccount(accountNumber, authUserId);
+
+        if(!newTransaction.getType().equals("deposit") && !newTransaction.getType().equals("withdrawal")) {
             throw new UserNotAllowedException();
         }
 
+        if(idempotencyKey == null) {
+            newTransaction.setId(getNextTransactionId());
+            newTransaction.setAccountNumber(bankAccount.getAccountNumber());
+
+            return submit(newTransaction, bankAccount.getUserId());
+        }
+
+        // A replay reports the current status of the original posting
+        var requestHash = IdempotentRequests.requestHash("submitTransaction",
+                newTransaction.getType(), newTransaction.getAmount(), newTransaction.getCurrency(), newTransaction.getReference());
+        var submittedId = idempotentRequests.execute(authUserId, bankAccount.getAccountNumber(), idempotencyKey, requestHash, this::getNextTransactionId, transactionId -> {
+            newTransaction.setId(transactionId);
+            newTransaction.setAccountNumber(bankAccount.getAccountNumber());
+
+            submit(newTransaction, bankAccount.getUserId());
+            return transactionId;
+        }, Function.identity());
+        return getPostingStatus(bankAccount.getAccountNumber(), submittedId);
+    }
+
+    public PostingStatus getPostingStatus(String accountNumber, String transactionId, String authUserId) {
+        var bankAccount = accountService.getOwnedAccount(accountNumber, authUserId);
+
+        return getPostingStatus(bankAccount.getAccountNumber(), transactionId);
+    }
+
+    private PostingStatus getPostingStatus(String accountNumber, String transactionId) {
+        var status = postingPipeline.getStatus(transactionId)
+                .filter(pipelineStatus -> pipelineStatus.accountNumber().equals(accountNumber));
+        if(status.isPresent()) {
+            return status.get();
+        }
+
+        return findTransaction(accountNumber, transactionId)
+                .map(transaction -> PostingStatus.posted(transaction.getId(), transaction.getAccountNumber()))
+                .orElseThrow(TransactionNotFoundException::new);
     }
 
     public Transaction getTransactionByIdAndAccountNumber(String accountNumber, String transactionId, String authUserId) {
-        var bankAccount = accountService.getAccountByAccountNumber(accountNumber, authUserId);
+        var bankAccount = accountService.getOwnedAccount(accountNumber, authUserId);
 
-        return transactionRepository.findByIdAndAccountNumber(transactionId, bankAccount.getAccountNumber())
+        return findTransaction(bankAccount.getAccountNumber(), transactionId)
                 .orElseThrow(TransactionNotFoundException::new);
     }
 
-    public List<Transaction> getTransactionsByAccount(String accountNumber, String authUserId) {
-        var bankAccount = accountService.getAccountByAccountNumber(accountNumber, authUserId);
+    /*
+        A list of the account's transactions uses the account's ETag, since only postings change the list.
+        The request is checked as the list would be, so a tag is never matched in place of a 400.
+     */
+    public String getTransactionsTag(String accountNumber, TransactionFilter filter, String cursor, String authUserId) {
+        var tag = accountService.getAccountTag(accountNumber, authUserId);
+
+        if(!filter.isEmpty()) {
+            validate(filter);
+        }
+        if(cursor != null) {
+            TransactionCursor.decode(cursor);
+        }
+        return tag;
+    }
+
+    /*
+        Without a limit, cursor or filter every transaction is returned, as before paging was added.
+        Otherwise one page, newest first, with a cursor for the next page if there may be one.
+        Both read the transaction table and the archive, in one read-only transaction, unless
+        the recent transaction cache holds the answer.
+     */
+    public TransactionPage getTransactionsByAccount(String accountNumber, TransactionFilter filter, Integer limit, String cursor, String authUserId) {
+        var bankAccount = accountService.getOwnedAccount(accountNumber, authUserId);
+
+        if(limit == null && cursor == null && filter.isEmpty()) {
+            return new TransactionPage(findAll(bankAccount.getAccountNumber()), null);
+        }
+
+        var pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        var after = cursor == null ? null : TransactionCursor.decode(cursor);
+        if(filter.isEmpty()) {
+            var cached = recentTransactionCache.findPage(bankAccount.getAccountNumber(), after, pageSize + 1);
+            if(cached.isPresent()) {
+                return TransactionPage.of(cached.get(), pageSize);
+            }
+        }
+
+        if(!filter.isEmpty()) {
+            validate(filter);
+        }
+        return readOnlyTransactions.execute(() -> {
+            List<Transaction> transactions;
+            if(!filter.isEmpty()) {
+                transactions = search(bankAccount.getAccountNumber(), filter, after, pageSize + 1);
+            } else {
+                var fetchLimit = Limit.of(pageSize + 1);
+                transactions = after == null
+                        ? transactionRepository.findFirstPage(bankAccount.getAccountNumber(), fetchLimit)
+                        : findPageAfter(bankAccount.getAccountNumber(), after, fetchLimit);
+            }
 
-        return transactionRepository.findByAccountNumber(bankAccount.getAccountNumber());
+            var archived = transactionArchive.findPage(bankAccount.getAccountNumber(), filter, after, pageSize + 1);
+            return TransactionPage.of(TransactionOrder.merge(transactions, archived, pageSize + 1), pageSize);
+        });
+    }
+
+    /*
+        The transactions created with the reference, newest first: an index probe of the
+        transaction table, plus the archived ones if the account has any in the archive
+     */
+    public List<Transaction> getTransactionsByReference(String accountNumber, String reference, String authUserId) {
+        var bankAccount = accountService.getOwnedAccount(accountNumber, authUserId);
+
+        var transactions = transactionRepository.findByAccountNumberAndReference(bankAccount.getAccountNumber(), reference);
+        var archived = transactionArchive.findByReference(bankAccount.getAccountNumber(), reference);
+        return TransactionOrder.merge(transactions, archived, transactions.size() + archived.size());
+    }
+
+    /*
+        Every transaction on the account, newest first, read through a database cursor when
+        the export is run and followed by the archived ones. Each row is detached once consumed,
+        so memory use does not grow with the size of the account's history.
+     */
+    public TransactionExport exportTransactionsByAccount(String accountNumber, String authUserId) {
+        var bankAccount = accountService.getOwnedAccount(accountNumber, authUserId);
+
+        return consumer -> transactionTemplate.executeWithoutResult(status -> {
+            try(var transactions = transactionRepository.streamByAccountNumber(bankAccount.getAccountNumber())) {
+                TransactionOrder.merge(List.of(transactions.iterator(), transactionArchive.read(bankAccount.getAccountNumber())))
+                        .forEachRemaining(transaction -> {
+                            consumer.accept(transaction);
+                            entityManager.detach(transaction);
+                        });
+            }
+        });
+    }
+
+    /*
+        The account's balance, then each posting and balance change as it commits, sent to the
+        sink until the subscription is cancelled or the sink falls behind
+     */
+    public AccountEventBus.Subscription subscribeToAccountEvents(String accountNumber, AccountEventSink sink, String authUserId) {
+        var bankAccount = accountService.getOwnedAccount(accountNumber, authUserId);
+
+        return accountEventBus.subscribe(bankAccount.getAccountNumber(), sink);
+    }
+
+    /*
+        The filter is applied to the index entries to find the page's ids, then only the rows
+        on the page are loaded, so rows the filter drops are never read.
+     */
+    private List<Transaction> search(String accountNumber, TransactionFilter filter, TransactionCursor after, int limit) {
+        var ids = transactionRepository.findIds(accountNumber, filter, after, limit);
+        if(ids.isEmpty()) {
+            return List.of();
+        }
+
+        var byId = transactionRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .toList();
+    }
+
+    private static void validate(TransactionFilter filter) {
+        if(filter.type() != null && !filter.type().equals("deposit") && !filter.type().equals("withdrawal")) {
+            throw new InvalidDetailsSuppliedException();
+        }
+        if(filter.from() != null && filter.to() != null && !filter.from().isBefore(filter.to())) {
+            throw new InvalidDetailsSuppliedException();
+        }
+        if(filter.minAmount() != null && filter.maxAmount() != null && filter.minAmount() > filter.maxAmount()) {
+            throw new InvalidDetailsSuppliedException();
+        }
+    }
+
+    private Optional<Transaction> findTransaction(String accountNumber, String transactionId) {
+        return recentTransactionCache.find(accountNumber, transactionId)
+                .or(() -> transactionRepository.findByIdAndAccountNumber(transactionId, accountNumber))
+                .or(() -> transactionArchive.find(accountNumber, transactionId));
+    }
+
+    /*
+        The transaction a stored Idempotency-Key created. The key commits with its posting, so
+        one without a transaction is only seen while the journal has not been applied yet.
+     */
+    private Transaction findPosted(String accountNumber, String transactionId) {
+        return findTransaction(accountNumber, transactionId)
+                .orElseThrow(IdempotentRequestPendingException::new);
+    }
+
+    private List<Transaction> findAll(String accountNumber) {
+        var cached = recentTransactionCache.findAll(accountNumber);
+        if(cached.isPresent()) {
+            return cached.get();
+        }
+
+        return readOnlyTransactions.execute(() -> {
+            var transactions = transactionRepository.findByAccountNumber(accountNumber);
+            var archived = transactionArchive.findAll(accountNumber);
+            if(archived.isEmpty()) {
+                return transactions;
+            }
+            // merge drops a transaction found in both, as it is while its segment's rows are being deleted
+            var newestFirst = transactions.stream().sorted(TransactionOrder.NEWEST_FIRST).toList();
+            return TransactionOrder.merge(newestFirst, archived, newestFirst.size() + archived.size());
+        });
+    }
+
+    private List<Transaction> findPageAfter(String accountNumber, TransactionCursor cursor, Limit limit) {
+        return transactionRepository.findPageAfter(accountNumber, cursor.createdOn(), cursor.id(), limit);
+    }
+
+    private Transaction post(Transaction transaction, long delta) {
+        if(subBalanceLedger.isHot(transaction.getAccountNumber())) {
+            return subBalanceLedger.post(transaction.getAccountNumber(), delta, List.of(transaction)).getFirst();
+        }
+        return balanceUpdateEngine.post(transaction, delta);
+    }
+
+    private PostingStatus submit(Transaction transaction, String userId) {
+        if(transaction.getType().equals("withdrawal")) {
+            return withdrawalLimits.withdrawLater(transaction.getAccountNumber(), userId, transaction.getAmount(),
+                    refund -> postingPipeline.submit(transaction, refund));
+        }
+        return postingPipeline.submit(transaction);
     }
 
     private String getNextTransactionId() {
-        // NOT SURE WHY OPENAPI SCHEMA ONLY ALLOWS ONE CHARACTER
-        return TRANS_ID_PREFIX + (char) ('A' + transactionRepository.getNextSequenceValue());
+        return idGenerator.nextTransactionId();
     }
 
 }
@@ -6,21 +6,25 @@ import com.barclays.testservice.exception.UserNotFoundException;
 import com.barclays.testservice.model.User;
 import com.barclays.testservice.repository.AddressRepository;
 import com.barclays.testservice.repository.UserRepository;
+import com.barclays.testservice.service.id.IdGenerator;
+import com.barclays.testservice.service.user.DeletedUser;
+import com.barclays.testservice.service.user.UserProfile;
+import com.barclays.testservice.service.version.ResourceVersions;
 import lombok.AllArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @AllArgsConstructor
 public class UserService {
 
-    private static final String USER_ID_PREFIX = "usr-";
-    private static final String ADDRESS_ID_PREFIX = "adr-";
-
     private final UserRepository userRepository;
     private final AddressRepository addressRepository;
-    private final AccountService accountService;
     private final PasswordEncoder passwordEncoder;
+    private final IdGenerator idGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourceVersions resourceVersions;
 
 
     public User createUser(User newUser, String password) {
@@ -30,14 +34,21 @@ public class UserService {
         return userRepository.save(newUser);
     }
 
-    public User getUserByUserId(String userId, String authUserId) {
+    public UserProfile getUserByUserId(String userId, String authUserId) {
         checkUserIdAllowed(userId, authUserId);
 
-        return  userRepository.findById(userId)
+        return userRepository.findProfileById(userId)
                 .orElseThrow(UserNotFoundException::new);
     }
 
 
+    // ETag of the user from their version stamp, the user is not loaded
+    public String getUserTag(String userId, String authUserId) {
+        checkUserIdAllowed(userId, authUserId);
+
+        return resourceVersions.tag(resourceVersions.user(userId));
+    }
+
     public User updateUserByUserId(String userId, User updateUser, String authUserId) {
         checkUserIdAllowed(userId, authUserId);
 
@@ -55,22 +66,32 @@ public class UserService {
         fetchedUser.setPhoneNumber(updateUser.getPhoneNumber());
         fetchedUser.setEmail(updateUser.getEmail());
 
-        return userRepository.save(fetchedUser);
+        var savedUser = userRepository.save(fetchedUser);
+        resourceVersions.userChanged(userId);
+        return savedUser;
     }
 
+    /*
+        The user and their address are deleted only if they have no bank accounts, checked in
+        the same statement. Only when it deletes nothing is the user looked up, to tell a user
+        with accounts (409) from one that does not exist (404).
+     */
     public void deleteUserByUserId(String userId, String authUserId) {
         checkUserIdAllowed(userId, authUserId);
 
-        if(!userRepository.existsById(userId)) {
-            throw new UserNotFoundException();
-        }
+        var deleted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            var deletedUser = userRepository.deleteWithoutAccounts(userId);
+            deletedUser.map(DeletedUser::getAddressId).ifPresent(addressRepository::deleteAddress);
+            return deletedUser.isPresent();
+        }));
 
-        // If a user has bank accounts, we can't delete
-        if(accountService.checkUserHasBankAccounts(userId)) {
+        if(!deleted) {
+            if(!userRepository.existsById(userId)) {
+                throw new UserNotFoundException();
+            }
             throw new UserHasAccountsException();
         }
-
-        userRepository.deleteById(userId);
+        resourceVersions.userChanged(userId);
     }
 
     private void checkUserIdAllowed(String userId, String authUserId) {
@@ -80,10 +101,10 @@ public class UserService {
     }
 
     private String getNextUserId() {
-        return USER_ID_PREFIX + userRepository.getNextSequenceValue();
+        return idGenerator.nextUserId();
     }
 
     private String getNextAddressId() {
-        return ADDRESS_ID_PREFIX + addressRepository.getNextSequenceValue();
+        return idGenerator.nextAddressId();
     }
 }
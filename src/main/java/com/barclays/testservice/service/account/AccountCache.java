@@ -0,0 +1,147 @@
+package com.barclays.testservice.service.account;
+
+import com.barclays.testservice.model.BankAccount;
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    Copies of bank accounts keyed by account number, and the account numbers of each user,
+    so ownership checks and account reads do not go to the database. Both are bounded by
+    size and expire ttl-seconds after they were loaded.
+
+    Postings do not evict an account, they mark its balance as out of date once they have
+    committed (see CommittedPostings): who owns the account is still known, a read that
+    returns the balance loads the account again. Every other change to an account, and
+    creating or deleting one, evicts it through AccountService.
+
+    A load and an eviction or mark of the same key are serialised by the cache, so a change
+    that commits while a key is loaded is never lost. Accounts read along with a user's list
+    are only kept if no posting committed meanwhile, or are marked straight after.
+
+    Accounts are cached as immutable AccountDetails records. Every read returns a new
+    BankAccount, callers are free to change it.
+ */
+@Component
+public class AccountCache {
+
+    private record CachedAccount(AccountDetails account, boolean balanceCurrent) {
+    }
+
+    private final BankAccountRepository bankAccountRepository;
+    private final Cache<String, CachedAccount> accounts;
+    private final Cache<String, List<String>> userAccounts;
+    // Counts postings marked, so accounts loaded in bulk can tell whether one committed meanwhile
+    private final AtomicLong balanceChanges = new AtomicLong();
+    private final LongAdder balanceReloads = new LongAdder();
+
+    public AccountCache(BankAccountRepository bankAccountRepository,
+                        @Value("${account-cache.max-accounts:100000}") long maxAccounts,
+                        @Value("${account-cache.max-users:50000}") long maxUsers,
+                        @Value("${account-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(maxAccounts)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.userAccounts = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    // The account with its current balance
+    public Optional<BankAccount> find(String accountNumber) {
+        var cached = accounts.get(accountNumber, this::load);
+        if(cached != null && !cached.balanceCurrent()) {
+            balanceReloads.increment();
+            cached = accounts.asMap().compute(accountNumber,
+                    (key, existing) -> existing == null || !existing.balanceCurrent() ? load(key) : existing);
+        }
+        return Optional.ofNullable(cached).map(CachedAccount::account).map(AccountDetails::toBankAccount);
+    }
+
+    // The account as cached, its balance may be out of date
+    public Optional<BankAccount> findIgnoringBalance(String accountNumber) {
+        return Optional.ofNullable(accounts.get(accountNumber, this::load))
+                .map(CachedAccount::account)
+                .map(AccountDetails::toBankAccount);
+    }
+
+    // The user's accounts with their current balances, in the order the repository lists them
+    public List<BankAccount> findByUserId(String userId) {
+        var loaded = new ArrayList<AccountDetails>();
+        var accountNumbers = userAccounts.get(userId, key -> loadUser(key, loaded));
+        if(!loaded.isEmpty()) {
+            return loaded.stream().map(AccountDetails::toBankAccount).toList();
+        }
+        return accountNumbers.stream()
+                .map(this::find)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    // The user's account numbers, loading them and their accounts on a miss
+    public List<String> accountNumbersOf(String userId) {
+        return userAccounts.get(userId, key -> loadUser(key, new ArrayList<>()));
+    }
+
+    public void invalidate(String accountNumber) {
+        accounts.invalidate(accountNumber);
+    }
+
+    public void invalidateUser(String userId) {
+        userAccounts.invalidate(userId);
+    }
+
+    public void balancesChanged(Collection<String> accountNumbers) {
+        balanceChanges.incrementAndGet();
+        accountNumbers.forEach(accountNumber -> accounts.asMap().computeIfPresent(accountNumber,
+                (key, cached) -> cached.balanceCurrent() ? new CachedAccount(cached.account(), false) : cached));
+    }
+
+    public void invalidateAll() {
+        accounts.invalidateAll();
+        userAccounts.invalidateAll();
+    }
+
+    public AccountCacheStatistics accountStatistics() {
+        return AccountCacheStatistics.of("accounts", accounts, balanceReloads.sum());
+    }
+
+    public AccountCacheStatistics userAccountStatistics() {
+        return AccountCacheStatistics.of("user-accounts", userAccounts, 0);
+    }
+
+    private CachedAccount load(String accountNumber) {
+        // findById runs in the repository's read-only transaction, so the entity is not snapshotted
+        // either, and allocates less than a query for the record (see ReadProjectionBenchmark)
+        return bankAccountRepository.findById(accountNumber)
+                .map(bankAccount -> new CachedAccount(AccountDetails.of(bankAccount), true))
+                .orElse(null);
+    }
+
+    private List<String> loadUser(String userId, List<AccountDetails> loaded) {
+        var changes = balanceChanges.get();
+        loaded.addAll(bankAccountRepository.findDetailsByUserId(userId));
+
+        loaded.forEach(account -> accounts.asMap().putIfAbsent(account.accountNumber(), new CachedAccount(account, true)));
+        // A posting that committed after the read may have found nothing to mark yet
+        if(balanceChanges.get() != changes) {
+            balancesChanged(loaded.stream().map(AccountDetails::accountNumber).toList());
+        }
+        return loaded.stream().map(AccountDetails::accountNumber).toList();
+    }
+}
@@ -0,0 +1,15 @@
+package com.barclays.testservice.service.account;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+/*
+    Counts since startup. balanceReloads are hits on an account whose balance was out of
+    date after a posting, and had to be loaded again.
+ */
+public record AccountCacheStatistics(String name, long size, long hits, long misses, long evictions, long balanceReloads) {
+
+    static AccountCacheStatistics of(String name, Cache<?, ?> cache, long balanceReloads) {
+        var stats = cache.stats();
+        return new AccountCacheStatistics(name, cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.evictionCount(), balanceReloads);
+    }
+}
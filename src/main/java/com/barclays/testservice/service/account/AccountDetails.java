@@ -0,0 +1,55 @@
+package com.barclays.testservice.service.account;
+
+import com.barclays.testservice.model.BankAccount;
+
+import java.time.Instant;
+
+/*
+    A bank account row as read for display and ownership checks, selected column by column
+    rather than loaded as a managed entity
+ */
+public record AccountDetails(String accountNumber,
+                             String userId,
+                             String name,
+                             String accountType,
+                             String sortCode,
+                             long balance,
+                             String currency,
+                             Long version,
+                             Integer subBalanceSlots,
+                             Instant createdOn,
+                             Instant lastUpdatedOn) {
+
+    public static AccountDetails of(BankAccount bankAccount) {
+        return new AccountDetails(
+                bankAccount.getAccountNumber(),
+                bankAccount.getUserId(),
+                bankAccount.getName(),
+                bankAccount.getAccountType(),
+                bankAccount.getSortCode(),
+                bankAccount.getBalance(),
+                bankAccount.getCurrency(),
+                bankAccount.getVersion(),
+                bankAccount.getSubBalanceSlots(),
+                bankAccount.getCreatedOn(),
+                bankAccount.getLastUpdatedOn()
+        );
+    }
+
+    // A new, detached BankAccount each time, callers are free to change it
+    public BankAccount toBankAccount() {
+        return BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(userId)
+                .name(name)
+                .accountType(accountType)
+                .sortCode(sortCode)
+                .balance(balance)
+                .currency(currency)
+                .version(version)
+                .subBalanceSlots(subBalanceSlots)
+                .createdOn(createdOn)
+                .lastUpdatedOn(lastUpdatedOn)
+                .build();
+    }
+}
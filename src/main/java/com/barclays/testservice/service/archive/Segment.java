@@ -0,0 +1,225 @@
+package com.barclays.testservice.service.archive;
+
+import com.barclays.testservice.model.Transaction;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/*
+    An immutable, memory-mapped file of archived transactions, sorted by account number
+    and then newest first:
+
+        magic, version
+        blocks: up to block-transactions records each, every block deflated on its own
+        index:  per block the first and last account number, offset and lengths, and the
+                lowest and highest transaction id
+        index offset, magic
+
+    The index (one entry per block) is held in memory, so reading an account decodes
+    only the blocks that hold its transactions, and finding a transaction by id only the
+    blocks whose id range covers it. Ids are time ordered and a block holds a run of an
+    account's transactions by time, so the id ranges of an account's blocks barely overlap
+    and a lookup decodes about one block. Version 2 added the reference to each record
+    and version 3 the id range to the index; older segments are still read, looking for an
+    id in every block of the account.
+ */
+final class Segment implements AutoCloseable {
+
+    static final int MAGIC = 0x54534547;
+    static final int VERSION = 3;
+    private static final int VERSION_WITHOUT_REFERENCES = 1;
+    private static final int VERSION_WITHOUT_ID_RANGES = 2;
+
+    // lowestId and highestId are null in segments without id ranges
+    record Block(String firstAccountNumber, String lastAccountNumber, long offset, int compressedLength, int length,
+                 String lowestId, String highestId) {
+
+        boolean mayHoldId(String id) {
+            return lowestId == null || lowestId.compareTo(id) <= 0 && highestId.compareTo(id) >= 0;
+        }
+    }
+
+    private final String name;
+    private final int version;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final List<Block> index;
+
+    private Segment(String name, int version, FileChannel channel, MappedByteBuffer buffer, List<Block> index) {
+        this.name = name;
+        this.version = version;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.index = index;
+    }
+
+    static Segment open(Path path) throws IOException {
+        var channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            var trailer = buffer.capacity() - 12;
+            var version = buffer.getInt(4);
+            if(buffer.getInt(0) != MAGIC || version < VERSION_WITHOUT_REFERENCES || version > VERSION || buffer.getInt(trailer + 8) != MAGIC) {
+                throw new IOException("Not a transaction segment: " + path);
+            }
+
+            var indexOffset = (int) buffer.getLong(trailer);
+            var indexBytes = new byte[trailer - indexOffset];
+            buffer.get(indexOffset, indexBytes);
+            try(var in = new DataInputStream(new ByteArrayInputStream(indexBytes))) {
+                var blockCount = in.readInt();
+                var index = new ArrayList<Block>(blockCount);
+                for(int i = 0; i < blockCount; i++) {
+                    index.add(version > VERSION_WITHOUT_ID_RANGES
+                            ? new Block(in.readUTF(), in.readUTF(), in.readLong(), in.readInt(), in.readInt(), in.readUTF(), in.readUTF())
+                            : new Block(in.readUTF(), in.readUTF(), in.readLong(), in.readInt(), in.readInt(), null, null));
+                }
+                return new Segment(path.getFileName().toString(), version, channel, buffer, index);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    String name() {
+        return name;
+    }
+
+    /*
+        The account's transactions in this segment, newest first, decoded a block at a time
+     */
+    Iterator<Transaction> read(String accountNumber) {
+        var first = firstBlock(accountNumber);
+        if(first == index.size() || index.get(first).firstAccountNumber().compareTo(accountNumber) > 0) {
+            return Collections.emptyIterator();
+        }
+
+        return new Iterator<>() {
+            private int nextBlock = first;
+            private Iterator<Transaction> block = Collections.emptyIterator();
+            private Transaction next;
+
+            @Override
+            public boolean hasNext() {
+                while(next == null) {
+                    if(block.hasNext()) {
+                        var transaction = block.next();
+                        if(transaction.getAccountNumber().equals(accountNumber)) {
+                            next = transaction;
+                        }
+                    } else if(nextBlock < index.size() && index.get(nextBlock).firstAccountNumber().compareTo(accountNumber) <= 0) {
+                        block = decode(index.get(nextBlock++)).iterator();
+                    } else {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public Transaction next() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                var transaction = next;
+                next = null;
+                return transaction;
+            }
+        };
+    }
+
+    /*
+        The account's transaction with the id, decoding only the blocks of the account whose
+        id range covers it
+     */
+    Optional<Transaction> find(String accountNumber, String id) {
+        for(int i = firstBlock(accountNumber); i < index.size() && index.get(i).firstAccountNumber().compareTo(accountNumber) <= 0; i++) {
+            if(!index.get(i).mayHoldId(id)) {
+                continue;
+            }
+            for(var transaction : decode(index.get(i))) {
+                if(transaction.getId().equals(id) && transaction.getAccountNumber().equals(accountNumber)) {
+                    return Optional.of(transaction);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Binary search for the first block whose last account number is not before the account
+    private int firstBlock(String accountNumber) {
+        int low = 0;
+        int high = index.size();
+        while(low < high) {
+            var middle = (low + high) >>> 1;
+            if(index.get(middle).lastAccountNumber().compareTo(accountNumber) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private List<Transaction> decode(Block block) {
+        var records = new byte[block.length()];
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice((int) block.offset(), block.compressedLength()));
+            var read = 0;
+            while(read < records.length && !inflater.finished()) {
+                read += inflater.inflate(records, read, records.length - read);
+            }
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt block in segment " + name, e));
+        } finally {
+            inflater.end();
+        }
+
+        try(var in = new DataInputStream(new ByteArrayInputStream(records))) {
+            var count = in.readInt();
+            var transactions = new ArrayList<Transaction>(count);
+            for(int i = 0; i < count; i++) {
+                var transaction = Transaction.builder()
+                        .accountNumber(in.readUTF())
+                        .id(in.readUTF())
+                        .amount(in.readLong())
+                        .currency(in.readUTF())
+                        .type(in.readUTF())
+                        .build();
+                var linkedTransactionId = in.readUTF();
+                transaction.setLinkedTransactionId(linkedTransactionId.isEmpty() ? null : linkedTransactionId);
+                transaction.setCreatedOn(Instant.ofEpochSecond(in.readLong(), in.readInt()));
+                if(version != VERSION_WITHOUT_REFERENCES) {
+                    var reference = in.readUTF();
+                    transaction.setReference(reference.isEmpty() ? null : reference);
+                }
+                transactions.add(transaction);
+            }
+            return transactions;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
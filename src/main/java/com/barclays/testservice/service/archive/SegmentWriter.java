@@ -0,0 +1,114 @@
+package com.barclays.testservice.service.archive;
+
+import com.barclays.testservice.model.Transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/*
+    Writes a segment file, see Segment for the layout. The file is written under a
+    temporary name, forced to disk and then renamed, so a segment file is either
+    complete or absent.
+ */
+final class SegmentWriter {
+
+    private SegmentWriter() {
+    }
+
+    // transactions must be sorted by account number, then newest first
+    static void write(Path path, List<Transaction> transactions, int blockTransactions) throws IOException {
+        var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        var index = new ArrayList<Segment.Block>();
+        var deflater = new Deflater(Deflater.BEST_SPEED);
+
+        try(var channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, ByteBuffer.allocate(8).putInt(Segment.MAGIC).putInt(Segment.VERSION).flip());
+
+            for(int start = 0; start < transactions.size(); start += blockTransactions) {
+                var block = transactions.subList(start, Math.min(transactions.size(), start + blockTransactions));
+                var records = encode(block);
+
+                deflater.reset();
+                deflater.setInput(records);
+                deflater.finish();
+                var compressed = new ByteArrayOutputStream(records.length / 2);
+                var buffer = new byte[8192];
+                while(!deflater.finished()) {
+                    compressed.write(buffer, 0, deflater.deflate(buffer));
+                }
+
+                index.add(new Segment.Block(
+                        block.getFirst().getAccountNumber(),
+                        block.getLast().getAccountNumber(),
+                        channel.position(),
+                        compressed.size(),
+                        records.length,
+                        block.stream().map(Transaction::getId).min(Comparator.naturalOrder()).orElseThrow(),
+                        block.stream().map(Transaction::getId).max(Comparator.naturalOrder()).orElseThrow()));
+                writeFully(channel, ByteBuffer.wrap(compressed.toByteArray()));
+            }
+
+            var indexOffset = channel.position();
+            writeFully(channel, ByteBuffer.wrap(encodeIndex(index)));
+            writeFully(channel, ByteBuffer.allocate(12).putLong(indexOffset).putInt(Segment.MAGIC).flip());
+            channel.force(true);
+        } finally {
+            deflater.end();
+        }
+
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static byte[] encode(List<Transaction> block) throws IOException {
+        var bytes = new ByteArrayOutputStream(block.size() * 96);
+        try(var out = new DataOutputStream(bytes)) {
+            out.writeInt(block.size());
+            for(var transaction : block) {
+                out.writeUTF(transaction.getAccountNumber());
+                out.writeUTF(transaction.getId());
+                out.writeLong(transaction.getAmount());
+                out.writeUTF(transaction.getCurrency());
+                out.writeUTF(transaction.getType());
+                out.writeUTF(transaction.getLinkedTransactionId() == null ? "" : transaction.getLinkedTransactionId());
+                out.writeLong(transaction.getCreatedOn().getEpochSecond());
+                out.writeInt(transaction.getCreatedOn().getNano());
+                out.writeUTF(transaction.getReference() == null ? "" : transaction.getReference());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeIndex(List<Segment.Block> index) throws IOException {
+        var bytes = new ByteArrayOutputStream(index.size() * 40);
+        try(var out = new DataOutputStream(bytes)) {
+            out.writeInt(index.size());
+            for(var block : index) {
+                out.writeUTF(block.firstAccountNumber());
+                out.writeUTF(block.lastAccountNumber());
+                out.writeLong(block.offset());
+                out.writeInt(block.compressedLength());
+                out.writeInt(block.length());
+                out.writeUTF(block.lowestId());
+                out.writeUTF(block.highestId());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.barclays.testservice.service.archive;
+
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.TransactionSegmentRepository;
+import com.barclays.testservice.service.paging.TransactionCursor;
+import com.barclays.testservice.service.paging.TransactionFilter;
+import com.barclays.testservice.service.paging.TransactionOrder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Cold tier of the transaction table. Transactions older than min-age-days are moved,
+    segment-transactions at a time, into immutable segment files (see Segment) and deleted
+    from the table, so the table only holds recent history.
+
+    A segment is written and forced to disk before it is registered in transaction_segment
+    in the same database transaction that deletes its transactions and adds them to
+    account_archive_total. A file left unregistered by a crash in between is deleted at
+    startup and its transactions archived again by the next run.
+
+    Reads return an account's archived transactions newest first, for callers to merge
+    with the ones still in the table (see TransactionOrder).
+ */
+@Component
+// Segments are opened at startup from the transaction_segment table
+@DependsOnDatabaseInitialization
+@Slf4j
+public class TransactionArchive {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    // Read in idx_transaction_account_created order, so segments are written without sorting
+    private static final String SELECT_COLD_TRANSACTIONS =
+            "SELECT id, account_number, amount_minor, currency, type, linked_transaction_id, created_on, reference FROM transaction"
+                    + " WHERE created_on < ? ORDER BY account_number, created_on DESC, id DESC FETCH FIRST ? ROWS ONLY";
+    private static final String DELETE_TRANSACTION =
+            "DELETE FROM transaction WHERE id = ?";
+    private static final String ADD_ARCHIVE_TOTAL =
+            "MERGE INTO account_archive_total a"
+                    + " USING (VALUES (CAST(? AS VARCHAR), CAST(? AS BIGINT), CAST(? AS BIGINT))) v(account_number, sum_minor, transaction_count)"
+                    + " ON a.account_number = v.account_number"
+                    + " WHEN MATCHED THEN UPDATE SET sum_minor = a.sum_minor + v.sum_minor, transaction_count = a.transaction_count + v.transaction_count"
+                    + " WHEN NOT MATCHED THEN INSERT (account_number, sum_minor, transaction_count) VALUES (v.account_number, v.sum_minor, v.transaction_count)";
+    private static final String INSERT_SEGMENT =
+            "INSERT INTO transaction_segment (name, transaction_count, created_on) VALUES (?, ?, ?)";
+
+    private static final RowMapper<Transaction> TRANSACTION_ROW_MAPPER = (resultSet, row) -> Transaction.builder()
+            .id(resultSet.getString(1))
+            .accountNumber(resultSet.getString(2))
+            .amount(resultSet.getLong(3))
+            .currency(resultSet.getString(4))
+            .type(resultSet.getString(5))
+            .linkedTransactionId(resultSet.getString(6))
+            .createdOn(resultSet.getObject(7, Instant.class))
+            .reference(resultSet.getString(8))
+            .build();
+
+    private final TransactionSegmentRepository transactionSegmentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final boolean enabled;
+    private final Duration minAge;
+    private final int segmentTransactions;
+    private final int blockTransactions;
+    private final long intervalMinutes;
+
+    // Oldest first, read in order and merged
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService archiver;
+
+    public TransactionArchive(TransactionSegmentRepository transactionSegmentRepository,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${transaction.archive.directory:./archive}") Path directory,
+                              @Value("${transaction.archive.enabled:false}") boolean enabled,
+                              @Value("${transaction.archive.min-age-days:365}") long minAgeDays,
+                              @Value("${transaction.archive.segment-transactions:250000}") int segmentTransactions,
+                              @Value("${transaction.archive.block-transactions:256}") int blockTransactions,
+                              @Value("${transaction.archive.interval-minutes:60}") long intervalMinutes) {
+        this.transactionSegmentRepository = transactionSegmentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.directory = directory;
+        this.enabled = enabled;
+        this.minAge = Duration.ofDays(minAgeDays);
+        this.segmentTransactions = segmentTransactions;
+        this.blockTransactions = blockTransactions;
+        this.intervalMinutes = intervalMinutes;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        var registered = transactionSegmentRepository.findAllByOrderByName();
+        for(var segment : registered) {
+            // A registered segment holds the only copy of its transactions
+            segments.add(Segment.open(directory.resolve(segment.getName())));
+        }
+        deleteUnregisteredFiles();
+
+        if(enabled) {
+            Files.createDirectories(directory);
+            archiver = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("transaction-archiver").daemon().factory());
+            archiver.scheduleWithFixedDelay(this::archiveQuietly, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if(archiver != null) {
+            archiver.shutdownNow();
+        }
+        for(var segment : segments) {
+            segment.close();
+        }
+    }
+
+    /*
+        Decodes only the blocks whose id range covers the id, see Segment, so a lookup that
+        misses usually decodes none
+     */
+    public Optional<Transaction> find(String accountNumber, String id) {
+        for(var segment : segments) {
+            var transaction = segment.find(accountNumber, id);
+            if(transaction.isPresent()) {
+                return transaction;
+            }
+        }
+        return Optional.empty();
+    }
+
+    // The account's archived transactions, newest first
+    public Iterator<Transaction> read(String accountNumber) {
+        return TransactionOrder.merge(segments.stream()
+                .map(segment -> segment.read(accountNumber))
+                .toList());
+    }
+
+    public List<Transaction> findAll(String accountNumber) {
+        var transactions = new ArrayList<Transaction>();
+        read(accountNumber).forEachRemaining(transactions::add);
+        return transactions;
+    }
+
+    /*
+        Segments have no reference index, so this decodes the blocks that hold the account.
+        Only accounts with archived transactions have any to decode.
+     */
+    public List<Transaction> findByReference(String accountNumber, String reference) {
+        var transactions = new ArrayList<Transaction>();
+        if(segments.isEmpty()) {
+            return transactions;
+        }
+
+        read(accountNumber).forEachRemaining(transaction -> {
+            if(reference.equals(transaction.getReference())) {
+                transactions.add(transaction);
+            }
+        });
+        return transactions;
+    }
+
+    /*
+        Up to limit matching transactions after the cursor, newest first. Reading stops
+        at the first transaction older than the filter's from.
+     */
+    public List<Transaction> findPage(String accountNumber, TransactionFilter filter, TransactionCursor after, int limit) {
+        var page = new ArrayList<Transaction>();
+        if(segments.isEmpty()) {
+            return page;
+        }
+
+        for(var transactions = read(accountNumber); transactions.hasNext() && page.size() < limit; ) {
+            var transaction = transactions.next();
+            if(filter.from() != null && transaction.getCreatedOn().isBefore(filter.from())) {
+                break;
+            }
+            if(TransactionOrder.isAfter(transaction, after) && filter.matches(transaction)) {
+                page.add(transaction);
+            }
+        }
+        return page;
+    }
+
+    /*
+        Moves every transaction created before now less min-age-days into new segments.
+        Returns the number of transactions archived.
+     */
+    public synchronized long archive() {
+        var cutoff = Timestamp.from(Instant.now().minus(minAge));
+        long archived = 0;
+        while(true) {
+            var transactions = jdbcTemplate.query(SELECT_COLD_TRANSACTIONS, TRANSACTION_ROW_MAPPER, cutoff, segmentTransactions);
+            if(transactions.isEmpty()) {
+                return archived;
+            }
+            writeSegment(transactions);
+            archived += transactions.size();
+            if(transactions.size() < segmentTransactions) {
+                return archived;
+            }
+        }
+    }
+
+    private void archiveQuietly() {
+        try {
+            var archived = archive();
+            if(archived > 0) {
+                log.info("Archived {} transactions, {} segments", archived, segments.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("Archiving transactions failed, retrying at the next run", e);
+        }
+    }
+
+    private void writeSegment(List<Transaction> transactions) {
+        var name = nextSegmentName();
+        var path = directory.resolve(name);
+
+        Segment segment;
+        try {
+            SegmentWriter.write(path, transactions, blockTransactions);
+            segment = Segment.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Readable before the transactions leave the table, so they are never missing from both
+        segments.add(segment);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(INSERT_SEGMENT, name, transactions.size(), Timestamp.from(Instant.now()));
+                jdbcTemplate.batchUpdate(DELETE_TRANSACTION, transactions.stream()
+                        .map(transaction -> new Object[] {transaction.getId()})
+                        .toList());
+                jdbcTemplate.batchUpdate(ADD_ARCHIVE_TOTAL, totalsByAccount(transactions));
+            });
+        } catch (RuntimeException e) {
+            segments.remove(segment);
+            closeAndDelete(segment, path);
+            throw e;
+        }
+    }
+
+    private static List<Object[]> totalsByAccount(List<Transaction> transactions) {
+        var totals = new TreeMap<String, long[]>();
+        for(var transaction : transactions) {
+            var total = totals.computeIfAbsent(transaction.getAccountNumber(), accountNumber -> new long[2]);
+            total[0] += transaction.getType().equals("withdrawal") ? -transaction.getAmount() : transaction.getAmount();
+            total[1]++;
+        }
+        return totals.entrySet().stream()
+                .map(total -> new Object[] {total.getKey(), total.getValue()[0], total.getValue()[1]})
+                .toList();
+    }
+
+    private String nextSegmentName() {
+        var last = segments.isEmpty()
+                ? 0
+                : Long.parseLong(segments.getLast().name().substring(SEGMENT_PREFIX.length(), segments.getLast().name().length() - SEGMENT_SUFFIX.length()));
+        return SEGMENT_PREFIX + String.format("%08d", last + 1) + SEGMENT_SUFFIX;
+    }
+
+    private void deleteUnregisteredFiles() throws IOException {
+        if(!Files.isDirectory(directory)) {
+            return;
+        }
+        var registered = segments.stream().map(Segment::name).toList();
+        try(var files = Files.list(directory)) {
+            for(var file : files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX)).toList()) {
+                if(!registered.contains(file.getFileName().toString())) {
+                    log.warn("Deleting unregistered segment file {}", file);
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static void closeAndDelete(Segment segment, Path path) {
+        try {
+            segment.close();
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete segment file {}, it is deleted at the next startup", path, e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.barclays.testservice.service.balance;
+
+import com.barclays.testservice.model.Transaction;
+
+import java.util.List;
+
+/*
+    Applies a balance change to a bank account and records the transactions that
+    make it up, as one atomic unit. The implementation in use is selected with
+    the 'transaction.balance-update.mode' property.
+ */
+public interface BalanceUpdateEngine {
+
+    /*
+        Adds the signed delta (minor units) to the balance of the account and saves the transactions
+        in one batch. Throws InsufficientFundsException if the balance would go negative.
+     */
+    List<Transaction> post(String accountNumber, long delta, List<Transaction> transactions);
+
+    default Transaction post(Transaction transaction, long delta) {
+        return post(transaction.getAccountNumber(), delta, List.of(transaction)).getFirst();
+    }
+
+    /*
+        Moves the debit amount from the debit's account to the credit's account and saves
+        both transactions, all or nothing. Accounts are always locked in the same order,
+        so concurrent transfers in opposite directions cannot deadlock. Returns the saved
+        debit and credit, in that order.
+     */
+    List<Transaction> transfer(Transaction debit, Transaction credit);
+
+    /*
+        Whether accounts may be made hot, with their postings going through the SubBalanceLedger
+        instead of this engine. Engines that hold balances in memory would not see those postings.
+     */
+    default boolean supportsHotAccounts() {
+        return true;
+    }
+
+    /*
+        Drops whatever is held in memory for an account that has been deleted
+     */
+    default void evict(String accountNumber) {
+    }
+}
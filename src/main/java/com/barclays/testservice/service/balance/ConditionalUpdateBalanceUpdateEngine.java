@@ -0,0 +1,83 @@
+package com.barclays.testservice.service.balance;
+
+import com.barclays.testservice.exception.BankAccountNotFoundException;
+import com.barclays.testservice.exception.InsufficientFundsException;
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.repository.TransactionRepository;
+import com.barclays.testservice.service.events.CommittedPostings;
+import com.barclays.testservice.service.rollup.DailyRollups;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.time.Instant;
+
+/*
+    Lets the database apply the balance change with one conditional UPDATE,
+    so there is no read round trip and no lock held in the service. Zero rows
+    updated means the funds check failed.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.balance-update.mode", havingValue = "conditional-update")
+@AllArgsConstructor
+public class ConditionalUpdateBalanceUpdateEngine implements BalanceUpdateEngine {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionRepository transactionRepository;
+    private final DailyRollups dailyRollups;
+    private final CommittedPostings committedPostings;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public List<Transaction> post(String accountNumber, long delta, List<Transaction> transactions) {
+        return transactionTemplate.execute(status -> {
+            var updated = bankAccountRepository.applyBalanceDelta(
+                    accountNumber,
+                    delta,
+                    Instant.now()
+            );
+
+            // The account has already been fetched for the ownership check,
+            // so a missed update can only be a failed funds check
+            if(updated == 0) {
+                throw new InsufficientFundsException();
+            }
+
+            var saved = transactionRepository.saveAll(transactions);
+
+            dailyRollups.record(saved);
+            committedPostings.record(saved);
+
+            return saved;
+        });
+    }
+
+    @Override
+    public List<Transaction> transfer(Transaction debit, Transaction credit) {
+        return transactionTemplate.execute(status -> {
+            var now = Instant.now();
+
+            // Each UPDATE locks its row until commit, so the rows are always updated in account number order
+            var legs = debit.getAccountNumber().compareTo(credit.getAccountNumber()) < 0
+                    ? List.of(debit, credit)
+                    : List.of(credit, debit);
+            for(var leg : legs) {
+                var delta = leg == debit ? -debit.getAmount() : credit.getAmount();
+                if(bankAccountRepository.applyBalanceDelta(leg.getAccountNumber(), delta, now) == 0) {
+                    // The debit account has been fetched for the ownership check, the credit account has not
+                    throw leg == debit ? new InsufficientFundsException() : new BankAccountNotFoundException();
+                }
+            }
+
+            var saved = transactionRepository.saveAll(List.of(debit, credit));
+
+            dailyRollups.record(saved);
+            committedPostings.record(saved);
+
+            return saved;
+        });
+    }
+}
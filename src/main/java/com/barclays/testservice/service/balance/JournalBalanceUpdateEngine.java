@@ -0,0 +1,143 @@
+package com.barclays.testservice.service.balance;
+
+import com.barclays.testservice.exception.BankAccountNotFoundException;
+import com.barclays.testservice.exception.InsufficientFundsException;
+import com.barclays.testservice.model.BankAccount;
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.service.journal.JournalEntry;
+import com.barclays.testservice.service.journal.TransactionJournal;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    Checks funds against an in-memory balance and records the posting in the
+    write-ahead journal. The caller returns once the journal entry is durable; the
+    bankaccount and transaction tables are brought up to date afterwards by the
+    JournalApplier, so reads from the database briefly lag acknowledged postings.
+
+    The in-memory balance of an account is the only one checked, so nothing else may
+    write balances: hot accounts (whose debits the SubBalanceLedger writes straight to
+    the bankaccount row) are refused, and a deleted account's balance is evicted.
+
+    Only safe while a single service instance writes to the database.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.balance-update.mode", havingValue = "journal")
+// Balances are loaded from the database, which must have had the journal replayed into it first
+@DependsOn("journalApplier")
+public class JournalBalanceUpdateEngine implements BalanceUpdateEngine {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionJournal journal;
+    private final StripedLocks locks;
+    private final Map<String, Long> balances = new ConcurrentHashMap<>();
+
+    public JournalBalanceUpdateEngine(BankAccountRepository bankAccountRepository,
+                                      TransactionJournal journal,
+                                      @Value("${transaction.balance-update.lock-stripes:1024}") int lockStripes) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.journal = journal;
+        this.locks = new StripedLocks(lockStripes);
+    }
+
+    @PostConstruct
+    void checkNoHotAccounts() {
+        if(bankAccountRepository.existsBySubBalanceSlotsIsNotNull()) {
+            throw new IllegalStateException("Hot accounts exist, which transaction.balance-update.mode=journal does not support");
+        }
+    }
+
+    @Override
+    public List<Transaction> post(String accountNumber, long delta, List<Transaction> transactions) {
+        setCreatedOn(transactions);
+
+        long lsn;
+        var lock = locks.forKey(accountNumber);
+        lock.lock();
+        try {
+            var balance = balances.computeIfAbsent(accountNumber, this::loadBalance);
+            var newBalance = balance + delta;
+            if(newBalance < 0) {
+                throw new InsufficientFundsException();
+            }
+
+            lsn = journal.append(List.of(new JournalEntry.Leg(accountNumber, delta, transactions)));
+            balances.put(accountNumber, newBalance);
+        } finally {
+            lock.unlock();
+        }
+
+        // Wait outside the lock, so the next posting for the account can join the same flush
+        journal.awaitDurable(lsn);
+        return transactions;
+    }
+
+    @Override
+    public List<Transaction> transfer(Transaction debit, Transaction credit) {
+        var transactions = List.of(debit, credit);
+        setCreatedOn(transactions);
+
+        long lsn;
+        var transferLocks = locks.forKeys(debit.getAccountNumber(), credit.getAccountNumber());
+        transferLocks.forEach(ReentrantLock::lock);
+        try {
+            var debitBalance = balances.computeIfAbsent(debit.getAccountNumber(), this::loadBalance);
+            var creditBalance = balances.computeIfAbsent(credit.getAccountNumber(), this::loadBalance);
+            var newBalance = debitBalance - debit.getAmount();
+            if(newBalance < 0) {
+                throw new InsufficientFundsException();
+            }
+
+            // Both legs go in one record, so a transfer is replayed completely or not at all
+            lsn = journal.append(List.of(
+                    new JournalEntry.Leg(debit.getAccountNumber(), -debit.getAmount(), List.of(debit)),
+                    new JournalEntry.Leg(credit.getAccountNumber(), credit.getAmount(), List.of(credit))));
+            balances.put(debit.getAccountNumber(), newBalance);
+            balances.put(credit.getAccountNumber(), creditBalance + credit.getAmount());
+        } finally {
+            transferLocks.reversed().forEach(ReentrantLock::unlock);
+        }
+
+        journal.awaitDurable(lsn);
+        return transactions;
+    }
+
+    @Override
+    public boolean supportsHotAccounts() {
+        return false;
+    }
+
+    @Override
+    public void evict(String accountNumber) {
+        var lock = locks.forKey(accountNumber);
+        lock.lock();
+        try {
+            balances.remove(accountNumber);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void setCreatedOn(List<Transaction> transactions) {
+        var now = Instant.now();
+        transactions.stream()
+                .filter(transaction -> transaction.getCreatedOn() == null)
+                .forEach(transaction -> transaction.setCreatedOn(now));
+    }
+
+    private Long loadBalance(String accountNumber) {
+        return bankAccountRepository.findById(accountNumber)
+                .map(BankAccount::getBalance)
+                .orElseThrow(BankAccountNotFoundException::new);
+    }
+}
@@ -0,0 +1,140 @@
+package com.barclays.testservice.service.balance;
+
+import com.barclays.testservice.exception.BalanceUpdateConflictException;
+import com.barclays.testservice.exception.BankAccountNotFoundException;
+import com.barclays.testservice.exception.InsufficientFundsException;
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.repository.TransactionRepository;
+import com.barclays.testservice.service.events.CommittedPostings;
+import com.barclays.testservice.service.rollup.DailyRollups;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+    Read-modify-write of a balance guarded by the BankAccount @Version column.
+    A conflicting commit is retried a bounded number of times with jittered
+    back off, after which the caller is asked to retry (409). A posting that joins a
+    caller's transaction (see IdempotentRequests) is tried once: the conflict has already
+    marked that transaction for rollback.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.balance-update.mode", havingValue = "optimistic")
+public class OptimisticBalanceUpdateEngine implements BalanceUpdateEngine {
+
+    private static final long BASE_BACKOFF_NANOS = 50_000;
+
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionRepository transactionRepository;
+    private final DailyRollups dailyRollups;
+    private final CommittedPostings committedPostings;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int maxAttempts;
+
+    public OptimisticBalanceUpdateEngine(BankAccountRepository bankAccountRepository,
+                                         TransactionRepository transactionRepository,
+                                         DailyRollups dailyRollups,
+                                         CommittedPostings committedPostings,
+                                         TransactionTemplate transactionTemplate,
+                                         EntityManager entityManager,
+                                         @Value("${transaction.balance-update.optimistic-max-attempts:5}") int maxAttempts) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionRepository = transactionRepository;
+        this.dailyRollups = dailyRollups;
+        this.committedPostings = committedPostings;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public List<Transaction> post(String accountNumber, long delta, List<Transaction> transactions) {
+        var joined = TransactionSynchronizationManager.isActualTransactionActive();
+        for(int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    var bankAccount = bankAccountRepository.findById(accountNumber)
+                            .orElseThrow(BankAccountNotFoundException::new);
+
+                    var newBalance = bankAccount.getBalance() + delta;
+                    if(newBalance < 0) {
+                        throw new InsufficientFundsException();
+                    }
+
+                    bankAccount.setBalance(newBalance);
+                    bankAccountRepository.save(bankAccount);
+
+                    var saved = transactionRepository.saveAll(transactions);
+
+                    dailyRollups.record(saved);
+                    committedPostings.record(saved);
+
+                    // Checks the version here rather than at commit, which for a joined transaction is in the caller
+                    entityManager.flush();
+                    return saved;
+                });
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if(joined || attempt >= maxAttempts) {
+                    throw new BalanceUpdateConflictException();
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    @Override
+    public List<Transaction> transfer(Transaction debit, Transaction credit) {
+        var joined = TransactionSynchronizationManager.isActualTransactionActive();
+        for(int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    var debitAccount = bankAccountRepository.findById(debit.getAccountNumber())
+                            .orElseThrow(BankAccountNotFoundException::new);
+                    var creditAccount = bankAccountRepository.findById(credit.getAccountNumber())
+                            .orElseThrow(BankAccountNotFoundException::new);
+
+                    var newBalance = debitAccount.getBalance() - debit.getAmount();
+                    if(newBalance < 0) {
+                        throw new InsufficientFundsException();
+                    }
+
+                    // Both rows are updated at flush, in account number order (hibernate.order_updates)
+                    debitAccount.setBalance(newBalance);
+                    creditAccount.setBalance(creditAccount.getBalance() + credit.getAmount());
+                    bankAccountRepository.saveAll(List.of(debitAccount, creditAccount));
+
+                    var saved = transactionRepository.saveAll(List.of(debit, credit));
+
+                    dailyRollups.record(saved);
+                    committedPostings.record(saved);
+
+                    // Checks the version here rather than at commit, which for a joined transaction is in the caller
+                    entityManager.flush();
+                    return saved;
+                });
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if(joined || attempt >= maxAttempts) {
+                    throw new BalanceUpdateConflictException();
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        // Full jitter, so colliding writers spread out instead of retrying in lock step
+        var ceiling = BASE_BACKOFF_NANOS << Math.min(attempt, 10);
+        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(ceiling));
+    }
+}
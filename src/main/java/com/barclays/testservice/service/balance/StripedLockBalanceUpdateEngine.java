@@ -0,0 +1,111 @@
+package com.barclays.testservice.service.balance;
+
+import com.barclays.testservice.exception.BankAccountNotFoundException;
+import com.barclays.testservice.exception.InsufficientFundsException;
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.repository.TransactionRepository;
+import com.barclays.testservice.service.events.CommittedPostings;
+import com.barclays.testservice.service.rollup.DailyRollups;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    Serialises read-modify-write of a balance with an in-process lock per account
+    stripe. The lock is held until the database transaction has committed, so the
+    next writer for the account always reads the committed balance. When the posting
+    joins a caller's transaction (see IdempotentRequests) that is the caller's commit.
+
+    Only safe while a single service instance writes to the database.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.balance-update.mode", havingValue = "striped-lock", matchIfMissing = true)
+public class StripedLockBalanceUpdateEngine implements BalanceUpdateEngine {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionRepository transactionRepository;
+    private final DailyRollups dailyRollups;
+    private final CommittedPostings committedPostings;
+    private final TransactionTemplate transactionTemplate;
+    private final StripedLocks locks;
+
+    public StripedLockBalanceUpdateEngine(BankAccountRepository bankAccountRepository,
+                                          TransactionRepository transactionRepository,
+                                          DailyRollups dailyRollups,
+                                          CommittedPostings committedPostings,
+                                          TransactionTemplate transactionTemplate,
+                                          @Value("${transaction.balance-update.lock-stripes:1024}") int lockStripes) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionRepository = transactionRepository;
+        this.dailyRollups = dailyRollups;
+        this.committedPostings = committedPostings;
+        this.transactionTemplate = transactionTemplate;
+        this.locks = new StripedLocks(lockStripes);
+    }
+
+    @Override
+    public List<Transaction> post(String accountNumber, long delta, List<Transaction> transactions) {
+        var lock = locks.forKey(accountNumber);
+        lock.lock();
+        try {
+            return transactionTemplate.execute(status -> {
+                var bankAccount = bankAccountRepository.findById(accountNumber)
+                        .orElseThrow(BankAccountNotFoundException::new);
+
+                var newBalance = bankAccount.getBalance() + delta;
+                if(newBalance < 0) {
+                    throw new InsufficientFundsException();
+                }
+
+                bankAccount.setBalance(newBalance);
+                bankAccountRepository.save(bankAccount);
+
+                var saved = transactionRepository.saveAll(transactions);
+
+                dailyRollups.record(saved);
+                committedPostings.record(saved);
+
+                return saved;
+            });
+        } finally {
+            StripedLocks.unlockAfterTransaction(List.of(lock));
+        }
+    }
+
+    @Override
+    public List<Transaction> transfer(Transaction debit, Transaction credit) {
+        var transferLocks = locks.forKeys(debit.getAccountNumber(), credit.getAccountNumber());
+        transferLocks.forEach(ReentrantLock::lock);
+        try {
+            return transactionTemplate.execute(status -> {
+                var debitAccount = bankAccountRepository.findById(debit.getAccountNumber())
+                        .orElseThrow(BankAccountNotFoundException::new);
+                var creditAccount = bankAccountRepository.findById(credit.getAccountNumber())
+                        .orElseThrow(BankAccountNotFoundException::new);
+
+                var newBalance = debitAccount.getBalance() - debit.getAmount();
+                if(newBalance < 0) {
+                    throw new InsufficientFundsException();
+                }
+
+                debitAccount.setBalance(newBalance);
+                creditAccount.setBalance(creditAccount.getBalance() + credit.getAmount());
+                bankAccountRepository.saveAll(List.of(debitAccount, creditAccount));
+
+                var saved = transactionRepository.saveAll(List.of(debit, credit));
+
+                dailyRollups.record(saved);
+                committedPostings.record(saved);
+
+                return saved;
+            });
+        } finally {
+            StripedLocks.unlockAfterTransaction(transferLocks);
+        }
+    }
+}
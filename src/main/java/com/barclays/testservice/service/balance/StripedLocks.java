@@ -0,0 +1,76 @@
+package com.barclays.testservice.service.balance;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    Fixed set of locks shared between keys by hash, so per-account locking
+    needs no per-account allocation or clean up.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    public StripedLocks(int stripes) {
+        // Round up to a power of two so the stripe can be picked with a mask
+        var size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public int stripes() {
+        return locks.length;
+    }
+
+    public int stripeOf(String key) {
+        var hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    public ReentrantLock forStripe(int stripe) {
+        return locks[stripe];
+    }
+
+    public ReentrantLock forKey(String key) {
+        return locks[stripeOf(key)];
+    }
+
+    /*
+        The locks for all the keys, once per stripe and in stripe order, so callers locking
+        overlapping sets of keys always acquire them in the same order
+     */
+    public List<ReentrantLock> forKeys(String... keys) {
+        return Arrays.stream(keys)
+                .mapToInt(this::stripeOf)
+                .distinct()
+                .sorted()
+                .mapToObj(this::forStripe)
+                .toList();
+    }
+
+    /*
+        Unlocks the locks, last first. Inside a caller's database transaction that is left
+        until it completes, so the next writer can not read the balance before it commits.
+     */
+    public static void unlockAfterTransaction(List<ReentrantLock> locks) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            locks.reversed().forEach(ReentrantLock::unlock);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                locks.reversed().forEach(ReentrantLock::unlock);
+            }
+        });
+    }
+}
@@ -0,0 +1,153 @@
+package com.barclays.testservice.service.balance;
+
+import com.barclays.testservice.exception.BankAccountNotFoundException;
+import com.barclays.testservice.exception.InsufficientFundsException;
+import com.barclays.testservice.exception.InvalidDetailsSuppliedException;
+import com.barclays.testservice.model.BankAccount;
+import com.barclays.testservice.model.SubBalance;
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.repository.SubBalanceRepository;
+import com.barclays.testservice.repository.TransactionRepository;
+import com.barclays.testservice.service.events.CommittedPostings;
+import com.barclays.testservice.service.rollup.DailyRollups;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+    Balance updates for 'hot' accounts, whose balance is spread over N sub-balance
+    slots so concurrent postings stop queueing on a single bankaccount row.
+
+    Credits go to a random slot with one UPDATE. Debits lock all the slots in slot
+    order, check the total and drain the slots in that same order, taking whatever
+    is left from the bankaccount row itself (which holds the balance the account had
+    when it was made hot). The account's balance is always the bankaccount row's
+    balance plus the sum of its slots.
+ */
+@Component
+@AllArgsConstructor
+// Hot accounts are loaded at startup, after schema.sql has migrated the tables
+@DependsOnDatabaseInitialization
+public class SubBalanceLedger {
+
+    private static final int MAX_SLOTS = 64;
+
+    private final BankAccountRepository bankAccountRepository;
+    private final SubBalanceRepository subBalanceRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DailyRollups dailyRollups;
+    private final CommittedPostings committedPostings;
+
+    // Slot count of every hot account, so postings can be routed without a database read
+    private final Map<String, Integer> hotAccountSlots = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void loadHotAccounts() {
+        bankAccountRepository.findBySubBalanceSlotsIsNotNull()
+                .forEach(bankAccount -> hotAccountSlots.put(bankAccount.getAccountNumber(), bankAccount.getSubBalanceSlots()));
+    }
+
+    public boolean isHot(String accountNumber) {
+        return hotAccountSlots.containsKey(accountNumber);
+    }
+
+    /*
+        Makes the account hot, or adds slots to an account that already is.
+        The slot count can not be reduced.
+     */
+    public void setSlots(BankAccount bankAccount, int slots) {
+        var currentSlots = bankAccount.isHot() ? bankAccount.getSubBalanceSlots() : 0;
+        if(slots < Math.max(currentSlots, 1) || slots > MAX_SLOTS) {
+            throw new InvalidDetailsSuppliedException();
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for(int slot = currentSlots; slot < slots; slot++) {
+                subBalanceRepository.save(new SubBalance(bankAccount.getAccountNumber(), slot, 0L));
+            }
+            bankAccountRepository.setSubBalanceSlots(bankAccount.getAccountNumber(), slots);
+        });
+
+        hotAccountSlots.put(bankAccount.getAccountNumber(), slots);
+        bankAccount.setSubBalanceSlots(slots);
+    }
+
+    /*
+        Deletes the slots of an account being deleted, in the caller's transaction. Once it has
+        committed, evict the account so no posting is routed to it any more.
+     */
+    public void deleteSlots(String accountNumber) {
+        if(isHot(accountNumber)) {
+            subBalanceRepository.deleteByAccountNumber(accountNumber);
+        }
+    }
+
+    public void evict(String accountNumber) {
+        hotAccountSlots.remove(accountNumber);
+    }
+
+    /*
+        Same contract as BalanceUpdateEngine.post, for a hot account
+     */
+    public List<Transaction> post(String accountNumber, long delta, List<Transaction> transactions) {
+        var slots = hotAccountSlots.get(accountNumber);
+        if(slots == null) {
+            throw new BankAccountNotFoundException();
+        }
+
+        return transactionTemplate.execute(status -> {
+            // Credits roll up into their slot's row too, so concurrent credits do not all update one rollup row
+            var slot = 0;
+            if(delta >= 0) {
+                slot = ThreadLocalRandom.current().nextInt(slots);
+                subBalanceRepository.credit(accountNumber, slot, delta);
+            } else {
+                debit(accountNumber, -delta);
+            }
+            var saved = transactionRepository.saveAll(transactions);
+            dailyRollups.record(saved, slot);
+            committedPostings.record(saved);
+            return saved;
+        });
+    }
+
+    public long getSumBalance(String accountNumber) {
+        return subBalanceRepository.getSumBalanceByAccountNumber(accountNumber);
+    }
+
+    private void debit(String accountNumber, long amount) {
+        var subBalances = subBalanceRepository.findByAccountNumberOrderBySlot(accountNumber);
+        var bankAccountBalance = bankAccountRepository.findById(accountNumber)
+                .orElseThrow(BankAccountNotFoundException::new)
+                .getBalance();
+
+        var total = bankAccountBalance + subBalances.stream().mapToLong(SubBalance::getBalance).sum();
+        if(total < amount) {
+            throw new InsufficientFundsException();
+        }
+
+        var remaining = amount;
+        for(var subBalance : subBalances) {
+            if(remaining <= 0) {
+                break;
+            }
+            var taken = Math.min(remaining, subBalance.getBalance());
+            subBalance.setBalance(subBalance.getBalance() - taken);
+            remaining -= taken;
+        }
+
+        if(remaining > 0 && bankAccountRepository.applyBalanceDelta(accountNumber, -remaining, Instant.now()) == 0) {
+            throw new InsufficientFundsException();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.barclays.testservice.service.events;
+
+import com.barclays.testservice.model.Transaction;
+
+/*
+    What a subscriber to an account's activity is sent, in commit order
+ */
+public sealed interface AccountEvent {
+
+    // A transaction on the account has been committed
+    record Posted(Transaction transaction) implements AccountEvent {
+    }
+
+    // The account's balance, sub-balance slots included, after the postings sent before it
+    record BalanceChanged(String accountNumber, long balance) implements AccountEvent {
+    }
+
+    // Events were dropped because the subscriber fell behind, the stream is then closed
+    record Overflowed(String accountNumber) implements AccountEvent {
+    }
+
+    // Sent when nothing has happened for a while, so a closed connection is noticed
+    record Heartbeat() implements AccountEvent {
+    }
+}
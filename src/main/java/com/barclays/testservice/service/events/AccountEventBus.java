@@ -0,0 +1,196 @@
+package com.barclays.testservice.service.events;
+
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.repository.SubBalanceRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/*
+    Fans committed postings out to the subscribers of each account.
+
+    Publishing never blocks the posting thread: each subscription has a bounded buffer
+    and its own virtual thread that sends from it, so a slow connection only holds up
+    itself. A subscriber whose buffer fills up is sent Overflowed and dropped, to reload
+    and subscribe again. After each run of postings the account's balance is sent if it
+    changed. It is read once per publish and account, by the first subscriber to send it,
+    and shared by the account's other subscribers.
+ */
+@Component
+@Slf4j
+public class AccountEventBus {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final SubBalanceRepository subBalanceRepository;
+    private final int bufferSize;
+    private final long heartbeatSeconds;
+
+    private final Map<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    public AccountEventBus(BankAccountRepository bankAccountRepository,
+                           SubBalanceRepository subBalanceRepository,
+                           @Value("${account-events.buffer-size:256}") int bufferSize,
+                           @Value("${account-events.heartbeat-seconds:15}") long heartbeatSeconds) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.subBalanceRepository = subBalanceRepository;
+        this.bufferSize = bufferSize;
+        this.heartbeatSeconds = heartbeatSeconds;
+    }
+
+    // The account's current balance is sent first, then its postings as they commit
+    public Subscription subscribe(String accountNumber, AccountEventSink sink) {
+        var subscription = new Subscription(accountNumber, sink);
+        subscriptions.compute(accountNumber, (key, accountSubscriptions) -> {
+            var updated = accountSubscriptions == null ? ConcurrentHashMap.<Subscription>newKeySet() : accountSubscriptions;
+            updated.add(subscription);
+            return updated;
+        });
+        subscription.start();
+        return subscription;
+    }
+
+    // Called on the posting thread once the postings have committed
+    public void publish(List<Transaction> posted) {
+        if(subscriptions.isEmpty()) {
+            return;
+        }
+        var byAccount = posted.stream().collect(Collectors.groupingBy(Transaction::getAccountNumber, LinkedHashMap::new, Collectors.toList()));
+        byAccount.forEach((accountNumber, transactions) -> {
+            var accountSubscriptions = subscriptions.get(accountNumber);
+            if(accountSubscriptions != null) {
+                // Before the postings, so a sender that takes them also finds the balance after them
+                var balance = new BalanceRead(accountNumber);
+                accountSubscriptions.forEach(subscription -> subscription.latestBalance = balance);
+                accountSubscriptions.forEach(subscription -> transactions.forEach(subscription::offer));
+            }
+        });
+    }
+
+    @PreDestroy
+    void close() {
+        subscriptions.values().forEach(accountSubscriptions -> accountSubscriptions.forEach(Subscription::cancel));
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.accountNumber, (key, accountSubscriptions) -> {
+            accountSubscriptions.remove(subscription);
+            return accountSubscriptions.isEmpty() ? null : accountSubscriptions;
+        });
+    }
+
+    private Optional<Long> readBalance(String accountNumber) {
+        return bankAccountRepository.findById(accountNumber)
+                .map(bankAccount -> bankAccount.isHot()
+                        ? bankAccount.getBalance() + subBalanceRepository.getSumBalanceByAccountNumber(accountNumber)
+                        : bankAccount.getBalance());
+    }
+
+    // The account's balance after a publish, read from the database by the first subscriber that asks
+    private final class BalanceRead {
+
+        private final String accountNumber;
+        private Optional<Long> balance;
+
+        private BalanceRead(String accountNumber) {
+            this.accountNumber = accountNumber;
+        }
+
+        private synchronized Optional<Long> get() {
+            if(balance == null) {
+                balance = readBalance(accountNumber);
+            }
+            return balance;
+        }
+    }
+
+    public final class Subscription {
+
+        private final String accountNumber;
+        private final AccountEventSink sink;
+        private final BlockingQueue<Transaction> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private volatile boolean overflowed;
+        private volatile boolean cancelled;
+        private volatile BalanceRead latestBalance;
+        private Thread sender;
+
+        private Subscription(String accountNumber, AccountEventSink sink) {
+            this.accountNumber = accountNumber;
+            this.sink = sink;
+        }
+
+        // Stops sending, without closing the sink
+        public void cancel() {
+            cancelled = true;
+            remove(this);
+            sender.interrupt();
+        }
+
+        private void start() {
+            sender = Thread.ofVirtual().name("account-events-" + accountNumber).start(this::send);
+        }
+
+        private void offer(Transaction transaction) {
+            if(!buffer.offer(transaction)) {
+                overflowed = true;
+            }
+        }
+
+        private void send() {
+            var batch = new ArrayList<Transaction>();
+            try {
+                var lastBalance = sendBalance(readBalance(accountNumber), null);
+                while(!cancelled) {
+                    var first = buffer.poll(heartbeatSeconds, TimeUnit.SECONDS);
+                    if(overflowed) {
+                        sink.send(new AccountEvent.Overflowed(accountNumber));
+                        break;
+                    }
+                    if(first == null) {
+                        sink.send(new AccountEvent.Heartbeat());
+                        continue;
+                    }
+
+                    batch.add(first);
+                    buffer.drainTo(batch);
+                    for(var transaction : batch) {
+                        sink.send(new AccountEvent.Posted(transaction));
+                    }
+                    batch.clear();
+                    lastBalance = sendBalance(latestBalance.get(), lastBalance);
+                }
+            } catch (InterruptedException e) {
+                // Cancelled
+            } catch (IOException | RuntimeException e) {
+                log.debug("Account event subscription for {} ended", accountNumber, e);
+            }
+
+            if(!cancelled) {
+                remove(this);
+                sink.close();
+            }
+        }
+
+        private Long sendBalance(Optional<Long> balance, Long lastBalance) throws IOException {
+            if(balance.isEmpty() || balance.get().equals(lastBalance)) {
+                return lastBalance;
+            }
+            sink.send(new AccountEvent.BalanceChanged(accountNumber, balance.get()));
+            return balance.get();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.barclays.testservice.service.events;
+
+import java.io.IOException;
+
+/*
+    Where a subscription delivers its events, e.g. an SSE connection. send may block,
+    it is only ever called from the subscription's own thread.
+ */
+public interface AccountEventSink {
+
+    void send(AccountEvent event) throws IOException;
+
+    // Called once, when the subscription ends for any reason other than cancel
+    void close();
+}
@@ -0,0 +1,50 @@
+package com.barclays.testservice.service.events;
+
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.service.account.AccountCache;
+import com.barclays.testservice.service.recent.RecentTransactionCache;
+import com.barclays.testservice.service.version.ResourceVersions;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/*
+    Hands postings to what is kept outside the database, the recent transaction cache, the
+    account cache, the accounts' version stamps and the account event bus, once the database
+    transaction that posts them has committed. Stamps change after the caches, so a read
+    tagged with a new stamp never sees the caches from before the posting.
+    Every posting path calls record inside that transaction, next to the daily rollups.
+ */
+@Component
+@AllArgsConstructor
+public class CommittedPostings {
+
+    private final RecentTransactionCache recentTransactionCache;
+    private final AccountEventBus accountEventBus;
+    private final AccountCache accountCache;
+    private final ResourceVersions resourceVersions;
+
+    public void record(List<Transaction> posted) {
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(posted);
+                }
+            });
+        } else {
+            publish(posted);
+        }
+    }
+
+    private void publish(List<Transaction> posted) {
+        recentTransactionCache.update(posted);
+        var accountNumbers = posted.stream().map(Transaction::getAccountNumber).distinct().toList();
+        accountCache.balancesChanged(accountNumbers);
+        resourceVersions.accountsChanged(accountNumbers);
+        accountEventBus.publish(posted);
+    }
+}
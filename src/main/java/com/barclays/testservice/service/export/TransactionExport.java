@@ -0,0 +1,15 @@
+package com.barclays.testservice.service.export;
+
+import com.barclays.testservice.model.Transaction;
+
+import java.util.function.Consumer;
+
+/*
+    An account's transactions, ready to be read. Access has already been checked; the
+    rows are only read from the database, one at a time, when forEach is called.
+ */
+@FunctionalInterface
+public interface TransactionExport {
+
+    void forEach(Consumer<Transaction> consumer);
+}
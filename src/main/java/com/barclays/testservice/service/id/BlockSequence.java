@@ -0,0 +1,55 @@
+package com.barclays.testservice.service.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/*
+    Hands out values of a database sequence from blocks reserved with a single NEXTVAL.
+    The sequence must be defined with INCREMENT BY the block size, so every NEXTVAL
+    reserves the values [start, start + blockSize) for this instance alone.
+
+    Taking a value is one atomic increment; only the thread that finds the block used
+    up takes the lock and fetches the next one. Values left in a block are lost on
+    restart, so the ids have gaps: up to blockSize - 1 values per restart of each
+    instance. A small id space wants a small block size.
+ */
+public class BlockSequence {
+
+    private final LongSupplier nextBlockStart;
+    private final int blockSize;
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private volatile Block block = new Block(new AtomicLong(), 0);
+
+    private record Block(AtomicLong next, long end) {
+    }
+
+    public BlockSequence(LongSupplier nextBlockStart, int blockSize) {
+        this.nextBlockStart = nextBlockStart;
+        this.blockSize = blockSize;
+    }
+
+    public long next() {
+        while(true) {
+            var current = block;
+            var value = current.next().getAndIncrement();
+            if(value < current.end()) {
+                return value;
+            }
+            refill(current);
+        }
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // Another thread may have already replaced it while this one waited
+            if(block == exhausted) {
+                var start = nextBlockStart.getAsLong();
+                block = new Block(new AtomicLong(start), start + blockSize);
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+}
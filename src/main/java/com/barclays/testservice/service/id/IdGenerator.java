@@ -0,0 +1,124 @@
+package com.barclays.testservice.service.id;
+
+import com.barclays.testservice.exception.AccountNumbersExhaustedException;
+import com.barclays.testservice.repository.AddressRepository;
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.repository.TransactionRepository;
+import com.barclays.testservice.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/*
+    Creates the ids of new users, addresses, bank accounts and transactions from
+    block-allocated sequences, so creating an entity normally costs no extra round trip.
+
+    Account numbers have only 6 digits, so they come from smaller blocks than the other
+    ids and are checked against the last one: past 999999 creating an account fails with
+    AccountNumbersExhaustedException, and a warning is logged with every block fetched
+    once fewer than ACCOUNT_NUMBERS_WARNING remain.
+ */
+@Component
+@Slf4j
+public class IdGenerator {
+
+    private static final String USER_ID_PREFIX = "usr-";
+    private static final String ADDRESS_ID_PREFIX = "adr-";
+    private static final String ACCOUNT_NUMBER_PREFIX = "01";
+    private static final String TRANSACTION_ID_PREFIX = "tan-";
+
+    private static final int ACCOUNT_NUMBER_DIGITS = 6;
+    private static final long MAX_ACCOUNT_NUMBER = 999_999;
+    private static final long ACCOUNT_NUMBERS_WARNING = 10_000;
+    // Base 36, fixed width so ids sort in the order they were created:
+    // 9 characters of epoch millis (good until the year 5188) then 8 of sequence
+    private static final int TIMESTAMP_CHARS = 9;
+    private static final int SEQUENCE_CHARS = 8;
+
+    private final BlockSequence userSequence;
+    private final BlockSequence addressSequence;
+    private final BlockSequence accountSequence;
+    private final BlockSequence transactionSequence;
+
+    // The block sizes must match the INCREMENT BY of the sequences in schema.sql
+    public IdGenerator(UserRepository userRepository,
+                       AddressRepository addressRepository,
+                       BankAccountRepository bankAccountRepository,
+                       TransactionRepository transactionRepository,
+                       @Value("${id-allocation.block-size:100}") int blockSize,
+                       @Value("${id-allocation.account-block-size:10}") int accountBlockSize) {
+        this.userSequence = new BlockSequence(userRepository::getNextSequenceValue, blockSize);
+        this.addressSequence = new BlockSequence(addressRepository::getNextSequenceValue, blockSize);
+        this.accountSequence = new BlockSequence(() -> {
+            var start = bankAccountRepository.getNextSequenceValue();
+            if(start <= MAX_ACCOUNT_NUMBER && MAX_ACCOUNT_NUMBER - start < ACCOUNT_NUMBERS_WARNING) {
+                log.warn("Only {} account numbers are left", MAX_ACCOUNT_NUMBER - start + 1);
+            }
+            return start;
+        }, accountBlockSize);
+        this.transactionSequence = new BlockSequence(transactionRepository::getNextSequenceValue, blockSize);
+    }
+
+    public String nextUserId() {
+        return USER_ID_PREFIX + userSequence.next();
+    }
+
+    public String nextAddressId() {
+        return ADDRESS_ID_PREFIX + addressSequence.next();
+    }
+
+    public String nextAccountNumber() {
+        var value = accountSequence.next();
+        if(value > MAX_ACCOUNT_NUMBER) {
+            log.error("Every account number up to {} has been used", MAX_ACCOUNT_NUMBER);
+            throw new AccountNumbersExhaustedException();
+        }
+        return ACCOUNT_NUMBER_PREFIX + pad(Long.toString(value), ACCOUNT_NUMBER_DIGITS);
+    }
+
+    /*
+        Time ordered, so new transactions are inserted at the right hand edge of the primary key index
+     */
+    public String nextTransactionId() {
+        return formatTransactionId(new TransactionIdParts(System.currentTimeMillis(), transactionSequence.next()));
+    }
+
+    public static String formatTransactionId(TransactionIdParts parts) {
+        return TRANSACTION_ID_PREFIX
+                + pad(Long.toString(parts.millis(), Character.MAX_RADIX), TIMESTAMP_CHARS)
+                + pad(Long.toString(parts.sequence(), Character.MAX_RADIX), SEQUENCE_CHARS);
+    }
+
+    /*
+        The two numbers a transaction id is made of, for callers that keep ids as primitives.
+        Empty for anything formatTransactionId would not give back unchanged.
+     */
+    public static Optional<TransactionIdParts> parseTransactionId(String id) {
+        if(id == null || id.length() != TRANSACTION_ID_PREFIX.length() + TIMESTAMP_CHARS + SEQUENCE_CHARS
+                || !id.startsWith(TRANSACTION_ID_PREFIX)) {
+            return Optional.empty();
+        }
+        try {
+            var timestampStart = TRANSACTION_ID_PREFIX.length();
+            var sequenceStart = timestampStart + TIMESTAMP_CHARS;
+            var parts = new TransactionIdParts(
+                    Long.parseLong(id, timestampStart, sequenceStart, Character.MAX_RADIX),
+                    Long.parseLong(id, sequenceStart, id.length(), Character.MAX_RADIX));
+            return formatTransactionId(parts).equals(id) ? Optional.of(parts) : Optional.empty();
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    public record TransactionIdParts(long millis, long sequence) {
+    }
+
+    private static String pad(String value, int width) {
+        if(value.length() >= width) {
+            return value;
+        }
+        return "0".repeat(width - value.length()) + value;
+    }
+}
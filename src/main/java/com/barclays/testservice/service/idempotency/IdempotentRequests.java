@@ -0,0 +1,190 @@
+package com.barclays.testservice.service.idempotency;
+
+import com.barclays.testservice.exception.IdempotencyKeyReusedException;
+import com.barclays.testservice.model.IdempotencyKey;
+import com.barclays.testservice.repository.IdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/*
+    Runs a transaction request at most once per Idempotency-Key.
+
+    The key is inserted into the idempotency_key table first, with the id the request's
+    transaction will get and a hash of the request, and the posting joins that database
+    transaction: the key and its posting commit together or not at all. The id is only
+    allocated once the key is found to be new, so a replay uses up none. A duplicate key
+    fails the insert, also when the other request is on another instance, and is answered
+    from the stored transaction. A key sent again with a different request is rejected.
+
+    Attempts are also kept in a bounded, expiring in-memory cache, so a replay is a single
+    lock-free lookup and concurrent duplicates wait on the first request rather than
+    queueing on the key's row. Failed requests are dropped from it and can be retried.
+
+    Keys expire after cache-ttl-minutes, in the table as in the cache: rows older than that
+    are purged every purge-interval-minutes, and the key can then be used again.
+ */
+@Component
+@Slf4j
+public class IdempotentRequests {
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, Attempt> attempts;
+    private final Duration ttl;
+    private final ScheduledExecutorService purger;
+
+    private record Attempt(String requestHash, CompletableFuture<Object> result) {
+    }
+
+    public IdempotentRequests(IdempotencyKeyRepository idempotencyKeyRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${transaction.idempotency.cache-size:100000}") long cacheSize,
+                              @Value("${transaction.idempotency.cache-ttl-minutes:1440}") long cacheTtlMinutes,
+                              @Value("${transaction.idempotency.purge-interval-minutes:60}") long purgeIntervalMinutes) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = Duration.ofMinutes(cacheTtlMinutes);
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.purger = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("idempotency-key-purge").daemon().factory());
+        this.purger.scheduleWithFixedDelay(this::purgeSafely, purgeIntervalMinutes, purgeIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void close() {
+        purger.shutdownNow();
+    }
+
+    /*
+        Runs the request with a new transaction id from nextTransactionId, which must be the id
+        of its (first) transaction, or answers a repeat of it by passing the stored transaction
+        id to replay
+     */
+    public <T> T execute(String authUserId, String accountNumber, String idempotencyKey, String requestHash,
+                         Supplier<String> nextTransactionId, Function<String, T> request, Function<String, T> replay) {
+        if(idempotencyKey == null) {
+            return request.apply(nextTransactionId.get());
+        }
+
+        var id = authUserId + ":" + accountNumber + ":" + idempotencyKey;
+
+        var attempt = new Attempt(requestHash, new CompletableFuture<>());
+        var existing = attempts.asMap().putIfAbsent(id, attempt);
+        if(existing != null) {
+            checkSameRequest(existing.requestHash(), requestHash);
+            return join(existing.result());
+        }
+
+        try {
+            var result = run(id, requestHash, nextTransactionId, request, replay);
+            attempt.result().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            attempts.asMap().remove(id, attempt);
+            attempt.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /*
+        Deletes the keys older than the TTL, returning how many
+     */
+    public int purgeExpired() {
+        var before = Instant.now().minus(ttl);
+        return transactionTemplate.execute(status -> idempotencyKeyRepository.deleteCreatedBefore(before));
+    }
+
+    private void purgeSafely() {
+        try {
+            var purged = purgeExpired();
+            if(purged > 0) {
+                log.info("Purged {} expired idempotency keys", purged);
+            }
+        } catch (RuntimeException e) {
+            log.error("Purging expired idempotency keys failed", e);
+        }
+    }
+
+    /*
+        SHA-256 of the request: the operation, then its fields in a fixed order
+     */
+    public static String requestHash(String operation, Object... fields) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            for(var field : fields) {
+                digest.update((byte) 0);
+                digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> T run(String id, String requestHash, Supplier<String> nextTransactionId, Function<String, T> request, Function<String, T> replay) {
+        try {
+            return transactionTemplate.execute(status -> {
+                var stored = idempotencyKeyRepository.findById(id);
+                if(stored.isPresent()) {
+                    return replay(stored.get(), requestHash, replay);
+                }
+
+                var transactionId = nextTransactionId.get();
+                idempotencyKeyRepository.insert(id, transactionId, requestHash, Instant.now());
+                return request.apply(transactionId);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another request inserted the key first and has committed it with its posting
+            var stored = idempotencyKeyRepository.findById(id).orElseThrow(() -> e);
+            return replay(stored, requestHash, replay);
+        }
+    }
+
+    private static <T> T replay(IdempotencyKey stored, String requestHash, Function<String, T> replay) {
+        if(stored.getRequestHash() != null) {
+            checkSameRequest(stored.getRequestHash(), requestHash);
+        }
+        return replay.apply(stored.getTransactionId());
+    }
+
+    private static void checkSameRequest(String storedHash, String requestHash) {
+        if(!storedHash.equals(requestHash)) {
+            throw new IdempotencyKeyReusedException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T join(CompletableFuture<Object> result) {
+        try {
+            return (T) result.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.barclays.testservice.service.journal;
+
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.service.events.CommittedPostings;
+import com.barclays.testservice.service.rollup.DailyRollups;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeMap;
+
+/*
+    Brings the bankaccount and transaction tables up to date from the journal.
+
+    Entries are applied in lsn order, in batches: one balance UPDATE per account, one
+    batched INSERT of the transactions and one rollup update per account and day per batch. The last applied lsn is stored
+    in journal_checkpoint in the same database transaction, so on startup exactly the
+    entries after it are replayed before any new posting is accepted.
+
+    Entries that can not be applied go to journal_dead_letter rather than holding up the
+    ones after them: the legs of an account deleted since it was journaled, which update no
+    balance and so insert no transactions, and, once a batch has failed max-apply-attempts
+    times, each entry of it that still fails when applied on its own.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.balance-update.mode", havingValue = "journal")
+@DependsOnDatabaseInitialization
+@Slf4j
+public class JournalApplier {
+
+    private static final String UPDATE_BALANCE =
+            "UPDATE bankaccount SET balance_minor = balance_minor + ?, version = version + 1, last_updated_on = ? WHERE account_number = ?";
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transaction (id, account_number, amount_minor, currency, type, linked_transaction_id, created_on, reference) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_CHECKPOINT =
+            "SELECT applied_lsn FROM journal_checkpoint WHERE id = 1";
+    private static final String UPDATE_CHECKPOINT =
+            "MERGE INTO journal_checkpoint (id, applied_lsn) KEY (id) VALUES (1, ?)";
+    private static final String INSERT_DEAD_LETTER =
+            "INSERT INTO journal_dead_letter (lsn, entry, reason, recorded_on) VALUES (?, ?, ?, ?)";
+
+    private final TransactionJournal journal;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DailyRollups dailyRollups;
+    private final CommittedPostings committedPostings;
+    private final int batchSize;
+    private final int maxApplyAttempts;
+
+    private volatile boolean running;
+    private Thread applier;
+
+    public JournalApplier(TransactionJournal journal,
+                          JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          DailyRollups dailyRollups,
+                          CommittedPostings committedPostings,
+                          @Value("${transaction.journal.apply-batch-size:1000}") int batchSize,
+                          @Value("${transaction.journal.max-apply-attempts:5}") int maxApplyAttempts) {
+        this.journal = journal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.dailyRollups = dailyRollups;
+        this.committedPostings = committedPostings;
+        this.batchSize = batchSize;
+        this.maxApplyAttempts = maxApplyAttempts;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        replay();
+
+        running = true;
+        applier = Thread.ofPlatform().name("journal-applier").daemon().start(this::applyLoop);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        applier.interrupt();
+    }
+
+    private void replay() throws IOException {
+        var appliedLsn = jdbcTemplate.queryForList(SELECT_CHECKPOINT, Long.class).stream()
+                .findFirst()
+                .orElse(0L);
+
+        var batch = new ArrayList<JournalEntry>(batchSize);
+        var replayed = new long[1];
+        journal.readAfter(appliedLsn, entry -> {
+            batch.add(entry);
+            if(batch.size() == batchSize) {
+                apply(batch);
+                replayed[0] += batch.size();
+                batch.clear();
+            }
+        });
+        if(!batch.isEmpty()) {
+            apply(batch);
+            replayed[0] += batch.size();
+        }
+
+        if(replayed[0] > 0) {
+            log.info("Replayed {} journal entries after lsn {}", replayed[0], appliedLsn);
+        }
+    }
+
+    private void applyLoop() {
+        var batch = new ArrayList<JournalEntry>(batchSize);
+        var attempts = 0;
+        while(running) {
+            try {
+                if(batch.isEmpty()) {
+                    journal.takeUnapplied(batch, batchSize);
+                }
+                var lastLsn = batch.getLast().lsn();
+                // Never let the database get ahead of what is on disk
+                journal.awaitDurable(lastLsn);
+                if(attempts < maxApplyAttempts) {
+                    apply(batch);
+                } else {
+                    applyEach(batch);
+                }
+                journal.release(lastLsn);
+                batch.clear();
+                attempts = 0;
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // Keep the batch and try it again, entries must be applied in order
+                attempts++;
+                log.error("Applying journal entries {} to {} failed, attempt {} of {}",
+                        batch.getFirst().lsn(), batch.getLast().lsn(), attempts, maxApplyAttempts, e);
+                sleepBeforeRetry();
+            }
+        }
+    }
+
+    /*
+        Applies the entries one at a time, dead-lettering those that fail on their own. An
+        entry is removed from the batch once it is applied or dead-lettered, so a failure
+        here (of the dead letter itself, say) retries only the rest.
+     */
+    private void applyEach(List<JournalEntry> batch) {
+        while(!batch.isEmpty()) {
+            var entry = batch.getFirst();
+            try {
+                apply(List.of(entry));
+            } catch (RuntimeException e) {
+                log.error("Journal entry {} can not be applied, moving it to journal_dead_letter", entry.lsn(), e);
+                transactionTemplate.executeWithoutResult(status -> {
+                    deadLetter(entry, String.valueOf(e.getMessage()));
+                    jdbcTemplate.update(UPDATE_CHECKPOINT, entry.lsn());
+                });
+            }
+            batch.removeFirst();
+        }
+    }
+
+    private void apply(List<JournalEntry> batch) {
+        var now = Timestamp.from(Instant.now());
+
+        // Sorted, so the balance updates lock rows in account number order
+        var deltaByAccount = new TreeMap<String, Long>();
+        for(var entry : batch) {
+            for(var leg : entry.legs()) {
+                deltaByAccount.merge(leg.accountNumber(), leg.delta(), Long::sum);
+            }
+        }
+
+        var accountNumbers = new ArrayList<>(deltaByAccount.keySet());
+        var balanceUpdates = deltaByAccount.entrySet().stream()
+                .map(delta -> new Object[] {delta.getValue(), now, delta.getKey()})
+                .toList();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            var updated = jdbcTemplate.batchUpdate(UPDATE_BALANCE, balanceUpdates);
+            var deleted = new HashSet<String>();
+            for(int i = 0; i < updated.length; i++) {
+                if(updated[i] == 0) {
+                    deleted.add(accountNumbers.get(i));
+                }
+            }
+
+            var transactions = new ArrayList<Object[]>();
+            var posted = new ArrayList<Transaction>();
+            for(var entry : batch) {
+                var deadLegs = new ArrayList<JournalEntry.Leg>();
+                for(var leg : entry.legs()) {
+                    if(deleted.contains(leg.accountNumber())) {
+                        deadLegs.add(leg);
+                        continue;
+                    }
+                    posted.addAll(leg.transactions());
+                    leg.transactions().forEach(transaction -> transactions.add(toRow(transaction)));
+                }
+                if(!deadLegs.isEmpty()) {
+                    log.error("Journal entry {} posts to an account that no longer exists, moving it to journal_dead_letter", entry.lsn());
+                    deadLetter(new JournalEntry(entry.lsn(), deadLegs), "Account no longer exists");
+                }
+            }
+
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, transactions);
+            dailyRollups.record(posted);
+            committedPostings.record(posted);
+            jdbcTemplate.update(UPDATE_CHECKPOINT, batch.getLast().lsn());
+        });
+    }
+
+    private static Object[] toRow(Transaction transaction) {
+        return new Object[] {
+                transaction.getId(),
+                transaction.getAccountNumber(),
+                transaction.getAmount(),
+                transaction.getCurrency(),
+                transaction.getType(),
+                transaction.getLinkedTransactionId(),
+                Timestamp.from(transaction.getCreatedOn()),
+                transaction.getReference()
+        };
+    }
+
+    // Kept as journaled (JournalEntry.decode reads it back), for the entry to be looked into and posted by hand
+    private void deadLetter(JournalEntry entry, String reason) {
+        jdbcTemplate.update(INSERT_DEAD_LETTER, entry.lsn(), entry.encode(),
+                reason.length() > 1000 ? reason.substring(0, 1000) : reason, Timestamp.from(Instant.now()));
+    }
+
+    private void sleepBeforeRetry() {
+        try {
+            Thread.sleep(1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.barclays.testservice.service.journal;
+
+import com.barclays.testservice.model.Transaction;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    One journal record: the balance deltas for one or more accounts (the legs) and the
+    transactions that make them up, written and replayed as a unit.
+
+    References follow the legs, one per transaction in order, so entries written before
+    transactions had references still decode (without them).
+ */
+public record JournalEntry(long lsn, List<Leg> legs) {
+
+    public record Leg(String accountNumber, long delta, List<Transaction> transactions) {
+    }
+
+    public byte[] encode() {
+        var bytes = new ByteArrayOutputStream(64 + legs.size() * 128);
+        try(var out = new DataOutputStream(bytes)) {
+            out.writeInt(legs.size());
+            for(var leg : legs) {
+                out.writeUTF(leg.accountNumber());
+                out.writeLong(leg.delta());
+                out.writeInt(leg.transactions().size());
+                for(var transaction : leg.transactions()) {
+                    out.writeUTF(transaction.getId());
+                    out.writeLong(transaction.getAmount());
+                    out.writeUTF(transaction.getCurrency());
+                    out.writeUTF(transaction.getType());
+                    out.writeUTF(transaction.getLinkedTransactionId() == null ? "" : transaction.getLinkedTransactionId());
+                    out.writeLong(transaction.getCreatedOn().toEpochMilli());
+                }
+            }
+            for(var leg : legs) {
+                for(var transaction : leg.transactions()) {
+                    out.writeUTF(transaction.getReference() == null ? "" : transaction.getReference());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static JournalEntry decode(long lsn, byte[] payload) {
+        try(var in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            var legCount = in.readInt();
+            var legs = new ArrayList<Leg>(legCount);
+            for(int i = 0; i < legCount; i++) {
+                var accountNumber = in.readUTF();
+                var delta = in.readLong();
+                var count = in.readInt();
+                var transactions = new ArrayList<Transaction>(count);
+                for(int j = 0; j < count; j++) {
+                    var transaction = Transaction.builder()
+                            .id(in.readUTF())
+                            .accountNumber(accountNumber)
+                            .amount(in.readLong())
+                            .currency(in.readUTF())
+                            .type(in.readUTF())
+                            .build();
+                    var linkedTransactionId = in.readUTF();
+                    transaction.setLinkedTransactionId(linkedTransactionId.isEmpty() ? null : linkedTransactionId);
+                    transaction.setCreatedOn(Instant.ofEpochMilli(in.readLong()));
+                    transactions.add(transaction);
+                }
+                legs.add(new Leg(accountNumber, delta, transactions));
+            }
+            if(in.available() > 0) {
+                for(var leg : legs) {
+                    for(var transaction : leg.transactions()) {
+                        var reference = in.readUTF();
+                        transaction.setReference(reference.isEmpty() ? null : reference);
+                    }
+                }
+            }
+            return new JournalEntry(lsn, legs);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
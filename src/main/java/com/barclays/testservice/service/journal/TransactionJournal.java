@@ -0,0 +1,360 @@
+package com.barclays.testservice.service.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/*
+    Append-only write-ahead journal of postings, kept in pre-allocated memory-mapped
+    segment files.
+
+    Appends only copy the record into the mapped segment. A single flusher thread
+    forces everything appended since its last pass to disk in one go, so concurrent
+    writers share one fsync (group commit). Writers wait in awaitDurable until the
+    flusher has covered their record.
+
+    Record layout: int payload length, int CRC32C of lsn + payload, long lsn, payload.
+    Recovery stops at the first record that is empty, torn or out of sequence.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.balance-update.mode", havingValue = "journal")
+@Slf4j
+public class TransactionJournal {
+
+    private static final int HEADER_BYTES = 16;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long groupCommitWindowNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+
+    // Segments in lsn order, the last one is being appended to
+    private final List<Segment> segments = new ArrayList<>();
+    private MappedByteBuffer buffer;
+    private int flushedPosition;
+    private long appendedLsn;
+    private long durableLsn;
+    private IOException failure;
+
+    // Appended entries waiting to be applied to the database, in lsn order
+    private final LinkedBlockingQueue<JournalEntry> unapplied = new LinkedBlockingQueue<>();
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    private record Segment(long firstLsn, Path path) {
+    }
+
+    public TransactionJournal(@Value("${transaction.journal.directory:./journal}") String directory,
+                              @Value("${transaction.journal.segment-size-mb:64}") int segmentSizeMb,
+                              @Value("${transaction.journal.group-commit-window-micros:0}") long groupCommitWindowMicros) {
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentSizeMb * 1024 * 1024;
+        this.groupCommitWindowNanos = TimeUnit.MICROSECONDS.toNanos(groupCommitWindowMicros);
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        Files.createDirectories(directory);
+        try(var files = Files.list(directory)) {
+            files.map(Path::getFileName)
+                    .map(Path::toString)
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .forEach(name -> segments.add(new Segment(
+                            Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())),
+                            directory.resolve(name))));
+        }
+
+        if(segments.isEmpty()) {
+            startSegment(1);
+        } else {
+            // Find the end of the journal, and continue appending to the last segment from there
+            var last = segments.getLast();
+            appendedLsn = last.firstLsn() - 1;
+            buffer = map(last.path());
+            appendedLsn = scan(buffer, appendedLsn, entry -> { });
+            var end = buffer.position();
+            clearFrom(buffer, end);
+            flushedPosition = end;
+        }
+        durableLsn = appendedLsn;
+
+        running = true;
+        flusher = Thread.ofPlatform().name("journal-flusher").daemon().start(this::flushLoop);
+        log.info("Transaction journal opened at lsn {} in {}", appendedLsn, directory.toAbsolutePath());
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join();
+        lock.lock();
+        try {
+            buffer.force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+        Appends the entry and returns its lsn. The entry is not durable until awaitDurable returns.
+     */
+    public long append(List<JournalEntry.Leg> legs) {
+        lock.lock();
+        try {
+            if(failure != null) {
+                throw new UncheckedIOException("Transaction journal has failed", failure);
+            }
+
+            var lsn = appendedLsn + 1;
+            var entry = new JournalEntry(lsn, legs);
+            var payload = entry.encode();
+            if(HEADER_BYTES + payload.length > segmentBytes) {
+                // Rolling would not help, and would leave an empty segment behind
+                throw new IllegalArgumentException("Journal entry of " + payload.length
+                        + " bytes does not fit in a segment of " + segmentBytes + " bytes");
+            }
+            if(buffer.remaining() < HEADER_BYTES + payload.length) {
+                rollSegment(lsn);
+            }
+
+            var crc = new CRC32C();
+            crc.update(longBytes(lsn));
+            crc.update(payload);
+            buffer.putInt(payload.length)
+                    .putInt((int) crc.getValue())
+                    .putLong(lsn)
+                    .put(payload);
+
+            appendedLsn = lsn;
+            unapplied.add(entry);
+            appended.signal();
+            return lsn;
+        } catch (IOException e) {
+            failure = e;
+            throw new UncheckedIOException("Transaction journal has failed", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void awaitDurable(long lsn) {
+        lock.lock();
+        try {
+            while(durableLsn < lsn && failure == null) {
+                durable.awaitUninterruptibly();
+            }
+            if(durableLsn < lsn) {
+                throw new UncheckedIOException("Transaction journal has failed", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+        Moves up to max appended entries, oldest first, waiting for at least one
+     */
+    public void takeUnapplied(Collection<JournalEntry> into, int max) throws InterruptedException {
+        into.add(unapplied.take());
+        unapplied.drainTo(into, max - 1);
+    }
+
+    /*
+        Reads every entry after the given lsn, oldest first
+     */
+    public void readAfter(long lsn, Consumer<JournalEntry> consumer) throws IOException {
+        lock.lock();
+        try {
+            for(int i = 0; i < segments.size(); i++) {
+                var segment = segments.get(i);
+                var nextFirstLsn = i + 1 < segments.size() ? segments.get(i + 1).firstLsn() : Long.MAX_VALUE;
+                if(nextFirstLsn <= lsn + 1) {
+                    continue;
+                }
+                ByteBuffer segmentBuffer = i + 1 < segments.size() ? map(segment.path()) : buffer.duplicate();
+                scan(segmentBuffer, segment.firstLsn() - 1, entry -> {
+                    if(entry.lsn() > lsn) {
+                        consumer.accept(entry);
+                    }
+                });
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+        Deletes the segments that only hold entries up to the given (applied) lsn
+     */
+    public void release(long lsn) {
+        lock.lock();
+        try {
+            while(segments.size() > 1 && segments.get(1).firstLsn() - 1 <= lsn) {
+                Files.deleteIfExists(segments.removeFirst().path());
+            }
+        } catch (IOException e) {
+            log.warn("Unable to delete applied journal segment", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while(running) {
+            try {
+                if(groupCommitWindowNanos > 0) {
+                    // Let more writers join this flush
+                    LockSupport.parkNanos(groupCommitWindowNanos);
+                }
+
+                MappedByteBuffer target;
+                int from;
+                int to;
+                long targetLsn;
+                lock.lock();
+                try {
+                    while(appendedLsn == durableLsn) {
+                        appended.await();
+                    }
+                    target = buffer;
+                    from = flushedPosition;
+                    to = buffer.position();
+                    targetLsn = appendedLsn;
+                } finally {
+                    lock.unlock();
+                }
+
+                force(target, from, to - from);
+
+                lock.lock();
+                try {
+                    if(target == buffer) {
+                        flushedPosition = to;
+                    }
+                    durableLsn = targetLsn;
+                    durable.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                lock.lock();
+                try {
+                    failure = new IOException("Journal flush failed", e);
+                    durable.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                log.error("Transaction journal flush failed, no further postings will be accepted", e);
+                return;
+            }
+        }
+    }
+
+    // The one call that reaches the disk on the flusher thread, tests override it to fail
+    void force(MappedByteBuffer target, int offset, int length) {
+        target.force(offset, length);
+    }
+
+    private void rollSegment(long firstLsn) throws IOException {
+        // Everything in the full segment becomes durable before the new one is used
+        buffer.force();
+        startSegment(firstLsn);
+    }
+
+    private void startSegment(long firstLsn) throws IOException {
+        var path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+        segments.add(new Segment(firstLsn, path));
+        buffer = map(path);
+        flushedPosition = 0;
+        appendedLsn = firstLsn - 1;
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try(var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    /*
+        Reads records from the start of the buffer, leaving it positioned after the last
+        valid one, and returns the lsn of that record
+     */
+    private static long scan(ByteBuffer buffer, long previousLsn, Consumer<JournalEntry> consumer) {
+        buffer.position(0);
+        while(buffer.remaining() >= HEADER_BYTES) {
+            var start = buffer.position();
+            var length = buffer.getInt();
+            var crc = buffer.getInt();
+            var lsn = buffer.getLong();
+            if(length <= 0 || length > buffer.remaining() || lsn != previousLsn + 1) {
+                buffer.position(start);
+                break;
+            }
+
+            var payload = new byte[length];
+            buffer.get(payload);
+            var expected = new CRC32C();
+            expected.update(longBytes(lsn));
+            expected.update(payload);
+            if((int) expected.getValue() != crc) {
+                buffer.position(start);
+                break;
+            }
+
+            consumer.accept(JournalEntry.decode(lsn, payload));
+            previousLsn = lsn;
+        }
+        return previousLsn;
+    }
+
+    // Zeroes whatever a crash left after the last valid record
+    private static void clearFrom(MappedByteBuffer buffer, int position) {
+        var zeros = new byte[64 * 1024];
+        while(buffer.remaining() > 0) {
+            buffer.put(zeros, 0, Math.min(zeros.length, buffer.remaining()));
+        }
+        buffer.force();
+        buffer.position(position);
+    }
+
+    private static byte[] longBytes(long value) {
+        var bytes = new byte[Long.BYTES];
+        for(int i = Long.BYTES - 1; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+}
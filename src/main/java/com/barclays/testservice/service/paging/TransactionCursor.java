@@ -0,0 +1,45 @@
+package com.barclays.testservice.service.paging;
+
+import com.barclays.testservice.exception.InvalidDetailsSuppliedException;
+import com.barclays.testservice.model.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/*
+    Position in an account's transaction list, newest first: the (createdOn, id) of the
+    last transaction on the previous page. Clients see it as an opaque string.
+ */
+public record TransactionCursor(Instant createdOn, String id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static TransactionCursor after(Transaction transaction) {
+        return new TransactionCursor(transaction.getCreatedOn(), transaction.getId());
+    }
+
+    public String encode() {
+        var value = createdOn.getEpochSecond() + "." + createdOn.getNano() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        try {
+            var value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var separator = value.indexOf(SEPARATOR);
+            var dot = value.indexOf('.');
+            if(separator < 0 || dot < 0 || dot > separator || separator == value.length() - 1) {
+                throw new InvalidDetailsSuppliedException();
+            }
+            return new TransactionCursor(
+                    Instant.ofEpochSecond(
+                            Long.parseLong(value.substring(0, dot)),
+                            Long.parseLong(value.substring(dot + 1, separator))),
+                    value.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidDetailsSuppliedException();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.barclays.testservice.service.paging;
+
+import com.barclays.testservice.model.Transaction;
+
+import java.time.Instant;
+
+/*
+    Optional conditions on an account's transactions; null means not filtered.
+    from is inclusive, to exclusive, amounts are minor units (pence) and inclusive.
+ */
+public record TransactionFilter(Instant from, Instant to, String type, Long minAmount, Long maxAmount) {
+
+    public static final TransactionFilter NONE = new TransactionFilter(null, null, null, null, null);
+
+    public static TransactionFilter between(Instant from, Instant to) {
+        return new TransactionFilter(from, to, null, null, null);
+    }
+
+    public boolean isEmpty() {
+        return equals(NONE);
+    }
+
+    public boolean matches(Transaction transaction) {
+        return (from == null || !transaction.getCreatedOn().isBefore(from))
+                && (to == null || transaction.getCreatedOn().isBefore(to))
+                && (type == null || type.equals(transaction.getType()))
+                && (minAmount == null || transaction.getAmount() >= minAmount)
+                && (maxAmount == null || transaction.getAmount() <= maxAmount);
+    }
+}
@@ -0,0 +1,96 @@
+package com.barclays.testservice.service.paging;
+
+import com.barclays.testservice.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/*
+    The order of an account's transaction listings, newest first, and merging of listings
+    read from more than one place (the transaction table and the archive) in that order.
+ */
+public final class TransactionOrder {
+
+    public static final Comparator<Transaction> NEWEST_FIRST = Comparator
+            .comparing(Transaction::getCreatedOn, Comparator.reverseOrder())
+            .thenComparing(Transaction::getId, Comparator.reverseOrder());
+
+    private TransactionOrder() {
+    }
+
+    public static boolean isAfter(Transaction transaction, TransactionCursor cursor) {
+        return cursor == null
+                || transaction.getCreatedOn().isBefore(cursor.createdOn())
+                || (transaction.getCreatedOn().equals(cursor.createdOn()) && transaction.getId().compareTo(cursor.id()) < 0);
+    }
+
+    /*
+        The first limit transactions of two listings that are each newest first. A transaction
+        in both (one being archived as it was read) is kept once.
+     */
+    public static List<Transaction> merge(List<Transaction> first, List<Transaction> second, int limit) {
+        if(second.isEmpty()) {
+            return first.size() <= limit ? first : first.subList(0, limit);
+        }
+
+        var merged = new ArrayList<Transaction>(Math.min(limit, first.size() + second.size()));
+        merge(List.of(first.iterator(), second.iterator()))
+                .forEachRemaining(transaction -> {
+                    if(merged.size() < limit) {
+                        merged.add(transaction);
+                    }
+                });
+        return merged;
+    }
+
+    /*
+        Lazily merges listings that are each newest first, reading one transaction ahead from each
+     */
+    public static Iterator<Transaction> merge(List<Iterator<Transaction>> listings) {
+        if(listings.size() == 1) {
+            return listings.getFirst();
+        }
+
+        record Head(Transaction transaction, Iterator<Transaction> rest) {
+        }
+
+        var heads = new PriorityQueue<Head>(Comparator.comparing(Head::transaction, NEWEST_FIRST));
+        listings.stream()
+                .filter(Iterator::hasNext)
+                .forEach(listing -> heads.add(new Head(listing.next(), listing)));
+
+        return new Iterator<>() {
+            private String lastId;
+
+            @Override
+            public boolean hasNext() {
+                while(!heads.isEmpty() && heads.peek().transaction().getId().equals(lastId)) {
+                    advance();
+                }
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public Transaction next() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                var transaction = advance();
+                lastId = transaction.getId();
+                return transaction;
+            }
+
+            private Transaction advance() {
+                var head = heads.poll();
+                if(head.rest().hasNext()) {
+                    heads.add(new Head(head.rest().next(), head.rest()));
+                }
+                return head.transaction();
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.barclays.testservice.service.paging;
+
+import com.barclays.testservice.model.Transaction;
+
+import java.util.List;
+
+/*
+    One page of an account's transactions, newest first. nextCursor is null on the last page.
+ */
+public record TransactionPage(List<Transaction> transactions, String nextCursor) {
+
+    /*
+        Page from a query that fetched up to pageSize + 1 rows: the extra row tells us
+        whether there is a next page without a count query
+     */
+    public static TransactionPage of(List<Transaction> fetched, int pageSize) {
+        if(fetched.size() <= pageSize) {
+            return new TransactionPage(fetched, null);
+        }
+        var page = fetched.subList(0, pageSize);
+        return new TransactionPage(page, TransactionCursor.after(page.getLast()).encode());
+    }
+}
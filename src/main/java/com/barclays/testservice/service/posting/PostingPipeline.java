@@ -0,0 +1,322 @@
+package com.barclays.testservice.service.posting;
+
+import com.barclays.testservice.exception.InsufficientFundsException;
+import com.barclays.testservice.exception.PostingQueueFullException;
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.service.balance.BalanceUpdateEngine;
+import com.barclays.testservice.service.balance.SubBalanceLedger;
+import com.barclays.testservice.service.journal.JournalApplier;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AbstractDependsOnBeanFactoryPostProcessor;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/*
+    Asynchronous posting path. Every account is owned by exactly one shard, and each
+    shard has a single writer thread, so postings for an account are applied in the
+    order they were accepted without contending with each other.
+
+    The writer drains whatever has queued up and, per account, folds each run of
+    deposits into one balance update plus one batched insert. A withdrawal ends the
+    run, since it needs its own funds check against the balance at that point.
+
+    An accepted posting is written to the pending_posting table, in the caller's database
+    transaction when there is one (so an Idempotency-Key commits with its posting), and is
+    only queued once that has committed. Its row is deleted when it is posted or rejected.
+    Rows left by a restart are queued again on startup, after the journal has been replayed
+    in journal mode; a row whose transaction is already in the table was posted just before
+    the restart and is only deleted. A posting may come with a callback, run if it is
+    rejected, to undo what was done when it was accepted; it is not kept across a restart.
+ */
+@Component
+@DependsOnDatabaseInitialization
+@Slf4j
+public class PostingPipeline {
+
+    private static final int MAX_REJECTED_STATUSES = 10_000;
+
+    private static final String INSERT_PENDING =
+            "INSERT INTO pending_posting (id, account_number, amount_minor, currency, type, reference) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_PENDING = "DELETE FROM pending_posting WHERE id = ?";
+    private static final String SELECT_PENDING =
+            "SELECT id, account_number, amount_minor, currency, type, reference FROM pending_posting ORDER BY id";
+    private static final String COUNT_POSTED = "SELECT COUNT(*) FROM transaction WHERE id = ?";
+
+    private final BalanceUpdateEngine balanceUpdateEngine;
+    private final SubBalanceLedger subBalanceLedger;
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxBatchSize;
+    private final List<Shard> shards;
+    private final List<Thread> writers = new ArrayList<>();
+
+    // Postings not yet applied, and the most recent rejections. Once posted a transaction
+    // is looked up from the database instead.
+    private final Map<String, PostingStatus> pending = new ConcurrentHashMap<>();
+    private final Map<String, Runnable> rejectionCallbacks = new ConcurrentHashMap<>();
+    private final Map<String, PostingStatus> rejected = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PostingStatus> eldest) {
+                    return size() > MAX_REJECTED_STATUSES;
+                }
+            });
+
+    private volatile boolean running;
+
+    // The queue takes a posting once its row has committed, capacity is reserved before that
+    private record Shard(BlockingQueue<Transaction> queue, Semaphore capacity) {
+    }
+
+    public PostingPipeline(BalanceUpdateEngine balanceUpdateEngine,
+                           SubBalanceLedger subBalanceLedger,
+                           JdbcTemplate jdbcTemplate,
+                           @Value("${transaction.posting.shards:4}") int shardCount,
+                           @Value("${transaction.posting.queue-capacity:10000}") int queueCapacity,
+                           @Value("${transaction.posting.max-batch-size:256}") int maxBatchSize) {
+        this.balanceUpdateEngine = balanceUpdateEngine;
+        this.subBalanceLedger = subBalanceLedger;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxBatchSize = maxBatchSize;
+        this.shards = new ArrayList<>(shardCount);
+        for(int i = 0; i < shardCount; i++) {
+            shards.add(new Shard(new ArrayBlockingQueue<>(queueCapacity), new Semaphore(queueCapacity)));
+        }
+    }
+
+    // Only adds the dependency when there is a JournalApplier, that is in journal mode
+    @Bean
+    static AbstractDependsOnBeanFactoryPostProcessor postingPipelineDependsOnJournalApplier() {
+        return new AbstractDependsOnBeanFactoryPostProcessor(PostingPipeline.class, JournalApplier.class) {
+        };
+    }
+
+    @PostConstruct
+    void start() throws InterruptedException {
+        running = true;
+        for(int i = 0; i < shards.size(); i++) {
+            var shard = shards.get(i);
+            writers.add(Thread.ofPlatform()
+                    .name("posting-shard-" + i)
+                    .daemon()
+                    .start(() -> drain(shard)));
+        }
+        replay();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        writers.forEach(Thread::interrupt);
+    }
+
+    /*
+        Queues a transaction, which must already have its id and account number set
+     */
+    public PostingStatus submit(Transaction transaction) {
+        return submit(transaction, null);
+    }
+
+    /*
+        As submit, running onRejected on the writer thread if the posting is later rejected.
+        It is not run if the transaction can not be queued, the exception is thrown instead.
+     */
+    public PostingStatus submit(Transaction transaction, Runnable onRejected) {
+        var shard = shardOf(transaction.getAccountNumber());
+        if(!shard.capacity().tryAcquire()) {
+            throw new PostingQueueFullException();
+        }
+        try {
+            jdbcTemplate.update(INSERT_PENDING, transaction.getId(), transaction.getAccountNumber(), transaction.getAmount(),
+                    transaction.getCurrency(), transaction.getType(), transaction.getReference());
+        } catch (RuntimeException e) {
+            shard.capacity().release();
+            throw e;
+        }
+
+        var status = PostingStatus.pending(transaction.getId(), transaction.getAccountNumber());
+        pending.put(transaction.getId(), status);
+        if(onRejected != null) {
+            rejectionCallbacks.put(transaction.getId(), onRejected);
+        }
+
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            shard.queue().add(transaction);
+            return status;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int completion) {
+                if(completion == STATUS_COMMITTED) {
+                    shard.queue().add(transaction);
+                } else {
+                    pending.remove(transaction.getId());
+                    rejectionCallbacks.remove(transaction.getId());
+                    shard.capacity().release();
+                }
+            }
+        });
+        return status;
+    }
+
+    /*
+        Status of a transaction that is still pending or was rejected, empty otherwise
+     */
+    public Optional<PostingStatus> getStatus(String transactionId) {
+        var status = pending.get(transactionId);
+        return status != null ? Optional.of(status) : Optional.ofNullable(rejected.get(transactionId));
+    }
+
+    private Shard shardOf(String accountNumber) {
+        return shards.get(Math.floorMod(accountNumber.hashCode(), shards.size()));
+    }
+
+    /*
+        Queues the postings a restart left behind, waiting for room in their shards
+     */
+    private void replay() throws InterruptedException {
+        var replayed = 0;
+        var alreadyPosted = 0;
+        var rows = jdbcTemplate.query(SELECT_PENDING, (resultSet, rowNum) -> Transaction.builder()
+                .id(resultSet.getString(1))
+                .accountNumber(resultSet.getString(2))
+                .amount(resultSet.getLong(3))
+                .currency(resultSet.getString(4))
+                .type(resultSet.getString(5))
+                .reference(resultSet.getString(6))
+                .build());
+        for(var transaction : rows) {
+            if(jdbcTemplate.queryForObject(COUNT_POSTED, Long.class, transaction.getId()) > 0) {
+                jdbcTemplate.update(DELETE_PENDING, transaction.getId());
+                alreadyPosted++;
+                continue;
+            }
+
+            var shard = shardOf(transaction.getAccountNumber());
+            shard.capacity().acquire();
+            pending.put(transaction.getId(), PostingStatus.pending(transaction.getId(), transaction.getAccountNumber()));
+            shard.queue().add(transaction);
+            replayed++;
+        }
+
+        if(!rows.isEmpty()) {
+            log.info("Queued {} pending postings again, {} had already been posted", replayed, alreadyPosted);
+        }
+    }
+
+    private void drain(Shard shard) {
+        var batch = new ArrayList<Transaction>(maxBatchSize);
+        while(running) {
+            try {
+                batch.add(shard.queue().take());
+                shard.queue().drainTo(batch, maxBatchSize - 1);
+                shard.capacity().release(batch.size());
+                apply(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Posting batch failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void apply(List<Transaction> batch) {
+        // Group by account, keeping each account's postings in arrival order
+        var byAccount = new LinkedHashMap<String, List<Transaction>>();
+        batch.forEach(transaction -> byAccount
+                .computeIfAbsent(transaction.getAccountNumber(), accountNumber -> new ArrayList<>())
+                .add(transaction));
+
+        byAccount.forEach(this::applyAccount);
+    }
+
+    private void applyAccount(String accountNumber, List<Transaction> postings) {
+        var deposits = new ArrayList<Transaction>();
+        var depositTotal = 0L;
+
+        for(var transaction : postings) {
+            if(transaction.getType().equals("deposit")) {
+                deposits.add(transaction);
+                depositTotal += transaction.getAmount();
+            } else {
+                post(accountNumber, depositTotal, deposits);
+                deposits = new ArrayList<>();
+                depositTotal = 0L;
+                post(accountNumber, -transaction.getAmount(), List.of(transaction));
+            }
+        }
+        post(accountNumber, depositTotal, deposits);
+    }
+
+    private void post(String accountNumber, long delta, List<Transaction> transactions) {
+        if(transactions.isEmpty()) {
+            return;
+        }
+
+        try {
+            if(subBalanceLedger.isHot(accountNumber)) {
+                subBalanceLedger.post(accountNumber, delta, transactions);
+            } else {
+                balanceUpdateEngine.post(accountNumber, delta, transactions);
+            }
+            transactions.forEach(transaction -> {
+                pending.remove(transaction.getId());
+                rejectionCallbacks.remove(transaction.getId());
+            });
+            deletePending(transactions);
+        } catch (InsufficientFundsException e) {
+            reject(transactions, "Insufficient funds to process transaction");
+        } catch (RuntimeException e) {
+            log.error("Posting to account {} failed", accountNumber, e);
+            reject(transactions, "Unexpected error occurred");
+        }
+    }
+
+    private void reject(List<Transaction> transactions, String reason) {
+        transactions.forEach(transaction -> {
+            // Before the status, so a client that sees the rejection also sees it undone
+            var onRejected = rejectionCallbacks.remove(transaction.getId());
+            if(onRejected != null) {
+                try {
+                    onRejected.run();
+                } catch (RuntimeException e) {
+                    log.error("Rejection callback of transaction {} failed", transaction.getId(), e);
+                }
+            }
+            rejected.put(transaction.getId(), PostingStatus.rejected(transaction.getId(), transaction.getAccountNumber(), reason));
+            pending.remove(transaction.getId());
+        });
+        deletePending(transactions);
+    }
+
+    // A row left behind is queued again on startup, where it is found posted or is rejected again
+    private void deletePending(List<Transaction> transactions) {
+        try {
+            jdbcTemplate.batchUpdate(DELETE_PENDING, transactions.stream()
+                    .map(transaction -> new Object[] {transaction.getId()})
+                    .toList());
+        } catch (RuntimeException e) {
+            log.error("Deleting {} pending postings failed", transactions.size(), e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.barclays.testservice.service.posting;
+
+/*
+    Outcome of a transaction submitted for asynchronous posting
+ */
+public record PostingStatus(String transactionId, String accountNumber, State state, String reason) {
+
+    public enum State {
+        PENDING,
+        POSTED,
+        REJECTED
+    }
+
+    public static PostingStatus pending(String transactionId, String accountNumber) {
+        return new PostingStatus(transactionId, accountNumber, State.PENDING, null);
+    }
+
+    public static PostingStatus posted(String transactionId, String accountNumber) {
+        return new PostingStatus(transactionId, accountNumber, State.POSTED, null);
+    }
+
+    public static PostingStatus rejected(String transactionId, String accountNumber, String reason) {
+        return new PostingStatus(transactionId, accountNumber, State.REJECTED, reason);
+    }
+}
@@ -0,0 +1,21 @@
+package com.barclays.testservice.service.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+    A limit as TokenBucket applies it: one request per interval, up to tolerance ahead
+    of the sustained rate (burst - 1 intervals), and no more than maxInFlight at a time
+ */
+public record RateLimit(long intervalNanos, long toleranceNanos, int maxInFlight, long busyRetryNanos) {
+
+    // A request turned away for too many in flight is asked to retry after a second
+    private static final long BUSY_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    public static RateLimit of(double requestsPerSecond, int burst, int maxInFlight) {
+        if(requestsPerSecond <= 0 || burst < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Rate limits must be positive");
+        }
+        var intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        return new RateLimit(intervalNanos, intervalNanos * (burst - 1), maxInFlight, BUSY_RETRY_NANOS);
+    }
+}
@@ -0,0 +1,80 @@
+package com.barclays.testservice.service.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Token buckets per authenticated user (JWT subject) and per client address, see
+    TokenBucket. Each is held in a bounded cache that drops buckets idle for idle-minutes,
+    so clients that come and go never grow it. Looking up an existing bucket takes no lock.
+
+    A bucket dropped while idle is full again, which is also what it would be after
+    idle-minutes of refilling. Requests still in flight release the bucket they were
+    admitted by, so a dropped bucket never leaves a count behind.
+
+    Idle time is measured with a clock that ticks once a second rather than by reading
+    System.nanoTime on every lookup, which took most of the time of a lookup (see
+    RateLimitBenchmark). Eviction only needs to be right to the second.
+ */
+@Component
+public class RateLimiter {
+
+    private final boolean enabled;
+    private final RateLimit userLimit;
+    private final RateLimit clientLimit;
+    private final Cache<String, TokenBucket> users;
+    private final Cache<String, TokenBucket> clients;
+    private final ScheduledExecutorService clock;
+    private volatile long clockNanos = System.nanoTime();
+
+    public RateLimiter(@Value("${rate-limit.enabled:true}") boolean enabled,
+                       @Value("${rate-limit.user.requests-per-second:50}") double userRequestsPerSecond,
+                       @Value("${rate-limit.user.burst:100}") int userBurst,
+                       @Value("${rate-limit.user.max-in-flight:5}") int userMaxInFlight,
+                       @Value("${rate-limit.client.requests-per-second:100}") double clientRequestsPerSecond,
+                       @Value("${rate-limit.client.burst:200}") int clientBurst,
+                       @Value("${rate-limit.client.max-in-flight:50}") int clientMaxInFlight,
+                       @Value("${rate-limit.max-buckets:100000}") long maxBuckets,
+                       @Value("${rate-limit.idle-minutes:10}") long idleMinutes) {
+        this.enabled = enabled;
+        this.userLimit = RateLimit.of(userRequestsPerSecond, userBurst, userMaxInFlight);
+        this.clientLimit = RateLimit.of(clientRequestsPerSecond, clientBurst, clientMaxInFlight);
+        this.clock = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("rate-limit-clock").daemon().factory());
+        this.clock.scheduleAtFixedRate(() -> clockNanos = System.nanoTime(), 1, 1, TimeUnit.SECONDS);
+        this.users = buckets(maxBuckets, idleMinutes);
+        this.clients = buckets(maxBuckets, idleMinutes);
+    }
+
+    @PreDestroy
+    void close() {
+        clock.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public TokenBucket userBucket(String userId) {
+        return users.get(userId, key -> new TokenBucket(userLimit));
+    }
+
+    public TokenBucket clientBucket(String clientAddress) {
+        return clients.get(clientAddress, key -> new TokenBucket(clientLimit));
+    }
+
+    private Cache<String, TokenBucket> buckets(long maxBuckets, long idleMinutes) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .ticker(() -> clockNanos)
+                .build();
+    }
+}
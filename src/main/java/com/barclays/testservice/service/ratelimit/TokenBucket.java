@@ -0,0 +1,57 @@
+package com.barclays.testservice.service.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    The rate and concurrency limit of one user or client address.
+
+    The token bucket is kept as a single number, the time at which the bucket would be
+    full again (GCRA): a request is admitted while that time is less than burst intervals
+    ahead of now, and moves it one interval further. Admitting is a read and a CAS, with
+    no lock and no refill timer. In-flight requests are counted next to it, so a client
+    can not hold more than max-in-flight request threads (and database connections) at
+    once, however slowly it sends them.
+ */
+public final class TokenBucket {
+
+    private final RateLimit limit;
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    TokenBucket(RateLimit limit) {
+        this.limit = limit;
+    }
+
+    /*
+        0 if the request is admitted, in which case release must be called once it is
+        done. Otherwise the nanos to wait before the next request would be admitted.
+     */
+    public long tryAcquire(long nowNanos) {
+        if(inFlight.incrementAndGet() > limit.maxInFlight()) {
+            inFlight.decrementAndGet();
+            return limit.busyRetryNanos();
+        }
+
+        while(true) {
+            var current = fullAt.get();
+            var start = Math.max(current, nowNanos);
+            var ahead = start - nowNanos;
+            if(ahead > limit.toleranceNanos()) {
+                inFlight.decrementAndGet();
+                return ahead - limit.toleranceNanos();
+            }
+            if(fullAt.compareAndSet(current, start + limit.intervalNanos())) {
+                return 0;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+}
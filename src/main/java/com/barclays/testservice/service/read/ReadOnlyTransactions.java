@@ -0,0 +1,27 @@
+package com.barclays.testservice.service.read;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/*
+    Runs reads in one read-only transaction: Hibernate loads entities read-only, without the
+    snapshot it keeps to dirty-check them, and never flushes. Several reads share the one
+    connection rather than taking one each.
+ */
+@Component
+public class ReadOnlyTransactions {
+
+    private final TransactionTemplate transactionTemplate;
+
+    public ReadOnlyTransactions(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public <T> T execute(Supplier<T> read) {
+        return transactionTemplate.execute(status -> read.get());
+    }
+}
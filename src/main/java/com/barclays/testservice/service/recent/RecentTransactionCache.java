@@ -0,0 +1,96 @@
+package com.barclays.testservice.service.recent;
+
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.TransactionRepository;
+import com.barclays.testservice.service.archive.TransactionArchive;
+import com.barclays.testservice.service.paging.TransactionCursor;
+import com.barclays.testservice.service.paging.TransactionFilter;
+import com.barclays.testservice.service.paging.TransactionOrder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/*
+    The newest transactions-per-account transactions of recently read accounts (see
+    RecentTransactions), so first pages, short histories and lookups of recent transactions
+    are answered without the database.
+
+    An account is loaded the first time it is read. Accounts already held are updated with
+    every posting once it has committed (see CommittedPostings). Loading and updating an
+    account are serialised by the cache, so a posting that commits while the account is
+    loaded is never lost. Accounts are evicted once the cache outgrows max-size-mb.
+ */
+@Component
+public class RecentTransactionCache {
+
+    private static final long BYTES_PER_MB = 1024 * 1024;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchive transactionArchive;
+    private final int transactionsPerAccount;
+    private final Cache<String, RecentTransactions> accounts;
+
+    public RecentTransactionCache(TransactionRepository transactionRepository,
+                                  TransactionArchive transactionArchive,
+                                  @Value("${transaction.recent-cache.transactions-per-account:128}") int transactionsPerAccount,
+                                  @Value("${transaction.recent-cache.max-size-mb:64}") long maxSizeMb) {
+        this.transactionRepository = transactionRepository;
+        this.transactionArchive = transactionArchive;
+        this.transactionsPerAccount = transactionsPerAccount;
+        this.accounts = Caffeine.newBuilder()
+                .maximumWeight(maxSizeMb * BYTES_PER_MB)
+                .weigher((String accountNumber, RecentTransactions recent) -> recent.weight())
+                .build();
+    }
+
+    // Every transaction of the account, if it has no more than transactions-per-account
+    public Optional<List<Transaction>> findAll(String accountNumber) {
+        return load(accountNumber).flatMap(RecentTransactions::findAll);
+    }
+
+    // Up to limit transactions after the cursor, if they are all among the newest transactions-per-account
+    public Optional<List<Transaction>> findPage(String accountNumber, TransactionCursor after, int limit) {
+        if(limit > transactionsPerAccount) {
+            return Optional.empty();
+        }
+        return load(accountNumber).flatMap(recent -> recent.findPage(after, limit));
+    }
+
+    // Never loads the account, a miss is answered from the database as before
+    public Optional<Transaction> find(String accountNumber, String transactionId) {
+        return Optional.ofNullable(accounts.getIfPresent(accountNumber))
+                .flatMap(recent -> recent.find(transactionId));
+    }
+
+    // Adds committed postings to the accounts that are held
+    public void update(List<Transaction> posted) {
+        posted.stream()
+                .collect(Collectors.groupingBy(Transaction::getAccountNumber))
+                .forEach((accountNumber, transactions) -> accounts.asMap().computeIfPresent(accountNumber,
+                        (key, recent) -> recent.with(transactions, transactionsPerAccount).orElse(null)));
+    }
+
+    public void invalidateAll() {
+        accounts.invalidateAll();
+    }
+
+    private Optional<RecentTransactions> load(String accountNumber) {
+        return Optional.ofNullable(accounts.get(accountNumber, key -> {
+            // One more than is kept, to know whether that is the whole history
+            var fetchLimit = transactionsPerAccount + 1;
+            var newest = TransactionOrder.merge(
+                    transactionRepository.findFirstPage(key, Limit.of(fetchLimit)),
+                    transactionArchive.findPage(key, TransactionFilter.NONE, null, fetchLimit),
+                    fetchLimit);
+            var complete = newest.size() <= transactionsPerAccount;
+            return RecentTransactions.of(key, complete ? newest : newest.subList(0, transactionsPerAccount), complete)
+                    .orElse(null);
+        }));
+    }
+}
@@ -0,0 +1,245 @@
+package com.barclays.testservice.service.recent;
+
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.service.id.IdGenerator;
+import com.barclays.testservice.service.id.IdGenerator.TransactionIdParts;
+import com.barclays.testservice.service.paging.TransactionCursor;
+import com.barclays.testservice.service.paging.TransactionOrder;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/*
+    The newest transactions of one account, newest first, in parallel primitive arrays:
+    ids as their two numbers (see IdGenerator.parseTransactionId), amounts in minor units,
+    created times in epoch micros (the precision they are stored with) and type and currency
+    as codes. References are the only objects held, in an array that is mostly nulls.
+    Transaction objects are only built for what a read returns.
+
+    Immutable, a posting makes a new copy, so reads never see a half-applied update.
+    complete is set while the arrays hold the account's whole history.
+ */
+final class RecentTransactions {
+
+    private static final List<String> TYPES = List.of("deposit", "withdrawal");
+    private static final List<String> CURRENCIES = List.of("GBP");
+    private static final long NO_LINK = -1;
+
+    // Arrays, object headers and the account number key, roughly
+    private static final int FIXED_BYTES = 256;
+    private static final int BYTES_PER_TRANSACTION = 6 * Long.BYTES + 2 + 4;
+    // String and array headers of a reference, on top of its characters
+    private static final int BYTES_PER_REFERENCE = 56;
+
+    private final long[] idMillis;
+    private final long[] idSequences;
+    private final long[] linkedIdMillis;
+    private final long[] linkedIdSequences;
+    private final long[] amounts;
+    private final long[] createdMicros;
+    private final byte[] types;
+    private final byte[] currencies;
+    private final String[] references;
+    private final String accountNumber;
+    private final boolean complete;
+
+    private RecentTransactions(String accountNumber, int size, boolean complete) {
+        this.accountNumber = accountNumber;
+        this.complete = complete;
+        this.idMillis = new long[size];
+        this.idSequences = new long[size];
+        this.linkedIdMillis = new long[size];
+        this.linkedIdSequences = new long[size];
+        this.amounts = new long[size];
+        this.createdMicros = new long[size];
+        this.types = new byte[size];
+        this.currencies = new byte[size];
+        this.references = new String[size];
+    }
+
+    /*
+        Empty if any of the transactions cannot be held as primitives, e.g. an id that
+        was not created by IdGenerator, in which case the account is not cached.
+     */
+    static Optional<RecentTransactions> of(String accountNumber, List<Transaction> newestFirst, boolean complete) {
+        var recent = new RecentTransactions(accountNumber, newestFirst.size(), complete);
+        for(int i = 0; i < newestFirst.size(); i++) {
+            if(!recent.set(i, newestFirst.get(i))) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(recent);
+    }
+
+    /*
+        A copy with the posted transactions added in order, keeping the newest capacity.
+        Posted transactions that are already held are skipped.
+     */
+    Optional<RecentTransactions> with(List<Transaction> posted, int capacity) {
+        var added = of(accountNumber, posted.stream()
+                .filter(transaction -> indexOf(transaction.getId()) < 0)
+                .sorted(TransactionOrder.NEWEST_FIRST)
+                .toList(), false);
+        if(added.isEmpty()) {
+            return Optional.empty();
+        }
+
+        var total = size() + added.get().size();
+        var merged = new RecentTransactions(accountNumber, Math.min(total, capacity), complete && total <= capacity);
+        int i = 0;
+        int j = 0;
+        for(int k = 0; k < merged.size(); k++) {
+            if(j == added.get().size() || i < size() && isNewer(i, added.get(), j)) {
+                merged.copy(k, this, i++);
+            } else {
+                merged.copy(k, added.get(), j++);
+            }
+        }
+        return Optional.of(merged);
+    }
+
+    int size() {
+        return amounts.length;
+    }
+
+    int weight() {
+        var weight = FIXED_BYTES + size() * BYTES_PER_TRANSACTION;
+        for(var reference : references) {
+            if(reference != null) {
+                weight += BYTES_PER_REFERENCE + reference.length();
+            }
+        }
+        return weight;
+    }
+
+    Optional<List<Transaction>> findAll() {
+        return complete ? Optional.of(range(0, size())) : Optional.empty();
+    }
+
+    /*
+        Up to limit transactions after the cursor. Empty if the answer may include
+        transactions older than the ones held.
+     */
+    Optional<List<Transaction>> findPage(TransactionCursor after, int limit) {
+        var start = 0;
+        while(start < size() && !isAfter(start, after)) {
+            start++;
+        }
+        var end = Math.min(size(), start + limit);
+        if(end - start < limit && !complete) {
+            return Optional.empty();
+        }
+        return Optional.of(range(start, end));
+    }
+
+    Optional<Transaction> find(String id) {
+        var index = indexOf(id);
+        return index < 0 ? Optional.empty() : Optional.of(get(index));
+    }
+
+    private boolean isNewer(int index, RecentTransactions other, int otherIndex) {
+        if(createdMicros[index] != other.createdMicros[otherIndex]) {
+            return createdMicros[index] > other.createdMicros[otherIndex];
+        }
+        // Ids are fixed width, so their order is the order of (millis, sequence)
+        return idMillis[index] != other.idMillis[otherIndex]
+                ? idMillis[index] > other.idMillis[otherIndex]
+                : idSequences[index] > other.idSequences[otherIndex];
+    }
+
+    private void copy(int index, RecentTransactions from, int fromIndex) {
+        idMillis[index] = from.idMillis[fromIndex];
+        idSequences[index] = from.idSequences[fromIndex];
+        linkedIdMillis[index] = from.linkedIdMillis[fromIndex];
+        linkedIdSequences[index] = from.linkedIdSequences[fromIndex];
+        amounts[index] = from.amounts[fromIndex];
+        createdMicros[index] = from.createdMicros[fromIndex];
+        types[index] = from.types[fromIndex];
+        currencies[index] = from.currencies[fromIndex];
+        references[index] = from.references[fromIndex];
+    }
+
+    private boolean isAfter(int index, TransactionCursor after) {
+        if(after == null) {
+            return true;
+        }
+        var createdOn = toInstant(createdMicros[index]);
+        return createdOn.isBefore(after.createdOn())
+                || createdOn.equals(after.createdOn()) && id(index).compareTo(after.id()) < 0;
+    }
+
+    private int indexOf(String id) {
+        var parts = IdGenerator.parseTransactionId(id);
+        if(parts.isEmpty()) {
+            return -1;
+        }
+        for(int i = 0; i < size(); i++) {
+            if(idMillis[i] == parts.get().millis() && idSequences[i] == parts.get().sequence()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private List<Transaction> range(int start, int end) {
+        var transactions = new ArrayList<Transaction>(end - start);
+        for(int i = start; i < end; i++) {
+            transactions.add(get(i));
+        }
+        return transactions;
+    }
+
+    private Transaction get(int index) {
+        return Transaction.builder()
+                .id(id(index))
+                .accountNumber(accountNumber)
+                .amount(amounts[index])
+                .currency(CURRENCIES.get(currencies[index]))
+                .type(TYPES.get(types[index]))
+                .linkedTransactionId(linkedIdMillis[index] == NO_LINK
+                        ? null
+                        : IdGenerator.formatTransactionId(new TransactionIdParts(linkedIdMillis[index], linkedIdSequences[index])))
+                .createdOn(toInstant(createdMicros[index]))
+                .reference(references[index])
+                .build();
+    }
+
+    private String id(int index) {
+        return IdGenerator.formatTransactionId(new TransactionIdParts(idMillis[index], idSequences[index]));
+    }
+
+    private boolean set(int index, Transaction transaction) {
+        var id = IdGenerator.parseTransactionId(transaction.getId());
+        var type = TYPES.indexOf(transaction.getType());
+        var currency = CURRENCIES.indexOf(transaction.getCurrency());
+        if(id.isEmpty() || type < 0 || currency < 0 || transaction.getCreatedOn() == null
+                || !transaction.getCreatedOn().equals(transaction.getCreatedOn().truncatedTo(ChronoUnit.MICROS))) {
+            return false;
+        }
+
+        idMillis[index] = id.get().millis();
+        idSequences[index] = id.get().sequence();
+        linkedIdMillis[index] = NO_LINK;
+        if(transaction.getLinkedTransactionId() != null) {
+            var linkedId = IdGenerator.parseTransactionId(transaction.getLinkedTransactionId());
+            if(linkedId.isEmpty()) {
+                return false;
+            }
+            linkedIdMillis[index] = linkedId.get().millis();
+            linkedIdSequences[index] = linkedId.get().sequence();
+        }
+        amounts[index] = transaction.getAmount();
+        createdMicros[index] = ChronoUnit.MICROS.between(Instant.EPOCH, transaction.getCreatedOn());
+        types[index] = (byte) type;
+        currencies[index] = (byte) currency;
+        references[index] = transaction.getReference();
+        return true;
+    }
+
+    private static Instant toInstant(long epochMicros) {
+        return Instant.EPOCH.plus(epochMicros, ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,267 @@
+package com.barclays.testservice.service.reconciliation;
+
+import com.barclays.testservice.exception.ReconciliationRunningException;
+import com.barclays.testservice.model.ReconciliationDrift;
+import com.barclays.testservice.model.ReconciliationRun;
+import com.barclays.testservice.repository.ReconciliationRangeRepository;
+import com.barclays.testservice.repository.ReconciliationRunRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+    Checks that every account's balance equals the signed sum of its transactions.
+
+    The account numbers are split into ranges of range-size account numbers, which a
+    fork-join pool splits between its workers. Each range is one streamed query that
+    reads the balance and transaction sum of every account in it, keeping only the
+    drifted accounts in memory. A completed range is checkpointed together with its
+    drifts, so a run stopped by a shutdown or failure is resumed from the ranges it
+    had not finished. One run at a time.
+ */
+@Component
+// Runs left running by the previous process are marked interrupted at startup
+@DependsOnDatabaseInitialization
+@Slf4j
+public class LedgerReconciler {
+
+    private static final String ACCOUNT_NUMBER_PREFIX = "01";
+    private static final String RUN_ID_PREFIX = "rec-";
+
+    private static final String SELECT_ACCOUNT_NUMBER_BOUNDS =
+            "SELECT MIN(account_number), MAX(account_number) FROM bankaccount";
+    // Balance is the bankaccount row plus any sub-balance slots; the sum is read from idx_transaction_account_type_created
+    // plus the archived total, if any of the account's transactions have been archived
+    private static final String COMPARE_ACCOUNTS =
+            "SELECT b.account_number,"
+                    + " b.balance_minor + COALESCE((SELECT SUM(s.balance_minor) FROM bankaccount_sub_balance s WHERE s.account_number = b.account_number), 0),"
+                    + " COALESCE((SELECT SUM(CASE WHEN t.type = 'withdrawal' THEN -t.amount_minor ELSE t.amount_minor END)"
+                    + " FROM transaction t WHERE t.account_number = b.account_number), 0)"
+                    + " + COALESCE((SELECT a.sum_minor FROM account_archive_total a WHERE a.account_number = b.account_number), 0)"
+                    + " FROM bankaccount b WHERE b.account_number BETWEEN ? AND ?";
+    private static final String INSERT_DRIFT =
+            "INSERT INTO reconciliation_drift (run_id, account_number, balance_minor, transaction_sum_minor) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_RANGE =
+            "INSERT INTO reconciliation_range (run_id, range_index, accounts_checked, drift_count, completed_on) VALUES (?, ?, ?, ?, ?)";
+
+    private final ReconciliationRunRepository reconciliationRunRepository;
+    private final ReconciliationRangeRepository reconciliationRangeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int rangeSize;
+    private final ForkJoinPool pool;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopping;
+
+    public LedgerReconciler(ReconciliationRunRepository reconciliationRunRepository,
+                            ReconciliationRangeRepository reconciliationRangeRepository,
+                            DataSource dataSource,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${reconciliation.parallelism:4}") int parallelism,
+                            @Value("${reconciliation.range-size:10000}") int rangeSize,
+                            @Value("${reconciliation.fetch-size:1000}") int fetchSize) {
+        this.reconciliationRunRepository = reconciliationRunRepository;
+        this.reconciliationRangeRepository = reconciliationRangeRepository;
+        // Own template, so only the reconciliation reads stream rows in fetch-size chunks
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = transactionTemplate;
+        this.rangeSize = rangeSize;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    @PostConstruct
+    void markInterruptedRuns() {
+        transactionTemplate.executeWithoutResult(status ->
+                reconciliationRunRepository.updateStatus(ReconciliationRun.RUNNING, ReconciliationRun.INTERRUPTED));
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        stopping = true;
+        pool.shutdown();
+        // Ranges in progress finish and are checkpointed, the rest are left for a resume
+        pool.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    public ReconciliationRun start() {
+        if(!running.compareAndSet(false, true)) {
+            throw new ReconciliationRunningException();
+        }
+
+        try {
+            var bounds = jdbcTemplate.queryForObject(SELECT_ACCOUNT_NUMBER_BOUNDS,
+                    (resultSet, row) -> new String[] {resultSet.getString(1), resultSet.getString(2)});
+            var firstAccountNumber = bounds[0];
+            var lastAccountNumber = bounds[1];
+            var rangeCount = firstAccountNumber == null
+                    ? 0
+                    : Math.toIntExact(Math.ceilDiv(toNumber(lastAccountNumber) - toNumber(firstAccountNumber) + 1, rangeSize));
+
+            var run = reconciliationRunRepository.save(ReconciliationRun.builder()
+                    .id(RUN_ID_PREFIX + Long.toString(System.currentTimeMillis(), Character.MAX_RADIX))
+                    .status(ReconciliationRun.RUNNING)
+                    .firstAccountNumber(firstAccountNumber)
+                    .lastAccountNumber(lastAccountNumber)
+                    .rangeSize(rangeSize)
+                    .rangeCount(rangeCount)
+                    .startedOn(Instant.now())
+                    .build());
+
+            launch(run, Set.of());
+            return run;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    /*
+        Continues an interrupted run with the range split it was started with
+     */
+    public ReconciliationRun resume(ReconciliationRun run) {
+        if(!running.compareAndSet(false, true)) {
+            throw new ReconciliationRunningException();
+        }
+
+        try {
+            var completedRanges = new HashSet<>(reconciliationRangeRepository.findRangeIndexesByRunId(run.getId()));
+            run.setStatus(ReconciliationRun.RUNNING);
+            run.setFinishedOn(null);
+            reconciliationRunRepository.save(run);
+
+            launch(run, completedRanges);
+            return run;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private void launch(ReconciliationRun run, Set<Integer> completedRanges) {
+        var plan = new Plan(run.getId(), run.getFirstAccountNumber(), run.getLastAccountNumber(), run.getRangeSize(), completedRanges);
+
+        pool.execute(() -> {
+            try {
+                var status = reconcile(run, plan);
+                transactionTemplate.executeWithoutResult(transaction ->
+                        reconciliationRunRepository.finish(run.getId(), status, Instant.now()));
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    private String reconcile(ReconciliationRun run, Plan plan) {
+        try {
+            if(run.getRangeCount() > 0) {
+                new RangeTask(plan, 0, run.getRangeCount()).invoke();
+            }
+            return stopping ? ReconciliationRun.INTERRUPTED : ReconciliationRun.COMPLETED;
+        } catch (RuntimeException e) {
+            log.error("Reconciliation run {} failed, it can be resumed", run.getId(), e);
+            return ReconciliationRun.INTERRUPTED;
+        }
+    }
+
+    private void reconcileRange(Plan plan, int rangeIndex) {
+        if(stopping || plan.completedRanges().contains(rangeIndex)) {
+            return;
+        }
+
+        var from = toNumber(plan.firstAccountNumber()) + (long) rangeIndex * plan.rangeSize();
+        var to = Math.min(from + plan.rangeSize() - 1, toNumber(plan.lastAccountNumber()));
+
+        var accountsChecked = new long[1];
+        var suspects = new ArrayList<ReconciliationDrift>();
+        jdbcTemplate.query(COMPARE_ACCOUNTS, resultSet -> {
+            accountsChecked[0]++;
+            var balance = resultSet.getLong(2);
+            var transactionSum = resultSet.getLong(3);
+            if(balance != transactionSum) {
+                suspects.add(new ReconciliationDrift(plan.runId(), resultSet.getString(1), balance, transactionSum));
+            }
+        }, toAccountNumber(from), toAccountNumber(to));
+
+        var drifts = recheck(suspects);
+        var now = Timestamp.from(Instant.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_DRIFT, drifts.stream()
+                    .map(drift -> new Object[] {drift.getRunId(), drift.getAccountNumber(), drift.getBalanceMinor(), drift.getTransactionSumMinor()})
+                    .toList());
+            jdbcTemplate.update(INSERT_RANGE, plan.runId(), rangeIndex, accountsChecked[0], drifts.size(), now);
+            reconciliationRunRepository.addCompletedRange(plan.runId(), accountsChecked[0], drifts.size());
+        });
+    }
+
+    /*
+        A posting committed while the range was being read can make an account look drifted,
+        so each one is read again on its own and only reported if it still differs
+     */
+    private List<ReconciliationDrift> recheck(List<ReconciliationDrift> suspects) {
+        var drifts = new ArrayList<ReconciliationDrift>();
+        for(var suspect : suspects) {
+            jdbcTemplate.query(COMPARE_ACCOUNTS, resultSet -> {
+                var balance = resultSet.getLong(2);
+                var transactionSum = resultSet.getLong(3);
+                if(balance != transactionSum) {
+                    drifts.add(new ReconciliationDrift(suspect.getRunId(), suspect.getAccountNumber(), balance, transactionSum));
+                }
+            }, suspect.getAccountNumber(), suspect.getAccountNumber());
+        }
+        return drifts;
+    }
+
+    private static long toNumber(String accountNumber) {
+        return Long.parseLong(accountNumber.substring(ACCOUNT_NUMBER_PREFIX.length()));
+    }
+
+    private static String toAccountNumber(long number) {
+        return ACCOUNT_NUMBER_PREFIX + String.format("%06d", number);
+    }
+
+    private record Plan(String runId, String firstAccountNumber, String lastAccountNumber, int rangeSize, Set<Integer> completedRanges) {
+    }
+
+    // Splits the ranges [from, to) in half until each task holds a single range
+    private class RangeTask extends RecursiveAction {
+
+        private final Plan plan;
+        private final int from;
+        private final int to;
+
+        RangeTask(Plan plan, int from, int to) {
+            this.plan = plan;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from == 1) {
+                reconcileRange(plan, from);
+                return;
+            }
+            var middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(plan, from, middle), new RangeTask(plan, middle, to));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.barclays.testservice.service.reconciliation;
+
+import com.barclays.testservice.model.ReconciliationDrift;
+import com.barclays.testservice.model.ReconciliationRun;
+
+import java.util.List;
+
+/*
+    Progress of a run and the first of the drifts it has found, in account number order
+ */
+public record ReconciliationReport(ReconciliationRun run, List<ReconciliationDrift> drifts) {
+}
@@ -0,0 +1,11 @@
+package com.barclays.testservice.service.rollup;
+
+/*
+    Totals of an account's postings over a date range, in minor units (pence)
+ */
+public record AccountActivity(long creditMinor, long creditCount, long debitMinor, long debitCount) {
+
+    public long netMovement() {
+        return creditMinor - debitMinor;
+    }
+}
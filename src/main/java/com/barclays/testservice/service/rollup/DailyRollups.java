@@ -0,0 +1,61 @@
+package com.barclays.testservice.service.rollup;
+
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.AccountDailyRollupRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+    Adds postings to the per-account daily rollups. Must be called inside the database
+    transaction that posts them, so the rollups can never disagree with the transaction table.
+ */
+@Component
+@AllArgsConstructor
+public class DailyRollups {
+
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator.comparing(RollupKey::accountNumber)
+            .thenComparing(RollupKey::postingDate)
+            .thenComparingInt(RollupKey::slot);
+
+    private final AccountDailyRollupRepository accountDailyRollupRepository;
+
+    public void record(List<Transaction> transactions) {
+        record(transactions, 0);
+    }
+
+    public void record(List<Transaction> transactions, int slot) {
+        // Sorted, so concurrent postings lock the rollup rows in the same order
+        var totals = new TreeMap<RollupKey, long[]>(KEY_ORDER);
+        var now = Instant.now();
+        for(var transaction : transactions) {
+            var createdOn = transaction.getCreatedOn() == null ? now : transaction.getCreatedOn();
+            var key = new RollupKey(transaction.getAccountNumber(), LocalDate.ofInstant(createdOn, ZoneOffset.UTC), slot);
+            var total = totals.computeIfAbsent(key, k -> new long[4]);
+            if(transaction.getType().equals("withdrawal")) {
+                total[2] += transaction.getAmount();
+                total[3]++;
+            } else {
+                total[0] += transaction.getAmount();
+                total[1]++;
+            }
+        }
+
+        for(Map.Entry<RollupKey, long[]> entry : totals.entrySet()) {
+            var key = entry.getKey();
+            var total = entry.getValue();
+            accountDailyRollupRepository.add(key.accountNumber(), key.postingDate(), key.slot(),
+                    total[0], total[1], total[2], total[3]);
+        }
+    }
+
+    private record RollupKey(String accountNumber, LocalDate postingDate, int slot) {
+    }
+}
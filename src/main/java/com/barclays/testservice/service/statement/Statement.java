@@ -0,0 +1,18 @@
+package com.barclays.testservice.service.statement;
+
+import com.barclays.testservice.service.paging.TransactionPage;
+import com.barclays.testservice.service.rollup.AccountActivity;
+
+import java.time.YearMonth;
+
+/*
+    An account's statement for one (UTC) month, balances in minor units (pence).
+    The month's transactions are paged, newest first.
+ */
+public record Statement(String accountNumber,
+                        YearMonth month,
+                        long openingBalance,
+                        long closingBalance,
+                        AccountActivity activity,
+                        TransactionPage transactions) {
+}
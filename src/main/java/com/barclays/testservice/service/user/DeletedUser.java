@@ -0,0 +1,11 @@
+package com.barclays.testservice.service.user;
+
+/*
+    A user row as it was when deleted. The address id is null for a user without an address.
+ */
+public interface DeletedUser {
+
+    String getId();
+
+    String getAddressId();
+}
@@ -0,0 +1,21 @@
+package com.barclays.testservice.service.user;
+
+import java.time.Instant;
+
+/*
+    The user and their address as returned by the API, without the password hash, read in
+    one query rather than loaded as User and Address entities
+ */
+public record UserProfile(String id,
+                          String name,
+                          String line1,
+                          String line2,
+                          String line3,
+                          String town,
+                          String county,
+                          String postcode,
+                          String phoneNumber,
+                          String email,
+                          Instant createdOn,
+                          Instant lastUpdatedOn) {
+}
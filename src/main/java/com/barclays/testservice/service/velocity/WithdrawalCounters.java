@@ -0,0 +1,217 @@
+package com.barclays.testservice.service.velocity;
+
+import com.barclays.testservice.service.balance.StripedLocks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    Sliding-window withdrawal counters for a fixed number of keys (account numbers or user
+    ids), allocated once: the amount withdrawn per hour for the last 24 hours and the number
+    of withdrawals per five minutes for the last hour, as rings of buckets in flat arrays.
+    A bucket is cleared when the window moves past it, on the next access to its key, so
+    nothing runs in the background and recording a withdrawal allocates nothing.
+
+    Keys are spread over the slots of the lock stripe they hash to and probed for within the
+    stripe. A key's slot is reused once all its withdrawals are out of the window. If every
+    slot probed is in use the key gets NO_SLOT, and its withdrawals are rejected rather than
+    let through uncounted, so slots should comfortably outnumber the keys that withdraw
+    within a day.
+
+    Callers hold lockFor(key) around slot and every read or update of the slot.
+ */
+public class WithdrawalCounters {
+
+    static final long BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    static final int COUNT_BUCKETS = 12;
+    static final int BUCKETS_PER_HOUR = 12;
+    static final int AMOUNT_BUCKETS = 24;
+
+    public static final int NO_SLOT = -1;
+
+    private static final int MAX_PROBES = 16;
+
+    private final StripedLocks locks;
+    private final int slotsPerStripe;
+    private final int probes;
+    // Decay of the velocity score by age of the count bucket, 1 for the current one
+    private final double[] velocityWeights = new double[COUNT_BUCKETS];
+
+    private final String[] keys;
+    private final int[] hashes;
+    // Newest five minute bucket recorded in the slot, the newest hour is this / BUCKETS_PER_HOUR
+    private final long[] newest;
+    private final long[] amounts;
+    private final int[] counts;
+
+    public WithdrawalCounters(int slots, int stripes, long velocityHalfLifeMillis) {
+        this.locks = new StripedLocks(stripes);
+        var stripeCount = locks.stripes();
+        this.slotsPerStripe = Math.max(1, (slots + stripeCount - 1) / stripeCount);
+        this.probes = Math.min(MAX_PROBES, slotsPerStripe);
+        for(int age = 0; age < COUNT_BUCKETS; age++) {
+            velocityWeights[age] = Math.pow(0.5, (double) (age * BUCKET_MILLIS) / velocityHalfLifeMillis);
+        }
+
+        var size = slotsPerStripe * stripeCount;
+        this.keys = new String[size];
+        this.hashes = new int[size];
+        this.newest = new long[size];
+        this.amounts = new long[size * AMOUNT_BUCKETS];
+        this.counts = new int[size * COUNT_BUCKETS];
+    }
+
+    public ReentrantLock lockFor(String key) {
+        return locks.forKey(key);
+    }
+
+    /*
+        The key's slot, moved up to now. Claims a slot if the key has none, or returns NO_SLOT
+        if every slot it may take is in use.
+     */
+    public int slot(String key, long nowMillis) {
+        var found = find(key);
+        if(found < 0) {
+            found = claim(key, nowMillis);
+            if(found < 0) {
+                return NO_SLOT;
+            }
+        }
+        advance(found, nowMillis / BUCKET_MILLIS);
+        return found;
+    }
+
+    public long amountInDay(int slot) {
+        var total = 0L;
+        var base = slot * AMOUNT_BUCKETS;
+        for(int i = 0; i < AMOUNT_BUCKETS; i++) {
+            total += amounts[base + i];
+        }
+        return total;
+    }
+
+    public int countInHour(int slot) {
+        var total = 0;
+        var base = slot * COUNT_BUCKETS;
+        for(int i = 0; i < COUNT_BUCKETS; i++) {
+            total += counts[base + i];
+        }
+        return total;
+    }
+
+    /*
+        Withdrawals in the last hour, each counting half as much for every half-life it is old,
+        so a burst scores higher than the same number spread over the hour
+     */
+    public double velocityScore(int slot) {
+        var current = newest[slot];
+        var base = slot * COUNT_BUCKETS;
+        var score = 0.0;
+        for(int age = 0; age < COUNT_BUCKETS; age++) {
+            score += counts[base + (int) Math.floorMod(current - age, (long) COUNT_BUCKETS)] * velocityWeights[age];
+        }
+        return score;
+    }
+
+    /*
+        Adds withdrawals made at the time, or takes them away again with a negative amount
+        and count. Times that have left the window are ignored.
+     */
+    public void record(int slot, long atMillis, long amount, int count) {
+        var bucket = atMillis / BUCKET_MILLIS;
+        if(bucket > newest[slot]) {
+            advance(slot, bucket);
+        }
+
+        var current = newest[slot];
+        if(current - bucket < COUNT_BUCKETS) {
+            counts[slot * COUNT_BUCKETS + (int) (bucket % COUNT_BUCKETS)] += count;
+        }
+        var hour = bucket / BUCKETS_PER_HOUR;
+        if(current / BUCKETS_PER_HOUR - hour < AMOUNT_BUCKETS) {
+            amounts[slot * AMOUNT_BUCKETS + (int) (hour % AMOUNT_BUCKETS)] += amount;
+        }
+    }
+
+    /*
+        Takes a withdrawal made at the time away again, unless the key's slot has since been
+        taken over by another key
+     */
+    public void cancel(String key, long nowMillis, long atMillis, long amount) {
+        var found = find(key);
+        if(found >= 0) {
+            advance(found, nowMillis / BUCKET_MILLIS);
+            record(found, atMillis, -amount, -1);
+        }
+    }
+
+    private int find(String key) {
+        var hash = key.hashCode();
+        var start = firstSlot(key, hash);
+        for(int probe = 0; probe < probes; probe++) {
+            var slot = probeSlot(start, probe);
+            if(hashes[slot] == hash && key.equals(keys[slot])) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int claim(String key, long nowMillis) {
+        var hash = key.hashCode();
+        var start = firstSlot(key, hash);
+        var expiredBefore = nowMillis / BUCKET_MILLIS - (long) AMOUNT_BUCKETS * BUCKETS_PER_HOUR;
+
+        var claimed = NO_SLOT;
+        for(int probe = 0; probe < probes && claimed < 0; probe++) {
+            var slot = probeSlot(start, probe);
+            if(keys[slot] == null || newest[slot] < expiredBefore) {
+                claimed = slot;
+            }
+        }
+        if(claimed < 0) {
+            return NO_SLOT;
+        }
+
+        keys[claimed] = key;
+        hashes[claimed] = hash;
+        newest[claimed] = Long.MIN_VALUE;
+        Arrays.fill(amounts, claimed * AMOUNT_BUCKETS, (claimed + 1) * AMOUNT_BUCKETS, 0L);
+        Arrays.fill(counts, claimed * COUNT_BUCKETS, (claimed + 1) * COUNT_BUCKETS, 0);
+        return claimed;
+    }
+
+    // Clears the buckets the window has moved past since the slot was last written
+    private void advance(int slot, long bucket) {
+        var current = newest[slot];
+        if(bucket <= current) {
+            return;
+        }
+
+        var countBase = slot * COUNT_BUCKETS;
+        var from = Math.max(current + 1, bucket - COUNT_BUCKETS + 1);
+        for(var b = from; b <= bucket; b++) {
+            counts[countBase + (int) (b % COUNT_BUCKETS)] = 0;
+        }
+
+        var amountBase = slot * AMOUNT_BUCKETS;
+        var hour = bucket / BUCKETS_PER_HOUR;
+        var fromHour = Math.max(current / BUCKETS_PER_HOUR + 1, hour - AMOUNT_BUCKETS + 1);
+        for(var h = fromHour; h <= hour; h++) {
+            amounts[amountBase + (int) (h % AMOUNT_BUCKETS)] = 0;
+        }
+
+        newest[slot] = bucket;
+    }
+
+    // The stripe is picked by the low bits of the hash, the slot within it by the high bits
+    private int firstSlot(String key, int hash) {
+        return locks.stripeOf(key) * slotsPerStripe + ((hash * 0x9E3779B9) >>> 16) % slotsPerStripe;
+    }
+
+    private int probeSlot(int start, int probe) {
+        var stripeStart = start - start % slotsPerStripe;
+        return stripeStart + (start - stripeStart + probe) % slotsPerStripe;
+    }
+}
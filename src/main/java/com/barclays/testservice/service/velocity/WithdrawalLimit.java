@@ -0,0 +1,20 @@
+package com.barclays.testservice.service.velocity;
+
+/*
+    Limits on the withdrawals of one account or one user, amounts in minor units.
+    See WithdrawalCounters.velocityScore for the score.
+ */
+public record WithdrawalLimit(long maxAmountPerDay, int maxWithdrawalsPerHour, double maxVelocityScore) {
+
+    public WithdrawalLimit {
+        if(maxAmountPerDay < 1 || maxWithdrawalsPerHour < 1 || maxVelocityScore < 1) {
+            throw new IllegalArgumentException("Withdrawal limits must be positive");
+        }
+    }
+
+    boolean allows(WithdrawalCounters counters, int slot, long amount) {
+        return counters.amountInDay(slot) + amount <= maxAmountPerDay
+                && counters.countInHour(slot) < maxWithdrawalsPerHour
+                && counters.velocityScore(slot) + 1 <= maxVelocityScore;
+    }
+}
@@ -0,0 +1,200 @@
+package com.barclays.testservice.service.velocity;
+
+import com.barclays.testservice.exception.WithdrawalLimitExceededException;
+import com.barclays.testservice.service.journal.JournalApplier;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AbstractDependsOnBeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/*
+    Per-account and per-user limits on withdrawals: the amount withdrawn in the last day,
+    the number of withdrawals in the last hour and their velocity score. Checked against
+    WithdrawalCounters held in memory, so a withdrawal adds no query to the posting path.
+
+    A withdrawal is counted as soon as it passes the check, under the locks of both its
+    account and its user, so concurrent withdrawals can not all pass on the same headroom.
+    It is taken off the counts again if it then fails, or, when it is queued for
+    asynchronous posting, if the posting is later rejected.
+
+    The counters are rebuilt from the last day of withdrawals in the transaction table on
+    startup. In journal mode this bean depends on JournalApplier, so the journal has been
+    replayed into the table first.
+ */
+@Component
+@Slf4j
+public class WithdrawalLimits {
+
+    // Driven by the accounts, so each is an index range of idx_transaction_account_type_created
+    private static final String SELECT_RECENT_WITHDRAWALS =
+            "SELECT b.account_number, b.user_id, t.amount_minor, t.created_on FROM bankaccount b"
+                    + " JOIN transaction t ON t.account_number = b.account_number"
+                    + " WHERE t.type = 'withdrawal' AND t.created_on >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final WithdrawalLimit accountLimit;
+    private final WithdrawalLimit userLimit;
+    private final WithdrawalCounters accounts;
+    private final WithdrawalCounters users;
+
+    public WithdrawalLimits(JdbcTemplate jdbcTemplate,
+                            @Value("${withdrawal-limits.enabled:true}") boolean enabled,
+                            @Value("${withdrawal-limits.account.max-amount-per-day-minor:1000000}") long accountMaxAmountPerDay,
+                            @Value("${withdrawal-limits.account.max-withdrawals-per-hour:60}") int accountMaxWithdrawalsPerHour,
+                            @Value("${withdrawal-limits.account.max-velocity-score:20}") double accountMaxVelocityScore,
+                            @Value("${withdrawal-limits.user.max-amount-per-day-minor:2500000}") long userMaxAmountPerDay,
+                            @Value("${withdrawal-limits.user.max-withdrawals-per-hour:120}") int userMaxWithdrawalsPerHour,
+                            @Value("${withdrawal-limits.user.max-velocity-score:40}") double userMaxVelocityScore,
+                            @Value("${withdrawal-limits.velocity-half-life-minutes:10}") long velocityHalfLifeMinutes,
+                            @Value("${withdrawal-limits.slots:32768}") int slots,
+                            @Value("${withdrawal-limits.lock-stripes:256}") int lockStripes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.accountLimit = new WithdrawalLimit(accountMaxAmountPerDay, accountMaxWithdrawalsPerHour, accountMaxVelocityScore);
+        this.userLimit = new WithdrawalLimit(userMaxAmountPerDay, userMaxWithdrawalsPerHour, userMaxVelocityScore);
+        var velocityHalfLifeMillis = TimeUnit.MINUTES.toMillis(velocityHalfLifeMinutes);
+        this.accounts = new WithdrawalCounters(enabled ? slots : 1, lockStripes, velocityHalfLifeMillis);
+        this.users = new WithdrawalCounters(enabled ? slots : 1, lockStripes, velocityHalfLifeMillis);
+    }
+
+    // Only adds the dependency when there is a JournalApplier, that is in journal mode
+    @Bean
+    static AbstractDependsOnBeanFactoryPostProcessor withdrawalLimitsDependsOnJournalApplier() {
+        return new AbstractDependsOnBeanFactoryPostProcessor(WithdrawalLimits.class, JournalApplier.class) {
+        };
+    }
+
+    @PostConstruct
+    void rebuild() {
+        if(!enabled) {
+            return;
+        }
+
+        var now = System.currentTimeMillis();
+        var rebuilt = new long[1];
+        var uncounted = new long[1];
+        jdbcTemplate.query(SELECT_RECENT_WITHDRAWALS, (RowCallbackHandler) resultSet -> {
+            var amount = resultSet.getLong(3);
+            var at = resultSet.getObject(4, Instant.class).toEpochMilli();
+            var counted = record(accounts, resultSet.getString(1), now, at, amount);
+            counted &= record(users, resultSet.getString(2), now, at, amount);
+            rebuilt[0]++;
+            if(!counted) {
+                uncounted[0]++;
+            }
+        }, Timestamp.from(Instant.ofEpochMilli(now - TimeUnit.DAYS.toMillis(1))));
+
+        log.info("Withdrawal counters rebuilt from {} withdrawals", rebuilt[0]);
+        if(uncounted[0] > 0) {
+            log.warn("{} withdrawals found no free counter slot, withdrawal-limits.slots is too low", uncounted[0]);
+        }
+    }
+
+    /*
+        Runs the withdrawal if it is within the limits of both the account and its user,
+        otherwise throws WithdrawalLimitExceededException without running it
+     */
+    public <T> T withdraw(String accountNumber, String userId, long amount, Supplier<T> withdrawal) {
+        if(!enabled) {
+            return withdrawal.get();
+        }
+
+        var at = System.currentTimeMillis();
+        reserve(accountNumber, userId, amount, at);
+        try {
+            return withdrawal.get();
+        } catch (RuntimeException e) {
+            cancel(accounts, accountNumber, at, amount);
+            cancel(users, userId, at, amount);
+            throw e;
+        }
+    }
+
+    /*
+        As withdraw, for a withdrawal that is queued and posted later. The withdrawal is given
+        a refund that takes it off the counts again, to run if the posting is rejected.
+     */
+    public <T> T withdrawLater(String accountNumber, String userId, long amount, Function<Runnable, T> withdrawal) {
+        if(!enabled) {
+            return withdrawal.apply(() -> {
+            });
+        }
+
+        var at = System.currentTimeMillis();
+        reserve(accountNumber, userId, amount, at);
+        Runnable refund = () -> {
+            cancel(accounts, accountNumber, at, amount);
+            cancel(users, userId, at, amount);
+        };
+        try {
+            return withdrawal.apply(refund);
+        } catch (RuntimeException e) {
+            refund.run();
+            throw e;
+        }
+    }
+
+    private void reserve(String accountNumber, String userId, long amount, long at) {
+        // Always the account's lock first, the user's lock is never held while waiting for an account's
+        var accountLock = accounts.lockFor(accountNumber);
+        var userLock = users.lockFor(userId);
+        accountLock.lock();
+        try {
+            userLock.lock();
+            try {
+                var accountSlot = accounts.slot(accountNumber, at);
+                var userSlot = users.slot(userId, at);
+                if(accountSlot == WithdrawalCounters.NO_SLOT || userSlot == WithdrawalCounters.NO_SLOT) {
+                    // Fails closed: a withdrawal that can not be counted is not let through
+                    log.warn("No free withdrawal counter slot for account {} or user {}, withdrawal rejected", accountNumber, userId);
+                    throw new WithdrawalLimitExceededException();
+                }
+                if(!accountLimit.allows(accounts, accountSlot, amount) || !userLimit.allows(users, userSlot, amount)) {
+                    throw new WithdrawalLimitExceededException();
+                }
+                accounts.record(accountSlot, at, amount, 1);
+                users.record(userSlot, at, amount, 1);
+            } finally {
+                userLock.unlock();
+            }
+        } finally {
+            accountLock.unlock();
+        }
+    }
+
+    private static boolean record(WithdrawalCounters counters, String key, long now, long at, long amount) {
+        var lock = counters.lockFor(key);
+        lock.lock();
+        try {
+            var slot = counters.slot(key, now);
+            if(slot == WithdrawalCounters.NO_SLOT) {
+                return false;
+            }
+            counters.record(slot, at, amount, 1);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void cancel(WithdrawalCounters counters, String key, long at, long amount) {
+        var lock = counters.lockFor(key);
+        lock.lock();
+        try {
+            counters.cancel(key, System.currentTimeMillis(), at, amount);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.barclays.testservice.service.version;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Version stamps of the resources answered with an ETag: accounts, users and which
+    accounts each user has. A stamp is taken from one sequence when a resource changes, or
+    when it is first asked for, so a stamp is never given out twice and a resource whose
+    stamp was evicted gets a new one rather than an old one back: an evicted or unknown
+    resource costs a 200, never a wrong 304. The ETag also carries the time the service
+    started, so tags handed out before a restart do not match.
+
+    Callers read the stamp before they read the resource, and record a change only after
+    it has committed and the account cache has dropped or marked what it changed, so a
+    response is never older than its tag.
+ */
+@Component
+public class ResourceVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Cache<String, Long> accounts;
+    private final Cache<String, Long> users;
+    private final Cache<String, Long> userAccounts;
+
+    public ResourceVersions(@Value("${resource-versions.max-accounts:200000}") long maxAccounts,
+                            @Value("${resource-versions.max-users:100000}") long maxUsers) {
+        this.accounts = Caffeine.newBuilder().maximumSize(maxAccounts).build();
+        this.users = Caffeine.newBuilder().maximumSize(maxUsers).build();
+        this.userAccounts = Caffeine.newBuilder().maximumSize(maxUsers).build();
+    }
+
+    public long account(String accountNumber) {
+        return accounts.get(accountNumber, this::next);
+    }
+
+    public long user(String userId) {
+        return users.get(userId, this::next);
+    }
+
+    // Changes when an account is added to or removed from the user, not when one of them changes
+    public long userAccounts(String userId) {
+        return userAccounts.get(userId, this::next);
+    }
+
+    public void accountChanged(String accountNumber) {
+        accounts.put(accountNumber, sequence.incrementAndGet());
+    }
+
+    public void accountsChanged(Collection<String> accountNumbers) {
+        accountNumbers.forEach(this::accountChanged);
+    }
+
+    public void userChanged(String userId) {
+        users.put(userId, sequence.incrementAndGet());
+    }
+
+    public void userAccountsChanged(String userId) {
+        userAccounts.put(userId, sequence.incrementAndGet());
+    }
+
+    // A strong ETag, quoted
+    public String tag(long stamp) {
+        return "\"" + epoch + "." + Long.toString(stamp, Character.MAX_RADIX) + "\"";
+    }
+
+    private long next(String key) {
+        return sequence.incrementAndGet();
+    }
+}
@@ -0,0 +1,36 @@
+package com.barclays.testservice.util;
+
+import com.barclays.testservice.exception.InvalidDetailsSuppliedException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/*
+    Balances and amounts are held as a long of minor units (pence) everywhere except the
+    REST API, which uses decimal major units (pounds). Converts between the two at the edge.
+ */
+public final class MoneyUtil {
+
+    private static final int MINOR_UNIT_DIGITS = 2;
+
+    private MoneyUtil() {
+    }
+
+    /*
+        Amounts with more than two decimal places are rejected rather than rounded
+     */
+    public static long toMinorUnits(Double amount) {
+        try {
+            return BigDecimal.valueOf(amount)
+                    .setScale(MINOR_UNIT_DIGITS, RoundingMode.UNNECESSARY)
+                    .unscaledValue()
+                    .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new InvalidDetailsSuppliedException();
+        }
+    }
+
+    public static double toMajorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, MINOR_UNIT_DIGITS).doubleValue();
+    }
+}
@@ -2,3 +2,60 @@ CREATE SEQUENCE IF NOT EXISTS userdetail_seq START WITH 1 INCREMENT BY 1;
 CREATE SEQUENCE IF NOT EXISTS address_seq START WITH 1 INCREMENT BY 1;
 CREATE SEQUENCE IF NOT EXISTS bankaccount_seq START WITH 1 INCREMENT BY 1;
 CREATE SEQUENCE IF NOT EXISTS transaction_seq START WITH 1 INCREMENT BY 1;
+
+-- Ids are handed out from blocks, every NEXTVAL reserves id-allocation.block-size values. What is left
+-- of a block when an instance stops is never used, so every restart leaves a gap of up to a block.
+-- Account numbers have 6 digits, so bankaccount_seq reserves only id-allocation.account-block-size
+ALTER SEQUENCE userdetail_seq INCREMENT BY 100;
+ALTER SEQUENCE address_seq INCREMENT BY 100;
+ALTER SEQUENCE bankaccount_seq INCREMENT BY 10;
+ALTER SEQUENCE transaction_seq INCREMENT BY 100;
+
+-- Accounts created before optimistic locking was introduced have no version yet
+UPDATE bankaccount SET version = 0 WHERE version IS NULL;
+
+-- Last journal entry applied to the database, used by the journal balance update mode
+CREATE TABLE IF NOT EXISTS journal_checkpoint (id INT PRIMARY KEY, applied_lsn BIGINT NOT NULL);
+-- Journal entries, or the legs of them, that could not be applied to the database
+CREATE TABLE IF NOT EXISTS journal_dead_letter (lsn BIGINT PRIMARY KEY, entry BLOB NOT NULL,
+    reason VARCHAR(1000) NOT NULL, recorded_on TIMESTAMP WITH TIME ZONE NOT NULL);
+
+-- Postings accepted by PostingPipeline and not yet posted or rejected, queued again on startup
+CREATE TABLE IF NOT EXISTS pending_posting (id VARCHAR(32) PRIMARY KEY, account_number VARCHAR(255) NOT NULL,
+    amount_minor BIGINT NOT NULL, currency VARCHAR(255) NOT NULL, type VARCHAR(255) NOT NULL, reference VARCHAR(64));
+
+-- Balances and amounts moved from DOUBLE pounds to BIGINT minor units (pence) in LegacyMinorUnitsMigration,
+-- which runs before Hibernate and only while a legacy column is still there
+
+-- Secondary indexes, version 1. Hibernate's ddl update creates none, so they are managed here by name;
+-- a later version adds new names (and drops the ones it replaces) rather than changing these in place.
+-- Account listing and keyset pages: range of one account, newest first. amount_minor is carried so
+-- amount totals over a range of one account can be answered from the index
+CREATE INDEX IF NOT EXISTS idx_transaction_account_created ON transaction (account_number, created_on DESC, id DESC, amount_minor);
+-- Accounts of a user (listing, and the check before a user is deleted)
+CREATE INDEX IF NOT EXISTS idx_bankaccount_user ON bankaccount (user_id);
+
+-- Per-account daily rollups are maintained with every posting from now on. A database that predates
+-- them gets them built from its transactions once, while the table is still empty
+INSERT INTO account_daily_rollup (account_number, posting_date, slot, credit_minor, credit_count, debit_minor, debit_count)
+SELECT account_number, CAST(created_on AT TIME ZONE 'UTC' AS DATE), 0,
+       SUM(CASE WHEN type = 'withdrawal' THEN 0 ELSE amount_minor END),
+       SUM(CASE WHEN type = 'withdrawal' THEN 0 ELSE 1 END),
+       SUM(CASE WHEN type = 'withdrawal' THEN amount_minor ELSE 0 END),
+       SUM(CASE WHEN type = 'withdrawal' THEN 1 ELSE 0 END)
+FROM transaction
+WHERE NOT EXISTS (SELECT 1 FROM account_daily_rollup)
+GROUP BY account_number, CAST(created_on AT TIME ZONE 'UTC' AS DATE);
+
+-- Secondary indexes, version 2
+-- Transaction search filtered by type: range of one account and type, newest first, amount checked on the index
+CREATE INDEX IF NOT EXISTS idx_transaction_account_type_created ON transaction (account_number, type, created_on DESC, id DESC, amount_minor);
+
+-- Secondary indexes, version 3
+-- Lookup by client reference: equality on both columns only, never a range or an order, hence a hash index.
+-- reference leads, so the planner never picks it over idx_transaction_account_created for account_number alone
+CREATE HASH INDEX IF NOT EXISTS idx_transaction_reference_account ON transaction (reference, account_number);
+
+-- Secondary indexes, version 4
+-- Purge of idempotency keys past their TTL: range of the oldest keys
+CREATE INDEX IF NOT EXISTS idx_idempotency_key_created ON idempotency_key (created_on);
@@ -0,0 +1,97 @@
+package com.barclays.testservice.benchmark;
+
+import com.barclays.testservice.model.BankAccount;
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.service.balance.BalanceUpdateEngine;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/*
+    Contention benchmark for the balance update modes. Every thread posts small
+    deposits and withdrawals against a random account out of the 'hot' set, so
+    fewer hot accounts means more writers colliding on the same row.
+ */
+@Tag("benchmark")
+class BalanceUpdateBenchmark {
+
+    private static final List<String> MODES = List.of("striped-lock", "optimistic", "conditional-update", "journal");
+    private static final int[] HOT_ACCOUNTS = {1, 4, 16, 64};
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 500;
+
+    @Test
+    void balanceUpdateModesUnderContention() throws Exception {
+        for(var mode : MODES) {
+            try(var context = BenchmarkSupport.startService(
+                    "balance-bench-" + mode,
+                    "transaction.balance-update.mode=" + mode,
+                    "transaction.journal.directory=" + journalDirectory(mode))) {
+
+                var bankAccountRepository = context.getBean(BankAccountRepository.class);
+                var engine = context.getBean(BalanceUpdateEngine.class);
+                var accountNumbers = createAccounts(bankAccountRepository, HOT_ACCOUNTS[HOT_ACCOUNTS.length - 1]);
+                var ids = new AtomicLong();
+
+                // Warm up connection pool, JIT and Hibernate query plans
+                BenchmarkSupport.run(THREADS, 100, (thread, i) ->
+                        post(engine, accountNumbers.get(i % accountNumbers.size()), ids.incrementAndGet()));
+
+                for(var hotAccounts : HOT_ACCOUNTS) {
+                    var result = BenchmarkSupport.run(THREADS, OPERATIONS_PER_THREAD, (thread, i) ->
+                            post(engine, accountNumbers.get(ThreadLocalRandom.current().nextInt(hotAccounts)), ids.incrementAndGet()));
+
+                    System.out.printf("%-20s hot accounts %3d  %s%n", mode, hotAccounts, result);
+                }
+            }
+        }
+    }
+
+    // A fresh journal per run, the in-memory database it would be replayed into starts empty
+    private static Path journalDirectory(String mode) throws IOException {
+        var directory = Path.of("target", "benchmark-journal", mode);
+        if(Files.exists(directory)) {
+            try(var files = Files.walk(directory)) {
+                for(var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+        return directory;
+    }
+
+    private static void post(BalanceUpdateEngine engine, String accountNumber, long id) {
+        var deposit = ThreadLocalRandom.current().nextBoolean();
+        var transaction = Transaction.builder()
+                .id("tan-bench" + id)
+                .accountNumber(accountNumber)
+                .amount(100L)
+                .currency("GBP")
+                .type(deposit ? "deposit" : "withdrawal")
+                .build();
+        engine.post(transaction, deposit ? 100L : -100L);
+    }
+
+    private static List<String> createAccounts(BankAccountRepository bankAccountRepository, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> bankAccountRepository.save(BankAccount.builder()
+                        .accountNumber("01" + String.format("%06d", 900_000 + i))
+                        .userId("usr-bench")
+                        .name("BENCHMARK ACCOUNT")
+                        .accountType("personal")
+                        .sortCode("10-10-10")
+                        .balance(100_000_000L)
+                        .currency("GBP")
+                        .build()).getAccountNumber())
+                .toList();
+    }
+}
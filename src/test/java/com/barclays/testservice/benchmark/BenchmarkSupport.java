@@ -0,0 +1,111 @@
+package com.barclays.testservice.benchmark;
+
+import com.barclays.testservice.BarclaysTestServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Minimal harness shared by the benchmarks in this package. Benchmarks are not
+    picked up by the default test run, run them explicitly e.g.
+
+        mvn test -Dtest=BalanceUpdateBenchmark
+ */
+final class BenchmarkSupport {
+
+    @FunctionalInterface
+    interface Operation {
+        void run(int thread, int iteration) throws Exception;
+    }
+
+    record Result(long operations, long failures, double opsPerSecond, long p50Micros, long p99Micros) {
+        @Override
+        public String toString() {
+            return String.format("%,10.0f ops/s  p50 %,7d us  p99 %,7d us  failures %d",
+                    opsPerSecond, p50Micros, p99Micros, failures);
+        }
+    }
+
+    private BenchmarkSupport() {
+    }
+
+    /*
+        Starts the service on a random port against a private in-memory database
+     */
+    static ConfigurableApplicationContext startService(String databaseName, String... properties) {
+        return startServiceAt("jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1", properties);
+    }
+
+    /*
+        Starts the service on a random port against the given database, for data sets that do not fit in memory
+     */
+    static ConfigurableApplicationContext startServiceAt(String datasourceUrl, String... properties) {
+        // Passed as command line arguments so they take precedence over application.yaml
+        var arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + datasourceUrl,
+                "--spring.datasource.hikari.maximum-pool-size=32",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"
+        ));
+        Arrays.stream(properties).map(property -> "--" + property).forEach(arguments::add);
+
+        return new SpringApplicationBuilder(BarclaysTestServiceApplication.class)
+                .run(arguments.toArray(String[]::new));
+    }
+
+    /*
+        Runs operationsPerThread operations on each thread, all threads released together
+     */
+    static Result run(int threads, int operationsPerThread, Operation operation) throws InterruptedException {
+        var latencies = new long[threads][operationsPerThread];
+        var failures = new AtomicLong();
+        var start = new CountDownLatch(1);
+        var done = new CountDownLatch(threads);
+
+        for(int t = 0; t < threads; t++) {
+            var thread = t;
+            Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                    for(int i = 0; i < operationsPerThread; i++) {
+                        var began = System.nanoTime();
+                        try {
+                            operation.run(thread, i);
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[thread][i] = System.nanoTime() - began;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        var began = System.nanoTime();
+        start.countDown();
+        done.await();
+        var elapsedNanos = System.nanoTime() - began;
+
+        var all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(
+                all.length,
+                failures.get(),
+                all.length / (elapsedNanos / 1_000_000_000.0),
+                percentile(all, 0.50) / 1_000,
+                percentile(all, 0.99) / 1_000
+        );
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+}
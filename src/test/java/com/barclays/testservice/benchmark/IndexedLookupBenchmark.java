@@ -0,0 +1,105 @@
+package com.barclays.testservice.benchmark;
+
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.repository.TransactionRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+    Latency of the indexed account and transaction lookups as the transaction table
+    grows ten-fold per step, up to benchmark.max-transactions (10M by default, e.g.
+    -Dbenchmark.max-transactions=1000000 for a quicker run). Every account holds the
+    same number of transactions, so with the indexes in place latency should stay
+    flat while the table grows; a table scan would grow with it.
+
+    Uses a file database under target/benchmark-index, as 10M rows do not fit in memory.
+ */
+@Tag("benchmark")
+class IndexedLookupBenchmark {
+
+    private static final long MAX_TRANSACTIONS = Long.getLong("benchmark.max-transactions", 10_000_000L);
+    private static final int TRANSACTIONS_PER_ACCOUNT = 1_000;
+    private static final int ACCOUNTS_PER_USER = 5;
+    private static final int LOAD_CHUNK = 500_000;
+    private static final int THREADS = 4;
+    private static final int OPERATIONS_PER_THREAD = 500;
+
+    private static final String INSERT_ACCOUNTS =
+            "INSERT INTO bankaccount (account_number, user_id, name, account_type, sort_code, balance_minor, currency, version, created_on, last_updated_on)"
+                    + " SELECT '01' || LPAD(X, 6, '0'), 'usr-' || (X / " + ACCOUNTS_PER_USER + "), 'BENCHMARK ACCOUNT', 'personal', '10-10-10', 0, 'GBP', 0,"
+                    + " CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(?, ?)";
+    // Transaction X belongs to account (X - 1) / TRANSACTIONS_PER_ACCOUNT, one second apart
+    private static final String INSERT_TRANSACTIONS =
+            "INSERT INTO transaction (id, account_number, amount_minor, currency, type, created_on)"
+                    + " SELECT 'tan-' || LPAD(X, 12, '0'), '01' || LPAD((X - 1) / " + TRANSACTIONS_PER_ACCOUNT + ", 6, '0'), 100, 'GBP', 'deposit',"
+                    + " DATEADD(SECOND, X, TIMESTAMP WITH TIME ZONE '2020-01-01 00:00:00Z') FROM SYSTEM_RANGE(?, ?)";
+
+    @Test
+    void lookupLatencyByTableSize() throws Exception {
+        var directory = Path.of("target", "benchmark-index");
+        FileSystemUtils.deleteRecursively(directory);
+
+        try(var context = BenchmarkSupport.startServiceAt("jdbc:h2:file:" + directory.toAbsolutePath().resolve("db"))) {
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+            var transactionRepository = context.getBean(TransactionRepository.class);
+            var bankAccountRepository = context.getBean(BankAccountRepository.class);
+
+            long loaded = 0;
+            for(long size = 100_000; size <= MAX_TRANSACTIONS; size *= 10) {
+                load(jdbcTemplate, loaded, size);
+                loaded = size;
+
+                var accounts = (int) (size / TRANSACTIONS_PER_ACCOUNT);
+                if(loaded == 100_000) {
+                    // Warm up, so the first step is not measuring JIT compilation
+                    BenchmarkSupport.run(THREADS, OPERATIONS_PER_THREAD, (thread, i) -> {
+                        transactionRepository.findFirstPage(accountNumber(randomAccount(accounts)), Limit.of(101));
+                        transactionRepository.getSumAmountByAccountNumber(accountNumber(randomAccount(accounts)));
+                    });
+                }
+                System.out.printf("%n%,d transactions, %,d accounts%n", size, accounts);
+
+                report("first page", BenchmarkSupport.run(THREADS, OPERATIONS_PER_THREAD, (thread, i) ->
+                        transactionRepository.findFirstPage(accountNumber(randomAccount(accounts)), Limit.of(101))));
+
+                report("by id", BenchmarkSupport.run(THREADS, OPERATIONS_PER_THREAD, (thread, i) -> {
+                    var account = randomAccount(accounts);
+                    var id = (long) account * TRANSACTIONS_PER_ACCOUNT + 1 + ThreadLocalRandom.current().nextInt(TRANSACTIONS_PER_ACCOUNT);
+                    transactionRepository.findByIdAndAccountNumber("tan-" + String.format("%012d", id), accountNumber(account))
+                            .orElseThrow();
+                }));
+
+                report("sum", BenchmarkSupport.run(THREADS, OPERATIONS_PER_THREAD, (thread, i) ->
+                        transactionRepository.getSumAmountByAccountNumber(accountNumber(randomAccount(accounts)))));
+
+                report("user accounts", BenchmarkSupport.run(THREADS, OPERATIONS_PER_THREAD, (thread, i) ->
+                        bankAccountRepository.findByUserId("usr-" + randomAccount(accounts) / ACCOUNTS_PER_USER)));
+            }
+        }
+    }
+
+    private static void load(JdbcTemplate jdbcTemplate, long from, long to) {
+        jdbcTemplate.update(INSERT_ACCOUNTS, from / TRANSACTIONS_PER_ACCOUNT, to / TRANSACTIONS_PER_ACCOUNT - 1);
+        for(long start = from + 1; start <= to; start += LOAD_CHUNK) {
+            jdbcTemplate.update(INSERT_TRANSACTIONS, start, Math.min(to, start + LOAD_CHUNK - 1));
+        }
+    }
+
+    private static int randomAccount(int accounts) {
+        return ThreadLocalRandom.current().nextInt(accounts);
+    }
+
+    private static String accountNumber(int account) {
+        return "01" + String.format("%06d", account);
+    }
+
+    private static void report(String lookup, BenchmarkSupport.Result result) {
+        System.out.printf("%-14s %s%n", lookup, result);
+    }
+}
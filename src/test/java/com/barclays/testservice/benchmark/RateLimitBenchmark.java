@@ -0,0 +1,145 @@
+package com.barclays.testservice.benchmark;
+
+import com.barclays.testservice.config.RateLimitFilter;
+import com.barclays.testservice.service.ratelimit.RateLimiter;
+import com.barclays.testservice.service.ratelimit.TokenBucket;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Cost of the rate limit per request, in nanoseconds: a bucket acquire and release on its
+    own, then both RateLimitFilters around a filter chain that does nothing, against the
+    same chain without them. Limits are set so high that every request is admitted,
+    which is the path every normal request takes.
+
+    Operations are timed in batches rather than one at a time, as reading the clock costs
+    about as much as what is measured, and by the CPU time of each thread, so runs with more
+    threads than cores still report the cost of one request. Requests come from users spread
+    over 10,000 buckets, and from a single user on one bucket, the worst case for CAS contention.
+ */
+@Tag("benchmark")
+class RateLimitBenchmark {
+
+    private static final int[] THREADS = {1, 4, 16};
+    private static final int OPERATIONS_PER_THREAD = 5_000_000;
+    private static final int USERS = 10_000;
+
+    @Test
+    void nanosPerRequest() throws Exception {
+        var rateLimiter = new RateLimiter(true, 1e9, 1_000_000, 1_000_000, 1e9, 1_000_000, 1_000_000, 100_000, 10);
+        var userFilter = RateLimitFilter.byUser(rateLimiter, new ObjectMapper());
+        var filter = RateLimitFilter.byClientAddress(rateLimiter, new ObjectMapper());
+        FilterChain nothing = (request, response) -> {
+        };
+        FilterChain limitedByUser = (request, response) -> userFilter.doFilter(request, response, nothing);
+
+        var users = new String[USERS];
+        var authentications = new JwtAuthenticationToken[USERS];
+        var requests = new MockHttpServletRequest[USERS];
+        for(int i = 0; i < USERS; i++) {
+            users[i] = "usr-" + i;
+            authentications[i] = new JwtAuthenticationToken(Jwt.withTokenValue("token")
+                    .header("alg", "none")
+                    .subject(users[i])
+                    .issuedAt(Instant.now())
+                    .build());
+            requests[i] = new MockHttpServletRequest("GET", "/v1/accounts");
+            requests[i].setRemoteAddr("10.0." + (i / 256) + "." + (i % 256));
+        }
+
+        // Warm up, so the runs below are not measuring JIT compilation
+        for(int round = 0; round < 3; round++) {
+            measure(4, (thread, i) -> acquire(rateLimiter.userBucket(users[i % USERS])));
+            measure(4, (thread, i) -> filter(filter, limitedByUser, authentications[i % USERS], requests[i % USERS]));
+        }
+
+        for(var threads : THREADS) {
+            System.out.printf("%n%d threads%n", threads);
+            report("bucket, many users", measure(threads, (thread, i) -> acquire(rateLimiter.userBucket(users[i % USERS]))));
+            report("bucket, one user", measure(threads, (thread, i) -> acquire(rateLimiter.userBucket(users[0]))));
+            report("chain without filter", measure(threads, (thread, i) -> filter(null, nothing, authentications[i % USERS], requests[i % USERS])));
+            report("chain with filter", measure(threads, (thread, i) -> filter(filter, limitedByUser, authentications[i % USERS], requests[i % USERS])));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        long run(int thread, int iteration) throws Exception;
+    }
+
+    private static long acquire(TokenBucket bucket) {
+        var wait = bucket.tryAcquire(System.nanoTime());
+        if(wait == 0) {
+            bucket.release();
+        }
+        return wait;
+    }
+
+    // The security context is set up by the bearer token filter between the two RateLimitFilters in the real chain
+    private static long filter(RateLimitFilter filter, FilterChain chain, JwtAuthenticationToken authentication,
+                               HttpServletRequest request) throws Exception {
+        var response = new MockHttpServletResponse();
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        try {
+            if(filter == null) {
+                chain.doFilter(request, response);
+            } else {
+                filter.doFilter(request, response, chain);
+            }
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response.getStatus();
+    }
+
+    // CPU nanoseconds per operation, averaged over all threads
+    private static double measure(int threads, Operation operation) throws InterruptedException {
+        var threadMXBean = ManagementFactory.getThreadMXBean();
+        var start = new CountDownLatch(1);
+        var done = new CountDownLatch(threads);
+        var elapsed = new AtomicLong();
+        var results = new AtomicLong();
+
+        for(int t = 0; t < threads; t++) {
+            var thread = t;
+            Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                    long result = 0;
+                    var began = threadMXBean.getCurrentThreadCpuTime();
+                    for(int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        result += operation.run(thread, thread * 7919 + i);
+                    }
+                    elapsed.addAndGet(threadMXBean.getCurrentThreadCpuTime() - began);
+                    // Keeps the results live, so the JIT can not drop the operations
+                    results.addAndGet(result);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        start.countDown();
+        done.await();
+        return (double) elapsed.get() / threads / OPERATIONS_PER_THREAD;
+    }
+
+    private static void report(String name, double nanosPerOperation) {
+        System.out.printf("%-22s %8.1f ns/op%n", name, nanosPerOperation);
+    }
+}
@@ -0,0 +1,125 @@
+package com.barclays.testservice.benchmark;
+
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.repository.TransactionRepository;
+import com.barclays.testservice.repository.UserRepository;
+import com.barclays.testservice.service.read.ReadOnlyTransactions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+    Cost of the reads behind the GET endpoints, as managed entities (how they were read
+    before) against records selected column by column, or for transactions the same
+    entities read in a read-only transaction: bytes allocated per read on one thread, then
+    throughput and latency on several. A user's accounts are read straight from the
+    repository, as the account cache does on a miss.
+
+    A single account is not compared: findById already runs in the repository's read-only
+    transaction, and allocated about 2.5KB less than a query for the record.
+ */
+@Tag("benchmark")
+class ReadProjectionBenchmark {
+
+    private static final int USERS = 2_000;
+    private static final int ACCOUNTS_PER_USER = 5;
+    private static final int ACCOUNTS = USERS * ACCOUNTS_PER_USER;
+    private static final int TRANSACTIONS_PER_ACCOUNT = 50;
+    private static final int ALLOCATION_OPERATIONS = 20_000;
+    private static final int THREADS = 4;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+
+    private static final String INSERT_ADDRESSES =
+            "INSERT INTO address (id, line1, town, county, postcode, created_on, last_updated_on)"
+                    + " SELECT 'adr-' || X, 'LINE 1', 'TOWN', 'COUNTY', 'AB1 2CD', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP"
+                    + " FROM SYSTEM_RANGE(0, " + (USERS - 1) + ")";
+    private static final String INSERT_USERS =
+            "INSERT INTO userdetail (id, name, password, address_id, phone_number, email, created_on, last_updated_on)"
+                    + " SELECT 'usr-' || X, 'BENCHMARK USER', 'not-a-hash', 'adr-' || X, '+441234567890', 'user@example.com',"
+                    + " CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(0, " + (USERS - 1) + ")";
+    private static final String INSERT_ACCOUNTS =
+            "INSERT INTO bankaccount (account_number, user_id, name, account_type, sort_code, balance_minor, currency, version, created_on, last_updated_on)"
+                    + " SELECT '01' || LPAD(X, 6, '0'), 'usr-' || (X / " + ACCOUNTS_PER_USER + "), 'BENCHMARK ACCOUNT', 'personal', '10-10-10', 0, 'GBP', 0,"
+                    + " CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(0, " + (ACCOUNTS - 1) + ")";
+    private static final String INSERT_TRANSACTIONS =
+            "INSERT INTO transaction (id, account_number, amount_minor, currency, type, created_on)"
+                    + " SELECT 'tan-' || LPAD(X, 12, '0'), '01' || LPAD(X / " + TRANSACTIONS_PER_ACCOUNT + ", 6, '0'), 100, 'GBP', 'deposit',"
+                    + " DATEADD(SECOND, X, TIMESTAMP WITH TIME ZONE '2020-01-01 00:00:00Z')"
+                    + " FROM SYSTEM_RANGE(0, " + (ACCOUNTS * TRANSACTIONS_PER_ACCOUNT - 1) + ")";
+
+    @Test
+    void costPerRead() throws Exception {
+        try(var context = BenchmarkSupport.startService("read-projection-bench", "rate-limit.enabled=false")) {
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+            var bankAccountRepository = context.getBean(BankAccountRepository.class);
+            var userRepository = context.getBean(UserRepository.class);
+            var transactionRepository = context.getBean(TransactionRepository.class);
+            var readOnlyTransactions = context.getBean(ReadOnlyTransactions.class);
+
+            jdbcTemplate.update(INSERT_ADDRESSES);
+            jdbcTemplate.update(INSERT_USERS);
+            jdbcTemplate.update(INSERT_ACCOUNTS);
+            jdbcTemplate.update(INSERT_TRANSACTIONS);
+
+            var reads = new Read[]{
+                    new Read("accounts, entity", (thread, i) ->
+                            bankAccountRepository.findByUserId(userId(randomUser()))),
+                    new Read("accounts, record", (thread, i) ->
+                            bankAccountRepository.findDetailsByUserId(userId(randomUser()))),
+                    new Read("user, entity", (thread, i) ->
+                            userRepository.findById(userId(randomUser())).orElseThrow()),
+                    new Read("user, record", (thread, i) ->
+                            userRepository.findProfileById(userId(randomUser())).orElseThrow()),
+                    new Read("page, entity", (thread, i) ->
+                            transactionRepository.findFirstPage(accountNumber(randomAccount()), Limit.of(TRANSACTIONS_PER_ACCOUNT + 1))),
+                    new Read("page, read-only", (thread, i) ->
+                            readOnlyTransactions.execute(() ->
+                                    transactionRepository.findFirstPage(accountNumber(randomAccount()), Limit.of(TRANSACTIONS_PER_ACCOUNT + 1))))
+            };
+
+            // Warm up, so the runs below are not measuring JIT compilation
+            for(var read : reads) {
+                BenchmarkSupport.run(THREADS, 2_000, read.operation());
+            }
+
+            for(var read : reads) {
+                var bytesPerRead = allocatedBytesPerOperation(read.operation());
+                var result = BenchmarkSupport.run(THREADS, OPERATIONS_PER_THREAD, read.operation());
+                System.out.printf("%-17s %,9d bytes/read  %s%n", read.name(), bytesPerRead, result);
+            }
+        }
+    }
+
+    private record Read(String name, BenchmarkSupport.Operation operation) {
+    }
+
+    // Bytes allocated by this thread per operation, Hibernate and JDBC included
+    private static long allocatedBytesPerOperation(BenchmarkSupport.Operation operation) throws Exception {
+        var threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var before = threadMXBean.getCurrentThreadAllocatedBytes();
+        for(int i = 0; i < ALLOCATION_OPERATIONS; i++) {
+            operation.run(0, i);
+        }
+        return (threadMXBean.getCurrentThreadAllocatedBytes() - before) / ALLOCATION_OPERATIONS;
+    }
+
+    private static int randomAccount() {
+        return ThreadLocalRandom.current().nextInt(ACCOUNTS);
+    }
+
+    private static int randomUser() {
+        return ThreadLocalRandom.current().nextInt(USERS);
+    }
+
+    private static String accountNumber(int account) {
+        return "01" + String.format("%06d", account);
+    }
+
+    private static String userId(int user) {
+        return "usr-" + user;
+    }
+}
@@ -0,0 +1,75 @@
+package com.barclays.testservice.benchmark;
+
+import com.barclays.testservice.model.ReconciliationRun;
+import com.barclays.testservice.repository.ReconciliationRunRepository;
+import com.barclays.testservice.service.reconciliation.LedgerReconciler;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+    Time for a full ledger reconciliation over benchmark.max-transactions transactions
+    (10M by default, e.g. -Dbenchmark.max-transactions=1000000 for a quicker run), with
+    every 1000th account's balance made to drift by a penny.
+
+    Uses a file database under target/benchmark-reconciliation, as 10M rows do not fit in memory.
+ */
+@Tag("benchmark")
+class ReconciliationBenchmark {
+
+    private static final long MAX_TRANSACTIONS = Long.getLong("benchmark.max-transactions", 10_000_000L);
+    private static final int TRANSACTIONS_PER_ACCOUNT = 100;
+    private static final int DRIFT_EVERY = 1_000;
+    private static final int LOAD_CHUNK = 500_000;
+
+    // Every transaction is a deposit of 100, so a balance of TRANSACTIONS_PER_ACCOUNT * 100 reconciles
+    private static final String INSERT_ACCOUNTS =
+            "INSERT INTO bankaccount (account_number, user_id, name, account_type, sort_code, balance_minor, currency, version, created_on, last_updated_on)"
+                    + " SELECT '01' || LPAD(X, 6, '0'), 'usr-' || X, 'BENCHMARK ACCOUNT', 'personal', '10-10-10', " + TRANSACTIONS_PER_ACCOUNT * 100 + ", 'GBP', 0,"
+                    + " CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(?, ?)";
+    private static final String INSERT_TRANSACTIONS =
+            "INSERT INTO transaction (id, account_number, amount_minor, currency, type, created_on)"
+                    + " SELECT 'tan-' || LPAD(X, 12, '0'), '01' || LPAD((X - 1) / " + TRANSACTIONS_PER_ACCOUNT + ", 6, '0'), 100, 'GBP', 'deposit',"
+                    + " DATEADD(SECOND, X, TIMESTAMP WITH TIME ZONE '2020-01-01 00:00:00Z') FROM SYSTEM_RANGE(?, ?)";
+    private static final String ADD_DRIFT =
+            "UPDATE bankaccount SET balance_minor = balance_minor + 1 WHERE MOD(CAST(SUBSTRING(account_number, 3) AS INT), " + DRIFT_EVERY + ") = 0";
+
+    @Test
+    void fullReconciliation() throws Exception {
+        var directory = Path.of("target", "benchmark-reconciliation");
+        FileSystemUtils.deleteRecursively(directory);
+
+        try(var context = BenchmarkSupport.startServiceAt("jdbc:h2:file:" + directory.toAbsolutePath().resolve("db"))) {
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+            var ledgerReconciler = context.getBean(LedgerReconciler.class);
+            var reconciliationRunRepository = context.getBean(ReconciliationRunRepository.class);
+
+            var accounts = MAX_TRANSACTIONS / TRANSACTIONS_PER_ACCOUNT;
+            jdbcTemplate.update(INSERT_ACCOUNTS, 0, accounts - 1);
+            for(long start = 1; start <= MAX_TRANSACTIONS; start += LOAD_CHUNK) {
+                jdbcTemplate.update(INSERT_TRANSACTIONS, start, Math.min(MAX_TRANSACTIONS, start + LOAD_CHUNK - 1));
+            }
+            var drifted = jdbcTemplate.update(ADD_DRIFT);
+
+            var began = System.nanoTime();
+            var run = ledgerReconciler.start();
+            while(reconciliationRunRepository.findById(run.getId()).orElseThrow().getStatus().equals(ReconciliationRun.RUNNING)) {
+                Thread.sleep(100);
+            }
+            var elapsedMillis = (System.nanoTime() - began) / 1_000_000;
+
+            run = reconciliationRunRepository.findById(run.getId()).orElseThrow();
+            System.out.printf("%n%,d transactions, %,d accounts in %d ranges: %,d ms, %,d drifted%n",
+                    MAX_TRANSACTIONS, run.getAccountsChecked(), run.getRangeCount(), elapsedMillis, run.getDriftCount());
+
+            assertEquals(ReconciliationRun.COMPLETED, run.getStatus());
+            assertEquals(accounts, run.getAccountsChecked());
+            assertEquals(drifted, run.getDriftCount());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.barclays.testservice.benchmark;
+
+import com.barclays.testservice.model.BankAccount;
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.service.balance.BalanceUpdateEngine;
+import com.barclays.testservice.service.balance.SubBalanceLedger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Deposit throughput into a single account as the number of sub-balance slots
+    grows. The baseline is the same account without slots, posted through the
+    conditional-update engine, so every deposit updates the one bankaccount row.
+ */
+@Tag("benchmark")
+class SubBalanceBenchmark {
+
+    private static final int[] SLOTS = {1, 2, 4, 8, 16, 32};
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 500;
+
+    @Test
+    void depositThroughputBySlotCount() throws Exception {
+        try(var context = BenchmarkSupport.startService(
+                "sub-balance-bench",
+                "transaction.balance-update.mode=conditional-update")) {
+
+            var bankAccountRepository = context.getBean(BankAccountRepository.class);
+            var engine = context.getBean(BalanceUpdateEngine.class);
+            var ledger = context.getBean(SubBalanceLedger.class);
+            var ids = new AtomicLong();
+
+            var baselineAccount = createAccount(bankAccountRepository, 0);
+            BenchmarkSupport.run(THREADS, 100, (thread, i) ->
+                    engine.post(deposit(baselineAccount, ids.incrementAndGet()), 100L));
+
+            var baseline = BenchmarkSupport.run(THREADS, OPERATIONS_PER_THREAD, (thread, i) ->
+                    engine.post(deposit(baselineAccount, ids.incrementAndGet()), 100L));
+            System.out.printf("%-12s %s%n", "no slots", baseline);
+
+            for(int i = 0; i < SLOTS.length; i++) {
+                var slots = SLOTS[i];
+                var bankAccount = bankAccountRepository.findById(createAccount(bankAccountRepository, i + 1)).orElseThrow();
+                ledger.setSlots(bankAccount, slots);
+
+                var result = BenchmarkSupport.run(THREADS, OPERATIONS_PER_THREAD, (thread, iteration) ->
+                        ledger.post(bankAccount.getAccountNumber(), 100L, List.of(deposit(bankAccount.getAccountNumber(), ids.incrementAndGet()))));
+                System.out.printf("%-12s %s%n", slots + " slots", result);
+            }
+        }
+    }
+
+    private static Transaction deposit(String accountNumber, long id) {
+        return Transaction.builder()
+                .id("tan-bench" + id)
+                .accountNumber(accountNumber)
+                .amount(100L)
+                .currency("GBP")
+                .type("deposit")
+                .build();
+    }
+
+    private static String createAccount(BankAccountRepository bankAccountRepository, int index) {
+        return bankAccountRepository.save(BankAccount.builder()
+                .accountNumber("01" + String.format("%06d", 900_000 + index))
+                .userId("usr-bench")
+                .name("BENCHMARK ACCOUNT")
+                .accountType("personal")
+                .sortCode("10-10-10")
+                .balance(0L)
+                .currency("GBP")
+                .build()).getAccountNumber();
+    }
+}
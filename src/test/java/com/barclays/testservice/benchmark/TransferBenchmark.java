@@ -0,0 +1,121 @@
+package com.barclays.testservice.benchmark;
+
+import com.barclays.testservice.model.BankAccount;
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.service.balance.BalanceUpdateEngine;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/*
+    Throughput of concurrent transfers between random pairs out of a small set of
+    accounts, in both directions, for each balance update mode. A deadlock would show
+    up as lock timeouts in the failure count; the total balance over all accounts is
+    checked afterwards to show no transfer was half applied.
+ */
+@Tag("benchmark")
+class TransferBenchmark {
+
+    private static final List<String> MODES = List.of("striped-lock", "optimistic", "conditional-update", "journal");
+    private static final int[] ACCOUNTS = {2, 8, 32};
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 500;
+    private static final long OPENING_BALANCE = 100_000_000L;
+
+    @Test
+    void transfersBetweenFewAccounts() throws Exception {
+        for(var mode : MODES) {
+            try(var context = BenchmarkSupport.startService(
+                    "transfer-bench-" + mode,
+                    "transaction.balance-update.mode=" + mode,
+                    "transaction.journal.directory=" + journalDirectory(mode))) {
+
+                var bankAccountRepository = context.getBean(BankAccountRepository.class);
+                var engine = context.getBean(BalanceUpdateEngine.class);
+                var accountNumbers = createAccounts(bankAccountRepository, ACCOUNTS[ACCOUNTS.length - 1]);
+                var ids = new AtomicLong();
+
+                // Warm up connection pool, JIT and Hibernate query plans
+                BenchmarkSupport.run(THREADS, 100, (thread, i) ->
+                        transfer(engine, accountNumbers, accountNumbers.size(), ids));
+
+                for(var accounts : ACCOUNTS) {
+                    var result = BenchmarkSupport.run(THREADS, OPERATIONS_PER_THREAD, (thread, i) ->
+                            transfer(engine, accountNumbers, accounts, ids));
+
+                    System.out.printf("%-20s accounts %3d  %s%n", mode, accounts, result);
+                }
+
+                if(!mode.equals("journal")) {
+                    var total = StreamSupport.stream(bankAccountRepository.findAllById(accountNumbers).spliterator(), false)
+                            .mapToLong(BankAccount::getBalance)
+                            .sum();
+                    System.out.printf("%-20s total balance %,d (expected %,d)%n",
+                            mode, total, OPENING_BALANCE * accountNumbers.size());
+                }
+            }
+        }
+    }
+
+    private static void transfer(BalanceUpdateEngine engine, List<String> accountNumbers, int accounts, AtomicLong ids) {
+        var random = ThreadLocalRandom.current();
+        var from = random.nextInt(accounts);
+        var to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+
+        var debit = Transaction.builder()
+                .id("tan-bench" + ids.incrementAndGet())
+                .accountNumber(accountNumbers.get(from))
+                .amount(100L)
+                .currency("GBP")
+                .type("withdrawal")
+                .build();
+        var credit = Transaction.builder()
+                .id("tan-bench" + ids.incrementAndGet())
+                .accountNumber(accountNumbers.get(to))
+                .amount(100L)
+                .currency("GBP")
+                .type("deposit")
+                .linkedTransactionId(debit.getId())
+                .build();
+        debit.setLinkedTransactionId(credit.getId());
+
+        engine.transfer(debit, credit);
+    }
+
+    // A fresh journal per run, the in-memory database it would be replayed into starts empty
+    private static Path journalDirectory(String mode) throws IOException {
+        var directory = Path.of("target", "benchmark-journal", "transfer-" + mode);
+        if(Files.exists(directory)) {
+            try(var files = Files.walk(directory)) {
+                for(var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+        return directory;
+    }
+
+    private static List<String> createAccounts(BankAccountRepository bankAccountRepository, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> bankAccountRepository.save(BankAccount.builder()
+                        .accountNumber("01" + String.format("%06d", 900_000 + i))
+                        .userId("usr-bench")
+                        .name("BENCHMARK ACCOUNT")
+                        .accountType("personal")
+                        .sortCode("10-10-10")
+                        .balance(OPENING_BALANCE)
+                        .currency("GBP")
+                        .build()).getAccountNumber())
+                .toList();
+    }
+}
@@ -0,0 +1,48 @@
+package com.barclays.testservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+    Runs the migration on its own in-memory database, laid out as before minor units
+ */
+class LegacyMinorUnitsMigrationTest {
+
+    // Scenario: A database with pound amounts is started, then started again
+    @Test
+    void should_moveToMinorUnitsOnce_when_legacyColumnsExist() {
+        // GIVEN
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:legacy-minor-units-test;DB_CLOSE_DELAY=-1", "sa", "");
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE bankaccount (account_number VARCHAR(8) PRIMARY KEY, balance DOUBLE PRECISION)");
+        jdbcTemplate.execute("CREATE TABLE transaction (id VARCHAR(32) PRIMARY KEY, amount DOUBLE PRECISION)");
+        jdbcTemplate.update("INSERT INTO bankaccount VALUES ('01000001', 12.34), ('01000002', 0.1)");
+        jdbcTemplate.update("INSERT INTO transaction VALUES ('tan-1', 19.99), ('tan-2', 0.29)");
+        var migration = new LegacyMinorUnitsMigration(dataSource);
+
+        // WHEN
+        migration.migrate();
+
+        // THEN
+        assertEquals(List.of(1234L, 10L), jdbcTemplate.queryForList("SELECT balance_minor FROM bankaccount ORDER BY account_number", Long.class));
+        assertEquals(List.of(1999L, 29L), jdbcTemplate.queryForList("SELECT amount_minor FROM transaction ORDER BY id", Long.class));
+        assertEquals(List.of("ACCOUNT_NUMBER", "BALANCE_MINOR"), columns(jdbcTemplate, "BANKACCOUNT"));
+        assertEquals(List.of("ID", "AMOUNT_MINOR"), columns(jdbcTemplate, "TRANSACTION"));
+
+        // Once the legacy columns are gone nothing is run again, so later postings are kept
+        jdbcTemplate.update("UPDATE bankaccount SET balance_minor = 5000 WHERE account_number = '01000001'");
+        migration.migrate();
+        assertEquals(5000L, jdbcTemplate.queryForObject("SELECT balance_minor FROM bankaccount WHERE account_number = '01000001'", Long.class));
+        assertEquals(List.of("ACCOUNT_NUMBER", "BALANCE_MINOR"), columns(jdbcTemplate, "BANKACCOUNT"));
+    }
+
+    private static List<String> columns(JdbcTemplate jdbcTemplate, String table) {
+        return jdbcTemplate.queryForList("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = CURRENT_SCHEMA"
+                + " AND TABLE_NAME = ? ORDER BY ORDINAL_POSITION", String.class, table);
+    }
+}
@@ -0,0 +1,133 @@
+package com.barclays.testservice.config;
+
+import com.barclays.testservice.model.AuthUserRequest;
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/*
+    Limits are set to a handful of requests and one token every 100 seconds, so nothing
+    refills while a test runs. Each test sends from its own client addresses.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rate-limit-filter-test;DB_CLOSE_DELAY=-1",
+        "rate-limit.user.requests-per-second=0.01",
+        "rate-limit.user.burst=2",
+        "rate-limit.client.requests-per-second=0.01",
+        "rate-limit.client.burst=3"
+})
+@AutoConfigureMockMvc
+class RateLimitFilterTest {
+
+    private static final String AUTHED_USER_ID = "usr-123";
+    private static final String DUMMY_TOKEN = "DUMMY-TOKEN";
+    private static final String INVALID_TOKEN = "INVALID-TOKEN";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private UserRepository mockUserRepository;
+
+    @MockitoBean
+    private BankAccountRepository mockBankAccountRepository;
+
+    @MockitoBean
+    private JwtDecoder jwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        Jwt jwt = Jwt.withTokenValue("test-token")
+                .header("alg", "none")
+                .claims(claims -> {
+                    claims.put("sub", AUTHED_USER_ID);
+                    claims.put("scope", "write");
+                })
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+
+        when(jwtDecoder.decode(any())).thenReturn(jwt);
+    }
+
+    // Scenario: A user goes over their limit, also when the requests come from different addresses
+    @Test
+    void shouldNot_admitRequest_when_userOverLimit() throws Exception {
+        // GIVEN
+        mockMvc.perform(from("10.0.1.1", get("/v1/accounts").header("Authorization", "Bearer " + DUMMY_TOKEN)))
+                .andExpect(status().is(200));
+        mockMvc.perform(from("10.0.1.2", get("/v1/accounts").header("Authorization", "Bearer " + DUMMY_TOKEN)))
+                .andExpect(status().is(200));
+
+        // WHEN-THEN
+        mockMvc.perform(from("10.0.1.3", get("/v1/accounts").header("Authorization", "Bearer " + DUMMY_TOKEN)))
+                .andExpect(status().is(429))
+                .andExpect(header().string("Retry-After", "100"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.message").value("Too many requests, please retry later"));
+    }
+
+    // Scenario: A client address goes over its limit on an endpoint that needs no token
+    @Test
+    void shouldNot_admitRequest_when_clientOverLimit() throws Exception {
+        // GIVEN
+        var authRequest = objectMapper.writeValueAsString(new AuthUserRequest("usr-999", "password123"));
+        for(int i = 0; i < 3; i++) {
+            mockMvc.perform(from("10.0.2.1", post("/auth/token").contentType(MediaType.APPLICATION_JSON).content(authRequest)))
+                    .andExpect(status().is(401));
+        }
+
+        // WHEN-THEN
+        mockMvc.perform(from("10.0.2.1", post("/auth/token").contentType(MediaType.APPLICATION_JSON).content(authRequest)))
+                .andExpect(status().is(429))
+                .andExpect(header().string("Retry-After", "100"));
+        mockMvc.perform(from("10.0.2.2", post("/auth/token").contentType(MediaType.APPLICATION_JSON).content(authRequest)))
+                .andExpect(status().is(401));
+    }
+
+    // Scenario: A client address sends requests with a token that is not valid, they are limited before authentication
+    @Test
+    void shouldNot_admitRequest_when_clientOverLimitWithInvalidToken() throws Exception {
+        // GIVEN
+        when(jwtDecoder.decode(INVALID_TOKEN)).thenThrow(new BadJwtException("Invalid token"));
+        for(int i = 0; i < 3; i++) {
+            mockMvc.perform(from("10.0.3.1", get("/v1/accounts").header("Authorization", "Bearer " + INVALID_TOKEN)))
+                    .andExpect(status().is(401));
+        }
+
+        // WHEN-THEN
+        mockMvc.perform(from("10.0.3.1", get("/v1/accounts").header("Authorization", "Bearer " + INVALID_TOKEN)))
+                .andExpect(status().is(429))
+                .andExpect(header().string("Retry-After", "100"));
+    }
+
+    private static MockHttpServletRequestBuilder from(String clientAddress, MockHttpServletRequestBuilder request) {
+        return request.with(servletRequest -> {
+            servletRequest.setRemoteAddr(clientAddress);
+            return servletRequest;
+        });
+    }
+}
@@ -1,11 +1,20 @@
 package com.barclays.testservice.controller;
 
+import com.barclays.testservice.model.AccountActivityResponse;
 import com.barclays.testservice.model.BankAccount;
 import com.barclays.testservice.model.BankAccountResponse;
 import com.barclays.testservice.model.CreateBankAccountRequest;
 import com.barclays.testservice.model.ListBankAccountsResponse;
+import com.barclays.testservice.model.UpdateSubBalancesRequest;
+import com.barclays.testservice.repository.AccountDailyRollupRepository;
 import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.repository.SubBalanceRepository;
 import com.barclays.testservice.repository.TransactionRepository;
+import com.barclays.testservice.service.account.AccountCache;
+import com.barclays.testservice.service.account.AccountDetails;
+import com.barclays.testservice.service.balance.SubBalanceLedger;
+import com.barclays.testservice.service.rollup.AccountActivity;
+import com.barclays.testservice.util.MoneyUtil;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,6 +29,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.List;
@@ -28,7 +38,12 @@ import java.util.Optional;
 import static com.barclays.testservice.model.BankAccountResponse.CurrencyEnum.GBP;
 import static com.barclays.testservice.model.BankAccountResponse.SortCodeEnum._10_10_10;
 import static com.barclays.testservice.model.CreateBankAccountRequest.AccountTypeEnum.PERSONAL;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -54,11 +69,26 @@ class AccountControllerTest {
     @MockitoBean
     private TransactionRepository mockTransactionRepository;
 
+    @MockitoBean
+    private SubBalanceRepository mockSubBalanceRepository;
+
+    @MockitoBean
+    private AccountDailyRollupRepository mockAccountDailyRollupRepository;
+
     @MockitoBean
     private JwtDecoder jwtDecoder;
 
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private SubBalanceLedger subBalanceLedger;
+
     @BeforeEach
     void setUp() {
+        // Each test mocks its own accounts
+        accountCache.invalidateAll();
+
         objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
 
         Jwt jwt = Jwt.withTokenValue("test-token")
@@ -96,7 +126,7 @@ class AccountControllerTest {
                 .name(accountRequest.getName())
                 .accountType(accountRequest.getAccountType().getValue())
                 .sortCode(_10_10_10.getValue())
-                .balance(0.0)
+                .balance(0L)
                 .currency(GBP.getValue())
                 .createdOn(timestamp)
                 .lastUpdatedOn(timestamp)
@@ -182,7 +212,8 @@ class AccountControllerTest {
                         .build()
         );
 
-        when(mockBankAccountRepository.findByUserId(AUTHED_USER_ID)).thenReturn(bankAccounts);
+        when(mockBankAccountRepository.findDetailsByUserId(AUTHED_USER_ID))
+                .thenReturn(bankAccounts.stream().map(AccountDetails::of).toList());
 
         // WHEN-THEN
         var expectedResponse = new ListBankAccountsResponse(
@@ -199,6 +230,75 @@ class AccountControllerTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
     }
 
+    // Scenario: User polls their bank accounts, which are unchanged until they open another
+    @Test
+    void should_answerNotModified_when_accountsETagStillCurrent() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d",123L);
+        var newAccountNumber = "01" + String.format("%06d",124L);
+        var timestamp = Instant.now();
+
+        var bankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("ACCOUNT 1")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+        var newBankAccount = BankAccount.builder()
+                .accountNumber(newAccountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("ACCOUNT 2")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findDetailsByUserId(AUTHED_USER_ID))
+                .thenReturn(List.of(AccountDetails.of(bankAccount)));
+        when(mockBankAccountRepository.save(any(BankAccount.class))).thenReturn(newBankAccount);
+        when(mockBankAccountRepository.getNextSequenceValue()).thenReturn(124L);
+
+        var etag = mockMvc.perform(get(ACCOUNTS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(200))
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // WHEN-THEN
+        mockMvc.perform(get(ACCOUNTS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .header("If-None-Match", "W/" + etag))
+                .andExpect(status().is(304))
+                .andExpect(content().string(""));
+
+        when(mockBankAccountRepository.findDetailsByUserId(AUTHED_USER_ID))
+                .thenReturn(List.of(AccountDetails.of(bankAccount), AccountDetails.of(newBankAccount)));
+
+        mockMvc.perform(post(ACCOUNTS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(new CreateBankAccountRequest("ACCOUNT 2", PERSONAL))))
+                .andExpect(status().is(201));
+
+        mockMvc.perform(get(ACCOUNTS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .header("If-None-Match", etag))
+                .andExpect(status().is(200))
+                .andExpect(jsonPath("$.accounts.length()").value(2));
+    }
+
     /*
         FETCH BANK ACCOUNT SCENARIOS
      */
@@ -280,6 +380,92 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.message").value("Bank Account was not found"));
     }
 
+    // Scenario: User polls a bank account, which is unchanged until they update it
+    @Test
+    void should_answerNotModified_when_accountETagStillCurrent() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d",123);
+        var timestamp = Instant.now();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("ACCOUNT 1")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockBankAccountRepository.updateOwnedDetails(eq(accountNumber), eq(AUTHED_USER_ID),
+                any(), any(), any(Instant.class)))
+                .thenReturn(Optional.of(fetchedBankAccount));
+
+        var etag = mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(200))
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // WHEN-THEN
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .header("If-None-Match", etag))
+                .andExpect(status().is(304))
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(patch(ACCOUNTS_URL + "/" + accountNumber)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(new CreateBankAccountRequest("UPDATED ACCOUNT", PERSONAL))))
+                .andExpect(status().is(200));
+
+        var changedETag = mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .header("If-None-Match", etag))
+                .andExpect(status().is(200))
+                .andExpect(jsonPath("$.accountNumber").value(accountNumber))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, changedETag);
+    }
+
+    // Scenario: User sends an ETag for another user's bank account
+    @Test
+    void shouldNot_answerNotModified_when_otherUserAccountSupplied() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d",123);
+        var timestamp = Instant.now();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(OTHER_USER_ID)
+                .name("ACCOUNT 2")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .currency(GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+
+        // WHEN-THEN
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .header("If-None-Match", "*"))
+                .andExpect(status().is(403))
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
     /*
         UPDATE BANK ACCOUNT SCENARIOS
      */
@@ -302,26 +488,15 @@ class AccountControllerTest {
                 .name(updateAccountRequest.getName())
                 .accountType(updateAccountRequest.getAccountType().getValue())
                 .sortCode(_10_10_10.getValue())
-                .balance(0.0)
+                .balance(0L)
                 .currency(GBP.getValue())
                 .createdOn(timestamp)
                 .lastUpdatedOn(timestamp)
                 .build();
 
-        var notUpdatedBankAccount = BankAccount.builder()
-                .accountNumber(accountNumber)
-                .userId(AUTHED_USER_ID)
-                .name("MY ACCOUNT")
-                .accountType(updateAccountRequest.getAccountType().getValue())
-                .sortCode(_10_10_10.getValue())
-                .balance(0.0)
-                .currency(GBP.getValue())
-                .createdOn(timestamp)
-                .lastUpdatedOn(timestamp)
-                .build();
-
-        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(notUpdatedBankAccount));
-        when(mockBankAccountRepository.save(any(BankAccount.class))).thenReturn(notUpdatedBankAccount);
+        when(mockBankAccountRepository.updateOwnedDetails(eq(accountNumber), eq(AUTHED_USER_ID),
+                eq(updateAccountRequest.getName()), eq(updateAccountRequest.getAccountType().getValue()), any(Instant.class)))
+                .thenReturn(Optional.of(updateBankAccount));
 
         // WHEN-THEN
         var expectedResponse = toBankAccountResponse(updateBankAccount, timestamp);
@@ -340,26 +515,15 @@ class AccountControllerTest {
     void shouldNot_updateAccount_when_otherUsersAccountSupplied() throws Exception {
         // GIVEN
         var accountNumber = "01" + String.format("%06d",123);
-        var timestamp = Instant.now();
 
         var updateAccountRequest = new CreateBankAccountRequest(
                 "UPDATED MY ACCOUNT",
                 PERSONAL
         );
 
-        var notUpdatedBankAccount = BankAccount.builder()
-                .accountNumber(accountNumber)
-                .userId(OTHER_USER_ID)
-                .name("MY ACCOUNT")
-                .accountType(updateAccountRequest.getAccountType().getValue())
-                .sortCode(_10_10_10.getValue())
-                .balance(0.0)
-                .currency(GBP.getValue())
-                .createdOn(timestamp)
-                .lastUpdatedOn(timestamp)
-                .build();
-
-        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(notUpdatedBankAccount));
+        when(mockBankAccountRepository.updateOwnedDetails(eq(accountNumber), eq(AUTHED_USER_ID), any(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(mockBankAccountRepository.existsById(accountNumber)).thenReturn(true);
 
         // WHEN-THEN
 
@@ -384,7 +548,9 @@ class AccountControllerTest {
                 PERSONAL
         );
 
-        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.empty());
+        when(mockBankAccountRepository.updateOwnedDetails(eq(accountNumber), eq(AUTHED_USER_ID), any(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(mockBankAccountRepository.existsById(accountNumber)).thenReturn(false);
 
         // WHEN-THEN
 
@@ -407,28 +573,57 @@ class AccountControllerTest {
     void should_deleteAccount_when_validDetailsSupplied() throws Exception {
         // GIVEN
         var accountNumber = "01" + String.format("%06d",123);
+
+        when(mockBankAccountRepository.deleteOwned(accountNumber, AUTHED_USER_ID)).thenReturn(1);
+
+        // WHEN-THEN
+        mockMvc.perform(delete(ACCOUNTS_URL + "/" + accountNumber)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(204));
+    }
+
+    // Scenario: User wants to delete a hot bank account, its sub-balance slots go with it
+    @Test
+    void should_deleteSubBalances_when_hotAccountDeleted() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d",457);
         var timestamp = Instant.now();
 
-        var notDeletedBankAccount = BankAccount.builder()
+        var fetchedBankAccount = BankAccount.builder()
                 .accountNumber(accountNumber)
                 .userId(AUTHED_USER_ID)
-                .name("MY ACCOUNT")
+                .name("ACCOUNT 1")
                 .accountType(PERSONAL.getValue())
                 .sortCode(_10_10_10.getValue())
-                .balance(0.0)
+                .balance(1000L)
                 .currency(GBP.getValue())
                 .createdOn(timestamp)
                 .lastUpdatedOn(timestamp)
                 .build();
 
-        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(notDeletedBankAccount));
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockBankAccountRepository.deleteOwned(accountNumber, AUTHED_USER_ID)).thenReturn(1);
+
+        mockMvc.perform(put(ACCOUNTS_URL + "/" + accountNumber + "/sub-balances")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(new UpdateSubBalancesRequest(4))))
+                .andExpect(status().is(200));
+        assertTrue(subBalanceLedger.isHot(accountNumber));
 
-        // WHEN-THEN
+        // WHEN
         mockMvc.perform(delete(ACCOUNTS_URL + "/" + accountNumber)
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("Authorization", "Bearer " + DUMMY_TOKEN))
                 .andExpect(status().is(204));
+
+        // THEN
+        verify(mockSubBalanceRepository).deleteByAccountNumber(accountNumber);
+        assertFalse(subBalanceLedger.isHot(accountNumber));
     }
 
     // Scenario: User wants to delete another user's bank account details
@@ -436,49 +631,195 @@ class AccountControllerTest {
     void shouldNot_deleteAccount_when_anotherUserAccountSupplied() throws Exception {
         // GIVEN
         var accountNumber = "01" + String.format("%06d",123);
+
+        when(mockBankAccountRepository.deleteOwned(accountNumber, AUTHED_USER_ID)).thenReturn(0);
+        when(mockBankAccountRepository.existsById(accountNumber)).thenReturn(true);
+
+        // WHEN-THEN
+        mockMvc.perform(delete(ACCOUNTS_URL + "/" + accountNumber)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(403))
+                .andExpect(jsonPath("$.message").value("The user is not allowed to access the transaction"));
+    }
+
+
+    // Scenario: User wants to delete another user's bank account details
+    @Test
+    void shouldNot_deleteAccount_when_accountNotExistsSupplied() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d",123);
+
+        when(mockBankAccountRepository.deleteOwned(accountNumber, AUTHED_USER_ID)).thenReturn(0);
+        when(mockBankAccountRepository.existsById(accountNumber)).thenReturn(false);
+
+        // WHEN-THEN
+        mockMvc.perform(delete(ACCOUNTS_URL + "/" + accountNumber)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(404))
+                .andExpect(jsonPath("$.message").value("Bank Account was not found"));
+    }
+
+
+    /*
+        UPDATE SUB-BALANCES SCENARIOS
+     */
+
+    // Scenario: User wants to spread a hot bank account's balance over sub-balance slots
+    @Test
+    void should_updateSubBalances_when_validDetailsSupplied() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d",456);
+        var timestamp = Instant.now();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("ACCOUNT 1")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(1000L)
+                .currency(GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+
+        // WHEN-THEN
+        var expectedResponse =  toBankAccountResponse(fetchedBankAccount, timestamp);
+
+        mockMvc.perform(put(ACCOUNTS_URL + "/" + accountNumber + "/sub-balances")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(new UpdateSubBalancesRequest(8))))
+                .andExpect(status().is(200))
+                .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
+    }
+
+    // Scenario: User wants to make another user's bank account hot
+    @Test
+    void shouldNot_updateSubBalances_when_otherUsersAccountSupplied() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d",456);
         var timestamp = Instant.now();
 
-        var notDeletedBankAccount = BankAccount.builder()
+        var fetchedBankAccount = BankAccount.builder()
                 .accountNumber(accountNumber)
                 .userId(OTHER_USER_ID)
-                .name("MY ACCOUNT")
+                .name("ACCOUNT 1")
                 .accountType(PERSONAL.getValue())
                 .sortCode(_10_10_10.getValue())
-                .balance(0.0)
+                .balance(1000L)
                 .currency(GBP.getValue())
                 .createdOn(timestamp)
                 .lastUpdatedOn(timestamp)
                 .build();
 
-        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(notDeletedBankAccount));
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
 
         // WHEN-THEN
-        mockMvc.perform(delete(ACCOUNTS_URL + "/" + accountNumber)
+        mockMvc.perform(put(ACCOUNTS_URL + "/" + accountNumber + "/sub-balances")
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(new UpdateSubBalancesRequest(8))))
                 .andExpect(status().is(403))
                 .andExpect(jsonPath("$.message").value("The user is not allowed to access the transaction"));
     }
 
+    // Scenario: User wants to make a bank account hot with an invalid number of slots
+    @Test
+    void shouldNot_updateSubBalances_when_invalidSlotsSupplied() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d",456);
 
-    // Scenario: User wants to delete another user's bank account details
+        // WHEN-THEN
+        mockMvc.perform(put(ACCOUNTS_URL + "/" + accountNumber + "/sub-balances")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(new UpdateSubBalancesRequest(0))))
+                .andExpect(status().is(400));
+    }
+
+
+
+    /*
+        ACCOUNT ACTIVITY SCENARIOS
+     */
+
+    // Scenario: User wants the totals of their bank account's credits and debits over a date range
     @Test
-    void shouldNot_deleteAccount_when_accountNotExistsSupplied() throws Exception {
+    void should_fetchAccountActivity_when_validDetailsSupplied() throws Exception {
         // GIVEN
         var accountNumber = "01" + String.format("%06d",123);
+        var timestamp = Instant.now();
+        var from = LocalDate.of(2026, 1, 1);
+        var to = LocalDate.of(2026, 1, 31);
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("ACCOUNT 1")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .currency(GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
 
-        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.empty());
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockAccountDailyRollupRepository.getActivity(accountNumber, from, to))
+                .thenReturn(new AccountActivity(12550L, 3L, 2025L, 1L));
 
         // WHEN-THEN
-        mockMvc.perform(delete(ACCOUNTS_URL + "/" + accountNumber)
+        var expectedResponse = new AccountActivityResponse(from, to, 125.50, 3L, 20.25, 1L, 105.25);
+
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + "/activity")
+                        .queryParam("from", from.toString())
+                        .queryParam("to", to.toString())
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("Authorization", "Bearer " + DUMMY_TOKEN))
-                .andExpect(status().is(404))
-                .andExpect(jsonPath("$.message").value("Bank Account was not found"));
+                .andExpect(status().is(200))
+                .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
     }
 
+    // Scenario: User wants the activity of their bank account over a date range that ends before it starts
+    @Test
+    void shouldNot_fetchAccountActivity_when_rangeReversed() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d",123);
+        var timestamp = Instant.now();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("ACCOUNT 1")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .currency(GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+
+        // WHEN-THEN
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + "/activity")
+                        .queryParam("from", "2026-02-01")
+                        .queryParam("to", "2026-01-01")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$.message").value("Invalid details supplied"));
+    }
 
     private BankAccountResponse toBankAccountResponse(BankAccount bankAccount, Instant timestamp) {
         return new BankAccountResponse(
@@ -486,7 +827,7 @@ class AccountControllerTest {
                 BankAccountResponse.SortCodeEnum.fromValue(bankAccount.getSortCode()),
                 bankAccount.getName(),
                 BankAccountResponse.AccountTypeEnum.fromValue(bankAccount.getAccountType()),
-                bankAccount.getBalance(),
+                MoneyUtil.toMajorUnits(bankAccount.getBalance()),
                 BankAccountResponse.CurrencyEnum.fromValue(bankAccount.getCurrency()),
                 OffsetDateTime.ofInstant(timestamp, ZoneId.systemDefault()),
                 OffsetDateTime.ofInstant(timestamp, ZoneId.systemDefault())
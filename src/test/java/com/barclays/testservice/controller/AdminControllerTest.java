@@ -0,0 +1,287 @@
+package com.barclays.testservice.controller;
+
+import com.barclays.testservice.exception.ReconciliationRunningException;
+import com.barclays.testservice.model.ReconciliationDrift;
+import com.barclays.testservice.model.ReconciliationDriftResponse;
+import com.barclays.testservice.model.ReconciliationResponse;
+import com.barclays.testservice.model.ReconciliationRun;
+import com.barclays.testservice.repository.ReconciliationDriftRepository;
+import com.barclays.testservice.repository.ReconciliationRunRepository;
+import com.barclays.testservice.service.reconciliation.LedgerReconciler;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "admin.user-ids=" + AdminControllerTest.ADMIN_USER_ID)
+@AutoConfigureMockMvc
+class AdminControllerTest {
+
+    static final String ADMIN_USER_ID = "usr-123";
+    private static final String OTHER_USER_ID = "usr-456";
+    private static final String RECONCILIATIONS_URL = "/v1/admin/reconciliations";
+    private static final String CACHES_URL = "/v1/admin/caches";
+    private static final String DUMMY_TOKEN = "DUMMY-TOKEN";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private LedgerReconciler mockLedgerReconciler;
+
+    @MockitoBean
+    private ReconciliationRunRepository mockReconciliationRunRepository;
+
+    @MockitoBean
+    private ReconciliationDriftRepository mockReconciliationDriftRepository;
+
+    @MockitoBean
+    private JwtDecoder jwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+        authenticateAs(ADMIN_USER_ID);
+    }
+
+    /*
+        CACHE STATISTICS SCENARIOS
+     */
+
+    // Scenario: Administrator wants to see how well the account caches are doing
+    @Test
+    void should_listCacheStatistics_when_userIsAdmin() throws Exception {
+        // WHEN-THEN
+        mockMvc.perform(get(CACHES_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(200))
+                .andExpect(jsonPath("$.caches[0].name").value("accounts"))
+                .andExpect(jsonPath("$.caches[0].hitCount").isNumber())
+                .andExpect(jsonPath("$.caches[0].balanceReloadCount").isNumber())
+                .andExpect(jsonPath("$.caches[1].name").value("user-accounts"))
+                .andExpect(jsonPath("$.caches[1].evictionCount").isNumber());
+    }
+
+    // Scenario: A user who is not an administrator wants to see the cache statistics
+    @Test
+    void shouldNot_listCacheStatistics_when_userNotAdmin() throws Exception {
+        // GIVEN
+        authenticateAs(OTHER_USER_ID);
+
+        // WHEN-THEN
+        mockMvc.perform(get(CACHES_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(403));
+    }
+
+    /*
+        START A RECONCILIATION SCENARIOS
+     */
+
+    // Scenario: Administrator wants to reconcile every account balance with its transactions
+    @Test
+    void should_startReconciliation_when_userIsAdmin() throws Exception {
+        // GIVEN
+        var run = reconciliationRun(ReconciliationRun.RUNNING);
+
+        when(mockLedgerReconciler.start()).thenReturn(run);
+
+        // WHEN-THEN
+        var expectedResponse = toReconciliationResponse(run, List.of());
+
+        mockMvc.perform(post(RECONCILIATIONS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(202))
+                .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
+    }
+
+    // Scenario: A user who is not an administrator wants to start a reconciliation
+    @Test
+    void shouldNot_startReconciliation_when_userNotAdmin() throws Exception {
+        // GIVEN
+        authenticateAs(OTHER_USER_ID);
+
+        // WHEN-THEN
+        mockMvc.perform(post(RECONCILIATIONS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(403));
+
+        verify(mockLedgerReconciler, never()).start();
+    }
+
+    // Scenario: Administrator wants to start a reconciliation while one is still running
+    @Test
+    void shouldNot_startReconciliation_when_runInProgress() throws Exception {
+        // GIVEN
+        when(mockLedgerReconciler.start()).thenThrow(new ReconciliationRunningException());
+
+        // WHEN-THEN
+        mockMvc.perform(post(RECONCILIATIONS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(409))
+                .andExpect(jsonPath("$.message").value("A reconciliation run is already in progress"));
+    }
+
+    /*
+        FETCH A RECONCILIATION SCENARIOS
+     */
+
+    // Scenario: Administrator wants to see the progress and drifted accounts of a reconciliation
+    @Test
+    void should_fetchReconciliation_when_runExists() throws Exception {
+        // GIVEN
+        var run = reconciliationRun(ReconciliationRun.COMPLETED);
+        run.setRangesCompleted(run.getRangeCount());
+        run.setAccountsChecked(25_000L);
+        run.setDriftCount(1L);
+        run.setFinishedOn(run.getStartedOn().plusSeconds(90));
+
+        var drifts = List.of(new ReconciliationDrift(run.getId(), "01000123", 1001L, 1000L));
+
+        when(mockReconciliationRunRepository.findById(run.getId())).thenReturn(Optional.of(run));
+        when(mockReconciliationDriftRepository.findByRunIdOrderByAccountNumber(run.getId(), Limit.of(1000)))
+                .thenReturn(drifts);
+
+        // WHEN-THEN
+        var expectedResponse = toReconciliationResponse(run, drifts);
+
+        mockMvc.perform(get(RECONCILIATIONS_URL + "/" + run.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(200))
+                .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
+    }
+
+    // Scenario: Administrator wants to see a reconciliation that does not exist
+    @Test
+    void shouldNot_fetchReconciliation_when_runNotFound() throws Exception {
+        // GIVEN
+        when(mockReconciliationRunRepository.findById(any())).thenReturn(Optional.empty());
+
+        // WHEN-THEN
+        mockMvc.perform(get(RECONCILIATIONS_URL + "/rec-unknown")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(404))
+                .andExpect(jsonPath("$.message").value("Reconciliation run was not found"));
+    }
+
+    /*
+        RESUME A RECONCILIATION SCENARIOS
+     */
+
+    // Scenario: Administrator wants to resume a reconciliation that was interrupted by a restart
+    @Test
+    void should_resumeReconciliation_when_runInterrupted() throws Exception {
+        // GIVEN
+        var run = reconciliationRun(ReconciliationRun.INTERRUPTED);
+        var resumedRun = reconciliationRun(ReconciliationRun.RUNNING);
+
+        when(mockReconciliationRunRepository.findById(run.getId())).thenReturn(Optional.of(run));
+        when(mockLedgerReconciler.resume(run)).thenReturn(resumedRun);
+
+        // WHEN-THEN
+        var expectedResponse = toReconciliationResponse(resumedRun, List.of());
+
+        mockMvc.perform(post(RECONCILIATIONS_URL + "/" + run.getId() + "/resume")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(202))
+                .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
+    }
+
+    // Scenario: Administrator wants to resume a reconciliation that has already completed
+    @Test
+    void shouldNot_resumeReconciliation_when_runCompleted() throws Exception {
+        // GIVEN
+        var run = reconciliationRun(ReconciliationRun.COMPLETED);
+
+        when(mockReconciliationRunRepository.findById(run.getId())).thenReturn(Optional.of(run));
+
+        // WHEN-THEN
+        mockMvc.perform(post(RECONCILIATIONS_URL + "/" + run.getId() + "/resume")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$.message").value("Invalid details supplied"));
+
+        verify(mockLedgerReconciler, never()).resume(any());
+    }
+
+    private void authenticateAs(String userId) {
+        Jwt jwt = Jwt.withTokenValue("test-token")
+                .header("alg", "none")
+                .claims(claims -> {
+                    claims.put("sub", userId);
+                    claims.put("scope", "write");
+                })
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+
+        when(jwtDecoder.decode(any())).thenReturn(jwt);
+    }
+
+    private static ReconciliationRun reconciliationRun(String status) {
+        return ReconciliationRun.builder()
+                .id("rec-mfx2k9c1")
+                .status(status)
+                .firstAccountNumber("01000001")
+                .lastAccountNumber("01025000")
+                .rangeSize(10_000)
+                .rangeCount(3)
+                .startedOn(Instant.now())
+                .build();
+    }
+
+    // Rest / Domain Object Converters
+    private ReconciliationResponse toReconciliationResponse(ReconciliationRun run, List<ReconciliationDrift> drifts) {
+        return new ReconciliationResponse(
+                run.getId(),
+                ReconciliationResponse.StatusEnum.fromValue(run.getStatus()),
+                run.getRangeCount(),
+                run.getRangesCompleted(),
+                run.getAccountsChecked(),
+                run.getDriftCount(),
+                OffsetDateTime.ofInstant(run.getStartedOn(), ZoneId.systemDefault())
+        )
+                .finishedOn(run.getFinishedOn() == null ? null : OffsetDateTime.ofInstant(run.getFinishedOn(), ZoneId.systemDefault()))
+                .drifts(drifts.stream()
+                        .map(drift -> new ReconciliationDriftResponse(
+                                drift.getAccountNumber(),
+                                drift.getBalanceMinor() / 100.0,
+                                drift.getTransactionSumMinor() / 100.0))
+                        .toList());
+    }
+}
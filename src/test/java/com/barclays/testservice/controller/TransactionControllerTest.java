@@ -1,9 +1,19 @@
 package com.barclays.testservice.controller;
 
 import com.barclays.testservice.model.*;
+import com.barclays.testservice.repository.AccountDailyRollupRepository;
+import com.barclays.testservice.repository.AccountMonthlyBalanceRepository;
 import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.repository.IdempotencyKeyRepository;
 import com.barclays.testservice.repository.TransactionRepository;
 import com.barclays.testservice.repository.UserRepository;
+import com.barclays.testservice.service.account.AccountCache;
+import com.barclays.testservice.service.events.AccountEventBus;
+import com.barclays.testservice.service.paging.TransactionCursor;
+import com.barclays.testservice.service.paging.TransactionFilter;
+import com.barclays.testservice.service.recent.RecentTransactionCache;
+import com.barclays.testservice.service.rollup.AccountActivity;
+import com.barclays.testservice.util.MoneyUtil;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,15 +21,21 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.MediaType;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.YearMonth;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,7 +44,14 @@ import static com.barclays.testservice.model.BankAccountResponse.SortCodeEnum._1
 import static com.barclays.testservice.model.CreateTransactionRequest.CurrencyEnum.GBP;
 import static com.barclays.testservice.model.CreateTransactionRequest.TypeEnum.DEPOSIT;
 import static com.barclays.testservice.model.CreateTransactionRequest.TypeEnum.WITHDRAWAL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -40,6 +63,8 @@ class TransactionControllerTest {
 
     private static final String ACCOUNTS_URL = "/v1/accounts";
     private static final String TRANSACTIONS_URL = "/transactions";
+    private static final String POSTINGS_URL = "/postings";
+    private static final String TRANSFERS_URL = "/transfers";
     private static final String AUTHED_USER_ID = "usr-123";
     private static final String OTHER_USER_ID = "usr-456";
     private static final String DUMMY_TOKEN = "DUMMY-TOKEN";
@@ -59,11 +84,32 @@ class TransactionControllerTest {
     @MockitoBean
     private TransactionRepository mockTransactionRepository;
 
+    @MockitoBean
+    private IdempotencyKeyRepository mockIdempotencyKeyRepository;
+
+    @MockitoBean
+    private AccountDailyRollupRepository mockAccountDailyRollupRepository;
+
+    @MockitoBean
+    private AccountMonthlyBalanceRepository mockAccountMonthlyBalanceRepository;
+
+    @MockitoBean
+    private RecentTransactionCache mockRecentTransactionCache;
+
+    @Autowired
+    private AccountEventBus accountEventBus;
+
     @MockitoBean
     private JwtDecoder jwtDecoder;
 
+    @Autowired
+    private AccountCache accountCache;
+
     @BeforeEach
     void setUp() {
+        // Each test mocks its own accounts
+        accountCache.invalidateAll();
+
         objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
 
         Jwt jwt = Jwt.withTokenValue("test-token")
@@ -98,7 +144,7 @@ class TransactionControllerTest {
 
         var savedTransaction = Transaction.builder()
                 .accountNumber(accountNumber)
-                .amount(accountRequest.getAmount())
+                .amount(MoneyUtil.toMinorUnits(accountRequest.getAmount()))
                 .currency(accountRequest.getCurrency().getValue())
                 .type(accountRequest.getType().getValue())
                 .createdOn(timestamp)
@@ -111,15 +157,15 @@ class TransactionControllerTest {
                 .name("USER ACCOUNT")
                 .accountType(PERSONAL.getValue())
                 .sortCode(_10_10_10.getValue())
-                .balance(0.0)
+                .balance(0L)
                 .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
                 .createdOn(timestamp)
                 .lastUpdatedOn(timestamp)
                 .build();
         var savedBankAccount = copyBankAccount(fetchedBankAccount);
-        savedBankAccount.setBalance(savedBankAccount.getBalance() + accountRequest.getAmount());
+        savedBankAccount.setBalance(savedBankAccount.getBalance() + MoneyUtil.toMinorUnits(accountRequest.getAmount()));
 
-        when(mockTransactionRepository.save(any(Transaction.class))).thenReturn(savedTransaction);
+        when(mockTransactionRepository.saveAll(any())).thenReturn(List.of(savedTransaction));
         when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
         when(mockBankAccountRepository.save(any(BankAccount.class))).thenReturn(savedBankAccount);
 
@@ -150,7 +196,7 @@ class TransactionControllerTest {
 
         var savedTransaction = Transaction.builder()
                 .accountNumber(accountNumber)
-                .amount(accountRequest.getAmount())
+                .amount(MoneyUtil.toMinorUnits(accountRequest.getAmount()))
                 .currency(accountRequest.getCurrency().getValue())
                 .type(accountRequest.getType().getValue())
                 .createdOn(timestamp)
@@ -163,15 +209,15 @@ class TransactionControllerTest {
                 .name("USER ACCOUNT")
                 .accountType(PERSONAL.getValue())
                 .sortCode(_10_10_10.getValue())
-                .balance(60.0)
+                .balance(6000L)
                 .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
                 .createdOn(timestamp)
                 .lastUpdatedOn(timestamp)
                 .build();
         var savedBankAccount = copyBankAccount(fetchedBankAccount);
-        savedBankAccount.setBalance(savedBankAccount.getBalance() - accountRequest.getAmount());
+        savedBankAccount.setBalance(savedBankAccount.getBalance() - MoneyUtil.toMinorUnits(accountRequest.getAmount()));
 
-        when(mockTransactionRepository.save(any(Transaction.class))).thenReturn(savedTransaction);
+        when(mockTransactionRepository.saveAll(any())).thenReturn(List.of(savedTransaction));
         when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
         when(mockBankAccountRepository.save(any(BankAccount.class))).thenReturn(savedBankAccount);
 
@@ -187,6 +233,71 @@ class TransactionControllerTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
     }
 
+    // Scenario: User retries a deposit with the same Idempotency-Key after a timeout
+    @Test
+    void should_returnOriginalTransaction_when_idempotencyKeyReplayed() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var idempotencyKey = "retry-" + Instant.now().toEpochMilli();
+        var timestamp = Instant.now();
+
+        var accountRequest = new CreateTransactionRequest(
+                25.00,
+                GBP,
+                DEPOSIT
+        );
+
+        var savedTransaction = Transaction.builder()
+                .id("tan-A")
+                .accountNumber(accountNumber)
+                .amount(MoneyUtil.toMinorUnits(accountRequest.getAmount()))
+                .currency(accountRequest.getCurrency().getValue())
+                .type(accountRequest.getType().getValue())
+                .createdOn(timestamp)
+                .build();
+        var duplicateTransaction = Transaction.builder()
+                .id("tan-B")
+                .accountNumber(accountNumber)
+                .amount(MoneyUtil.toMinorUnits(accountRequest.getAmount()))
+                .currency(accountRequest.getCurrency().getValue())
+                .type(accountRequest.getType().getValue())
+                .createdOn(timestamp)
+                .build();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        // A second posting would answer with a different transaction
+        when(mockTransactionRepository.saveAll(any()))
+                .thenReturn(List.of(savedTransaction))
+                .thenReturn(List.of(duplicateTransaction));
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockBankAccountRepository.save(any(BankAccount.class))).thenReturn(copyBankAccount(fetchedBankAccount));
+
+        // WHEN-THEN
+        var expectedResponse = toTransactionResponse(savedTransaction);
+
+        for(int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                            .header("Idempotency-Key", idempotencyKey)
+                            .content(objectMapper.writeValueAsString(accountRequest)))
+                    .andExpect(status().is(201))
+                    .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
+        }
+    }
+
     // Scenario: User wants to withdraw money from their bank account, but they have insufficient funds
     @Test
     void shouldNot_createWithdrawTransaction_when_insufficientFund() throws Exception {
@@ -206,13 +317,13 @@ class TransactionControllerTest {
                 .name("USER ACCOUNT")
                 .accountType(PERSONAL.getValue())
                 .sortCode(_10_10_10.getValue())
-                .balance(55.0)
+                .balance(5500L)
                 .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
                 .createdOn(timestamp)
                 .lastUpdatedOn(timestamp)
                 .build();
         var savedBankAccount = copyBankAccount(fetchedBankAccount);
-        savedBankAccount.setBalance(savedBankAccount.getBalance() - accountRequest.getAmount());
+        savedBankAccount.setBalance(savedBankAccount.getBalance() - MoneyUtil.toMinorUnits(accountRequest.getAmount()));
 
         when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
 
@@ -226,6 +337,55 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.message").value("Insufficient funds to process transaction"));
     }
 
+    // Scenario: User wants to withdraw more in one day than the bank account allows
+    @Test
+    void shouldNot_createWithdrawTransaction_when_overDailyLimit() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 124);
+        var timestamp = Instant.now();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(2000000L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+        var savedTransaction = Transaction.builder()
+                .accountNumber(accountNumber)
+                .amount(600000L)
+                .currency(GBP.getValue())
+                .type(WITHDRAWAL.getValue())
+                .createdOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockBankAccountRepository.save(any(BankAccount.class))).thenReturn(copyBankAccount(fetchedBankAccount));
+        when(mockTransactionRepository.saveAll(any())).thenReturn(List.of(savedTransaction));
+
+        mockMvc.perform(post(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(new CreateTransactionRequest(6000.00, GBP, WITHDRAWAL))))
+                .andExpect(status().is(201));
+
+        // WHEN-THEN
+        mockMvc.perform(post(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(new CreateTransactionRequest(4000.01, GBP, WITHDRAWAL))))
+                .andExpect(status().is(422))
+                .andExpect(jsonPath("$.message").value("The withdrawal would exceed the limits on the bank account or user"));
+
+        verify(mockTransactionRepository, times(1)).saveAll(any());
+    }
+
     // Scenario: User wants to deposit or withdraw money from another user's bank account
     @Test
     void shouldNot_createTransaction_when_otherUserAccount() throws Exception {
@@ -245,7 +405,7 @@ class TransactionControllerTest {
                 .name("USER ACCOUNT")
                 .accountType(PERSONAL.getValue())
                 .sortCode(_10_10_10.getValue())
-                .balance(60.0)
+                .balance(6000L)
                 .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
                 .createdOn(timestamp)
                 .lastUpdatedOn(timestamp)
@@ -311,6 +471,84 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.detail").value("Invalid request content."));
     }
 
+    // Scenario: User wants to deposit or withdraw an amount with fractions of a penny
+    @Test
+    void shouldNot_createTransaction_when_amountHasMoreThanTwoDecimalPlaces() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+
+        var accountRequest = new CreateTransactionRequest(
+                10.005,
+                GBP,
+                DEPOSIT
+        );
+
+        // WHEN-THEN
+        mockMvc.perform(post(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(accountRequest)))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$.message").value("Invalid details supplied"));
+    }
+
+
+    // Scenario: User wants to deposit money with a reference to match the payment by later
+    @Test
+    void should_createTransactionWithReference_when_referenceSupplied() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var timestamp = Instant.now();
+
+        var accountRequest = new CreateTransactionRequest(
+                59.99,
+                GBP,
+                DEPOSIT
+        ).reference("INV-2024-0042");
+
+        var savedTransaction = Transaction.builder()
+                .accountNumber(accountNumber)
+                .amount(MoneyUtil.toMinorUnits(accountRequest.getAmount()))
+                .currency(accountRequest.getCurrency().getValue())
+                .type(accountRequest.getType().getValue())
+                .reference(accountRequest.getReference())
+                .createdOn(timestamp)
+                .build();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+        var savedBankAccount = copyBankAccount(fetchedBankAccount);
+        savedBankAccount.setBalance(savedBankAccount.getBalance() + MoneyUtil.toMinorUnits(accountRequest.getAmount()));
+
+        when(mockTransactionRepository.saveAll(any())).thenReturn(List.of(savedTransaction));
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockBankAccountRepository.save(any(BankAccount.class))).thenReturn(savedBankAccount);
+
+        // WHEN-THEN
+        var expectedResponse = toTransactionResponse(savedTransaction);
+
+        mockMvc.perform(post(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(accountRequest)))
+                .andExpect(status().is(201))
+                .andExpect(jsonPath("$.reference").value("INV-2024-0042"))
+                .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
+
+        verify(mockTransactionRepository).saveAll(argThat((List<Transaction> transactions) ->
+                transactions.size() == 1 && "INV-2024-0042".equals(transactions.getFirst().getReference())));
+    }
 
     /*
         LIST TRANSACTIONS SCENARIOS
@@ -327,7 +565,7 @@ class TransactionControllerTest {
                 Transaction.builder()
                         .id("tan-A")
                         .accountNumber(accountNumber)
-                        .amount(56.99)
+                        .amount(5699L)
                         .currency(GBP.getValue())
                         .type(DEPOSIT.getValue())
                         .createdOn(timestamp)
@@ -336,7 +574,7 @@ class TransactionControllerTest {
                 Transaction.builder()
                         .id("tan-B")
                         .accountNumber(accountNumber)
-                        .amount(34.99)
+                        .amount(3499L)
                         .currency(GBP.getValue())
                         .type(WITHDRAWAL.getValue())
                         .createdOn(timestamp)
@@ -345,7 +583,7 @@ class TransactionControllerTest {
                 Transaction.builder()
                         .id("tan-C")
                         .accountNumber(accountNumber)
-                        .amount(12.34)
+                        .amount(1234L)
                         .currency(GBP.getValue())
                         .type(DEPOSIT.getValue())
                         .createdOn(timestamp)
@@ -359,7 +597,7 @@ class TransactionControllerTest {
                 .name("USER ACCOUNT")
                 .accountType(PERSONAL.getValue())
                 .sortCode(_10_10_10.getValue())
-                .balance(0.0)
+                .balance(0L)
                 .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
                 .createdOn(timestamp)
                 .lastUpdatedOn(timestamp)
@@ -396,7 +634,7 @@ class TransactionControllerTest {
                 .name("USER ACCOUNT")
                 .accountType(PERSONAL.getValue())
                 .sortCode(_10_10_10.getValue())
-                .balance(0.0)
+                .balance(0L)
                 .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
                 .createdOn(timestamp)
                 .lastUpdatedOn(timestamp)
@@ -430,41 +668,20 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.message").value("Bank Account was not found"));
     }
 
-
-    private TransactionResponse toTransactionResponse(Transaction transaction) {
-        var response = new TransactionResponse(
-                transaction.getId(),
-                transaction.getAmount(),
-                TransactionResponse.CurrencyEnum.fromValue(transaction.getCurrency()),
-                TransactionResponse.TypeEnum.fromValue(transaction.getType()),
-                OffsetDateTime.ofInstant(transaction.getCreatedOn(), ZoneId.systemDefault())
-        );
-        response.setUserId(AUTHED_USER_ID);
-        response.setReference("N/A");
-        return response;
-    }
-
-
-    /*
-        FETCH A TRANSACTION SCENARIOS
-     */
-
-    // Scenario: User wants to fetch a transaction on their bank account
+    // Scenario: User polls their transactions, which are unchanged until they make a deposit
     @Test
-    void should_fetchTransaction_when_validDetailsSupplied() throws Exception {
+    void should_answerNotModified_when_transactionsETagStillCurrent() throws Exception {
         // GIVEN
         var accountNumber = "01" + String.format("%06d", 123);
-        var transactionId = "tan-A";
         var timestamp = Instant.now();
 
         var transaction = Transaction.builder()
-                .id(transactionId)
+                .id("tan-A")
                 .accountNumber(accountNumber)
-                .amount(56.99)
+                .amount(5999L)
                 .currency(GBP.getValue())
                 .type(DEPOSIT.getValue())
                 .createdOn(timestamp)
-                .createdOn(timestamp)
                 .build();
 
         var fetchedBankAccount = BankAccount.builder()
@@ -473,127 +690,1312 @@ class TransactionControllerTest {
                 .name("USER ACCOUNT")
                 .accountType(PERSONAL.getValue())
                 .sortCode(_10_10_10.getValue())
-                .balance(0.0)
+                .balance(0L)
                 .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
                 .createdOn(timestamp)
                 .lastUpdatedOn(timestamp)
                 .build();
+        var savedBankAccount = copyBankAccount(fetchedBankAccount);
+        savedBankAccount.setBalance(transaction.getAmount());
 
         when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
-        when(mockTransactionRepository.findByIdAndAccountNumber(transactionId, accountNumber)).thenReturn(Optional.of(transaction));
+        when(mockBankAccountRepository.save(any(BankAccount.class))).thenReturn(savedBankAccount);
+        when(mockTransactionRepository.findByAccountNumber(accountNumber)).thenReturn(List.of());
+        when(mockTransactionRepository.saveAll(any())).thenReturn(List.of(transaction));
+
+        var etag = mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(200))
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
 
         // WHEN-THEN
-        var expectedResponse = toTransactionResponse(transaction);
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .header("If-None-Match", etag))
+                .andExpect(status().is(304))
+                .andExpect(content().string(""));
+        verify(mockTransactionRepository, times(1)).findByAccountNumber(accountNumber);
 
-        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL + "/" + transactionId)
+        mockMvc.perform(post(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(new CreateTransactionRequest(59.99, GBP, DEPOSIT))))
+                .andExpect(status().is(201));
+
+        when(mockTransactionRepository.findByAccountNumber(accountNumber)).thenReturn(List.of(transaction));
+
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .header("If-None-Match", etag))
                 .andExpect(status().is(200))
-                .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
+                .andExpect(jsonPath("$.transactions[0].id").value("tan-A"));
     }
 
-    // Scenario: User wants to fetch a transaction on another user's bank account
+    // Scenario: User wants to view the first page of their transactions
     @Test
-    void shouldNot_fetchTransaction_when_otherUserAccount() throws Exception {
+    void should_listTransactionPage_when_limitSupplied() throws Exception {
         // GIVEN
         var accountNumber = "01" + String.format("%06d", 123);
-        var transactionId = "tan-A";
         var timestamp = Instant.now();
 
+        var transactions = List.of(
+                Transaction.builder()
+                        .id("tan-C")
+                        .accountNumber(accountNumber)
+                        .amount(1234L)
+                        .currency(GBP.getValue())
+                        .type(DEPOSIT.getValue())
+                        .createdOn(timestamp)
+                        .build(),
+                Transaction.builder()
+                        .id("tan-B")
+                        .accountNumber(accountNumber)
+                        .amount(3499L)
+                        .currency(GBP.getValue())
+                        .type(WITHDRAWAL.getValue())
+                        .createdOn(timestamp.minusSeconds(1))
+                        .build(),
+                Transaction.builder()
+                        .id("tan-A")
+                        .accountNumber(accountNumber)
+                        .amount(5699L)
+                        .currency(GBP.getValue())
+                        .type(DEPOSIT.getValue())
+                        .createdOn(timestamp.minusSeconds(2))
+                        .build()
+        );
+
         var fetchedBankAccount = BankAccount.builder()
                 .accountNumber(accountNumber)
-                .userId(OTHER_USER_ID)
+                .userId(AUTHED_USER_ID)
                 .name("USER ACCOUNT")
                 .accountType(PERSONAL.getValue())
                 .sortCode(_10_10_10.getValue())
-                .balance(0.0)
+                .balance(0L)
                 .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
                 .createdOn(timestamp)
                 .lastUpdatedOn(timestamp)
                 .build();
 
         when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockTransactionRepository.findFirstPage(accountNumber, Limit.of(3)))
+                .thenReturn(transactions);
 
         // WHEN-THEN
-        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL + "/" + transactionId)
-                        .accept(MediaType.APPLICATION_JSON)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
-                .andExpect(status().is(403))
-                .andExpect(jsonPath("$.message").value("The user is not allowed to access the transaction"));
-    }
-
-    // Scenario: User wants to fetch a transaction on a none-existent bank account
-    // Scenario: User wants to fetch a transaction against the wrong bank account
-    //
-    // NOTE: Transaction select is keyed on both Transaction ID & Account Number,
-    // hence both scenarios are covered by this test as it's not possible to
-    // select transaction from the wrong account
-    @Test
-    void shouldNot_fetchTransaction_when_accountNotExists() throws Exception {
-        // GIVEN
-        var accountNumber = "01" + String.format("%06d", 123);
-        var transactionId = "tan-A";
-
-        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.empty());
+        var expectedResponse = new ListTransactionsResponse(
+                transactions.subList(0, 2).stream()
+                        .map(this::toTransactionResponse)
+                        .toList()
+        ).nextCursor(TransactionCursor.after(transactions.get(1)).encode());
 
-        // WHEN-THEN
-        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL + "/" + transactionId)
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                        .queryParam("limit", "2")
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("Authorization", "Bearer " + DUMMY_TOKEN))
-                .andExpect(status().is(404))
-                .andExpect(jsonPath("$.message").value("Bank Account was not found"));
+                .andExpect(status().is(200))
+                .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
     }
 
-    // Scenario: User wants to fetch a transaction on a none-existent transaction ID
+    // Scenario: User wants to view the first page of their recent transactions again
     @Test
-    void shouldNot_fetchTransaction_when_transactionNotExists() throws Exception {
+    void should_listTransactionPageFromCache_when_recentTransactionsCached() throws Exception {
         // GIVEN
         var accountNumber = "01" + String.format("%06d", 123);
-        var transactionId = "tan-A";
         var timestamp = Instant.now();
 
+        var transactions = List.of(
+                Transaction.builder()
+                        .id("tan-0mvbwrtph00000002")
+                        .accountNumber(accountNumber)
+                        .amount(3499L)
+                        .currency(GBP.getValue())
+                        .type(WITHDRAWAL.getValue())
+                        .createdOn(timestamp)
+                        .build(),
+                Transaction.builder()
+                        .id("tan-0mvbwrthy00000001")
+                        .accountNumber(accountNumber)
+                        .amount(5699L)
+                        .currency(GBP.getValue())
+                        .type(DEPOSIT.getValue())
+                        .createdOn(timestamp.minusSeconds(1))
+                        .build()
+        );
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockRecentTransactionCache.findPage(accountNumber, null, 3)).thenReturn(Optional.of(transactions));
+
+        // WHEN-THEN
+        var expectedResponse = new ListTransactionsResponse(
+                transactions.stream()
+                        .map(this::toTransactionResponse)
+                        .toList()
+        );
+
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                        .queryParam("limit", "2")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(200))
+                .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(mockTransactionRepository, never()).findFirstPage(any(), any());
+    }
+
+    // Scenario: User wants to search their transactions by type, date range and amount
+    @Test
+    void should_listFilteredTransactionPage_when_filtersSupplied() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var timestamp = Instant.parse("2026-03-10T12:00:00Z");
+
+        var transactions = List.of(
+                Transaction.builder()
+                        .id("tan-B")
+                        .accountNumber(accountNumber)
+                        .amount(3499L)
+                        .currency(GBP.getValue())
+                        .type(WITHDRAWAL.getValue())
+                        .createdOn(timestamp)
+                        .build(),
+                Transaction.builder()
+                        .id("tan-A")
+                        .accountNumber(accountNumber)
+                        .amount(1250L)
+                        .currency(GBP.getValue())
+                        .type(WITHDRAWAL.getValue())
+                        .createdOn(timestamp.minusSeconds(60))
+                        .build()
+        );
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        var filter = new TransactionFilter(
+                Instant.parse("2026-03-01T00:00:00Z"),
+                Instant.parse("2026-04-01T00:00:00Z"),
+                WITHDRAWAL.getValue(),
+                1000L,
+                5000L
+        );
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockTransactionRepository.findIds(accountNumber, filter, null, 101))
+                .thenReturn(List.of("tan-B", "tan-A"));
+        when(mockTransactionRepository.findAllById(List.of("tan-B", "tan-A")))
+                .thenReturn(transactions.reversed());
+
+        // WHEN-THEN
+        var expectedResponse = new ListTransactionsResponse(
+                transactions.stream()
+                        .map(this::toTransactionResponse)
+                        .toList()
+        );
+
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                        .queryParam("from", "2026-03-01T00:00:00Z")
+                        .queryParam("to", "2026-04-01T00:00:00Z")
+                        .queryParam("type", "withdrawal")
+                        .queryParam("minAmount", "10.00")
+                        .queryParam("maxAmount", "50.00")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(200))
+                .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    // Scenario: User wants to search their transactions with a minimum amount above the maximum
+    @Test
+    void shouldNot_listFilteredTransactionPage_when_amountBandInvalid() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var timestamp = Instant.now();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+
+        // WHEN-THEN
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                        .queryParam("minAmount", "50.00")
+                        .queryParam("maxAmount", "10.00")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$.message").value("Invalid details supplied"));
+    }
+
+    // Scenario: User wants to view the next page of their transactions with a cursor that was not issued by the service
+    @Test
+    void shouldNot_listTransactionPage_when_cursorInvalid() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var timestamp = Instant.now();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+
+        // WHEN-THEN
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                        .queryParam("limit", "2")
+                        .queryParam("cursor", "not-a-cursor")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$.message").value("Invalid details supplied"));
+    }
+
+
+    // Scenario: User wants to export all their transactions as a stream of JSON lines
+    @Test
+    void should_streamTransactions_when_ndjsonAccepted() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var timestamp = Instant.now();
+
+        var transactions = List.of(
+                Transaction.builder()
+                        .id("tan-B")
+                        .accountNumber(accountNumber)
+                        .amount(3499L)
+                        .currency(GBP.getValue())
+                        .type(WITHDRAWAL.getValue())
+                        .createdOn(timestamp)
+                        .build(),
+                Transaction.builder()
+                        .id("tan-A")
+                        .accountNumber(accountNumber)
+                        .amount(5699L)
+                        .currency(GBP.getValue())
+                        .type(DEPOSIT.getValue())
+                        .createdOn(timestamp.minusSeconds(1))
+                        .build()
+        );
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockTransactionRepository.streamByAccountNumber(accountNumber)).thenReturn(transactions.stream());
+
+        // WHEN
+        var result = mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                .accept("application/x-ndjson")
+                .header("Authorization", "Bearer " + DUMMY_TOKEN));
+
+        // THEN
+        var response = result
+                .andExpect(status().is(200))
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn().getResponse();
+        var body = response.getContentAsString();
+
+        // Tagged apart from the JSON list, which has the account's tag
+        var etag = response.getHeader("ETag");
+        assertNotNull(etag);
+        assertTrue(etag.endsWith("-ndjson\""), etag);
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                        .accept("application/x-ndjson")
+                        .header("If-None-Match", etag)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(304));
+
+        var lines = body.split("\n");
+        assertEquals(transactions.size(), lines.length);
+        for(int i = 0; i < lines.length; i++) {
+            assertEquals(
+                    objectMapper.readTree(objectMapper.writeValueAsString(toTransactionResponse(transactions.get(i)))),
+                    objectMapper.readTree(lines[i]));
+        }
+    }
+
+    // Scenario: User wants to be pushed the activity on their bank account instead of polling it
+    @Test
+    void should_streamAccountEvents_when_transactionPosted() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 124);
+        var timestamp = Instant.now();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(5699L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        var postedTransaction = Transaction.builder()
+                .id("tan-A")
+                .accountNumber(accountNumber)
+                .amount(5699L)
+                .currency(GBP.getValue())
+                .type(DEPOSIT.getValue())
+                .createdOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+
+        // WHEN
+        var result = mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + "/events")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // The headers are written with the first event
+        awaitEvents(result, "balance", 1);
+        content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM).match(result);
+        var postedBankAccount = copyBankAccount(fetchedBankAccount);
+        postedBankAccount.setBalance(fetchedBankAccount.getBalance() + postedTransaction.getAmount());
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(postedBankAccount));
+        accountEventBus.publish(List.of(postedTransaction));
+
+        // THEN
+        assertEquals(
+                objectMapper.readTree(objectMapper.writeValueAsString(toTransactionResponse(postedTransaction))),
+                objectMapper.readTree(awaitEvents(result, "transaction", 1).getFirst()));
+        var balances = awaitEvents(result, "balance", 2);
+        assertEquals(56.99, objectMapper.readTree(balances.get(0)).get("balance").asDouble());
+        assertEquals(113.98, objectMapper.readTree(balances.get(1)).get("balance").asDouble());
+    }
+
+    // Scenario: User wants to be pushed the activity on another user's bank account
+    @Test
+    void shouldNot_streamAccountEvents_when_accountOwnedByOtherUser() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var timestamp = Instant.now();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(OTHER_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+
+        // WHEN-THEN
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + "/events")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(403));
+    }
+
+    // Scenario: User wants to export all transactions on another user's bank account
+    @Test
+    void shouldNot_streamTransactions_when_accountOwnedByOtherUser() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var timestamp = Instant.now();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(OTHER_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+
+        // WHEN-THEN
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL)
+                        .accept("application/x-ndjson")
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(403))
+                .andExpect(jsonPath("$.message").value("The user is not allowed to access the transaction"));
+    }
+
+    // Data of the server-sent events with the name, once count of them have been sent
+    private List<String> awaitEvents(MvcResult result, String name, int count) throws Exception {
+        var deadline = Instant.now().plusSeconds(10);
+        while(Instant.now().isBefore(deadline)) {
+            // Only events followed by their blank line, the last one may still be being written
+            var content = result.getResponse().getContentAsString();
+            var events = Arrays.stream(content.substring(0, content.lastIndexOf("\n\n") + 1).split("\n\n"))
+                    .filter(event -> event.contains("event:" + name + "\n"))
+                    .map(event -> event.substring(event.indexOf("data:") + "data:".length()))
+                    .toList();
+            if(events.size() >= count) {
+                return events;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError(count + " " + name + " events were not sent");
+    }
+
+    private TransactionResponse toTransactionResponse(Transaction transaction) {
+        var response = new TransactionResponse(
+                transaction.getId(),
+                MoneyUtil.toMajorUnits(transaction.getAmount()),
+                TransactionResponse.CurrencyEnum.fromValue(transaction.getCurrency()),
+                TransactionResponse.TypeEnum.fromValue(transaction.getType()),
+                OffsetDateTime.ofInstant(transaction.getCreatedOn(), ZoneId.systemDefault())
+        );
+        response.setUserId(AUTHED_USER_ID);
+        response.setReference(transaction.getReference());
+        return response;
+    }
+
+
+    /*
+        FETCH A TRANSACTION SCENARIOS
+     */
+
+    // Scenario: User wants to fetch a transaction on their bank account
+    @Test
+    void should_fetchTransaction_when_validDetailsSupplied() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var transactionId = "tan-A";
+        var timestamp = Instant.now();
+
+        var transaction = Transaction.builder()
+                .id(transactionId)
+                .accountNumber(accountNumber)
+                .amount(5699L)
+                .currency(GBP.getValue())
+                .type(DEPOSIT.getValue())
+                .createdOn(timestamp)
+                .createdOn(timestamp)
+                .build();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockTransactionRepository.findByIdAndAccountNumber(transactionId, accountNumber)).thenReturn(Optional.of(transaction));
+
+        // WHEN-THEN
+        var expectedResponse = toTransactionResponse(transaction);
+
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL + "/" + transactionId)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(200))
+                .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
+    }
+
+    // Scenario: User wants to fetch a transaction on another user's bank account
+    @Test
+    void shouldNot_fetchTransaction_when_otherUserAccount() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var transactionId = "tan-A";
+        var timestamp = Instant.now();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(OTHER_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+
+        // WHEN-THEN
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL + "/" + transactionId)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(403))
+                .andExpect(jsonPath("$.message").value("The user is not allowed to access the transaction"));
+    }
+
+    // Scenario: User wants to fetch a transaction on a none-existent bank account
+    // Scenario: User wants to fetch a transaction against the wrong bank account
+    //
+    // NOTE: Transaction select is keyed on both Transaction ID & Account Number,
+    // hence both scenarios are covered by this test as it's not possible to
+    // select transaction from the wrong account
+    @Test
+    void shouldNot_fetchTransaction_when_accountNotExists() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var transactionId = "tan-A";
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.empty());
+
+        // WHEN-THEN
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL + "/" + transactionId)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(404))
+                .andExpect(jsonPath("$.message").value("Bank Account was not found"));
+    }
+
+    // Scenario: User wants to fetch a transaction on a none-existent transaction ID
+    @Test
+    void shouldNot_fetchTransaction_when_transactionNotExists() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var transactionId = "tan-A";
+        var timestamp = Instant.now();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockTransactionRepository.findByIdAndAccountNumber(transactionId, accountNumber)).thenReturn(Optional.empty());
+
+        // WHEN-THEN
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL + "/" + transactionId)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(404))
+                .andExpect(jsonPath("$.message").value("Transaction was not found"));
+    }
+
+    // Scenario: User wants to fetch a transaction against the wrong bank account
+    @Test
+    void shouldNot_fetchTransaction_when_transactionForOtherAccount() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var transactionId = "tan-A";
+        var timestamp = Instant.now();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockTransactionRepository.findByIdAndAccountNumber(transactionId, accountNumber)).thenReturn(Optional.empty());
+
+        // WHEN-THEN
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL + "/" + transactionId)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(404))
+                .andExpect(jsonPath("$.message").value("Transaction was not found"));
+    }
+
+
+    /*
+        FETCH TRANSACTIONS BY REFERENCE SCENARIOS
+     */
+
+    // Scenario: User wants to find the transactions on their bank account created with a reference
+    @Test
+    void should_listTransactionsByReference_when_validDetailsSupplied() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var reference = "INV-2024-0042";
+        var timestamp = Instant.now();
+
+        var transaction = Transaction.builder()
+                .id("tan-A")
+                .accountNumber(accountNumber)
+                .amount(5699L)
+                .currency(GBP.getValue())
+                .type(DEPOSIT.getValue())
+                .reference(reference)
+                .createdOn(timestamp)
+                .build();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockTransactionRepository.findByAccountNumberAndReference(accountNumber, reference)).thenReturn(List.of(transaction));
+
+        // WHEN-THEN
+        var expectedResponse = new ListTransactionsResponse(List.of(toTransactionResponse(transaction)));
+
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + "/references/" + reference)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(200))
+                .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
+
+        verify(mockTransactionRepository, never()).findByAccountNumber(any());
+    }
+
+    // Scenario: User wants to find the transactions on another user's bank account created with a reference
+    @Test
+    void shouldNot_listTransactionsByReference_when_otherUserAccount() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var timestamp = Instant.now();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(OTHER_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+
+        // WHEN-THEN
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + "/references/INV-2024-0042")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(403))
+                .andExpect(jsonPath("$.message").value("The user is not allowed to access the transaction"));
+    }
+
+    /*
+        STATEMENT SCENARIOS
+     */
+
+    // Scenario: User wants the statement of their bank account for a past month
+    @Test
+    void should_fetchStatement_when_validDetailsSupplied() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var timestamp = Instant.now();
+        var month = YearMonth.of(2026, 3);
+
+        var transactions = List.of(
+                Transaction.builder()
+                        .id("tan-B")
+                        .accountNumber(accountNumber)
+                        .amount(1500L)
+                        .currency(GBP.getValue())
+                        .type(WITHDRAWAL.getValue())
+                        .createdOn(Instant.parse("2026-03-20T10:00:00Z"))
+                        .build(),
+                Transaction.builder()
+                        .id("tan-A")
+                        .accountNumber(accountNumber)
+                        .amount(5000L)
+                        .currency(GBP.getValue())
+                        .type(DEPOSIT.getValue())
+                        .createdOn(Instant.parse("2026-03-02T10:00:00Z"))
+                        .build()
+        );
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        var previousMonth = AccountMonthlyBalance.builder()
+                .accountNumber(accountNumber)
+                .monthStart(LocalDate.of(2026, 2, 1))
+                .openingBalanceMinor(0L)
+                .closingBalanceMinor(10000L)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockAccountMonthlyBalanceRepository.findFirstByAccountNumberAndMonthStartLessThanOrderByMonthStartDesc(accountNumber, LocalDate.of(2026, 3, 1)))
+                .thenReturn(Optional.of(previousMonth));
+        when(mockAccountDailyRollupRepository.getActivity(accountNumber, LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31)))
+                .thenReturn(new AccountActivity(5000L, 1L, 1500L, 1L));
+        when(mockTransactionRepository.findFirstPageBetween(accountNumber, Instant.parse("2026-03-01T00:00:00Z"), Instant.parse("2026-04-01T00:00:00Z"), Limit.of(101)))
+                .thenReturn(transactions);
+
+        // WHEN-THEN
+        var expectedResponse = new StatementResponse(
+                accountNumber,
+                month.toString(),
+                100.00,
+                135.00,
+                50.00,
+                1L,
+                15.00,
+                1L,
+                transactions.stream()
+                        .map(this::toTransactionResponse)
+                        .toList()
+        );
+
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + "/statements/" + month)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(200))
+                .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    // Scenario: User wants the statement of their bank account for a month that has not started yet
+    @Test
+    void shouldNot_fetchStatement_when_monthInFuture() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var timestamp = Instant.now();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+
+        // WHEN-THEN
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + "/statements/" + YearMonth.now(ZoneOffset.UTC).plusMonths(1))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("$.message").value("Invalid details supplied"));
+    }
+
+
+    /*
+        TRANSFER SCENARIOS
+     */
+
+    // Scenario: User wants to transfer money from their bank account to another bank account
+    @Test
+    void should_createTransfer_when_sufficientFund() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var toAccountNumber = "01" + String.format("%06d", 456);
+        var timestamp = Instant.now();
+
+        var transferRequest = new CreateTransferRequest(
+                toAccountNumber,
+                40.00,
+                CreateTransferRequest.CurrencyEnum.GBP
+        );
+
+        var fromBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(6000L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+        var toBankAccount = BankAccount.builder()
+                .accountNumber(toAccountNumber)
+                .userId(OTHER_USER_ID)
+                .name("OTHER USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        var savedDebit = Transaction.builder()
+                .id("tan-A")
+                .accountNumber(accountNumber)
+                .amount(MoneyUtil.toMinorUnits(transferRequest.getAmount()))
+                .currency(transferRequest.getCurrency().getValue())
+                .type(WITHDRAWAL.getValue())
+                .linkedTransactionId("tan-B")
+                .createdOn(timestamp)
+                .build();
+        var savedCredit = Transaction.builder()
+                .id("tan-B")
+                .accountNumber(toAccountNumber)
+                .amount(MoneyUtil.toMinorUnits(transferRequest.getAmount()))
+                .currency(transferRequest.getCurrency().getValue())
+                .type(DEPOSIT.getValue())
+                .linkedTransactionId("tan-A")
+                .createdOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fromBankAccount));
+        when(mockBankAccountRepository.findById(toAccountNumber)).thenReturn(Optional.of(toBankAccount));
+        when(mockTransactionRepository.saveAll(any())).thenReturn(List.of(savedDebit, savedCredit));
+
+        // WHEN-THEN
+        var expectedResponse = new TransferResponse(
+                toTransactionResponse(savedDebit),
+                toTransactionResponse(savedCredit)
+        );
+
+        mockMvc.perform(post(ACCOUNTS_URL + "/" + accountNumber + TRANSFERS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(transferRequest)))
+                .andExpect(status().is(201))
+                .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
+    }
+
+    // Scenario: User retries a transfer with the same Idempotency-Key after a timeout
+    @Test
+    void should_returnOriginalTransfer_when_idempotencyKeyReplayed() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var toAccountNumber = "01" + String.format("%06d", 456);
+        var idempotencyKey = "retry-transfer-" + Instant.now().toEpochMilli();
+        var timestamp = Instant.now();
+
+        var transferRequest = new CreateTransferRequest(
+                toAccountNumber,
+                40.00,
+                CreateTransferRequest.CurrencyEnum.GBP
+        );
+
+        var fromBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(6000L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+        var toBankAccount = BankAccount.builder()
+                .accountNumber(toAccountNumber)
+                .userId(OTHER_USER_ID)
+                .name("OTHER USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        var savedDebit = Transaction.builder()
+                .id("tan-A")
+                .accountNumber(accountNumber)
+                .amount(MoneyUtil.toMinorUnits(transferRequest.getAmount()))
+                .currency(transferRequest.getCurrency().getValue())
+                .type(WITHDRAWAL.getValue())
+                .linkedTransactionId("tan-B")
+                .createdOn(timestamp)
+                .build();
+        var savedCredit = Transaction.builder()
+                .id("tan-B")
+                .accountNumber(toAccountNumber)
+                .amount(MoneyUtil.toMinorUnits(transferRequest.getAmount()))
+                .currency(transferRequest.getCurrency().getValue())
+                .type(DEPOSIT.getValue())
+                .linkedTransactionId("tan-A")
+                .createdOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fromBankAccount));
+        when(mockBankAccountRepository.findById(toAccountNumber)).thenReturn(Optional.of(toBankAccount));
+        when(mockTransactionRepository.saveAll(any())).thenReturn(List.of(savedDebit, savedCredit));
+
+        // WHEN-THEN
+        var expectedResponse = new TransferResponse(
+                toTransactionResponse(savedDebit),
+                toTransactionResponse(savedCredit)
+        );
+
+        for(int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post(ACCOUNTS_URL + "/" + accountNumber + TRANSFERS_URL)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                            .header("Idempotency-Key", idempotencyKey)
+                            .content(objectMapper.writeValueAsString(transferRequest)))
+                    .andExpect(status().is(201))
+                    .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
+        }
+        verify(mockTransactionRepository, times(1)).saveAll(any());
+    }
+
+    // Scenario: User wants to transfer more money than they have in their bank account
+    @Test
+    void shouldNot_createTransfer_when_insufficientFund() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var toAccountNumber = "01" + String.format("%06d", 456);
+        var timestamp = Instant.now();
+
+        var transferRequest = new CreateTransferRequest(
+                toAccountNumber,
+                80.00,
+                CreateTransferRequest.CurrencyEnum.GBP
+        );
+
+        var fromBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(6000L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+        var toBankAccount = BankAccount.builder()
+                .accountNumber(toAccountNumber)
+                .userId(OTHER_USER_ID)
+                .name("OTHER USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fromBankAccount));
+        when(mockBankAccountRepository.findById(toAccountNumber)).thenReturn(Optional.of(toBankAccount));
+
+        // WHEN-THEN
+        mockMvc.perform(post(ACCOUNTS_URL + "/" + accountNumber + TRANSFERS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(transferRequest)))
+                .andExpect(status().is(422))
+                .andExpect(jsonPath("$.message").value("Insufficient funds to process transaction"));
+    }
+
+    // Scenario: User wants to transfer money from another user's bank account
+    @Test
+    void shouldNot_createTransfer_when_otherUserAccount() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var toAccountNumber = "01" + String.format("%06d", 456);
+        var timestamp = Instant.now();
+
+        var transferRequest = new CreateTransferRequest(
+                toAccountNumber,
+                40.00,
+                CreateTransferRequest.CurrencyEnum.GBP
+        );
+
+        var fromBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(OTHER_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(6000L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fromBankAccount));
+
+        // WHEN-THEN
+        mockMvc.perform(post(ACCOUNTS_URL + "/" + accountNumber + TRANSFERS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(transferRequest)))
+                .andExpect(status().is(403))
+                .andExpect(jsonPath("$.message").value("The user is not allowed to access the transaction"));
+    }
+
+    // Scenario: User wants to transfer money to a non-existent bank account
+    @Test
+    void shouldNot_createTransfer_when_toAccountNotExists() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var toAccountNumber = "01" + String.format("%06d", 456);
+        var timestamp = Instant.now();
+
+        var transferRequest = new CreateTransferRequest(
+                toAccountNumber,
+                40.00,
+                CreateTransferRequest.CurrencyEnum.GBP
+        );
+
+        var fromBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(6000L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fromBankAccount));
+        when(mockBankAccountRepository.findById(toAccountNumber)).thenReturn(Optional.empty());
+
+        // WHEN-THEN
+        mockMvc.perform(post(ACCOUNTS_URL + "/" + accountNumber + TRANSFERS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(transferRequest)))
+                .andExpect(status().is(404))
+                .andExpect(jsonPath("$.message").value("Bank Account was not found"));
+    }
+
+    /*
+        ASYNCHRONOUS POSTING SCENARIOS
+     */
+
+    // Scenario: User wants to submit a deposit for asynchronous posting
+    @Test
+    void should_acceptPosting_when_validDetailsSupplied() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var timestamp = Instant.now();
+
+        var accountRequest = new CreateTransactionRequest(
+                59.99,
+                GBP,
+                DEPOSIT
+        );
+
         var fetchedBankAccount = BankAccount.builder()
                 .accountNumber(accountNumber)
                 .userId(AUTHED_USER_ID)
                 .name("USER ACCOUNT")
                 .accountType(PERSONAL.getValue())
                 .sortCode(_10_10_10.getValue())
-                .balance(0.0)
+                .balance(0L)
                 .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
                 .createdOn(timestamp)
                 .lastUpdatedOn(timestamp)
                 .build();
 
         when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
-        when(mockTransactionRepository.findByIdAndAccountNumber(transactionId, accountNumber)).thenReturn(Optional.empty());
 
         // WHEN-THEN
-        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL + "/" + transactionId)
+        mockMvc.perform(post(ACCOUNTS_URL + "/" + accountNumber + POSTINGS_URL)
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
-                .andExpect(status().is(404))
-                .andExpect(jsonPath("$.message").value("Transaction was not found"));
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(accountRequest)))
+                .andExpect(status().is(202))
+                .andExpect(jsonPath("$.transactionId").isNotEmpty())
+                .andExpect(jsonPath("$.status").value("pending"));
     }
 
-    // Scenario: User wants to fetch a transaction against the wrong bank account
+    // Scenario: User wants to submit a transaction for posting to another user's bank account
     @Test
-    void shouldNot_fetchTransaction_when_transactionForOtherAccount() throws Exception {
+    void shouldNot_acceptPosting_when_otherUserAccount() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var timestamp = Instant.now();
+
+        var accountRequest = new CreateTransactionRequest(
+                59.99,
+                GBP,
+                DEPOSIT
+        );
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(OTHER_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+
+        // WHEN-THEN
+        mockMvc.perform(post(ACCOUNTS_URL + "/" + accountNumber + POSTINGS_URL)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .content(objectMapper.writeValueAsString(accountRequest)))
+                .andExpect(status().is(403))
+                .andExpect(jsonPath("$.message").value("The user is not allowed to access the transaction"));
+    }
+
+    // Scenario: User wants to check the status of a transaction that has been posted
+    @Test
+    void should_fetchPostedStatus_when_transactionPosted() throws Exception {
         // GIVEN
         var accountNumber = "01" + String.format("%06d", 123);
         var transactionId = "tan-A";
         var timestamp = Instant.now();
 
+        var transaction = Transaction.builder()
+                .id(transactionId)
+                .accountNumber(accountNumber)
+                .amount(5699L)
+                .currency(GBP.getValue())
+                .type(DEPOSIT.getValue())
+                .createdOn(timestamp)
+                .build();
+
+        var fetchedBankAccount = BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(AUTHED_USER_ID)
+                .name("USER ACCOUNT")
+                .accountType(PERSONAL.getValue())
+                .sortCode(_10_10_10.getValue())
+                .balance(0L)
+                .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
+                .createdOn(timestamp)
+                .lastUpdatedOn(timestamp)
+                .build();
+
+        when(mockBankAccountRepository.findById(accountNumber)).thenReturn(Optional.of(fetchedBankAccount));
+        when(mockTransactionRepository.findByIdAndAccountNumber(transactionId, accountNumber)).thenReturn(Optional.of(transaction));
+
+        // WHEN-THEN
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + POSTINGS_URL + "/" + transactionId)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(200))
+                .andExpect(jsonPath("$.transactionId").value(transactionId))
+                .andExpect(jsonPath("$.status").value("posted"));
+    }
+
+    // Scenario: User wants to check the status of a transaction that was never submitted
+    @Test
+    void shouldNot_fetchPostingStatus_when_transactionNotExists() throws Exception {
+        // GIVEN
+        var accountNumber = "01" + String.format("%06d", 123);
+        var transactionId = "tan-Z";
+        var timestamp = Instant.now();
+
         var fetchedBankAccount = BankAccount.builder()
                 .accountNumber(accountNumber)
                 .userId(AUTHED_USER_ID)
                 .name("USER ACCOUNT")
                 .accountType(PERSONAL.getValue())
                 .sortCode(_10_10_10.getValue())
-                .balance(0.0)
+                .balance(0L)
                 .currency(BankAccountResponse.CurrencyEnum.GBP.getValue())
                 .createdOn(timestamp)
                 .lastUpdatedOn(timestamp)
@@ -603,7 +2005,7 @@ class TransactionControllerTest {
         when(mockTransactionRepository.findByIdAndAccountNumber(transactionId, accountNumber)).thenReturn(Optional.empty());
 
         // WHEN-THEN
-        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + TRANSACTIONS_URL + "/" + transactionId)
+        mockMvc.perform(get(ACCOUNTS_URL + "/" + accountNumber + POSTINGS_URL + "/" + transactionId)
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("Authorization", "Bearer " + DUMMY_TOKEN))
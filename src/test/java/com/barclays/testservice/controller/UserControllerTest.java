@@ -4,6 +4,9 @@ import com.barclays.testservice.model.*;
 import com.barclays.testservice.repository.AddressRepository;
 import com.barclays.testservice.repository.BankAccountRepository;
 import com.barclays.testservice.repository.UserRepository;
+import com.barclays.testservice.service.user.DeletedUser;
+import com.barclays.testservice.service.user.UserProfile;
+import com.barclays.testservice.service.version.ResourceVersions;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,7 +26,11 @@ import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -55,6 +62,9 @@ class UserControllerTest {
     @MockitoBean
     private JwtDecoder jwtDecoder;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     @BeforeEach
     void setUp() {
         objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
@@ -207,7 +217,20 @@ class UserControllerTest {
                 .lastUpdatedOn(timestamp)
                 .build();
 
-        when(mockUserRepository.findById(AUTHED_USER_ID)).thenReturn(Optional.of(fetchedUser));
+        when(mockUserRepository.findProfileById(AUTHED_USER_ID)).thenReturn(Optional.of(new UserProfile(
+                fetchedUser.getId(),
+                fetchedUser.getName(),
+                fetchedUser.getAddress().getLine1(),
+                fetchedUser.getAddress().getLine2(),
+                fetchedUser.getAddress().getLine3(),
+                fetchedUser.getAddress().getTown(),
+                fetchedUser.getAddress().getCounty(),
+                fetchedUser.getAddress().getPostcode(),
+                fetchedUser.getPhoneNumber(),
+                fetchedUser.getEmail(),
+                fetchedUser.getCreatedOn(),
+                fetchedUser.getLastUpdatedOn()
+        )));
 
         // WHEN-THEN
         var expectedResponse = new UserResponse(
@@ -235,6 +258,37 @@ class UserControllerTest {
     }
 
 
+    // Scenario: User polls their details, which have not changed since the last fetch
+    @Test
+    void should_answerNotModified_when_userETagStillCurrent() throws Exception {
+        // GIVEN
+        var timestamp = Instant.now();
+
+        when(mockUserRepository.findProfileById(AUTHED_USER_ID)).thenReturn(Optional.of(new UserProfile(
+                AUTHED_USER_ID, "Test User", "line1", null, null, "town", "county", "postcode",
+                "", "", timestamp, timestamp
+        )));
+
+        var etag = mockMvc.perform(get(USER_URL + "/" + AUTHED_USER_ID)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(200))
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // WHEN-THEN
+        mockMvc.perform(get(USER_URL + "/" + AUTHED_USER_ID)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN)
+                        .header("If-None-Match", etag))
+                .andExpect(status().is(304))
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        // The user is not read again to answer 304
+        verify(mockUserRepository, times(1)).findProfileById(AUTHED_USER_ID);
+    }
+
     // Scenario: User wants to fetch the details of another user
     @Test
     void should_notFetchUser_when_otherUserIdSuppliedAndAuthed() throws Exception {
@@ -252,7 +306,7 @@ class UserControllerTest {
     @Test
     void should_notFetchUser_when_userNotExistsAndAuthed() throws Exception {
         // GIVEN-WHEN-THEN
-        when(mockUserRepository.findById(AUTHED_USER_ID)).thenReturn(Optional.empty());
+        when(mockUserRepository.findProfileById(AUTHED_USER_ID)).thenReturn(Optional.empty());
 
         mockMvc.perform(get(USER_URL + "/" + AUTHED_USER_ID)
                         .accept(MediaType.APPLICATION_JSON)
@@ -408,14 +462,34 @@ class UserControllerTest {
     void should_deleteUser_when_validDetailsSuppliedAndAuthed() throws Exception {
         // GIVEN-WHEN-THEN
 
-        when(mockUserRepository.existsById(AUTHED_USER_ID)).thenReturn(true);
-        when(mockBankAccountRepository.existsByUserId(AUTHED_USER_ID)).thenReturn(false);
+        when(mockUserRepository.deleteWithoutAccounts(AUTHED_USER_ID)).thenReturn(Optional.of(deletedUser("add-123")));
 
         mockMvc.perform(delete(USER_URL + "/" + AUTHED_USER_ID)
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("Authorization", "Bearer " + DUMMY_TOKEN))
                 .andExpect(status().is(204));
+
+        verify(mockAddressRepository).deleteAddress("add-123");
+    }
+
+    // Scenario: User wants to delete their user details, and they have no address
+    @Test
+    void should_deleteUser_when_userHasNoAddressAndAuthed() throws Exception {
+        // GIVEN
+        when(mockUserRepository.deleteWithoutAccounts(AUTHED_USER_ID)).thenReturn(Optional.of(deletedUser(null)));
+        var version = resourceVersions.user(AUTHED_USER_ID);
+
+        // WHEN
+        mockMvc.perform(delete(USER_URL + "/" + AUTHED_USER_ID)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + DUMMY_TOKEN))
+                .andExpect(status().is(204));
+
+        // THEN
+        verify(mockAddressRepository, never()).deleteAddress(any());
+        assertNotEquals(version, resourceVersions.user(AUTHED_USER_ID));
     }
 
 
@@ -424,8 +498,8 @@ class UserControllerTest {
     void should_notDeleteUser_when_userHasBankAccountsAndAuthed() throws Exception {
         // GIVEN-WHEN-THEN
 
+        when(mockUserRepository.deleteWithoutAccounts(AUTHED_USER_ID)).thenReturn(Optional.empty());
         when(mockUserRepository.existsById(AUTHED_USER_ID)).thenReturn(true);
-        when(mockBankAccountRepository.existsByUserId(AUTHED_USER_ID)).thenReturn(true);
 
         mockMvc.perform(delete(USER_URL + "/" + AUTHED_USER_ID)
                         .accept(MediaType.APPLICATION_JSON)
@@ -451,7 +525,8 @@ class UserControllerTest {
     @Test
     void should_notDeleteUser_when_userDoesNotExistAndAuthed() throws Exception {
         // GIVEN-WHEN-THEN
-        when(mockUserRepository.findById(AUTHED_USER_ID)).thenReturn(Optional.empty());
+        when(mockUserRepository.deleteWithoutAccounts(AUTHED_USER_ID)).thenReturn(Optional.empty());
+        when(mockUserRepository.existsById(AUTHED_USER_ID)).thenReturn(false);
 
         mockMvc.perform(delete(USER_URL + "/" + AUTHED_USER_ID)
                         .accept(MediaType.APPLICATION_JSON)
@@ -461,6 +536,17 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.message").value("User was not found"));
     }
 
-
-
+    private static DeletedUser deletedUser(String addressId) {
+        return new DeletedUser() {
+            @Override
+            public String getId() {
+                return AUTHED_USER_ID;
+            }
+
+            @Override
+            public String getAddressId() {
+                return addressId;
+            }
+        };
+    }
 }
@@ -0,0 +1,200 @@
+package com.barclays.testservice.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+    Checks that H2 plans the repository lookups as index reads, not table scans.
+    The SQL mirrors what Hibernate generates for each repository method.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:query-plan-test;DB_CLOSE_DELAY=-1")
+class QueryPlanTest {
+
+    private static final String ACCOUNT_NUMBER = "01000001";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Scenario: Transactions of an account are listed (TransactionRepository.findByAccountNumber)
+    @Test
+    void should_useAccountIndex_when_listingTransactions() {
+        var plan = explain("SELECT * FROM transaction WHERE account_number = ?", ACCOUNT_NUMBER);
+
+        assertUsesIndex(plan, "IDX_TRANSACTION_ACCOUNT_CREATED");
+    }
+
+    // Scenario: The first page of an account's transactions is read (findByAccountNumberOrderByCreatedOnDescIdDesc)
+    @Test
+    void should_readIndexInOrder_when_fetchingFirstPage() {
+        var plan = explain("SELECT * FROM transaction WHERE account_number = ?"
+                + " ORDER BY account_number, created_on DESC, id DESC FETCH FIRST 101 ROWS ONLY", ACCOUNT_NUMBER);
+
+        assertUsesIndex(plan, "IDX_TRANSACTION_ACCOUNT_CREATED");
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    // Scenario: A later page of an account's transactions is read (findPageAfter)
+    @Test
+    void should_readIndexInOrder_when_fetchingPageAfterCursor() {
+        var createdOn = Timestamp.from(Instant.now());
+        var plan = explain("SELECT * FROM transaction WHERE account_number = ?"
+                        + " AND created_on <= ? AND (created_on < ? OR id < ?)"
+                        + " ORDER BY account_number, created_on DESC, id DESC FETCH FIRST 101 ROWS ONLY",
+                ACCOUNT_NUMBER, createdOn, createdOn, "tan-A");
+
+        assertUsesIndex(plan, "IDX_TRANSACTION_ACCOUNT_CREATED");
+        assertTrue(plan.contains("CREATED_ON <= ?2"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    // Scenario: An account's transactions are searched by date range and amount (TransactionSearchRepository.findIds)
+    @Test
+    void should_readIndexRangeInOrder_when_searchingByDateAndAmount() {
+        var plan = explain("SELECT id FROM transaction WHERE account_number = ?"
+                        + " AND created_on >= ? AND created_on < ? AND amount_minor >= ? AND amount_minor <= ?"
+                        + " ORDER BY account_number, created_on DESC, id DESC FETCH FIRST 101 ROWS ONLY",
+                ACCOUNT_NUMBER, Timestamp.valueOf("2026-01-01 00:00:00"), Timestamp.valueOf("2026-02-01 00:00:00"), 100L, 5000L);
+
+        assertUsesIndex(plan, "IDX_TRANSACTION_ACCOUNT_CREATED");
+        assertTrue(plan.contains("CREATED_ON >= ?2"), plan);
+        assertTrue(plan.contains("CREATED_ON < ?3"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    // Scenario: An account's transactions are searched by type, date range and amount (TransactionSearchRepository.findIds)
+    @Test
+    void should_readTypeIndexRangeInOrder_when_searchingByType() {
+        var plan = explain("SELECT id FROM transaction WHERE account_number = ? AND type = ?"
+                        + " AND created_on >= ? AND amount_minor >= ?"
+                        + " ORDER BY account_number, type, created_on DESC, id DESC FETCH FIRST 101 ROWS ONLY",
+                ACCOUNT_NUMBER, "withdrawal", Timestamp.valueOf("2026-01-01 00:00:00"), 100L);
+
+        assertUsesIndex(plan, "IDX_TRANSACTION_ACCOUNT_TYPE_CREATED");
+        assertTrue(plan.contains("TYPE = ?2"), plan);
+        assertTrue(plan.contains("CREATED_ON >= ?3"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    // Scenario: The transactions of an account are looked up by client reference (findByAccountNumberAndReference)
+    @Test
+    void should_useReferenceIndex_when_fetchingTransactionsByReference() {
+        var plan = explain("SELECT * FROM transaction WHERE account_number = ? AND reference = ?"
+                + " ORDER BY created_on DESC, id DESC", ACCOUNT_NUMBER, "INV-1");
+
+        assertUsesIndex(plan, "IDX_TRANSACTION_REFERENCE_ACCOUNT");
+    }
+
+    // Scenario: A transaction is fetched by id on an account (findByIdAndAccountNumber)
+    @Test
+    void should_usePrimaryKey_when_fetchingTransaction() {
+        var plan = explain("SELECT * FROM transaction WHERE id = ? AND account_number = ?", "tan-A", ACCOUNT_NUMBER);
+
+        assertUsesIndex(plan, "PRIMARY_KEY");
+    }
+
+    // Scenario: The transactions of an account are summed (getSumAmountByAccountNumber)
+    @Test
+    void should_useCoveringIndex_when_summingTransactions() {
+        var plan = explain("SELECT NVL(SUM(CASE WHEN type = 'withdrawal' THEN -amount_minor ELSE amount_minor END), 0)"
+                + " FROM transaction WHERE account_number = ?", ACCOUNT_NUMBER);
+
+        // Holds type as well as amount_minor, so the sum is read from the index alone
+        assertUsesIndex(plan, "IDX_TRANSACTION_ACCOUNT_TYPE_CREATED");
+    }
+
+    // Scenario: A range of accounts is reconciled against their transactions (LedgerReconciler)
+    @Test
+    void should_useIndexes_when_reconcilingAccountRange() {
+        var plan = explain("SELECT b.account_number,"
+                        + " b.balance_minor + COALESCE((SELECT SUM(s.balance_minor) FROM bankaccount_sub_balance s WHERE s.account_number = b.account_number), 0),"
+                        + " COALESCE((SELECT SUM(CASE WHEN t.type = 'withdrawal' THEN -t.amount_minor ELSE t.amount_minor END)"
+                        + " FROM transaction t WHERE t.account_number = b.account_number), 0)"
+                        + " + COALESCE((SELECT a.sum_minor FROM account_archive_total a WHERE a.account_number = b.account_number), 0)"
+                        + " FROM bankaccount b WHERE b.account_number BETWEEN ? AND ?",
+                "01000000", "01009999");
+
+        assertUsesIndex(plan, "IDX_TRANSACTION_ACCOUNT_TYPE_CREATED");
+        assertTrue(plan.contains("ACCOUNT_NUMBER >= ?1"), plan);
+        assertTrue(plan.contains("ACCOUNT_NUMBER = B.ACCOUNT_NUMBER"), plan);
+    }
+
+    // Scenario: The last day of withdrawals is read to rebuild the withdrawal counters (WithdrawalLimits)
+    @Test
+    void should_readIndexRangePerAccount_when_rebuildingWithdrawalCounters() {
+        var plan = explain("SELECT b.account_number, b.user_id, t.amount_minor, t.created_on FROM bankaccount b"
+                        + " JOIN transaction t ON t.account_number = b.account_number"
+                        + " WHERE t.type = 'withdrawal' AND t.created_on >= ?",
+                Timestamp.from(Instant.now()));
+
+        // Every account is read, but only the index range of its recent withdrawals, never the whole transaction table
+        assertTrue(plan.contains("IDX_TRANSACTION_ACCOUNT_TYPE_CREATED: ACCOUNT_NUMBER = B.ACCOUNT_NUMBER"), plan);
+        assertTrue(plan.contains("TYPE = 'withdrawal'"), plan);
+        assertTrue(plan.contains("CREATED_ON >= ?1"), plan);
+    }
+
+    // Scenario: The oldest transactions are read for archiving (TransactionArchive)
+    @Test
+    void should_readIndexInOrder_when_selectingColdTransactions() {
+        var plan = explain("SELECT id, account_number, amount_minor, currency, type, linked_transaction_id, created_on, reference FROM transaction"
+                        + " WHERE created_on < ? ORDER BY account_number, created_on DESC, id DESC FETCH FIRST 250000 ROWS ONLY",
+                Timestamp.from(Instant.now()));
+
+        // Read in index order and stopped at the chunk size, never sorted in memory
+        assertTrue(plan.contains("IDX_TRANSACTION_ACCOUNT_CREATED"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    // Scenario: The activity of an account over a date range is read from its rollups (AccountDailyRollupRepository.getActivity)
+    @Test
+    void should_usePrimaryKey_when_readingAccountActivity() {
+        var plan = explain("SELECT SUM(credit_minor), SUM(credit_count), SUM(debit_minor), SUM(debit_count)"
+                        + " FROM account_daily_rollup WHERE account_number = ? AND posting_date BETWEEN ? AND ?",
+                ACCOUNT_NUMBER, Date.valueOf("2026-01-01"), Date.valueOf("2026-01-31"));
+
+        assertUsesIndex(plan, "PRIMARY_KEY");
+        assertTrue(plan.contains("POSTING_DATE >= ?2"), plan);
+    }
+
+    // Scenario: The accounts of a user are listed (BankAccountRepository.findByUserId)
+    @Test
+    void should_useUserIndex_when_listingAccounts() {
+        var plan = explain("SELECT * FROM bankaccount WHERE user_id = ?", "usr-1");
+
+        assertUsesIndex(plan, "IDX_BANKACCOUNT_USER");
+    }
+
+    // Scenario: A user is deleted only if they have no accounts (UserRepository.deleteWithoutAccounts)
+    @Test
+    void should_useUserIndex_when_deletingUserWithoutAccounts() {
+        var plan = explain("DELETE FROM userdetail WHERE id = ?"
+                + " AND NOT EXISTS (SELECT 1 FROM bankaccount WHERE user_id = ?)", "usr-1", "usr-1");
+
+        assertUsesIndex(plan, "IDX_BANKACCOUNT_USER");
+    }
+
+    // Scenario: Idempotency keys older than the TTL are purged (IdempotencyKeyRepository.deleteCreatedBefore)
+    @Test
+    void should_useCreatedIndex_when_purgingIdempotencyKeys() {
+        var plan = explain("DELETE FROM idempotency_key WHERE created_on < ?", Timestamp.from(Instant.now()));
+
+        assertUsesIndex(plan, "IDX_IDEMPOTENCY_KEY_CREATED");
+    }
+
+    private String explain(String sql, Object... parameters) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.contains(index), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+}
@@ -0,0 +1,96 @@
+package com.barclays.testservice.service.account;
+
+import com.barclays.testservice.model.BankAccount;
+import com.barclays.testservice.repository.BankAccountRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccountCacheTest {
+
+    private static final String ACCOUNT_NUMBER = "01000001";
+    private static final String USER_ID = "usr-1";
+
+    private final BankAccountRepository bankAccountRepository = mock(BankAccountRepository.class);
+    private final AccountCache accountCache = new AccountCache(bankAccountRepository, 100, 100, 300);
+
+    // Scenario: An account is read repeatedly, after a posting only reads that need the balance load it again
+    @Test
+    void should_reloadOnlyBalanceReads_when_postingCommitted() {
+        // GIVEN
+        when(bankAccountRepository.findById(ACCOUNT_NUMBER))
+                .thenReturn(Optional.of(bankAccount(ACCOUNT_NUMBER, 1000L)))
+                .thenReturn(Optional.of(bankAccount(ACCOUNT_NUMBER, 1500L)));
+        assertEquals(1000L, accountCache.find(ACCOUNT_NUMBER).orElseThrow().getBalance());
+        assertEquals(1000L, accountCache.find(ACCOUNT_NUMBER).orElseThrow().getBalance());
+
+        // WHEN
+        accountCache.balancesChanged(List.of(ACCOUNT_NUMBER));
+
+        // THEN
+        assertEquals(USER_ID, accountCache.findIgnoringBalance(ACCOUNT_NUMBER).orElseThrow().getUserId());
+        verify(bankAccountRepository, times(1)).findById(ACCOUNT_NUMBER);
+
+        assertEquals(1500L, accountCache.find(ACCOUNT_NUMBER).orElseThrow().getBalance());
+        assertEquals(1500L, accountCache.find(ACCOUNT_NUMBER).orElseThrow().getBalance());
+        verify(bankAccountRepository, times(2)).findById(ACCOUNT_NUMBER);
+
+        var statistics = accountCache.accountStatistics();
+        assertEquals(1, statistics.misses());
+        assertEquals(4, statistics.hits());
+        assertEquals(1, statistics.balanceReloads());
+    }
+
+    // Scenario: A user's accounts are listed twice, the second time from the cache, and again once an account is created
+    @Test
+    void should_listAccountsFromCache_until_userInvalidated() {
+        // GIVEN
+        when(bankAccountRepository.findDetailsByUserId(USER_ID))
+                .thenReturn(List.of(AccountDetails.of(bankAccount(ACCOUNT_NUMBER, 1000L))))
+                .thenReturn(List.of(AccountDetails.of(bankAccount(ACCOUNT_NUMBER, 1000L)), AccountDetails.of(bankAccount("01000002", 0L))));
+
+        // WHEN-THEN
+        assertEquals(1, accountCache.findByUserId(USER_ID).size());
+        assertEquals(1, accountCache.findByUserId(USER_ID).size());
+        // The accounts read with the list are cached too
+        assertEquals(1000L, accountCache.find(ACCOUNT_NUMBER).orElseThrow().getBalance());
+        verify(bankAccountRepository, times(1)).findDetailsByUserId(USER_ID);
+        verify(bankAccountRepository, times(0)).findById(ACCOUNT_NUMBER);
+
+        accountCache.invalidateUser(USER_ID);
+        assertEquals(2, accountCache.findByUserId(USER_ID).size());
+        verify(bankAccountRepository, times(2)).findDetailsByUserId(USER_ID);
+    }
+
+    // Scenario: A caller changes the account it was given, the cached copy is not changed
+    @Test
+    void should_returnCopy_when_accountRead() {
+        // GIVEN
+        when(bankAccountRepository.findById(ACCOUNT_NUMBER)).thenReturn(Optional.of(bankAccount(ACCOUNT_NUMBER, 1000L)));
+
+        // WHEN
+        accountCache.find(ACCOUNT_NUMBER).orElseThrow().setBalance(0L);
+
+        // THEN
+        assertEquals(1000L, accountCache.find(ACCOUNT_NUMBER).orElseThrow().getBalance());
+    }
+
+    private static BankAccount bankAccount(String accountNumber, long balance) {
+        return BankAccount.builder()
+                .accountNumber(accountNumber)
+                .userId(USER_ID)
+                .name("USER ACCOUNT")
+                .accountType("personal")
+                .sortCode("10-10-10")
+                .balance(balance)
+                .currency("GBP")
+                .build();
+    }
+}
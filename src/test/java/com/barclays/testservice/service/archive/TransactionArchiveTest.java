@@ -0,0 +1,201 @@
+package com.barclays.testservice.service.archive;
+
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.TransactionSegmentRepository;
+import com.barclays.testservice.service.TransactionService;
+import com.barclays.testservice.service.paging.TransactionCursor;
+import com.barclays.testservice.service.paging.TransactionFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+    Moves transactions into segment files and reads them back. Segments are kept small
+    so every account spans several segments and blocks.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:transaction-archive-test;DB_CLOSE_DELAY=-1",
+        "transaction.archive.min-age-days=30",
+        "transaction.archive.segment-transactions=7",
+        "transaction.archive.block-transactions=2"
+})
+class TransactionArchiveTest {
+
+    @TempDir
+    static Path archiveDirectory;
+
+    @Autowired
+    private TransactionArchive transactionArchive;
+
+    @Autowired
+    private TransactionSegmentRepository transactionSegmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @DynamicPropertySource
+    static void archiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("transaction.archive.directory", () -> archiveDirectory.toString());
+    }
+
+    // Scenario: Transactions older than the minimum age are archived and read back newest first
+    @Test
+    void should_readArchivedTransactions_when_oldTransactionsArchived() {
+        // GIVEN
+        var accountNumber = "01100001";
+        var old = insertTransactions(accountNumber, "tan-A", 20, daysAgo(400));
+        var recent = insertTransactions(accountNumber, "tan-B", 3, daysAgo(1));
+
+        // WHEN
+        var archived = transactionArchive.archive();
+
+        // THEN
+        assertEquals(20, archived);
+        assertEquals(3, countTransactions(accountNumber));
+        assertEquals(ids(newestFirst(old)), ids(transactionArchive.findAll(accountNumber)));
+        for(var transaction : old) {
+            assertEquals(transaction.getAmount(), transactionArchive.find(accountNumber, transaction.getId()).orElseThrow().getAmount());
+        }
+        assertTrue(transactionArchive.find(accountNumber, "tan-A004x").isEmpty());
+        assertTrue(transactionArchive.find(accountNumber, recent.getFirst().getId()).isEmpty());
+        assertTrue(transactionArchive.find("01100002", old.get(4).getId()).isEmpty());
+        assertEquals(old.stream().mapToLong(Transaction::getAmount).sum(), archivedSum(accountNumber));
+        assertEquals(ids(newestFirst(old.stream().filter(transaction -> "REF-3".equals(transaction.getReference())).toList())),
+                ids(transactionArchive.findByReference(accountNumber, "REF-3")));
+    }
+
+    // Scenario: A page of archived transactions is read after a cursor, within a date range
+    @Test
+    void should_readArchivedPage_when_cursorAndFilterSupplied() {
+        // GIVEN
+        var accountNumber = "01100003";
+        var old = newestFirst(insertTransactions(accountNumber, "tan-C", 15, daysAgo(400)));
+        transactionArchive.archive();
+
+        var after = TransactionCursor.after(old.get(2));
+        var filter = TransactionFilter.between(old.get(10).getCreatedOn(), old.get(4).getCreatedOn());
+
+        // WHEN
+        var page = transactionArchive.findPage(accountNumber, filter, after, 4);
+
+        // THEN
+        assertEquals(ids(old.subList(5, 9)), ids(page));
+    }
+
+    // Scenario: The archive is reopened after a restart that left an unregistered segment behind
+    @Test
+    void should_deleteUnregisteredSegment_when_archiveReopened() throws Exception {
+        // GIVEN
+        var accountNumber = "01100004";
+        var old = insertTransactions(accountNumber, "tan-D", 9, daysAgo(400));
+        transactionArchive.archive();
+        var unregistered = Files.writeString(archiveDirectory.resolve("segment-99999999.seg"), "partial");
+
+        // WHEN
+        var reopened = new TransactionArchive(transactionSegmentRepository, jdbcTemplate, transactionTemplate,
+                archiveDirectory, false, 30, 7, 2, 60);
+        reopened.open();
+
+        // THEN
+        try {
+            assertFalse(Files.exists(unregistered));
+            assertEquals(ids(newestFirst(old)), ids(reopened.findAll(accountNumber)));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    // Scenario: A segment is registered while its transactions are still in the table, they are listed once
+    @Test
+    void should_listTransactionOnce_when_inTableAndArchive() {
+        // GIVEN
+        var accountNumber = "01100005";
+        jdbcTemplate.update("INSERT INTO bankaccount (account_number, user_id, name, account_type, sort_code, balance_minor, currency, version,"
+                + " created_on, last_updated_on) VALUES (?, 'usr-archive', 'TEST ACCOUNT', 'personal', '10-10-10', 0, 'GBP', 0,"
+                + " CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", accountNumber);
+        var old = insertTransactions(accountNumber, "tan-E", 9, daysAgo(400));
+        transactionArchive.archive();
+        insertTransactions(accountNumber, "tan-E", 3, daysAgo(400));
+        var recent = insertTransactions(accountNumber, "tan-F", 2, daysAgo(1));
+
+        // WHEN
+        try {
+            var listed = transactionService.getTransactionsByAccount(accountNumber, TransactionFilter.NONE, null, null, "usr-archive");
+
+            // THEN
+            var expected = new ArrayList<>(newestFirst(recent));
+            expected.addAll(newestFirst(old));
+            assertEquals(ids(expected), ids(listed.transactions()));
+        } finally {
+            // The other scenarios archive too, and would find the old rows again
+            jdbcTemplate.update("DELETE FROM transaction WHERE account_number = ?", accountNumber);
+        }
+    }
+
+    private List<Transaction> insertTransactions(String accountNumber, String idPrefix, int count, Instant from) {
+        var transactions = new ArrayList<Transaction>();
+        for(int i = 0; i < count; i++) {
+            transactions.add(Transaction.builder()
+                    .id(idPrefix + String.format("%03d", i))
+                    .accountNumber(accountNumber)
+                    .amount(100L * (i + 1))
+                    .currency("GBP")
+                    .type("deposit")
+                    .reference(i % 2 == 0 ? null : "REF-" + i % 5)
+                    .createdOn(from.plus(Duration.ofHours(i)))
+                    .build());
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO transaction (id, account_number, amount_minor, currency, type, linked_transaction_id, created_on, reference)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                transactions.stream()
+                        .map(transaction -> new Object[] {transaction.getId(), transaction.getAccountNumber(), transaction.getAmount(),
+                                transaction.getCurrency(), transaction.getType(), null, Timestamp.from(transaction.getCreatedOn()),
+                                transaction.getReference()})
+                        .toList());
+        return transactions;
+    }
+
+    private long countTransactions(String accountNumber) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction WHERE account_number = ?", Long.class, accountNumber);
+    }
+
+    private long archivedSum(String accountNumber) {
+        return jdbcTemplate.queryForObject("SELECT sum_minor FROM account_archive_total WHERE account_number = ?", Long.class, accountNumber);
+    }
+
+    private static Instant daysAgo(int days) {
+        return Instant.now().minus(Duration.ofDays(days)).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private static List<Transaction> newestFirst(List<Transaction> transactions) {
+        return transactions.reversed();
+    }
+
+    private static List<String> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+}
@@ -0,0 +1,225 @@
+package com.barclays.testservice.service.balance;
+
+import com.barclays.testservice.BarclaysTestServiceApplication;
+import com.barclays.testservice.exception.BalanceUpdateConflictException;
+import com.barclays.testservice.exception.InsufficientFundsException;
+import com.barclays.testservice.model.BankAccount;
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.service.journal.JournalEntry;
+import com.barclays.testservice.service.journal.TransactionJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+    Every balance update mode under contention on one account: threads post deposits and
+    larger withdrawals, so funds checks fail often, while the balance row is sampled. The
+    balance must end as the opening balance plus exactly the postings that succeeded, with
+    a transaction row for each of them, and must never be seen below zero.
+ */
+class BalanceUpdateEngineTest {
+
+    private static final String ACCOUNT_NUMBER = "01000001";
+    private static final long OPENING_BALANCE = 10_000L;
+    private static final long DEPOSIT = 100L;
+    private static final long WITHDRAWAL = 250L;
+    private static final int THREADS = 8;
+    private static final int POSTINGS_PER_THREAD = 60;
+
+    @TempDir
+    Path journalDirectory;
+
+    // Scenario: Concurrent deposits and withdrawals are posted to one account
+    @ParameterizedTest
+    @ValueSource(strings = {"striped-lock", "optimistic", "conditional-update", "journal"})
+    void should_applyEveryPostingOnce_when_postingConcurrently(String mode) throws Exception {
+        try(var context = new SpringApplicationBuilder(BarclaysTestServiceApplication.class).run(
+                "--spring.datasource.url=jdbc:h2:mem:balance-update-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--transaction.balance-update.mode=" + mode,
+                "--transaction.journal.directory=" + journalDirectory,
+                "--withdrawal-limits.enabled=false",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN")) {
+            // GIVEN
+            var engine = context.getBean(BalanceUpdateEngine.class);
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+            context.getBean(BankAccountRepository.class).save(account());
+
+            var posted = new AtomicLong();
+            var postedCount = new AtomicLong();
+            var rejected = new AtomicLong();
+            var lowestSeen = new AtomicLong(OPENING_BALANCE);
+            var failure = new AtomicReference<Throwable>();
+            var ids = new AtomicLong();
+
+            // WHEN
+            var start = new CountDownLatch(1);
+            var done = new CountDownLatch(THREADS);
+            var threads = new ArrayList<Thread>();
+            for(int t = 0; t < THREADS; t++) {
+                threads.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                        for(int i = 0; i < POSTINGS_PER_THREAD; i++) {
+                            var deposit = ThreadLocalRandom.current().nextBoolean();
+                            var delta = deposit ? DEPOSIT : -WITHDRAWAL;
+                            var transaction = Transaction.builder()
+                                    .id("tan-test" + ids.incrementAndGet())
+                                    .accountNumber(ACCOUNT_NUMBER)
+                                    .amount(Math.abs(delta))
+                                    .currency("GBP")
+                                    .type(deposit ? "deposit" : "withdrawal")
+                                    .build();
+                            try {
+                                engine.post(transaction, delta);
+                                posted.addAndGet(delta);
+                                postedCount.incrementAndGet();
+                            } catch (InsufficientFundsException | BalanceUpdateConflictException e) {
+                                rejected.incrementAndGet();
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        done.countDown();
+                    }
+                }));
+            }
+
+            start.countDown();
+            while(done.getCount() > 0) {
+                lowestSeen.accumulateAndGet(balance(jdbcTemplate), Math::min);
+                Thread.sleep(1);
+            }
+            for(var thread : threads) {
+                thread.join();
+            }
+
+            // THEN
+            assertNull(failure.get());
+            assertTrue(rejected.get() > 0, "the funds check was never exercised");
+
+            // The journal mode applies postings to the tables in the background
+            var deadline = System.nanoTime() + 10_000_000_000L;
+            while(transactionCount(jdbcTemplate) < postedCount.get() && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(postedCount.get(), transactionCount(jdbcTemplate));
+            assertEquals(OPENING_BALANCE + posted.get(), balance(jdbcTemplate));
+            assertTrue(lowestSeen.get() >= 0, "balance seen at " + lowestSeen.get());
+        }
+    }
+
+    // Scenario: An account is deleted after a posting to it was journaled, the posting is dead-lettered
+    @Test
+    void should_deadLetterLeg_when_accountDeletedBeforeApplied() throws Exception {
+        try(var context = new SpringApplicationBuilder(BarclaysTestServiceApplication.class).run(
+                "--spring.datasource.url=jdbc:h2:mem:balance-update-dead-letter;DB_CLOSE_DELAY=-1",
+                "--transaction.balance-update.mode=journal",
+                "--transaction.journal.directory=" + journalDirectory,
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=OFF")) {
+            // GIVEN
+            var journal = context.getBean(TransactionJournal.class);
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+            context.getBean(BankAccountRepository.class).save(account());
+
+            // WHEN
+            journal.awaitDurable(journal.append(List.of(
+                    new JournalEntry.Leg(ACCOUNT_NUMBER, DEPOSIT, List.of(deposit("tan-live", ACCOUNT_NUMBER))),
+                    new JournalEntry.Leg("01000002", DEPOSIT, List.of(deposit("tan-gone", "01000002"))))));
+
+            // THEN
+            var deadline = System.nanoTime() + 10_000_000_000L;
+            while(transactionCount(jdbcTemplate) == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(1, transactionCount(jdbcTemplate));
+            assertEquals(OPENING_BALANCE + DEPOSIT, balance(jdbcTemplate));
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction WHERE id = 'tan-gone'", Long.class));
+            var deadLetter = jdbcTemplate.queryForObject("SELECT lsn, entry FROM journal_dead_letter", (resultSet, rowNum) ->
+                    JournalEntry.decode(resultSet.getLong(1), resultSet.getBytes(2)));
+            assertEquals("01000002", deadLetter.legs().getFirst().accountNumber());
+            assertEquals(1, deadLetter.legs().size());
+        }
+    }
+
+    // Scenario: The journal mode refuses to start on a database that has hot accounts
+    @Test
+    void should_failStartup_when_journalModeWithHotAccounts() {
+        // GIVEN
+        var url = "--spring.datasource.url=jdbc:h2:mem:balance-update-hot;DB_CLOSE_DELAY=-1";
+        try(var context = new SpringApplicationBuilder(BarclaysTestServiceApplication.class).run(
+                url, "--server.port=0", "--spring.main.banner-mode=off", "--logging.level.root=WARN")) {
+            context.getBean(BankAccountRepository.class).save(account());
+            context.getBean(SubBalanceLedger.class).setSlots(account(), 4);
+        }
+
+        // WHEN-THEN
+        var e = assertThrows(Exception.class, () -> new SpringApplicationBuilder(BarclaysTestServiceApplication.class).run(
+                url,
+                "--transaction.balance-update.mode=journal",
+                "--transaction.journal.directory=" + journalDirectory,
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=OFF").close());
+        var cause = e;
+        while(!(cause instanceof IllegalStateException) && cause.getCause() instanceof Exception next) {
+            cause = next;
+        }
+        assertInstanceOf(IllegalStateException.class, cause);
+        assertTrue(cause.getMessage().contains("Hot accounts"), cause.getMessage());
+    }
+
+    private static BankAccount account() {
+        return BankAccount.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .userId("usr-1")
+                .name("CONTENDED ACCOUNT")
+                .accountType("personal")
+                .sortCode("10-10-10")
+                .balance(OPENING_BALANCE)
+                .currency("GBP")
+                .build();
+    }
+
+    private static Transaction deposit(String id, String accountNumber) {
+        return Transaction.builder()
+                .id(id)
+                .accountNumber(accountNumber)
+                .amount(DEPOSIT)
+                .currency("GBP")
+                .type("deposit")
+                .createdOn(Instant.now())
+                .build();
+    }
+
+    private static long balance(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT balance_minor FROM bankaccount WHERE account_number = ?", Long.class, ACCOUNT_NUMBER);
+    }
+
+    private static long transactionCount(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction WHERE account_number = ?", Long.class, ACCOUNT_NUMBER);
+    }
+}
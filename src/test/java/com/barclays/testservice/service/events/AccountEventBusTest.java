@@ -0,0 +1,156 @@
+package com.barclays.testservice.service.events;
+
+import com.barclays.testservice.model.BankAccount;
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.repository.SubBalanceRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/*
+    Fan-out to subscribers, without a Spring context: the slow subscriber is a sink
+    that blocks on its first send until released.
+ */
+class AccountEventBusTest {
+
+    private static final String ACCOUNT_NUMBER = "01000001";
+    private static final int BUFFER_SIZE = 2;
+
+    // Scenario: A subscriber that stops reading is dropped, without holding up publishing or other subscribers
+    @Test
+    void should_dropSubscriber_when_bufferFull() throws Exception {
+        // GIVEN
+        var bankAccountRepository = mock(BankAccountRepository.class);
+        when(bankAccountRepository.findById(ACCOUNT_NUMBER)).thenReturn(Optional.of(BankAccount.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .balance(100L)
+                .build()));
+        var accountEventBus = new AccountEventBus(bankAccountRepository, mock(SubBalanceRepository.class), BUFFER_SIZE, 15);
+
+        var release = new CountDownLatch(1);
+        var slow = new RecordingSink(release);
+        var fast = new RecordingSink(null);
+        accountEventBus.subscribe(ACCOUNT_NUMBER, slow);
+        accountEventBus.subscribe(ACCOUNT_NUMBER, fast);
+
+        // WHEN
+        for(int i = 0; i < BUFFER_SIZE + 1; i++) {
+            accountEventBus.publish(List.of(transaction("tan-" + i)));
+            awaitPosted(fast, i + 1);
+        }
+        release.countDown();
+
+        // THEN
+        assertTrue(slow.closed.await(5, TimeUnit.SECONDS));
+        assertEquals(new AccountEvent.BalanceChanged(ACCOUNT_NUMBER, 100L), slow.events.getFirst());
+        assertEquals(new AccountEvent.Overflowed(ACCOUNT_NUMBER), slow.events.getLast());
+
+        assertEquals(BUFFER_SIZE + 1, fast.posted());
+        assertEquals(1, fast.closed.getCount());
+    }
+
+    // Scenario: Several subscribers of an account are sent its new balance, which is read once
+    @Test
+    void should_readBalanceOnce_when_postingsSentToSubscribers() throws Exception {
+        // GIVEN
+        var subscribers = 3;
+        var bankAccountRepository = mock(BankAccountRepository.class);
+        when(bankAccountRepository.findById(ACCOUNT_NUMBER)).thenReturn(
+                account(100L), account(100L), account(100L), account(300L));
+        var accountEventBus = new AccountEventBus(bankAccountRepository, mock(SubBalanceRepository.class), BUFFER_SIZE, 15);
+
+        var sinks = new ArrayList<RecordingSink>();
+        for(int i = 0; i < subscribers; i++) {
+            var sink = new RecordingSink(null);
+            accountEventBus.subscribe(ACCOUNT_NUMBER, sink);
+            awaitEvents(sink, 1);
+            sinks.add(sink);
+        }
+
+        // WHEN
+        accountEventBus.publish(List.of(transaction("tan-0")));
+
+        // THEN
+        for(var sink : sinks) {
+            awaitEvents(sink, 3);
+            assertEquals(new AccountEvent.BalanceChanged(ACCOUNT_NUMBER, 300L), sink.events.getLast());
+        }
+        verify(bankAccountRepository, times(subscribers + 1)).findById(ACCOUNT_NUMBER);
+    }
+
+    private static void awaitEvents(RecordingSink sink, int count) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(sink.events.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitPosted(RecordingSink sink, int count) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(sink.posted() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static Optional<BankAccount> account(long balance) {
+        return Optional.of(BankAccount.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .balance(balance)
+                .build());
+    }
+
+    private static Transaction transaction(String id) {
+        return Transaction.builder()
+                .id(id)
+                .accountNumber(ACCOUNT_NUMBER)
+                .amount(100L)
+                .currency("GBP")
+                .type("deposit")
+                .build();
+    }
+
+    private static final class RecordingSink implements AccountEventSink {
+
+        private final CountDownLatch release;
+        private final List<AccountEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        private RecordingSink(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(AccountEvent event) {
+            if(release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            events.add(event);
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        private long posted() {
+            return events.stream().filter(AccountEvent.Posted.class::isInstance).count();
+        }
+    }
+}
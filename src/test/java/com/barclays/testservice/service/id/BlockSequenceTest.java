@@ -0,0 +1,92 @@
+package com.barclays.testservice.service.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+    The database sequence is stood in for by a counter stepping by the block size, as
+    NEXTVAL does on a sequence defined with INCREMENT BY the block size
+ */
+class BlockSequenceTest {
+
+    private static final int BLOCK_SIZE = 7;
+
+    // Scenario: Values are taken from one block, then the next
+    @Test
+    void should_handOutBlocksInOrder_when_takenOneThread() {
+        // GIVEN
+        var refills = new AtomicInteger();
+        var sequence = sequence(refills);
+
+        // WHEN
+        var values = LongStream.range(0, 3 * BLOCK_SIZE).map(i -> sequence.next()).toArray();
+
+        // THEN
+        assertArrayEquals(LongStream.rangeClosed(1, 3 * BLOCK_SIZE).toArray(), values);
+        assertEquals(3, refills.get());
+    }
+
+    // Scenario: Many threads take values at once, crossing block boundaries all the time
+    @Test
+    void should_handOutEveryValueOnce_when_takenConcurrently() throws Exception {
+        // GIVEN
+        var threads = 16;
+        var perThread = 20_000;
+        var refills = new AtomicInteger();
+        var sequence = sequence(refills);
+        var taken = new long[threads][perThread];
+
+        // WHEN
+        var start = new CountDownLatch(1);
+        var workers = new ArrayList<Thread>();
+        for(int t = 0; t < threads; t++) {
+            var values = taken[t];
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for(int i = 0; i < perThread; i++) {
+                    values[i] = sequence.next();
+                }
+            }));
+        }
+        start.countDown();
+        for(var worker : workers) {
+            worker.join();
+        }
+
+        // THEN
+        // No value twice, none skipped: only the end of the last block is left over
+        var all = Arrays.stream(taken).flatMapToLong(Arrays::stream).sorted().toArray();
+        var total = threads * perThread;
+        assertArrayEquals(LongStream.rangeClosed(1, total).toArray(), all);
+        assertEquals((total + BLOCK_SIZE - 1) / BLOCK_SIZE, refills.get());
+
+        // Each thread sees its own values in increasing order
+        for(var values : taken) {
+            for(int i = 1; i < values.length; i++) {
+                assertTrue(values[i] > values[i - 1], "value " + values[i] + " after " + values[i - 1]);
+            }
+        }
+    }
+
+    private static BlockSequence sequence(AtomicInteger refills) {
+        var nextVal = new AtomicLong(1);
+        return new BlockSequence(() -> {
+            refills.incrementAndGet();
+            return nextVal.getAndAdd(BLOCK_SIZE);
+        }, BLOCK_SIZE);
+    }
+}
@@ -0,0 +1,160 @@
+package com.barclays.testservice.service.id;
+
+import com.barclays.testservice.exception.AccountNumbersExhaustedException;
+import com.barclays.testservice.repository.AddressRepository;
+import com.barclays.testservice.repository.BankAccountRepository;
+import com.barclays.testservice.repository.TransactionRepository;
+import com.barclays.testservice.repository.UserRepository;
+import com.barclays.testservice.service.id.IdGenerator.TransactionIdParts;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdGeneratorTest {
+
+    // Largest values that fit the 9 timestamp and 8 sequence characters
+    private static final long MAX_MILLIS = (long) Math.pow(36, 9) - 1;
+    private static final long MAX_SEQUENCE = (long) Math.pow(36, 8) - 1;
+
+    // Scenario: Transaction ids are formatted and parsed back
+    @Test
+    void should_roundTripTransactionId_when_formattedAndParsed() {
+        var cases = List.of(
+                new TransactionIdParts(0, 0),
+                new TransactionIdParts(1_760_000_000_000L, 1),
+                new TransactionIdParts(1_760_000_000_000L, 123_456_789),
+                new TransactionIdParts(MAX_MILLIS, MAX_SEQUENCE));
+
+        for(var parts : cases) {
+            var id = IdGenerator.formatTransactionId(parts);
+
+            assertEquals(4 + 9 + 8, id.length(), id);
+            assertEquals(Optional.of(parts), IdGenerator.parseTransactionId(id));
+        }
+    }
+
+    // Scenario: Strings that formatTransactionId would not have produced are not parsed
+    @Test
+    void shouldNot_parseTransactionId_when_notFormattedByGenerator() {
+        var id = IdGenerator.formatTransactionId(new TransactionIdParts(1_760_000_000_000L, 42));
+
+        for(var invalid : new String[] {
+                null,
+                "",
+                "tan-123abc",
+                id + "0",
+                id.substring(0, id.length() - 1),
+                "trn-" + id.substring(4),
+                id.toUpperCase().replace("TAN-", "tan-"),
+                id.substring(0, id.length() - 1) + "!"}) {
+            assertEquals(Optional.empty(), IdGenerator.parseTransactionId(invalid), String.valueOf(invalid));
+        }
+    }
+
+    // Scenario: Ids sort as text in the order they were created, by time and then sequence
+    @Test
+    void should_sortInCreationOrder_when_comparedAsText() {
+        // GIVEN
+        var random = new Random(7);
+        var parts = new ArrayList<TransactionIdParts>();
+        for(int i = 0; i < 2_000; i++) {
+            // Millis close together, so equal timestamps and single character carries both occur
+            parts.add(new TransactionIdParts(1_760_000_000_000L + random.nextInt(50), random.nextLong(MAX_SEQUENCE + 1)));
+        }
+        parts.add(new TransactionIdParts(35, 0));
+        parts.add(new TransactionIdParts(36, 0));
+        parts.add(new TransactionIdParts(MAX_MILLIS, MAX_SEQUENCE));
+
+        // WHEN
+        var byParts = parts.stream()
+                .sorted(Comparator.comparingLong(TransactionIdParts::millis).thenComparingLong(TransactionIdParts::sequence))
+                .map(IdGenerator::formatTransactionId)
+                .toList();
+        var byText = parts.stream()
+                .map(IdGenerator::formatTransactionId)
+                .sorted()
+                .toList();
+
+        // THEN
+        assertEquals(byParts, byText);
+    }
+
+    // Scenario: New transaction ids increase across block boundaries and match the API's id pattern
+    @Test
+    void should_createIncreasingIdsMatchingApi_when_crossingBlocks() throws IOException {
+        // GIVEN
+        var transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.getNextSequenceValue()).thenReturn(1L, 3L, 5L, 7L);
+        var idGenerator = new IdGenerator(mock(UserRepository.class), mock(AddressRepository.class),
+                mock(BankAccountRepository.class), transactionRepository, 2, 2);
+        var patterns = transactionIdPatterns();
+
+        // WHEN
+        var ids = new ArrayList<String>();
+        for(int i = 0; i < 8; i++) {
+            ids.add(idGenerator.nextTransactionId());
+        }
+
+        // THEN
+        assertEquals(ids.stream().sorted().distinct().toList(), ids);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L),
+                ids.stream().map(id -> IdGenerator.parseTransactionId(id).orElseThrow().sequence()).toList());
+
+        assertFalse(patterns.isEmpty());
+        for(var pattern : patterns) {
+            ids.forEach(id -> assertTrue(pattern.matcher(id).matches(), id + " against " + pattern));
+        }
+    }
+
+    // Scenario: The account number sequence runs past 999999, account numbers stop there
+    @Test
+    void shouldNot_createAccountNumber_when_sequencePastLastNumber() {
+        // GIVEN
+        var bankAccountRepository = mock(BankAccountRepository.class);
+        when(bankAccountRepository.getNextSequenceValue()).thenReturn(999_998L, 1_000_000L);
+        var idGenerator = new IdGenerator(mock(UserRepository.class), mock(AddressRepository.class),
+                bankAccountRepository, mock(TransactionRepository.class), 100, 2);
+
+        // WHEN
+        var accountNumbers = List.of(idGenerator.nextAccountNumber(), idGenerator.nextAccountNumber());
+
+        // THEN
+        assertEquals(List.of("01999998", "01999999"), accountNumbers);
+        assertThrows(AccountNumbersExhaustedException.class, idGenerator::nextAccountNumber);
+    }
+
+    // Every pattern the OpenAPI spec declares for a transaction id
+    private static List<Pattern> transactionIdPatterns() throws IOException {
+        try(var spec = IdGeneratorTest.class.getResourceAsStream("/openapi.yaml")) {
+            var patterns = new ArrayList<Pattern>();
+            collectPatterns(new Yaml().load(spec), patterns);
+            return patterns;
+        }
+    }
+
+    private static void collectPatterns(Object node, List<Pattern> patterns) {
+        if(node instanceof Map<?, ?> map) {
+            if(map.get("pattern") instanceof String pattern && pattern.startsWith("^tan-")) {
+                patterns.add(Pattern.compile(pattern));
+            }
+            map.values().forEach(value -> collectPatterns(value, patterns));
+        } else if(node instanceof List<?> list) {
+            list.forEach(value -> collectPatterns(value, patterns));
+        }
+    }
+}
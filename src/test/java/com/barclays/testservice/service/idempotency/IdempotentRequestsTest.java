@@ -0,0 +1,190 @@
+package com.barclays.testservice.service.idempotency;
+
+import com.barclays.testservice.exception.IdempotencyKeyReusedException;
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.repository.IdempotencyKeyRepository;
+import com.barclays.testservice.repository.TransactionRepository;
+import com.barclays.testservice.service.balance.BalanceUpdateEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+    Requests post deposits through the (striped-lock) balance update engine. A second
+    IdempotentRequests stands in for another service instance, or the same one after a
+    restart: it shares only the database.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:idempotent-requests-test;DB_CLOSE_DELAY=-1")
+class IdempotentRequestsTest {
+
+    private static final String INSERT_ACCOUNT =
+            "INSERT INTO bankaccount (account_number, user_id, name, account_type, sort_code, balance_minor, currency, version, created_on, last_updated_on)"
+                    + " VALUES (?, 'usr-301', 'TEST ACCOUNT', 'personal', '10-10-10', 0, 'GBP', 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+
+    @Autowired
+    private IdempotentRequests idempotentRequests;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BalanceUpdateEngine balanceUpdateEngine;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Scenario: The service fails after posting but before the request completes, and the client retries
+    @Test
+    void should_rollBackPostingAndKey_when_requestFailsAfterPosting() {
+        // GIVEN
+        jdbcTemplate.update(INSERT_ACCOUNT, "01300001");
+        var hash = IdempotentRequests.requestHash("deposit", 500);
+
+        // WHEN
+        var e = assertThrows(IllegalStateException.class, () -> idempotentRequests.execute("usr-301", "01300001", "key-1", hash, () -> "tan-301",
+                transactionId -> {
+                    deposit(transactionId, "01300001", 500);
+                    throw new IllegalStateException("failed before the key was completed");
+                },
+                this::stored));
+
+        // THEN
+        assertEquals("failed before the key was completed", e.getMessage());
+        assertEquals(0, balance("01300001"));
+        assertFalse(transactionRepository.existsById("tan-301"));
+        assertFalse(idempotencyKeyRepository.existsById("usr-301:01300001:key-1"));
+
+        // The retry posts once, and is then answered from the key without allocating another id
+        var posted = idempotentRequests.execute("usr-301", "01300001", "key-1", hash, () -> "tan-302",
+                transactionId -> deposit(transactionId, "01300001", 500), this::stored);
+        var replayed = anotherInstance().execute("usr-301", "01300001", "key-1", hash, IdempotentRequestsTest::notAllocated,
+                transactionId -> deposit(transactionId, "01300001", 500), this::stored);
+        var replayedAgain = idempotentRequests.execute("usr-301", "01300001", "key-1", hash, IdempotentRequestsTest::notAllocated,
+                transactionId -> deposit(transactionId, "01300001", 500), this::stored);
+
+        assertEquals("tan-302", posted.getId());
+        assertEquals("tan-302", replayed.getId());
+        assertEquals("tan-302", replayedAgain.getId());
+        assertEquals(500, balance("01300001"));
+        assertEquals("tan-302", idempotencyKeyRepository.findById("usr-301:01300001:key-1").orElseThrow().getTransactionId());
+    }
+
+    // Scenario: A client sends a different request with a key it has already used
+    @Test
+    void should_rejectRequest_when_keyReusedForDifferentRequest() {
+        // GIVEN
+        jdbcTemplate.update(INSERT_ACCOUNT, "01300002");
+        idempotentRequests.execute("usr-301", "01300002", "key-2", IdempotentRequests.requestHash("deposit", 500), () -> "tan-311",
+                transactionId -> deposit(transactionId, "01300002", 500), this::stored);
+
+        // WHEN-THEN
+        var differentHash = IdempotentRequests.requestHash("deposit", 700);
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotentRequests.execute("usr-301", "01300002", "key-2", differentHash, () -> "tan-312",
+                transactionId -> deposit(transactionId, "01300002", 700), this::stored));
+        assertThrows(IdempotencyKeyReusedException.class, () -> anotherInstance().execute("usr-301", "01300002", "key-2", differentHash, () -> "tan-313",
+                transactionId -> deposit(transactionId, "01300002", 700), this::stored));
+        assertEquals(500, balance("01300002"));
+    }
+
+    // Scenario: Two instances receive the same request at once
+    @Test
+    void should_postOnce_when_sameKeyRunsConcurrentlyOnAnotherInstance() throws Exception {
+        // GIVEN
+        jdbcTemplate.update(INSERT_ACCOUNT, "01300003");
+        var hash = IdempotentRequests.requestHash("deposit", 500);
+        var other = new AtomicReference<CompletableFuture<Transaction>>();
+
+        // WHEN
+        var posted = idempotentRequests.execute("usr-301", "01300003", "key-3", hash, () -> "tan-321", transactionId -> {
+            // The other instance inserts the same key while this request's key is not yet committed
+            other.set(CompletableFuture.supplyAsync(() -> anotherInstance().execute("usr-301", "01300003", "key-3", hash, () -> "tan-322",
+                    otherTransactionId -> deposit(otherTransactionId, "01300003", 500), this::stored)));
+            sleep(300);
+            return deposit(transactionId, "01300003", 500);
+        }, this::stored);
+
+        // THEN
+        assertEquals("tan-321", posted.getId());
+        assertEquals("tan-321", other.get().get(10, TimeUnit.SECONDS).getId());
+        assertEquals(500, balance("01300003"));
+        assertTrue(transactionRepository.existsById("tan-321"));
+        assertFalse(transactionRepository.existsById("tan-322"));
+    }
+
+    // Scenario: Keys older than the TTL are purged, and can then be used for a new request
+    @Test
+    void should_purgeKey_when_olderThanTtl() {
+        // GIVEN
+        jdbcTemplate.update(INSERT_ACCOUNT, "01300004");
+        var hash = IdempotentRequests.requestHash("deposit", 500);
+        transactionTemplate.executeWithoutResult(status -> {
+            idempotencyKeyRepository.insert("usr-301:01300004:key-4", "tan-331", hash, Instant.now().minus(2, ChronoUnit.HOURS));
+            idempotencyKeyRepository.insert("usr-301:01300004:key-5", "tan-332", hash, Instant.now());
+        });
+
+        // WHEN
+        var instance = anotherInstance();
+        instance.purgeExpired();
+
+        // THEN
+        assertFalse(idempotencyKeyRepository.existsById("usr-301:01300004:key-4"));
+        assertTrue(idempotencyKeyRepository.existsById("usr-301:01300004:key-5"));
+        var posted = instance.execute("usr-301", "01300004", "key-4", hash, () -> "tan-333",
+                transactionId -> deposit(transactionId, "01300004", 500), this::stored);
+        assertEquals("tan-333", posted.getId());
+    }
+
+    // A TTL of an hour
+    private IdempotentRequests anotherInstance() {
+        return new IdempotentRequests(idempotencyKeyRepository, transactionTemplate, 100, 60, 60);
+    }
+
+    private static String notAllocated() {
+        throw new AssertionError("A replay allocated a transaction id");
+    }
+
+    private Transaction deposit(String id, String accountNumber, long amount) {
+        return balanceUpdateEngine.post(Transaction.builder()
+                .id(id)
+                .accountNumber(accountNumber)
+                .amount(amount)
+                .currency("GBP")
+                .type("deposit")
+                .build(), amount);
+    }
+
+    private Transaction stored(String transactionId) {
+        return transactionRepository.findById(transactionId).orElseThrow();
+    }
+
+    private long balance(String accountNumber) {
+        return jdbcTemplate.queryForObject("SELECT balance_minor FROM bankaccount WHERE account_number = ?", Long.class, accountNumber);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.barclays.testservice.service.journal;
+
+import com.barclays.testservice.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+    The journal is opened on a temporary directory with 1 MB segments. Large entries carry
+    a long reference, so a few dozen of them are enough to roll segments.
+ */
+class TransactionJournalTest {
+
+    private static final int SEGMENT_SIZE_MB = 1;
+    private static final int LARGE_REFERENCE_LENGTH = 60_000;
+
+    @TempDir
+    Path directory;
+
+    private final List<TransactionJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() throws InterruptedException {
+        for(var journal : opened) {
+            journal.close();
+        }
+    }
+
+    // Scenario: Entries survive a restart and are replayed from after the checkpoint
+    @Test
+    void should_replayEntriesAfterCheckpoint_when_reopened() throws Exception {
+        // GIVEN
+        var journal = open();
+        for(int i = 1; i <= 5; i++) {
+            journal.awaitDurable(journal.append(legs("tan-" + i, i * 100L, "")));
+        }
+        close(journal);
+
+        // WHEN
+        var reopened = open();
+        var replayed = readAfter(reopened, 3);
+
+        // THEN
+        assertEquals(List.of(4L, 5L), replayed.stream().map(JournalEntry::lsn).toList());
+        var leg = replayed.getFirst().legs().getFirst();
+        assertEquals("01000001", leg.accountNumber());
+        assertEquals(400L, leg.delta());
+        assertEquals("tan-4", leg.transactions().getFirst().getId());
+        assertEquals(6L, reopened.append(legs("tan-6", 600L, "")));
+    }
+
+    // Scenario: A record damaged by a crash is dropped, and appending continues in its place
+    @Test
+    void should_truncateCorruptTail_when_reopened() throws Exception {
+        // GIVEN
+        var journal = open();
+        for(int i = 1; i <= 3; i++) {
+            journal.awaitDurable(journal.append(legs("tan-" + i, i * 100L, "reference " + i)));
+        }
+        close(journal);
+        // The last non-zero byte is the end of the third record's reference
+        flipLastByte(segmentFiles().getFirst());
+
+        // WHEN
+        var reopened = open();
+
+        // THEN
+        assertEquals(List.of(1L, 2L), readAfter(reopened, 0).stream().map(JournalEntry::lsn).toList());
+        reopened.awaitDurable(reopened.append(legs("tan-3b", 50L, "")));
+        close(reopened);
+
+        var replayed = readAfter(open(), 0);
+        assertEquals(List.of(1L, 2L, 3L), replayed.stream().map(JournalEntry::lsn).toList());
+        assertEquals("tan-3b", replayed.getLast().legs().getFirst().transactions().getFirst().getId());
+    }
+
+    // Scenario: A record cut short by a crash is dropped
+    @Test
+    void should_truncateTornTail_when_reopened() throws Exception {
+        // GIVEN
+        var journal = open();
+        journal.awaitDurable(journal.append(legs("tan-1", 100L, "")));
+        journal.awaitDurable(journal.append(legs("tan-2", 200L, "x".repeat(1_000))));
+        close(journal);
+        // Only the start of the second record reached the disk
+        var segment = segmentFiles().getFirst();
+        var bytes = Files.readAllBytes(segment);
+        var end = lastNonZero(bytes) + 1;
+        Arrays.fill(bytes, end - 500, end, (byte) 0);
+        Files.write(segment, bytes);
+
+        // WHEN
+        var reopened = open();
+
+        // THEN
+        assertEquals(List.of(1L), readAfter(reopened, 0).stream().map(JournalEntry::lsn).toList());
+        assertEquals(2L, reopened.append(legs("tan-2b", 200L, "")));
+    }
+
+    // Scenario: Appends roll over into new segments, and applied segments are deleted
+    @Test
+    void should_rollAndReleaseSegments_when_segmentsFill() throws Exception {
+        // GIVEN
+        var journal = open();
+        var reference = "r".repeat(LARGE_REFERENCE_LENGTH);
+        long lastLsn = 0;
+        for(int i = 1; i <= 40; i++) {
+            lastLsn = journal.append(legs("tan-" + i, i, reference));
+        }
+        journal.awaitDurable(lastLsn);
+
+        // WHEN-THEN
+        var segments = segmentFiles();
+        assertTrue(segments.size() >= 3, "only " + segments.size() + " segments");
+        assertEquals(lsns(1, 40), readAfter(journal, 0).stream().map(JournalEntry::lsn).toList());
+
+        // Releasing up to the last entry of the first segment deletes just that segment
+        var secondFirstLsn = firstLsn(segments.get(1));
+        journal.release(secondFirstLsn - 2);
+        assertEquals(segments, segmentFiles());
+        journal.release(secondFirstLsn - 1);
+        assertEquals(segments.subList(1, segments.size()), segmentFiles());
+
+        assertEquals(lsns(secondFirstLsn, 40), readAfter(journal, secondFirstLsn - 1).stream().map(JournalEntry::lsn).toList());
+
+        // The remaining segments are found again on restart
+        close(journal);
+        var reopened = open();
+        assertEquals(lsns(secondFirstLsn + 5, 40), readAfter(reopened, secondFirstLsn + 4).stream().map(JournalEntry::lsn).toList());
+        assertEquals(41L, reopened.append(legs("tan-41", 41L, "")));
+    }
+
+    // Scenario: An entry that could never fit in a segment is rejected
+    @Test
+    void should_rejectEntry_when_largerThanSegment() throws Exception {
+        // GIVEN
+        var journal = open();
+        var transactions = IntStream.range(0, 20)
+                .mapToObj(i -> transaction("tan-" + i, "r".repeat(LARGE_REFERENCE_LENGTH)))
+                .toList();
+
+        // WHEN-THEN
+        var e = assertThrows(IllegalArgumentException.class,
+                () -> journal.append(List.of(new JournalEntry.Leg("01000001", 20L, transactions))));
+        assertTrue(e.getMessage().contains("does not fit in a segment"), e.getMessage());
+
+        // Nothing was written and no segment was started for it
+        assertEquals(1, segmentFiles().size());
+        assertEquals(1L, journal.append(legs("tan-1", 1L, "")));
+    }
+
+    // Scenario: A writer waiting for its entry to become durable is told the flush failed
+    @Test
+    void should_failAwaitDurable_when_flushFails() throws Exception {
+        // GIVEN
+        var journal = new TransactionJournal(directory.toString(), SEGMENT_SIZE_MB, 0) {
+            @Override
+            void force(MappedByteBuffer target, int offset, int length) {
+                throw new UncheckedIOException(new IOException("disk gone"));
+            }
+        };
+        journal.open();
+        opened.add(journal);
+
+        // WHEN
+        var lsn = journal.append(legs("tan-1", 100L, ""));
+
+        // THEN
+        var e = assertThrows(UncheckedIOException.class, () -> journal.awaitDurable(lsn));
+        assertEquals("Journal flush failed", e.getCause().getMessage());
+        assertThrows(UncheckedIOException.class, () -> journal.append(legs("tan-2", 100L, "")));
+    }
+
+    private TransactionJournal open() throws IOException {
+        var journal = new TransactionJournal(directory.toString(), SEGMENT_SIZE_MB, 0);
+        journal.open();
+        opened.add(journal);
+        return journal;
+    }
+
+    private void close(TransactionJournal journal) throws InterruptedException {
+        opened.remove(journal);
+        journal.close();
+    }
+
+    private static List<Long> lsns(long from, long to) {
+        return LongStream.rangeClosed(from, to).boxed().toList();
+    }
+
+    private static List<JournalEntry> readAfter(TransactionJournal journal, long lsn) throws IOException {
+        var entries = new ArrayList<JournalEntry>();
+        journal.readAfter(lsn, entries::add);
+        return entries;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try(var files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static long firstLsn(Path segment) {
+        var name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length()));
+    }
+
+    private static void flipLastByte(Path segment) throws IOException {
+        var bytes = Files.readAllBytes(segment);
+        bytes[lastNonZero(bytes)] ^= 0x01;
+        Files.write(segment, bytes);
+    }
+
+    private static int lastNonZero(byte[] bytes) {
+        var i = bytes.length - 1;
+        while(bytes[i] == 0) {
+            i--;
+        }
+        return i;
+    }
+
+    private static List<JournalEntry.Leg> legs(String transactionId, long delta, String reference) {
+        return List.of(new JournalEntry.Leg("01000001", delta, List.of(transaction(transactionId, reference))));
+    }
+
+    private static Transaction transaction(String id, String reference) {
+        var transaction = Transaction.builder()
+                .id(id)
+                .accountNumber("01000001")
+                .amount(100L)
+                .currency("GBP")
+                .type("deposit")
+                .build();
+        transaction.setCreatedOn(Instant.parse("2026-01-01T00:00:00Z"));
+        transaction.setReference(reference.isEmpty() ? null : reference);
+        return transaction;
+    }
+}
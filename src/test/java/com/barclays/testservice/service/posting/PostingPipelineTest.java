@@ -0,0 +1,98 @@
+package com.barclays.testservice.service.posting;
+
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.service.balance.BalanceUpdateEngine;
+import com.barclays.testservice.service.balance.SubBalanceLedger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:posting-pipeline-test;DB_CLOSE_DELAY=-1")
+class PostingPipelineTest {
+
+    private static final String INSERT_ACCOUNT =
+            "INSERT INTO bankaccount (account_number, user_id, name, account_type, sort_code, balance_minor, currency, version, created_on, last_updated_on)"
+                    + " VALUES (?, 'usr-301', 'TEST ACCOUNT', 'personal', '10-10-10', ?, 'GBP', 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+    private static final String INSERT_PENDING =
+            "INSERT INTO pending_posting (id, account_number, amount_minor, currency, type, reference) VALUES (?, ?, ?, 'GBP', ?, NULL)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BalanceUpdateEngine balanceUpdateEngine;
+
+    @Autowired
+    private SubBalanceLedger subBalanceLedger;
+
+    @Autowired
+    private PostingPipeline postingPipeline;
+
+    // Scenario: The service restarts with accepted postings not yet posted, they are posted once on startup
+    @Test
+    void should_postPendingPostings_when_restarted() throws Exception {
+        // GIVEN
+        jdbcTemplate.update(INSERT_ACCOUNT, "01300001", 1000L);
+        // Posted just before the restart, its row not deleted yet
+        jdbcTemplate.update("INSERT INTO transaction (id, account_number, amount_minor, currency, type, created_on) VALUES (?, ?, ?, 'GBP', ?, ?)",
+                "tan-3001", "01300001", 1000L, "deposit", Timestamp.from(Instant.now()));
+        jdbcTemplate.update(INSERT_PENDING, "tan-3001", "01300001", 1000L, "deposit");
+        jdbcTemplate.update(INSERT_PENDING, "tan-3002", "01300001", 250L, "deposit");
+        jdbcTemplate.update(INSERT_PENDING, "tan-3003", "01300001", 100L, "withdrawal");
+
+        // WHEN
+        var restarted = new PostingPipeline(balanceUpdateEngine, subBalanceLedger, jdbcTemplate, 2, 10, 16);
+        restarted.start();
+
+        // THEN
+        try {
+            awaitNoPendingPostings();
+            assertEquals(1150L, jdbcTemplate.queryForObject("SELECT balance_minor FROM bankaccount WHERE account_number = ?",
+                    Long.class, "01300001"));
+            assertEquals(3L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction WHERE account_number = ?",
+                    Long.class, "01300001"));
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    // Scenario: A posting is accepted, its row is kept until it has been posted
+    @Test
+    void should_deletePendingPosting_when_posted() throws Exception {
+        // GIVEN
+        jdbcTemplate.update(INSERT_ACCOUNT, "01300002", 0L);
+
+        // WHEN
+        var status = postingPipeline.submit(Transaction.builder()
+                .id("tan-3004")
+                .accountNumber("01300002")
+                .amount(500L)
+                .currency("GBP")
+                .type("deposit")
+                .build());
+
+        // THEN
+        assertEquals(PostingStatus.State.PENDING, status.state());
+        awaitNoPendingPostings();
+        assertEquals(500L, jdbcTemplate.queryForObject("SELECT balance_minor FROM bankaccount WHERE account_number = ?",
+                Long.class, "01300002"));
+    }
+
+    private void awaitNoPendingPostings() throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(System.nanoTime() < deadline) {
+            if(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pending_posting", Long.class) == 0) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Pending postings were not posted");
+    }
+}
@@ -0,0 +1,72 @@
+package com.barclays.testservice.service.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+    The bucket is driven with explicit times, one token every 100ms
+ */
+class TokenBucketTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // Scenario: A burst is admitted at once, then requests are admitted at the sustained rate
+    @Test
+    void should_admitBurstThenRate_when_requestsArriveTogether() {
+        // GIVEN
+        var bucket = new TokenBucket(RateLimit.of(10, 3, 10));
+        var now = System.nanoTime();
+
+        // WHEN-THEN
+        for(int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(now));
+            bucket.release();
+        }
+        assertEquals(INTERVAL, bucket.tryAcquire(now));
+        assertEquals(INTERVAL / 2, bucket.tryAcquire(now + INTERVAL / 2));
+
+        assertEquals(0, bucket.tryAcquire(now + INTERVAL));
+        bucket.release();
+        assertTrue(bucket.tryAcquire(now + INTERVAL) > 0);
+
+        // Idle for longer than the burst takes to refill, the bucket is full again but no fuller
+        var later = now + 10 * INTERVAL;
+        for(int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(later));
+            bucket.release();
+        }
+        assertEquals(INTERVAL, bucket.tryAcquire(later));
+        assertEquals(0, bucket.inFlight());
+    }
+
+    // Scenario: Requests beyond max-in-flight are turned away until one completes, without spending tokens
+    @Test
+    void should_rejectRequest_when_tooManyInFlight() {
+        // GIVEN
+        var limit = RateLimit.of(10, 5, 2);
+        var bucket = new TokenBucket(limit);
+        var now = System.nanoTime();
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+
+        // WHEN-THEN
+        assertEquals(limit.busyRetryNanos(), bucket.tryAcquire(now));
+        assertEquals(2, bucket.inFlight());
+
+        bucket.release();
+        assertEquals(0, bucket.tryAcquire(now));
+        bucket.release();
+        bucket.release();
+
+        // Two more of the burst of five are left
+        for(int i = 0; i < 2; i++) {
+            assertEquals(0, bucket.tryAcquire(now));
+            bucket.release();
+        }
+        assertEquals(INTERVAL, bucket.tryAcquire(now));
+    }
+}
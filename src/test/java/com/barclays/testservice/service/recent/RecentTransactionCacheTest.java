@@ -0,0 +1,134 @@
+package com.barclays.testservice.service.recent;
+
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.service.events.CommittedPostings;
+import com.barclays.testservice.service.id.IdGenerator;
+import com.barclays.testservice.service.id.IdGenerator.TransactionIdParts;
+import com.barclays.testservice.service.paging.TransactionCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+    Loads accounts from the transaction table and keeps them up to date from postings.
+    Rows inserted without record are never seen by a loaded account, which shows reads
+    are answered from memory.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:recent-transaction-cache-test;DB_CLOSE_DELAY=-1",
+        "transaction.recent-cache.transactions-per-account=4"
+})
+class RecentTransactionCacheTest {
+
+    private static final Instant NOW = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+    private static long sequence;
+
+    @Autowired
+    private RecentTransactionCache recentTransactionCache;
+
+    @Autowired
+    private CommittedPostings committedPostings;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        recentTransactionCache.invalidateAll();
+    }
+
+    // Scenario: A short history is read from memory once loaded, and postings are added when they commit
+    @Test
+    void should_readFromMemory_when_accountLoaded() {
+        // GIVEN
+        var accountNumber = "01200001";
+        var history = insert(transactions(accountNumber, 3));
+        assertEquals(ids(history.reversed()), ids(recentTransactionCache.findAll(accountNumber).orElseThrow()));
+
+        insert(transactions(accountNumber, 1));
+
+        // WHEN
+        var posted = transactions(accountNumber, 1);
+        transactionTemplate.executeWithoutResult(status -> {
+            insert(posted);
+            committedPostings.record(posted);
+        });
+        var rolledBack = transactions(accountNumber, 1);
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            insert(rolledBack);
+            committedPostings.record(rolledBack);
+            throw new IllegalStateException();
+        }));
+
+        // THEN
+        var expected = new ArrayList<>(ids(posted));
+        expected.addAll(ids(history.reversed()));
+        assertEquals(expected, ids(recentTransactionCache.findAll(accountNumber).orElseThrow()));
+        assertEquals(posted.getFirst().getId(), recentTransactionCache.find(accountNumber, posted.getFirst().getId()).orElseThrow().getId());
+        assertTrue(recentTransactionCache.find(accountNumber, rolledBack.getFirst().getId()).isEmpty());
+    }
+
+    // Scenario: Only pages within the newest transactions-per-account are answered for a long history
+    @Test
+    void should_answerNewestPagesOnly_when_historyLongerThanCache() {
+        // GIVEN
+        var accountNumber = "01200002";
+        var newestFirst = insert(transactions(accountNumber, 6)).reversed();
+
+        // WHEN-THEN
+        assertTrue(recentTransactionCache.findAll(accountNumber).isEmpty());
+        assertEquals(ids(newestFirst.subList(0, 4)), ids(recentTransactionCache.findPage(accountNumber, null, 4).orElseThrow()));
+        assertEquals(ids(newestFirst.subList(1, 3)),
+                ids(recentTransactionCache.findPage(accountNumber, TransactionCursor.after(newestFirst.getFirst()), 2).orElseThrow()));
+        assertTrue(recentTransactionCache.findPage(accountNumber, TransactionCursor.after(newestFirst.get(1)), 3).isEmpty());
+        assertTrue(recentTransactionCache.findPage(accountNumber, null, 5).isEmpty());
+        assertTrue(recentTransactionCache.find(accountNumber, newestFirst.getLast().getId()).isEmpty());
+    }
+
+    private List<Transaction> transactions(String accountNumber, int count) {
+        var transactions = new ArrayList<Transaction>();
+        for(int i = 0; i < count; i++) {
+            sequence++;
+            transactions.add(Transaction.builder()
+                    .id(IdGenerator.formatTransactionId(new TransactionIdParts(NOW.toEpochMilli(), sequence)))
+                    .accountNumber(accountNumber)
+                    .amount(100L * sequence)
+                    .currency("GBP")
+                    .type(sequence % 2 == 0 ? "withdrawal" : "deposit")
+                    .createdOn(NOW.plus(sequence, ChronoUnit.MICROS))
+                    .build());
+        }
+        return transactions;
+    }
+
+    private List<Transaction> insert(List<Transaction> transactions) {
+        jdbcTemplate.batchUpdate("INSERT INTO transaction (id, account_number, amount_minor, currency, type, linked_transaction_id, created_on)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?)",
+                transactions.stream()
+                        .map(transaction -> new Object[] {transaction.getId(), transaction.getAccountNumber(), transaction.getAmount(),
+                                transaction.getCurrency(), transaction.getType(), null, Timestamp.from(transaction.getCreatedOn())})
+                        .toList());
+        return transactions;
+    }
+
+    private static List<String> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+}
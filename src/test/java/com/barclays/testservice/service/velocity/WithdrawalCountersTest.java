@@ -0,0 +1,106 @@
+package com.barclays.testservice.service.velocity;
+
+import com.barclays.testservice.service.balance.StripedLocks;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/*
+    The counters are driven with explicit times, starting on a whole hour
+ */
+class WithdrawalCountersTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long START = 1_000 * HOUR;
+
+    // Scenario: Withdrawals leave the hourly count after an hour and the daily amount after a day
+    @Test
+    void should_slideWindows_when_timePasses() {
+        // GIVEN
+        var counters = new WithdrawalCounters(64, 4, 10 * MINUTE);
+        counters.record(counters.slot("01000001", START), START, 500, 1);
+        counters.record(counters.slot("01000001", START + 30 * MINUTE), START + 30 * MINUTE, 700, 1);
+
+        // WHEN-THEN
+        var slot = counters.slot("01000001", START + 59 * MINUTE);
+        assertEquals(1200, counters.amountInDay(slot));
+        assertEquals(2, counters.countInHour(slot));
+
+        slot = counters.slot("01000001", START + 65 * MINUTE);
+        assertEquals(1200, counters.amountInDay(slot));
+        assertEquals(1, counters.countInHour(slot));
+
+        slot = counters.slot("01000001", START + 23 * HOUR + 59 * MINUTE);
+        assertEquals(1200, counters.amountInDay(slot));
+        assertEquals(0, counters.countInHour(slot));
+
+        slot = counters.slot("01000001", START + 25 * HOUR);
+        assertEquals(0, counters.amountInDay(slot));
+
+        // A withdrawal taken away again, and one from before the window, change nothing
+        counters.record(slot, START + 25 * HOUR, 300, 1);
+        counters.cancel("01000001", START + 25 * HOUR, START + 25 * HOUR, 300);
+        counters.record(slot, START, 900, 1);
+        assertEquals(0, counters.amountInDay(slot));
+        assertEquals(0, counters.countInHour(slot));
+        assertEquals(0, counters.amountInDay(counters.slot("01000002", START + 25 * HOUR)));
+    }
+
+    // Scenario: A burst of withdrawals scores higher than the same number spread over the hour
+    @Test
+    void should_decayVelocityScore_when_withdrawalsAge() {
+        // GIVEN
+        var counters = new WithdrawalCounters(64, 4, 10 * MINUTE);
+        var burst = counters.slot("usr-1", START + 55 * MINUTE);
+        var spread = counters.slot("usr-2", START + 55 * MINUTE);
+        for(int i = 0; i < 4; i++) {
+            counters.record(burst, START + 55 * MINUTE, 100, 1);
+            counters.record(spread, START + i * 20 * MINUTE - 5 * MINUTE, 100, 1);
+        }
+
+        // WHEN-THEN
+        assertEquals(4.0, counters.velocityScore(burst), 1e-9);
+        assertEquals(1.0 + 0.25 + 0.0625, counters.velocityScore(spread), 1e-9);
+
+        // Ten minutes on, the burst counts half
+        burst = counters.slot("usr-1", START + 65 * MINUTE);
+        assertEquals(2.0, counters.velocityScore(burst), 1e-9);
+    }
+
+    // Scenario: More keys of one lock stripe withdraw than it has slots, the extra key gets none until a slot expires
+    @Test
+    void shouldNot_claimSlot_when_stripeFull() {
+        // GIVEN
+        var counters = new WithdrawalCounters(4, 2, 10 * MINUTE);
+        var stripes = new StripedLocks(2);
+        var keys = IntStream.range(0, 100)
+                .mapToObj(i -> "key-" + i)
+                .filter(key -> stripes.stripeOf(key) == 0)
+                .limit(3)
+                .toList();
+        for(int i = 0; i < 2; i++) {
+            var at = START + i * 5 * MINUTE;
+            counters.record(counters.slot(keys.get(i), at), at, 100, 1);
+        }
+
+        // WHEN
+        var at = START + 10 * MINUTE;
+        var slot = counters.slot(keys.get(2), at);
+
+        // THEN
+        assertEquals(WithdrawalCounters.NO_SLOT, slot);
+        assertEquals(1, counters.countInHour(counters.slot(keys.get(0), at)));
+        assertEquals(1, counters.countInHour(counters.slot(keys.get(1), at)));
+
+        // Once a day has passed without withdrawals the slots are free again
+        at = START + 25 * HOUR;
+        slot = counters.slot(keys.get(2), at);
+        assertNotEquals(WithdrawalCounters.NO_SLOT, slot);
+        assertEquals(0, counters.countInHour(slot));
+    }
+}
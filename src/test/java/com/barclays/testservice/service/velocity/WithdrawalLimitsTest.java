@@ -0,0 +1,144 @@
+package com.barclays.testservice.service.velocity;
+
+import com.barclays.testservice.exception.InsufficientFundsException;
+import com.barclays.testservice.exception.WithdrawalLimitExceededException;
+import com.barclays.testservice.model.Transaction;
+import com.barclays.testservice.service.posting.PostingPipeline;
+import com.barclays.testservice.service.posting.PostingStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/*
+    Limits of 10000 per day and 3 withdrawals an hour per account, 15000 per day per user,
+    velocity high enough not to apply
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:withdrawal-limits-test;DB_CLOSE_DELAY=-1")
+class WithdrawalLimitsTest {
+
+    private static final String INSERT_ACCOUNT =
+            "INSERT INTO bankaccount (account_number, user_id, name, account_type, sort_code, balance_minor, currency, version, created_on, last_updated_on)"
+                    + " VALUES (?, ?, 'TEST ACCOUNT', 'personal', '10-10-10', 0, 'GBP', 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transaction (id, account_number, amount_minor, currency, type, created_on) VALUES (?, ?, ?, 'GBP', ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PostingPipeline postingPipeline;
+
+    // Scenario: The service restarts, withdrawals made within the last day still count towards the limits
+    @Test
+    void should_countEarlierWithdrawals_when_rebuiltOnStartup() {
+        // GIVEN
+        jdbcTemplate.update(INSERT_ACCOUNT, "01200001", "usr-201");
+        jdbcTemplate.update(INSERT_ACCOUNT, "01200002", "usr-201");
+        var now = Instant.now();
+        insertTransaction("tan-201", "01200001", 6000, "withdrawal", now.minus(20, ChronoUnit.HOURS));
+        insertTransaction("tan-202", "01200001", 3000, "withdrawal", now.minus(10, ChronoUnit.MINUTES));
+        insertTransaction("tan-203", "01200001", 9000, "deposit", now.minus(5, ChronoUnit.MINUTES));
+        insertTransaction("tan-204", "01200001", 9000, "withdrawal", now.minus(25, ChronoUnit.HOURS));
+        insertTransaction("tan-205", "01200002", 4000, "withdrawal", now.minus(1, ChronoUnit.HOURS));
+
+        // WHEN
+        var withdrawalLimits = withdrawalLimits();
+        withdrawalLimits.rebuild();
+
+        // THEN
+        assertThrows(WithdrawalLimitExceededException.class, () -> withdraw(withdrawalLimits, "01200001", "usr-201", 1001));
+        assertEquals("posted", withdraw(withdrawalLimits, "01200001", "usr-201", 1000));
+        // The account has room for another 6000 today, its user only for another 1000
+        assertThrows(WithdrawalLimitExceededException.class, () -> withdraw(withdrawalLimits, "01200002", "usr-201", 1001));
+        assertEquals("posted", withdraw(withdrawalLimits, "01200002", "usr-201", 1000));
+    }
+
+    // Scenario: Withdrawals that fail are not counted, the hourly count still applies to the ones that post
+    @Test
+    void should_notCountWithdrawal_when_postingFails() {
+        // GIVEN
+        var withdrawalLimits = withdrawalLimits();
+        withdrawalLimits.rebuild();
+
+        // WHEN
+        for(int i = 0; i < 5; i++) {
+            assertThrows(InsufficientFundsException.class, () -> withdrawalLimits.withdraw("01200003", "usr-202", 100, () -> {
+                throw new InsufficientFundsException();
+            }));
+        }
+
+        // THEN
+        for(int i = 0; i < 3; i++) {
+            assertEquals("posted", withdraw(withdrawalLimits, "01200003", "usr-202", 100));
+        }
+        assertThrows(WithdrawalLimitExceededException.class, () -> withdraw(withdrawalLimits, "01200003", "usr-202", 100));
+    }
+
+    // Scenario: Queued withdrawals that the posting pipeline rejects are taken off the counts again
+    @Test
+    void should_notCountWithdrawal_when_queuedPostingRejected() throws Exception {
+        // GIVEN
+        jdbcTemplate.update(INSERT_ACCOUNT, "01200004", "usr-203");
+        var withdrawalLimits = withdrawalLimits();
+        withdrawalLimits.rebuild();
+
+        // WHEN
+        var submitted = new ArrayList<String>();
+        for(int i = 0; i < 3; i++) {
+            var transaction = Transaction.builder()
+                    .id("tan-2040" + i)
+                    .accountNumber("01200004")
+                    .amount(100L)
+                    .currency("GBP")
+                    .type("withdrawal")
+                    .createdOn(Instant.now())
+                    .build();
+            submitted.add(withdrawalLimits.withdrawLater("01200004", "usr-203", 100,
+                    refund -> postingPipeline.submit(transaction, refund)).transactionId());
+        }
+        for(var transactionId : submitted) {
+            awaitRejected(transactionId);
+        }
+
+        // THEN
+        for(int i = 0; i < 3; i++) {
+            assertEquals("posted", withdraw(withdrawalLimits, "01200004", "usr-203", 100));
+        }
+        assertThrows(WithdrawalLimitExceededException.class, () -> withdraw(withdrawalLimits, "01200004", "usr-203", 100));
+    }
+
+    private void awaitRejected(String transactionId) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(System.nanoTime() < deadline) {
+            var status = postingPipeline.getStatus(transactionId);
+            if(status.isPresent() && status.get().state() == PostingStatus.State.REJECTED) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError(transactionId + " was not rejected");
+    }
+
+    private WithdrawalLimits withdrawalLimits() {
+        return new WithdrawalLimits(jdbcTemplate, true,
+                10_000, 3, 100, 15_000, 100, 100, 10, 1024, 16);
+    }
+
+    private static String withdraw(WithdrawalLimits withdrawalLimits, String accountNumber, String userId, long amount) {
+        return withdrawalLimits.withdraw(accountNumber, userId, amount, () -> "posted");
+    }
+
+    private void insertTransaction(String id, String accountNumber, long amount, String type, Instant createdOn) {
+        jdbcTemplate.update(INSERT_TRANSACTION, id, accountNumber, amount, type, Timestamp.from(createdOn));
+    }
+}